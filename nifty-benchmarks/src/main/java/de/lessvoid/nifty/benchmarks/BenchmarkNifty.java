@@ -0,0 +1,103 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.NiftyInputConsumer;
+import de.lessvoid.nifty.builder.ElementBuilder;
+import de.lessvoid.nifty.builder.LayerBuilder;
+import de.lessvoid.nifty.builder.PanelBuilder;
+import de.lessvoid.nifty.builder.ScreenBuilder;
+import de.lessvoid.nifty.nulldevice.NullSoundDevice;
+import de.lessvoid.nifty.render.batch.BatchRenderDevice;
+import de.lessvoid.nifty.render.batch.HeadlessBatchRenderBackend;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.spi.input.InputSystem;
+import de.lessvoid.nifty.spi.time.impl.AccurateTimeProvider;
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Creates Nifty instances for the benchmarks. Nifty renders with a {@link BatchRenderDevice} on top of a
+ * {@link HeadlessBatchRenderBackend} so that the benchmarks run without any graphics API.
+ */
+public final class BenchmarkNifty {
+  public static final int SCREEN_WIDTH = 1024;
+  public static final int SCREEN_HEIGHT = 768;
+
+  // every panel in the generated trees has at most this many children
+  private static final int CHILDREN_PER_PANEL = 8;
+
+  private BenchmarkNifty() {
+  }
+
+  /**
+   * Create a new Nifty instance that doesn't need a display.
+   *
+   * @param rasterize true if the headless backend should rasterize the batches in software as well
+   * @return the new Nifty instance
+   */
+  @Nonnull
+  public static Nifty createNifty(final boolean rasterize) {
+    HeadlessBatchRenderBackend backend = new HeadlessBatchRenderBackend(SCREEN_WIDTH, SCREEN_HEIGHT, rasterize);
+    return new Nifty(
+        new BatchRenderDevice(backend),
+        new NullSoundDevice(),
+        new NullInputSystem(),
+        new AccurateTimeProvider());
+  }
+
+  /**
+   * Build a screen with a single layer that contains a tree of elementCount colored panels and start it.
+   *
+   * @param nifty the Nifty instance
+   * @param elementCount the number of panels in the tree
+   * @return the started screen
+   */
+  @Nonnull
+  public static Screen createScreen(@Nonnull final Nifty nifty, final int elementCount) {
+    LayerBuilder layer = new LayerBuilder("layer");
+    layer.childLayoutVertical();
+    int[] remaining = new int[] { elementCount };
+    while (remaining[0] > 0) {
+      layer.panel(createPanel(remaining, 0));
+    }
+
+    ScreenBuilder screenBuilder = new ScreenBuilder("benchmark");
+    screenBuilder.layer(layer);
+    Screen screen = screenBuilder.build(nifty);
+    nifty.gotoScreen("benchmark");
+    nifty.update();
+    nifty.render(true);
+    return screen;
+  }
+
+  // builds the panels depth first. every panel gets up to CHILDREN_PER_PANEL children and the tree is at most five
+  // levels deep, so the panels that are left over once the first subtree is full start a new subtree of the layer
+  @Nonnull
+  private static PanelBuilder createPanel(@Nonnull final int[] remaining, final int depth) {
+    remaining[0]--;
+    PanelBuilder panel = new PanelBuilder("panel-" + remaining[0]);
+    panel.childLayout(depth % 2 == 0 ? ElementBuilder.ChildLayoutType.Horizontal : ElementBuilder.ChildLayoutType.Vertical);
+    panel.backgroundColor(depth % 2 == 0 ? "#f008" : "#0f08");
+    panel.visibleToMouse();
+    panel.padding("1px");
+    for (int i = 0; i < CHILDREN_PER_PANEL && remaining[0] > 0 && depth < 4; i++) {
+      panel.panel(createPanel(remaining, depth + 1));
+    }
+    return panel;
+  }
+
+  private static class NullInputSystem implements InputSystem {
+    @Override
+    public void setResourceLoader(@Nonnull final NiftyResourceLoader niftyResourceLoader) {
+    }
+
+    @Override
+    public void forwardEvents(@Nonnull final NiftyInputConsumer inputEventConsumer) {
+    }
+
+    @Override
+    public void setMousePosition(final int x, final int y) {
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.elements.Element;
+import de.lessvoid.nifty.screen.Screen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full layout of a layer with {@link Element#layoutElements()} and an incremental layout after a single
+ * element has been changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+  @Param({"10", "100", "1000"})
+  public int elementCount;
+
+  private Nifty nifty;
+  private Screen screen;
+  private Element layer;
+  private Element leaf;
+
+  @Setup
+  public void setup() {
+    nifty = BenchmarkNifty.createNifty(false);
+    screen = BenchmarkNifty.createScreen(nifty, elementCount);
+    layer = screen.getLayerElements().get(0);
+    leaf = screen.findElementById("panel-0");
+  }
+
+  @Benchmark
+  public void fullLayout() {
+    layer.layoutElements();
+  }
+
+  @Benchmark
+  public void incrementalLayout() {
+    nifty.setIncrementalLayout(true);
+    leaf.markLayoutDirty();
+    screen.layoutLayers();
+  }
+}
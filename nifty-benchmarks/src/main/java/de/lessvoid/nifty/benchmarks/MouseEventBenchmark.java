@@ -0,0 +1,54 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.input.NiftyMouseInputEvent;
+import de.lessvoid.nifty.screen.Screen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the routing of mouse move events through a screen with {@link Screen#mouseEvent(NiftyMouseInputEvent)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MouseEventBenchmark {
+  @Param({"10", "100", "1000"})
+  public int elementCount;
+
+  @Param({"false", "true"})
+  public boolean mouseOverIndex;
+
+  private Screen screen;
+  private final NiftyMouseInputEvent event = new NiftyMouseInputEvent();
+  private int position;
+
+  @Setup
+  public void setup() {
+    Nifty nifty = BenchmarkNifty.createNifty(false);
+    nifty.setMouseOverIndexEnabled(mouseOverIndex);
+    screen = BenchmarkNifty.createScreen(nifty, elementCount);
+  }
+
+  @Benchmark
+  public boolean mouseMove() {
+    position = (position + 7) % BenchmarkNifty.SCREEN_HEIGHT;
+    event.initialize(position, position, 0, false, false, false);
+    return screen.mouseEvent(event);
+  }
+}
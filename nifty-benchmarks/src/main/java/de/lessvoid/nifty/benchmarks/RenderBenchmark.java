@@ -0,0 +1,52 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.Nifty;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a complete frame with {@link Nifty#render(boolean)}. The render device is a BatchRenderDevice on
+ * top of a HeadlessBatchRenderBackend that either only records the batches or rasterizes them in software as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+  @Param({"10", "100", "1000"})
+  public int elementCount;
+
+  @Param({"false", "true"})
+  public boolean rasterize;
+
+  @Param({"false", "true"})
+  public boolean retainedRendering;
+
+  private Nifty nifty;
+
+  @Setup
+  public void setup() {
+    nifty = BenchmarkNifty.createNifty(rasterize);
+    nifty.setRetainedRenderingEnabled(retainedRendering);
+    BenchmarkNifty.createScreen(nifty, elementCount);
+  }
+
+  @Benchmark
+  public void render() {
+    nifty.render(true);
+  }
+}
@@ -0,0 +1,87 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.elements.tools.TextBreak;
+import de.lessvoid.nifty.spi.render.RenderFont;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures wrapping a text with {@link TextBreak}. A font with a fixed character width is used so that only the
+ * line breaking itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TextBreakBenchmark {
+  @Param({"10", "100", "1000"})
+  public int wordCount;
+
+  @Param({"100", "400"})
+  public int width;
+
+  private final RenderFont font = new FixedWidthFont();
+  private String text;
+
+  @Setup
+  public void setup() {
+    String[] words = { "Nifty", "GUI", "is", "a", "Java", "library", "that", "supports", "building", "interactive" };
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < wordCount; i++) {
+      if (i > 0) {
+        builder.append(' ');
+      }
+      builder.append(words[i % words.length]);
+    }
+    text = builder.toString();
+  }
+
+  @Benchmark
+  public List<String> split() {
+    return new TextBreak(text, width, font).split();
+  }
+
+  private static class FixedWidthFont implements RenderFont {
+    private static final int CHARACTER_WIDTH = 8;
+
+    @Override
+    public int getWidth(@Nonnull final String text) {
+      return text.length() * CHARACTER_WIDTH;
+    }
+
+    @Override
+    public int getWidth(@Nonnull final String text, final float size) {
+      return (int) (text.length() * CHARACTER_WIDTH * size);
+    }
+
+    @Override
+    public int getHeight() {
+      return 16;
+    }
+
+    @Override
+    public int getCharacterAdvance(final char currentCharacter, final char nextCharacter, final float size) {
+      return (int) (CHARACTER_WIDTH * size);
+    }
+
+    @Override
+    public void dispose() {
+    }
+  }
+}
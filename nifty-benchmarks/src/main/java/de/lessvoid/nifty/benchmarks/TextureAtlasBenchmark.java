@@ -0,0 +1,83 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.render.batch.BinaryTreeAtlasPacker;
+import de.lessvoid.nifty.render.batch.MaxRectsAtlasPacker;
+import de.lessvoid.nifty.render.batch.TextureAtlasGenerator;
+import de.lessvoid.nifty.render.batch.TextureAtlasPacker;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filling a texture atlas with images of random sizes and removing and adding images again with the
+ * different {@link TextureAtlasPacker} implementations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TextureAtlasBenchmark {
+  private static final int ATLAS_SIZE = 2048;
+
+  @Param({"10", "100", "1000"})
+  public int imageCount;
+
+  @Param({"binaryTree", "maxRects"})
+  public String packer;
+
+  private int[] widths;
+  private int[] heights;
+  private TextureAtlasPacker.Factory packerFactory;
+
+  @Setup
+  public void setup() {
+    // fixed seed so that every run uses the same images
+    Random random = new Random(42);
+    widths = new int[imageCount];
+    heights = new int[imageCount];
+    for (int i = 0; i < imageCount; i++) {
+      widths[i] = 8 + random.nextInt(56);
+      heights[i] = 8 + random.nextInt(56);
+    }
+    packerFactory = "maxRects".equals(packer) ? MaxRectsAtlasPacker.FACTORY : BinaryTreeAtlasPacker.FACTORY;
+  }
+
+  @Benchmark
+  public TextureAtlasGenerator fillAtlas() {
+    TextureAtlasGenerator generator = createGenerator();
+    for (int i = 0; i < imageCount; i++) {
+      generator.addImage(widths[i], heights[i], "image-" + i);
+    }
+    return generator;
+  }
+
+  @Benchmark
+  public TextureAtlasGenerator fillRemoveAndRefill() {
+    TextureAtlasGenerator generator = fillAtlas();
+    for (int i = 0; i < imageCount; i += 2) {
+      generator.removeImage("image-" + i);
+    }
+    for (int i = 0; i < imageCount; i += 2) {
+      generator.addImage(heights[i], widths[i], "image-" + i);
+    }
+    return generator;
+  }
+
+  private TextureAtlasGenerator createGenerator() {
+    return new TextureAtlasGenerator(ATLAS_SIZE, ATLAS_SIZE, 2, 0.25f, packerFactory);
+  }
+}
@@ -0,0 +1,60 @@
+package de.lessvoid.nifty.benchmarks;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.loaderv2.types.NiftyType;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing a generated Nifty XML file with NiftyLoader.loadNiftyXml().
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class XmlLoadingBenchmark {
+  @Param({"10", "100", "1000"})
+  public int elementCount;
+
+  private Nifty nifty;
+  private byte[] xml;
+
+  @Setup
+  public void setup() throws UnsupportedEncodingException {
+    nifty = BenchmarkNifty.createNifty(false);
+    StringBuilder builder = new StringBuilder();
+    builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    builder.append("<nifty xmlns=\"http://nifty-gui.lessvoid.com/nifty-gui\">\n");
+    builder.append("  <screen id=\"start\">\n");
+    builder.append("    <layer id=\"layer\" childLayout=\"vertical\">\n");
+    for (int i = 0; i < elementCount; i++) {
+      builder.append("      <panel id=\"panel-").append(i).append("\" childLayout=\"horizontal\" ");
+      builder.append("backgroundColor=\"#f008\" height=\"10px\" width=\"100%\" visibleToMouse=\"true\"/>\n");
+    }
+    builder.append("    </layer>\n");
+    builder.append("  </screen>\n");
+    builder.append("</nifty>\n");
+    xml = builder.toString().getBytes("UTF-8");
+  }
+
+  @Benchmark
+  public NiftyType loadNiftyXml() throws Exception {
+    return nifty.getLoader().loadNiftyXml("nifty.nxs", new ByteArrayInputStream(xml));
+  }
+}
@@ -0,0 +1,143 @@
+package de.lessvoid.nifty.controls.listbox;
+
+import de.lessvoid.nifty.controls.ListBox;
+import de.lessvoid.nifty.controls.ListBoxSelectionChangedEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ListBoxImpl operations that depend on the number of items in the ListBox. This benchmark lives in the
+ * package of ListBoxImpl because ListBoxImpl is package private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ListBoxBenchmark {
+  private static final int DISPLAY_ITEM_COUNT = 20;
+
+  @Param({"10", "100", "1000"})
+  public int itemCount;
+
+  private List<String> items;
+  private ListBoxImpl<String> filledListBox;
+  private int index;
+
+  @Setup
+  public void setup() {
+    items = new ArrayList<String>();
+    for (int i = 0; i < itemCount; i++) {
+      items.add("item " + i);
+    }
+    filledListBox = createListBox();
+    filledListBox.addAllItems(items);
+  }
+
+  @Benchmark
+  public ListBoxImpl<String> addItems() {
+    ListBoxImpl<String> listBox = createListBox();
+    for (int i = 0; i < items.size(); i++) {
+      listBox.addItem(items.get(i));
+    }
+    return listBox;
+  }
+
+  @Benchmark
+  public ListBoxImpl<String> addAllItems() {
+    ListBoxImpl<String> listBox = createListBox();
+    listBox.addAllItems(items);
+    return listBox;
+  }
+
+  @Benchmark
+  public void removeAndInsertItem() {
+    index = (index + 31) % itemCount;
+    String item = items.get(index);
+    filledListBox.removeItem(item);
+    filledListBox.insertItem(item, index);
+  }
+
+  @Benchmark
+  public void selectItem() {
+    index = (index + 31) % itemCount;
+    filledListBox.selectItemByIndex(index);
+  }
+
+  @Benchmark
+  public void showItem() {
+    index = (index + 31) % itemCount;
+    filledListBox.showItemByIndex(index);
+  }
+
+  @Nonnull
+  private static ListBoxImpl<String> createListBox() {
+    ListBoxImpl<String> listBox = new ListBoxImpl<String>(createListBoxProxy());
+    listBox.bindToView(new NullListBoxView(), DISPLAY_ITEM_COUNT);
+    return listBox;
+  }
+
+  // ListBoxImpl only keeps the ListBox to pass it along with events so an empty proxy is all we need here
+  @Nonnull
+  @SuppressWarnings("unchecked")
+  private static ListBox<String> createListBoxProxy() {
+    return (ListBox<String>) Proxy.newProxyInstance(
+        ListBox.class.getClassLoader(),
+        new Class<?>[] { ListBox.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            return null;
+          }
+        });
+  }
+
+  private static class NullListBoxView implements ListBoxView<String> {
+    @Override
+    public void display(
+        @Nonnull final List<String> captions,
+        final int focusElementIndex,
+        @Nonnull final List<Integer> selectionElements) {
+    }
+
+    @Override
+    public void updateTotalCount(final int newCount) {
+    }
+
+    @Override
+    public void updateTotalWidth(final int newWidth) {
+    }
+
+    @Override
+    public void scrollTo(final int newPosition) {
+    }
+
+    @Override
+    public void publish(@Nonnull final ListBoxSelectionChangedEvent<String> event) {
+    }
+
+    @Override
+    public int getWidth(final String item) {
+      return item.length() * 8;
+    }
+  }
+}
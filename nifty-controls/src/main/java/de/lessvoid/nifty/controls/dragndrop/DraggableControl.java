@@ -151,13 +151,18 @@ public class DraggableControl extends AbstractController implements Draggable {
       return;
     }
 
-    int newPositionX = originalPositionX + mouseX - dragStartX;
-    int newPositionY = originalPositionY + mouseY - dragStartY;
-    draggable.setConstraintX(SizeValue.px(newPositionX));
-    draggable.setConstraintY(SizeValue.px(newPositionY));
+    SizeValue newPositionX = SizeValue.px(originalPositionX + mouseX - dragStartX);
+    SizeValue newPositionY = SizeValue.px(originalPositionY + mouseY - dragStartY);
 
-    if (popup != null) {
-      popup.layoutElements();
+    // the popup uses the absolute layout so usually the draggable can simply be moved without a layout. the controls
+    // of the draggable are still notified by the move, the popup itself isn't layouted again.
+    if (!draggable.moveWithoutLayout(newPositionX, newPositionY)) {
+      draggable.setConstraintX(newPositionX);
+      draggable.setConstraintY(newPositionY);
+
+      if (popup != null) {
+        popup.layoutElements();
+      }
     }
   }
 
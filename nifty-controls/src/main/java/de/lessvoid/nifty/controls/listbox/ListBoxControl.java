@@ -765,6 +765,26 @@ public class ListBoxControl<T> extends AbstractController implements ListBox<T>,
     listBoxImpl.removeAllItems(itemsToRemove);
   }
 
+  /**
+   * Insert all the given items at the index with a single update of the view.
+   *
+   * @param itemsToInsert the items to insert
+   * @param index the index the first of the items is inserted at
+   */
+  public void insertAllItems(@Nonnull final Collection<T> itemsToInsert, final int index) {
+    listBoxImpl.insertAllItems(itemsToInsert, index);
+  }
+
+  /**
+   * Remove the items from fromIndex (inclusive) to toIndex (exclusive) with a single update of the view.
+   *
+   * @param fromIndex the index of the first item to remove
+   * @param toIndex the index after the last item to remove
+   */
+  public void removeItemRange(final int fromIndex, final int toIndex) {
+    listBoxImpl.removeItemRange(fromIndex, toIndex);
+  }
+
   @Override
   public void sortAllItems() {
     listBoxImpl.sortItems(null);
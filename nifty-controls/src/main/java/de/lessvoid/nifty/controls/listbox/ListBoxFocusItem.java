@@ -33,21 +33,15 @@ class ListBoxFocusItem {
     return newFocusIndex;
   }
 
+  // Every index that is in front of the focus moves the focus one step up. Since the indices that follow are moved up as
+  // well the comparison of each index with the focus doesn't change and the indices don't need to be updated.
   private int calcNewFocusIndex(final int focusIndex, @Nonnull final List<Integer> indicesToRemove) {
     int newFocusIndex = focusIndex;
     for (int i = 0; i < indicesToRemove.size(); i++) {
-      int removeIdx = indicesToRemove.get(i);
-      if (removeIdx < newFocusIndex) {
+      if (indicesToRemove.get(i) < focusIndex) {
         newFocusIndex--;
-        decrementListEntries(indicesToRemove, i);
       }
     }
     return newFocusIndex;
   }
-
-  private void decrementListEntries(@Nonnull final List<Integer> indicesToRemove, final int startIdx) {
-    for (int i = startIdx; i < indicesToRemove.size(); i++) {
-      indicesToRemove.set(i, indicesToRemove.get(i) - 1);
-    }
-  }
 }
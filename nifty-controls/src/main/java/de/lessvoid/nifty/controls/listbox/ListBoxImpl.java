@@ -4,8 +4,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
@@ -23,8 +28,12 @@ class ListBoxImpl<T> {
   private final ListBox<T> listBox;
   @Nonnull
   private final List<T> items;
+  // the index of the first occurrence of each item in the items list, rebuilt lazily after items have been moved
   @Nonnull
-  private final List<ItemWidth<T>> widthList;
+  private final Map<T, Integer> itemIndices;
+  private boolean itemIndicesValid = true;
+  @Nonnull
+  private final ItemWidths<T> itemWidths;
   @Nonnull
   private ListBoxSelectionMode<T> selection;
   @Nullable
@@ -43,7 +52,8 @@ class ListBoxImpl<T> {
   public ListBoxImpl(@Nonnull final ListBox<T> listBox) {
     this.listBox = listBox;
     items = new ArrayList<T>();
-    widthList = new ArrayList<ItemWidth<T>>();
+    itemIndices = new HashMap<T, Integer>();
+    itemWidths = new ItemWidths<T>();
     selection = new ListBoxSelectionModeSingle<T>();
     visibleItemsForDisplay = new ArrayList<T>();
     selectedItemsForDisplay = new ArrayList<Integer>();
@@ -130,8 +140,8 @@ class ListBoxImpl<T> {
   public void addItem(@Nonnull final T newItem) {
     T visibleItem = getVisibleItem();
 
-    widthList.add(new ItemWidth<T>(newItem, view == null ? 0 : view.getWidth(newItem)));
-    items.add(newItem);
+    itemWidths.add(newItem, view == null ? 0 : view.getWidth(newItem));
+    appendItem(newItem);
     widthUpdate();
     focusItemIndexUpdate();
     updateViewTotalCount();
@@ -148,9 +158,11 @@ class ListBoxImpl<T> {
 
   public void clear() {
     items.clear();
+    itemIndices.clear();
+    itemIndicesValid = true;
     selection.clear();
 
-    widthList.clear();
+    itemWidths.clear();
     lastMaxWidth = 0;
     if (view != null) {
       view.updateTotalWidth(lastMaxWidth);
@@ -172,7 +184,7 @@ class ListBoxImpl<T> {
   }
 
   public void selectItem(@Nonnull final T item) {
-    selectItemByIndex(items.indexOf(item));
+    selectItemByIndex(indexOf(item));
   }
 
   public void selectNext() {
@@ -182,7 +194,7 @@ class ListBoxImpl<T> {
     if (selection.getSelection().isEmpty()) {
       return;
     }
-    int selectionIndex = items.indexOf(selection.getSelection().get(0));
+    int selectionIndex = indexOf(selection.getSelection().get(0));
     if (invalidIndex(selectionIndex)) {
       return;
     }
@@ -201,7 +213,7 @@ class ListBoxImpl<T> {
     if (selection.getSelection().isEmpty()) {
       return;
     }
-    int selectionIndex = items.indexOf(selection.getSelection().get(0));
+    int selectionIndex = indexOf(selection.getSelection().get(0));
     if (invalidIndex(selectionIndex)) {
       return;
     }
@@ -226,7 +238,7 @@ class ListBoxImpl<T> {
 
     List<Integer> result = new ArrayList<Integer>();
     for (T selItem : sel) {
-      result.add(items.indexOf(selItem));
+      result.add(indexOf(selItem));
     }
     return result;
   }
@@ -241,7 +253,8 @@ class ListBoxImpl<T> {
     T item = items.get(itemIndex);
     selection.removeForced(item);
     items.remove(itemIndex);
-    widthList.remove(findItemIndexInWidthList(item));
+    itemIndicesValid = false;
+    itemWidths.remove(item);
     widthUpdate();
 
     listBoxFocusItem.prepare();
@@ -254,7 +267,7 @@ class ListBoxImpl<T> {
   }
 
   public void removeItem(final T item) {
-    removeItemByIndex(items.indexOf(item));
+    removeItemByIndex(indexOf(item));
   }
 
   public void removeAllItems(@Nonnull final Collection<T> itemsToRemove) {
@@ -263,15 +276,29 @@ class ListBoxImpl<T> {
 
     listBoxFocusItem.prepare();
     for (T item : itemsToRemove) {
-      listBoxFocusItem.registerIndex(items.indexOf(item));
-      widthList.remove(findItemIndexInWidthList(item));
+      listBoxFocusItem.registerIndex(indexOf(item));
+    }
+
+    // same as items.removeAll(itemsToRemove) but without searching itemsToRemove for every item
+    Set<T> removeSet = new HashSet<T>(itemsToRemove);
+    List<T> remainingItems = new ArrayList<T>(items.size());
+    for (int i = 0; i < items.size(); i++) {
+      T item = items.get(i);
+      if (removeSet.contains(item)) {
+        itemWidths.remove(item);
+      } else {
+        remainingItems.add(item);
+      }
     }
 
     widthUpdate();
 
-    if (!items.removeAll(itemsToRemove)) {
+    if (remainingItems.size() == items.size()) {
       return;
     }
+    items.clear();
+    items.addAll(remainingItems);
+    itemIndicesValid = false;
 
     for (T item : selection.getSelection()) {
       selection.removeForced(item);
@@ -283,6 +310,35 @@ class ListBoxImpl<T> {
     }
   }
 
+  /**
+   * Remove the items from fromIndex (inclusive) to toIndex (exclusive). Unlike removeAllItems() the items don't need
+   * to be looked up and the selection and the focus of the remaining items stay where they are.
+   */
+  public void removeItemRange(final int fromIndex, final int toIndex) {
+    if (invalidIndex(fromIndex) || toIndex <= fromIndex || toIndex > items.size()) {
+      return;
+    }
+    int oldCount = itemCount();
+    T visibleItem = getVisibleItem();
+
+    listBoxFocusItem.prepare();
+    List<T> removedItems = items.subList(fromIndex, toIndex);
+    for (int i = 0; i < removedItems.size(); i++) {
+      T item = removedItems.get(i);
+      selection.removeForced(item);
+      itemWidths.remove(item);
+      listBoxFocusItem.registerIndex(fromIndex + i);
+    }
+    removedItems.clear();
+    itemIndicesValid = false;
+    widthUpdate();
+
+    updateAfterRemove(oldCount);
+    if (visibleItem != null && indexOf(visibleItem) != -1) {
+      restoreVisibleItem(visibleItem);
+    }
+  }
+
   public void deselectItemByIndex(final int itemIndex) {
     if (invalidIndex(itemIndex)) {
       return;
@@ -293,7 +349,7 @@ class ListBoxImpl<T> {
   }
 
   public void deselectItem(@Nonnull final T item) {
-    deselectItemByIndex(items.indexOf(item));
+    deselectItemByIndex(indexOf(item));
   }
 
   @Nonnull
@@ -306,8 +362,13 @@ class ListBoxImpl<T> {
       return;
     }
     T visibleItem = getVisibleItem();
-    widthList.add(new ItemWidth<T>(item, view == null ? 0 : view.getWidth(item)));
-    items.add(index, item);
+    itemWidths.add(item, view == null ? 0 : view.getWidth(item));
+    if (index == items.size()) {
+      appendItem(item);
+    } else {
+      items.add(index, item);
+      itemIndicesValid = false;
+    }
     widthUpdate();
     focusItemIndexUpdate();
     updateViewTotalCount();
@@ -317,8 +378,39 @@ class ListBoxImpl<T> {
     ensureAutoSelection(item);
   }
 
+  /**
+   * Insert all the given items at the index in one go. The view is only updated once and the focus stays on the item
+   * that had the focus before.
+   */
+  public void insertAllItems(@Nonnull final Collection<T> itemsToInsert, final int index) {
+    if (itemsToInsert.isEmpty() || invalidIndexForInsert(index)) {
+      return;
+    }
+    if (index == items.size()) {
+      addAllItems(itemsToInsert);
+      return;
+    }
+    T visibleItem = getVisibleItem();
+    for (T item : itemsToInsert) {
+      itemWidths.add(item, view == null ? 0 : view.getWidth(item));
+    }
+    items.addAll(index, itemsToInsert);
+    itemIndicesValid = false;
+    if (focusItemIndex >= index) {
+      focusItemIndex += itemsToInsert.size();
+    }
+
+    widthUpdate();
+    focusItemIndexUpdate();
+    updateViewTotalCount();
+    if (visibleItem != null) {
+      restoreVisibleItem(visibleItem);
+    }
+    ensureAutoSelection(itemsToInsert.iterator().next());
+  }
+
   public void showItem(@Nonnull final T item) {
-    showItemByIndex(items.indexOf(item));
+    showItemByIndex(indexOf(item));
   }
 
   public void showItemByIndex(final int itemIndex) {
@@ -339,7 +431,7 @@ class ListBoxImpl<T> {
     if (item == null) {
       setFocusItemByIndex(-1);
     } else {
-      setFocusItemByIndex(items.indexOf(item));
+      setFocusItemByIndex(indexOf(item));
     }
   }
 
@@ -381,23 +473,20 @@ class ListBoxImpl<T> {
       return;
     }
     for (T item : itemsToAdd) {
-      widthList.add(new ItemWidth<T>(item, view == null ? 0 : view.getWidth(item)));
+      itemWidths.add(item, view == null ? 0 : view.getWidth(item));
+      appendItem(item);
     }
-    T visibleItem = getVisibleItem();
-    items.addAll(itemsToAdd);
+
+    // the items are appended so the first visible item stays where it is and the view only needs to be updated once
     widthUpdate();
     focusItemIndexUpdate();
     updateViewTotalCount();
-    if (visibleItem != null) {
-      restoreVisibleItem(visibleItem);
-    }
-    if (!itemsToAdd.isEmpty()) {
-      ensureAutoSelection(itemsToAdd.iterator().next());
-    }
+    ensureAutoSelection(itemsToAdd.iterator().next());
   }
 
   public void sortItems(@Nullable final Comparator<T> comparator) {
     Collections.sort(items, comparator);
+    itemIndicesValid = false;
   }
 
   void updateViewTotalCount() {
@@ -425,11 +514,9 @@ class ListBoxImpl<T> {
       return selectedItemsForDisplay;
     }
     for (T selectedItem : selectionList) {
-      for (int i = 0; i < viewDisplayItemCount; i++) {
-        int selectedItemIndex = items.indexOf(selectedItem);
-        if (selectedItemIndex == viewOffset + i) {
-          selectedItemsForDisplay.add(i);
-        }
+      int selectedItemIndex = indexOf(selectedItem);
+      if (selectedItemIndex >= viewOffset && selectedItemIndex < viewOffset + viewDisplayItemCount) {
+        selectedItemsForDisplay.add(selectedItemIndex - viewOffset);
       }
     }
     return selectedItemsForDisplay;
@@ -538,33 +625,36 @@ class ListBoxImpl<T> {
   }
 
   private void widthUpdate() {
-    if (widthList.isEmpty()) {
-      if (lastMaxWidth != 0) {
-        lastMaxWidth = 0;
-        if (view != null) {
-          view.updateTotalWidth(0);
-        }
-      }
-      return;
-    }
-    Collections.sort(widthList);
-
-    if (widthList.get(widthList.size() - 1).getWidth() != lastMaxWidth) {
-      lastMaxWidth = widthList.get(widthList.size() - 1).getWidth();
+    int maxWidth = itemWidths.getMaxWidth();
+    if (maxWidth != lastMaxWidth) {
+      lastMaxWidth = maxWidth;
       if (view != null) {
         view.updateTotalWidth(lastMaxWidth);
       }
     }
   }
 
-  private int findItemIndexInWidthList(final T item) {
-    for (int i = 0; i < widthList.size(); i++) {
-      ItemWidth itemWidth = widthList.get(i);
-      if (itemWidth.getItem().equals(item)) {
-        return i;
+  private void appendItem(@Nonnull final T item) {
+    items.add(item);
+    if (itemIndicesValid && !itemIndices.containsKey(item)) {
+      itemIndices.put(item, items.size() - 1);
+    }
+  }
+
+  /**
+   * Same as items.indexOf(item) (the index of the first item that equals the given item) but without searching the
+   * items list.
+   */
+  private int indexOf(@Nullable final T item) {
+    if (!itemIndicesValid) {
+      itemIndices.clear();
+      for (int i = items.size() - 1; i >= 0; i--) {
+        itemIndices.put(items.get(i), i);
       }
+      itemIndicesValid = true;
     }
-    return -1;
+    Integer index = itemIndices.get(item);
+    return index == null ? -1 : index;
   }
 
   private void ensureAutoSelection(@Nonnull final T newItem) {
@@ -599,28 +689,64 @@ class ListBoxImpl<T> {
     showItem(visibleItem);
   }
 
-  private static class ItemWidth<T> implements Comparable<ItemWidth<T>> {
+  /**
+   * Keeps track of the widths of all items. The widths are counted in a sorted map so that adding and removing an item
+   * and finding the maximum width is possible in O(log n) instead of sorting all widths after each change. Items that
+   * are equal share the width of the first one that was added.
+   */
+  private static class ItemWidths<T> {
     @Nonnull
-    private final T item;
-    private final int width;
+    private final Map<T, ItemWidth> widthByItem = new HashMap<T, ItemWidth>();
+    @Nonnull
+    private final TreeMap<Integer, Integer> countByWidth = new TreeMap<Integer, Integer>();
 
-    public ItemWidth(@Nonnull final T item, final int width) {
-      this.item = item;
-      this.width = width;
+    public void add(@Nonnull final T item, final int width) {
+      ItemWidth itemWidth = widthByItem.get(item);
+      if (itemWidth == null) {
+        itemWidth = new ItemWidth(width);
+        widthByItem.put(item, itemWidth);
+      }
+      itemWidth.count++;
+      Integer count = countByWidth.get(itemWidth.width);
+      countByWidth.put(itemWidth.width, count == null ? 1 : count + 1);
+    }
+
+    public void remove(@Nonnull final T item) {
+      ItemWidth itemWidth = widthByItem.get(item);
+      if (itemWidth == null) {
+        return;
+      }
+      itemWidth.count--;
+      if (itemWidth.count == 0) {
+        widthByItem.remove(item);
+      }
+      Integer count = countByWidth.get(itemWidth.width);
+      if (count == null || count <= 1) {
+        countByWidth.remove(itemWidth.width);
+      } else {
+        countByWidth.put(itemWidth.width, count - 1);
+      }
     }
 
-    @Override
-    public int compareTo(@Nonnull final ItemWidth a) {
-      return Integer.valueOf(width).compareTo(a.width);
+    public void clear() {
+      widthByItem.clear();
+      countByWidth.clear();
     }
 
-    @Nonnull
-    public T getItem() {
-      return item;
+    public int getMaxWidth() {
+      if (countByWidth.isEmpty()) {
+        return 0;
+      }
+      return countByWidth.lastKey();
     }
+  }
+
+  private static class ItemWidth {
+    private final int width;
+    private int count;
 
-    public int getWidth() {
-      return width;
+    public ItemWidth(final int width) {
+      this.width = width;
     }
   }
 }
@@ -254,9 +254,15 @@ public class ScrollbarControl extends AbstractController implements Scrollbar {
         if (!elementPosition.isVisible()) {
           elementPosition.show();
         }
-        elementPosition.setConstraintY(SizeValue.px(pos));
-        elementPosition.setConstraintHeight(SizeValue.px(size));
-        elementBackground.layoutElements();
+        // moving the handle doesn't require a layout as long as its size stays the same. the move notifies the controls
+        // of the handle but not the scrollbar, so updateView() isn't called again
+        SizeValue height = SizeValue.px(size);
+        if (!height.equals(elementPosition.getConstraintHeight()) ||
+            !elementPosition.moveWithoutLayout(elementPosition.getConstraintX(), SizeValue.px(pos))) {
+          elementPosition.setConstraintY(SizeValue.px(pos));
+          elementPosition.setConstraintHeight(height);
+          elementBackground.layoutElements();
+        }
       }
     }
 
@@ -323,9 +329,15 @@ public class ScrollbarControl extends AbstractController implements Scrollbar {
         if (scrollbarElement.isVisible()) {
           elementPosition.show();
         }
-        elementPosition.setConstraintX(SizeValue.px(pos));
-        elementPosition.setConstraintWidth(SizeValue.px(size));
-        elementBackground.layoutElements();
+        // moving the handle doesn't require a layout as long as its size stays the same. the move notifies the controls
+        // of the handle but not the scrollbar, so updateView() isn't called again
+        SizeValue width = SizeValue.px(size);
+        if (!width.equals(elementPosition.getConstraintWidth()) ||
+            !elementPosition.moveWithoutLayout(SizeValue.px(pos), elementPosition.getConstraintY())) {
+          elementPosition.setConstraintX(SizeValue.px(pos));
+          elementPosition.setConstraintWidth(width);
+          elementBackground.layoutElements();
+        }
       }
     }
 
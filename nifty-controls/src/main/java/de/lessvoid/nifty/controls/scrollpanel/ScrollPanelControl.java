@@ -368,6 +368,26 @@ public class ScrollPanelControl extends AbstractController implements ScrollPane
     }
   }
 
+  /**
+   * Scrolling only moves the scrolled element inside the absolute layout of the child root. So the element is just
+   * moved to the new position and only layouted again if this isn't possible. The controls inside of the scrolled
+   * element still get their layoutCallback() and the constraints changed event of the scrolled element is still
+   * published, but the child root element isn't layouted anymore.
+   */
+  private void moveScrollElement(
+      @Nonnull final Element scrollElement,
+      @Nonnull final SizeValue x,
+      @Nonnull final SizeValue y) {
+    if (scrollElement.moveWithoutLayout(x, y)) {
+      return;
+    }
+    scrollElement.setConstraintX(x);
+    scrollElement.setConstraintY(y);
+    if (childRootElement != null) {
+      childRootElement.layoutElements();
+    }
+  }
+
   private void showElementVertical(final int elemCount, @Nonnull final VerticalAlign valign) {
     float newPos;
 
@@ -405,9 +425,8 @@ public class ScrollPanelControl extends AbstractController implements ScrollPane
       }
       final Element scrollElement = childRootElement.getChildren().get(0);
       if (scrollElement != null) {
-        scrollElement.setConstraintY(SizeValue.px(-(int) event.getValue()));
+        moveScrollElement(scrollElement, scrollElement.getConstraintX(), SizeValue.px(-(int) event.getValue()));
         updateWorldV();
-        childRootElement.layoutElements();
 
         float xPos = 0.f;
         Scrollbar horizontalS = getHorizontalScrollbarControl();
@@ -442,9 +461,8 @@ public class ScrollPanelControl extends AbstractController implements ScrollPane
       }
       final Element scrollElement = childRootElement.getChildren().get(0);
       if (scrollElement != null) {
-        scrollElement.setConstraintX(SizeValue.px(-(int) event.getValue()));
+        moveScrollElement(scrollElement, SizeValue.px(-(int) event.getValue()), scrollElement.getConstraintY());
         updateWorldH();
-        childRootElement.layoutElements();
 
         float yPos = 0.f;
         Scrollbar verticalS = getVerticalScrollbarControl();
@@ -212,8 +212,11 @@ public class SliderControl extends AbstractController implements Slider {
 
     @Override
     public void update(final int position) {
-      elementPosition.setConstraintY(SizeValue.px(position));
-      elementBackground.layoutElements();
+      // only the handle is moved, so this doesn't call the layoutCallback() of the slider and updateView() again
+      if (!elementPosition.moveWithoutLayout(elementPosition.getConstraintX(), SizeValue.px(position))) {
+        elementPosition.setConstraintY(SizeValue.px(position));
+        elementBackground.layoutElements();
+      }
     }
 
     @Override
@@ -258,8 +261,11 @@ public class SliderControl extends AbstractController implements Slider {
 
     @Override
     public void update(final int position) {
-      elementPosition.setConstraintX(SizeValue.px(position));
-      elementBackground.layoutElements();
+      // only the handle is moved, so this doesn't call the layoutCallback() of the slider and updateView() again
+      if (!elementPosition.moveWithoutLayout(SizeValue.px(position), elementPosition.getConstraintY())) {
+        elementPosition.setConstraintX(SizeValue.px(position));
+        elementBackground.layoutElements();
+      }
     }
 
     @Override
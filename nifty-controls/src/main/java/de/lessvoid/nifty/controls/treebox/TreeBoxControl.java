@@ -14,6 +14,10 @@ import de.lessvoid.nifty.screen.Screen;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -42,6 +46,13 @@ public final class TreeBoxControl<T> extends ListBoxControl<TreeItem<T>> impleme
   @Nullable
   private TreeItem<T> treeRoot;
 
+  /**
+   * The number of rows that are displayed below each tree item for its expanded children. Together with the row of
+   * the item itself this is the range of rows in the list the item covers.
+   */
+  @Nonnull
+  private final Map<TreeItem<T>, Integer> visibleRowCounts = new HashMap<TreeItem<T>, Integer>();
+
   /**
    * The used instance of the Nifty-GUI.
    */
@@ -106,6 +117,33 @@ public final class TreeBoxControl<T> extends ListBoxControl<TreeItem<T>> impleme
     selectItem(selectItem);
   }
 
+  /**
+   * Update the contents of the {@link ListBox} after the item has been expanded or collapsed. Only the rows of the
+   * children of the item are inserted or removed, the rest of the list stays as it is.
+   *
+   * @param item the item that has been expanded or collapsed, it is selected after the list is updated
+   */
+  public void updateExpanded(@Nonnull final TreeItem<T> item) {
+    final int row = getRow(item);
+    if (row == -1) {
+      updateList(item);
+      return;
+    }
+    final int oldRowCount = getVisibleRowCount(item);
+    if (item.isExpanded() && oldRowCount == 0) {
+      final List<TreeItem<T>> rows = new ArrayList<TreeItem<T>>();
+      for (final TreeItem<T> child : item) {
+        collectVisibleRows(rows, child, item.getIndent() + indentWidth);
+      }
+      insertAllItems(rows, row + 1);
+      changeVisibleRowCounts(item, rows.size());
+    } else if (!item.isExpanded() && oldRowCount > 0) {
+      removeItemRange(row + 1, Math.min(row + 1 + oldRowCount, itemCount()));
+      changeVisibleRowCounts(item, -oldRowCount);
+    }
+    selectItem(item);
+  }
+
   /**
    * Clear and build the tree again into the {@link ListBox}.
    */
@@ -114,12 +152,15 @@ public final class TreeBoxControl<T> extends ListBoxControl<TreeItem<T>> impleme
       log.warning("Update of list triggered while root not is not set.");
       return;
     }
-    final ListBox<TreeItem<T>> list = getListBox();
-    list.clear();
-
+    visibleRowCounts.clear();
+    final List<TreeItem<T>> rows = new ArrayList<TreeItem<T>>();
     for (final TreeItem<T> item : treeRoot) {
-      addListItem(list, item, 0);
+      collectVisibleRows(rows, item, 0);
     }
+
+    final ListBox<TreeItem<T>> list = getListBox();
+    list.clear();
+    list.addAllItems(rows);
   }
 
   @Override
@@ -134,23 +175,74 @@ public final class TreeBoxControl<T> extends ListBoxControl<TreeItem<T>> impleme
   }
 
   /**
-   * Add a tree item to the list box and also insert all its children. This function is made for recursive calls in
-   * order to update the current indent value.
+   * Add a tree item to the rows of the list box and also add all its children. This function is made for recursive
+   * calls in order to update the current indent value and the number of visible rows of each item.
    *
-   * @param list          the {@link ListBox} that is filled with entries
-   * @param currentItem   the current item that is supposed to be added to the list
+   * @param rows          the rows that are filled with entries
+   * @param currentItem   the current item that is supposed to be added to the rows
    * @param currentIndent the indent of the current item
+   * @return the number of rows that have been added for the item and its children
    */
-  private void addListItem(
-      @Nonnull final ListBox<TreeItem<T>> list,
+  private int collectVisibleRows(
+      @Nonnull final List<TreeItem<T>> rows,
       @Nonnull final TreeItem<T> currentItem,
       final int currentIndent) {
-    list.addItem(currentItem);
+    rows.add(currentItem);
     currentItem.setIndent(currentIndent);
+    int visibleRows = 0;
     if (currentItem.isExpanded()) {
       for (final TreeItem<T> item : currentItem) {
-        addListItem(list, item, currentIndent + indentWidth);
+        visibleRows += collectVisibleRows(rows, item, currentIndent + indentWidth);
       }
     }
+    visibleRowCounts.put(currentItem, visibleRows);
+    return visibleRows + 1;
+  }
+
+  private int getVisibleRowCount(@Nonnull final TreeItem<T> item) {
+    final Integer count = visibleRowCounts.get(item);
+    return count == null ? 0 : count;
+  }
+
+  private void changeVisibleRowCounts(@Nonnull final TreeItem<T> item, final int delta) {
+    TreeItem<T> current = item;
+    while (current != null && current != treeRoot) {
+      visibleRowCounts.put(current, getVisibleRowCount(current) + delta);
+      current = current.getParentItem();
+    }
+  }
+
+  /**
+   * Get the row of the item in the list box from the visible rows of the items in front of it.
+   *
+   * @return the row of the item or -1 in case the list box doesn't match the tree anymore
+   */
+  private int getRow(@Nonnull final TreeItem<T> item) {
+    if (treeRoot == null) {
+      return -1;
+    }
+    int row = 0;
+    TreeItem<T> current = item;
+    while (current != treeRoot) {
+      final TreeItem<T> parent = current.getParentItem();
+      if (parent == null) {
+        return -1;
+      }
+      for (final TreeItem<T> sibling : parent) {
+        if (sibling == current) {
+          break;
+        }
+        row += 1 + getVisibleRowCount(sibling);
+      }
+      if (parent != treeRoot) {
+        row++;
+      }
+      current = parent;
+    }
+    final List<TreeItem<T>> items = getItems();
+    if (row >= items.size() || items.get(row) != item) {
+      return -1;
+    }
+    return row;
   }
 }
@@ -43,6 +43,6 @@ public class TreeBoxItemController<T> extends ListBoxItemController<TreeItem<T>>
       return;
     }
     item.setExpanded(!item.isExpanded());
-    parentControl.updateList(item);
+    parentControl.updateExpanded(item);
   }
 }
@@ -0,0 +1,116 @@
+package de.lessvoid.nifty.controls.listbox;
+
+import static org.junit.Assert.assertEquals;
+
+import de.lessvoid.nifty.controls.ListBox.SelectionMode;
+import de.lessvoid.nifty.controls.ListBoxSelectionChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ListBoxItemIndexTest {
+  private ListBoxImpl<TestItem> listBox = new ListBoxImpl<TestItem>(null);
+  private WidthView view = new WidthView();
+  private TestItem a = new TestItem("a");
+  private TestItem b = new TestItem("bb");
+  private TestItem c = new TestItem("ccc");
+
+  @Before
+  public void before() {
+    listBox.bindToView(view, 2);
+    listBox.changeSelectionMode(SelectionMode.Multiple, false);
+    listBox.addAllItems(Arrays.asList(c, a, b));
+  }
+
+  @Test
+  public void testSelectedIndicesAfterSort() {
+    listBox.selectItem(c);
+    listBox.sortItems(null);
+    assertEquals(Arrays.asList(2), listBox.getSelectedIndices());
+  }
+
+  @Test
+  public void testSelectedIndicesAfterRemove() {
+    listBox.selectItem(b);
+    listBox.removeItem(a);
+    assertEquals(Arrays.asList(1), listBox.getSelectedIndices());
+  }
+
+  @Test
+  public void testSelectedIndicesAfterInsert() {
+    TestItem d = new TestItem("d");
+    listBox.selectItem(b);
+    listBox.insertItem(d, 0);
+    assertEquals(Arrays.asList(3), listBox.getSelectedIndices());
+    listBox.selectItem(d);
+    assertEquals(Arrays.asList(3, 0), listBox.getSelectedIndices());
+  }
+
+  @Test
+  public void testRemoveAllItems() {
+    listBox.removeAllItems(Arrays.asList(c, a));
+    assertEquals(Arrays.asList(b), listBox.getItems());
+    listBox.selectItem(b);
+    assertEquals(Arrays.asList(0), listBox.getSelectedIndices());
+  }
+
+  @Test
+  public void testMaxWidthAfterRemovingWidestItem() {
+    assertEquals(30, view.totalWidth);
+    listBox.removeItem(c);
+    assertEquals(20, view.totalWidth);
+    listBox.removeAllItems(Arrays.asList(a, b));
+    assertEquals(0, view.totalWidth);
+  }
+
+  @Test
+  public void testMaxWidthWithEqualItems() {
+    listBox.addItem(c);
+    listBox.removeItem(c);
+    assertEquals(30, view.totalWidth);
+    listBox.removeItem(c);
+    assertEquals(20, view.totalWidth);
+  }
+
+  private static class WidthView implements ListBoxView<TestItem> {
+    private int totalWidth;
+    private final List<TestItem> captions = new ArrayList<TestItem>();
+
+    @Override
+    public void display(
+        @Nonnull final List<TestItem> captions,
+        final int focusElementIndex,
+        @Nonnull final List<Integer> selectionElements) {
+      this.captions.clear();
+      this.captions.addAll(captions);
+    }
+
+    @Override
+    public void updateTotalCount(final int newCount) {
+    }
+
+    @Override
+    public void updateTotalWidth(final int newWidth) {
+      totalWidth = newWidth;
+    }
+
+    @Override
+    public void scrollTo(final int newPosition) {
+    }
+
+    @Override
+    public void publish(@Nonnull final ListBoxSelectionChangedEvent<TestItem> event) {
+    }
+
+    @Override
+    public int getWidth(@Nonnull final TestItem item) {
+      return item.getLabel().length() * 10;
+    }
+  }
+}
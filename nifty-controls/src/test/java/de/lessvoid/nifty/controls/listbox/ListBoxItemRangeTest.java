@@ -0,0 +1,92 @@
+package de.lessvoid.nifty.controls.listbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ListBoxItemRangeTest {
+  private ListBoxImpl<TestItem> listBox = new ListBoxImpl<TestItem>(null);
+  private TestItem o1 = new TestItem("o1");
+  private TestItem o2 = new TestItem("o2");
+  private TestItem o3 = new TestItem("o3");
+  private TestItem o4 = new TestItem("o4");
+
+  @Test
+  public void testInsertAllItems() {
+    listBox.addItem(o1);
+    listBox.addItem(o4);
+    listBox.insertAllItems(Arrays.asList(o2, o3), 1);
+    assertListBoxContent(o1, o2, o3, o4);
+  }
+
+  @Test
+  public void testInsertAllItemsLast() {
+    listBox.addItem(o1);
+    listBox.insertAllItems(Arrays.asList(o2, o3), 1);
+    assertListBoxContent(o1, o2, o3);
+  }
+
+  @Test
+  public void testInsertAllItemsInvalidIndex() {
+    listBox.addItem(o1);
+    listBox.insertAllItems(Arrays.asList(o2, o3), 2);
+    assertListBoxContent(o1);
+  }
+
+  @Test
+  public void testInsertAllItemsKeepsFocusAndSelection() {
+    listBox.addItem(o1);
+    listBox.addItem(o4);
+    listBox.selectItem(o4);
+    listBox.insertAllItems(Arrays.asList(o2, o3), 1);
+    assertEquals(o4, listBox.getFocusItem());
+    assertEquals(Arrays.asList(o4), listBox.getSelection());
+  }
+
+  @Test
+  public void testRemoveItemRange() {
+    addAll();
+    listBox.removeItemRange(1, 3);
+    assertListBoxContent(o1, o4);
+  }
+
+  @Test
+  public void testRemoveItemRangeInvalid() {
+    addAll();
+    listBox.removeItemRange(2, 5);
+    listBox.removeItemRange(2, 2);
+    listBox.removeItemRange(-1, 1);
+    assertListBoxContent(o1, o2, o3, o4);
+  }
+
+  @Test
+  public void testRemoveItemRangeKeepsFocusAndSelection() {
+    addAll();
+    listBox.selectItem(o4);
+    listBox.removeItemRange(1, 3);
+    assertEquals(o4, listBox.getFocusItem());
+    assertEquals(Arrays.asList(o4), listBox.getSelection());
+  }
+
+  @Test
+  public void testRemoveItemRangeRemovesSelection() {
+    addAll();
+    listBox.selectItem(o2);
+    listBox.removeItemRange(1, 3);
+    assertTrue(listBox.getSelection().isEmpty());
+  }
+
+  private void addAll() {
+    listBox.addItem(o1);
+    listBox.addItem(o2);
+    listBox.addItem(o3);
+    listBox.addItem(o4);
+  }
+
+  private void assertListBoxContent(final TestItem... expected) {
+    assertEquals(Arrays.asList(expected), listBox.getItems());
+  }
+}
@@ -0,0 +1,97 @@
+package de.lessvoid.nifty.controls.treebox;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.lessvoid.nifty.controls.TreeItem;
+
+@SuppressWarnings("deprecation")
+public class TreeBoxExpandTest {
+  private TreeBoxControl<String> treeBox = new TreeBoxControl<String>();
+  private TreeItem<String> root = new TreeItem<String>();
+  private TreeItem<String> a = new TreeItem<String>("a");
+  private TreeItem<String> a1 = new TreeItem<String>("a1");
+  private TreeItem<String> a1x = new TreeItem<String>("a1x");
+  private TreeItem<String> a2 = new TreeItem<String>("a2");
+  private TreeItem<String> b = new TreeItem<String>("b");
+  private TreeItem<String> b1 = new TreeItem<String>("b1");
+
+  @Before
+  public void before() {
+    a1.addTreeItem(a1x);
+    a.addTreeItem(a1);
+    a.addTreeItem(a2);
+    b.addTreeItem(b1);
+    root.addTreeItem(a);
+    root.addTreeItem(b);
+    treeBox.setTree(root);
+  }
+
+  @Test
+  public void testCollapsedTree() {
+    assertRows(a, b);
+  }
+
+  @Test
+  public void testExpand() {
+    toggle(a);
+    assertRows(a, a1, a2, b);
+    assertEquals(Arrays.asList(a), treeBox.getSelection());
+  }
+
+  @Test
+  public void testExpandNested() {
+    toggle(a);
+    toggle(a1);
+    toggle(b);
+    assertRows(a, a1, a1x, a2, b, b1);
+  }
+
+  @Test
+  public void testCollapse() {
+    toggle(a);
+    toggle(a1);
+    toggle(b);
+    toggle(a);
+    assertRows(a, b, b1);
+    assertEquals(Arrays.asList(a), treeBox.getSelection());
+  }
+
+  @Test
+  public void testExpandAgainKeepsExpandedChildren() {
+    toggle(a);
+    toggle(a1);
+    toggle(a);
+    toggle(a);
+    assertRows(a, a1, a1x, a2, b);
+  }
+
+  @Test
+  public void testChangedTreeFallsBackToRebuild() {
+    toggle(a);
+    TreeItem<String> a0 = new TreeItem<String>("a0");
+    root.removeTreeItem(a);
+    root.addTreeItem(a0);
+    root.addTreeItem(a);
+    toggle(a);
+    assertRows(b, a0, a);
+  }
+
+  private void toggle(final TreeItem<String> item) {
+    item.setExpanded(!item.isExpanded());
+    treeBox.updateExpanded(item);
+  }
+
+  private void assertRows(final TreeItem<?>... expected) {
+    assertEquals(Arrays.asList(expected), treeBox.getItems());
+
+    // the rows must match a complete rebuild of the tree
+    TreeBoxControl<String> rebuilt = new TreeBoxControl<String>();
+    rebuilt.setTree(root);
+    assertEquals(rebuilt.getItems(), treeBox.getItems());
+  }
+}
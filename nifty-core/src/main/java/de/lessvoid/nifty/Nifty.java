@@ -26,7 +26,6 @@ import org.bushe.swing.event.EventServiceExistsException;
 import org.bushe.swing.event.EventServiceLocator;
 import org.bushe.swing.event.EventTopicSubscriber;
 import org.bushe.swing.event.ProxySubscriber;
-import org.bushe.swing.event.ThreadSafeEventService;
 import org.bushe.swing.event.annotation.ReferenceStrength;
 
 import de.lessvoid.nifty.controls.StandardControl;
@@ -34,8 +33,10 @@ import de.lessvoid.nifty.effects.EffectEventId;
 import de.lessvoid.nifty.elements.Action;
 import de.lessvoid.nifty.elements.Element;
 import de.lessvoid.nifty.elements.ElementMoveAction;
+import de.lessvoid.nifty.elements.ElementRecyclingPool;
 import de.lessvoid.nifty.elements.ElementRemoveAction;
 import de.lessvoid.nifty.elements.EndOfFrameElementAction;
+import de.lessvoid.nifty.elements.tools.TextLayoutCache;
 import de.lessvoid.nifty.input.NiftyInputMapping;
 import de.lessvoid.nifty.input.NiftyMouseInputEvent;
 import de.lessvoid.nifty.input.keyboard.KeyboardInputEvent;
@@ -48,6 +49,7 @@ import de.lessvoid.nifty.loaderv2.NiftyLoader;
 import de.lessvoid.nifty.loaderv2.RootLayerFactory;
 import de.lessvoid.nifty.loaderv2.types.ControlDefinitionType;
 import de.lessvoid.nifty.loaderv2.types.ElementType;
+import de.lessvoid.nifty.loaderv2.types.ElementTypeTemplates;
 import de.lessvoid.nifty.loaderv2.types.LayerType;
 import de.lessvoid.nifty.loaderv2.types.NiftyType;
 import de.lessvoid.nifty.loaderv2.types.PopupType;
@@ -58,10 +60,13 @@ import de.lessvoid.nifty.loaderv2.types.ResourceBundleType;
 import de.lessvoid.nifty.loaderv2.types.StyleType;
 import de.lessvoid.nifty.loaderv2.types.resolver.style.StyleResolver;
 import de.lessvoid.nifty.loaderv2.types.resolver.style.StyleResolverDefault;
+import de.lessvoid.nifty.profiler.FrameProfiler;
 import de.lessvoid.nifty.render.NiftyImage;
 import de.lessvoid.nifty.render.NiftyMouseImpl;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
 import de.lessvoid.nifty.render.NiftyRenderEngineImpl;
+import de.lessvoid.nifty.render.PreloadingNiftyRenderEngine;
+import de.lessvoid.nifty.render.RecordingNiftyRenderEngine;
 import de.lessvoid.nifty.screen.Screen;
 import de.lessvoid.nifty.screen.ScreenController;
 import de.lessvoid.nifty.sound.SoundSystem;
@@ -159,6 +164,11 @@ public class Nifty {
   private String alternateKeyForNextLoadXml;
   private long lastTime;
   private boolean gotoScreenInProgress;
+  /**
+   * The id of the screen whose images are currently preloaded. This is {@code null} when no screen is preloaded.
+   */
+  @Nullable
+  private String preloadScreenId;
   @Nullable
   private String alternateKey;
   @Nonnull
@@ -189,6 +199,49 @@ public class Nifty {
   // set to true when NiftyMethodInvoker should throw exceptions (true) instead of only logging them (false)
   private boolean niftyMethodInvokerDebugEnabled;
 
+  /*
+   * Whether or not only the dirty parts of the current screen should be layouted again.
+   */
+  private boolean incrementalLayout;
+
+  /*
+   * Whether or not mouse events should use a spatial index of the elements instead of walking all elements.
+   */
+  private boolean mouseOverIndexEnabled;
+
+  /*
+   * Whether or not elements should be found by id using the id index of the screen instead of searching all elements.
+   */
+  private boolean elementIdIndexEnabled;
+
+  /*
+   * Whether or not elements that did not change should be rendered by replaying their recorded render calls.
+   */
+  private boolean retainedRenderingEnabled;
+
+  @Nullable
+  private FrameProfiler frameProfiler;
+
+  /*
+   * Whether or not dynamically created elements should be prepared from cached templates.
+   */
+  private boolean elementTypeTemplatesEnabled;
+  @Nonnull
+  private final ElementTypeTemplates elementTypeTemplates = new ElementTypeTemplates();
+
+  /*
+   * Whether or not removed elements that have been created dynamically should be recycled.
+   */
+  private boolean elementRecyclingEnabled;
+  @Nonnull
+  private final ElementRecyclingPool elementRecyclingPool = new ElementRecyclingPool();
+
+  /*
+   * Line breaks and line widths of the texts rendered by this Nifty instance.
+   */
+  @Nonnull
+  private final TextLayoutCache textLayoutCache = new TextLayoutCache(1024);
+
   public Nifty(
       @Nonnull final RenderDevice newRenderDevice,
       @Nonnull final SoundDevice newSoundDevice,
@@ -290,7 +343,7 @@ public class Nifty {
   private void initializeEventBus() {
     try {
       if (EventServiceLocator.getEventService("NiftyEventBus") == null) {
-        EventServiceLocator.setEventService("NiftyEventBus", new ThreadSafeEventService());
+        EventServiceLocator.setEventService("NiftyEventBus", new NiftyEventService());
       }
     } catch (EventServiceExistsException e) {
       log.log(Level.SEVERE, "Initialization failure. EventBus failed to initialize.", e);
@@ -308,6 +361,9 @@ public class Nifty {
   }
 
   public void publishEvent(@Nonnull final String id, @Nonnull final NiftyEvent event) {
+    if (frameProfiler != null) {
+      frameProfiler.count(FrameProfiler.Counter.EVENTS_PUBLISHED, 1);
+    }
     getEventService().publish(id, event);
   }
 
@@ -363,6 +419,7 @@ public class Nifty {
    * @return true when nifty has finished processing the screen and false when rendering should continue.
    */
   public boolean update() {
+    long time = beginProfiling();
     if (currentScreen != null) {
       mouseInputEventProcessor.begin();
       inputSystem.forwardEvents(niftyInputConsumer);
@@ -370,8 +427,15 @@ public class Nifty {
         forwardMouseEventToScreen(mouseInputEventProcessor.getLastMouseDownEvent(), currentScreen);
       }
     }
+    time = endProfiling(FrameProfiler.Section.INPUT, time);
     handleDynamicElements();
+    time = endProfiling(FrameProfiler.Section.DYNAMIC_ELEMENTS, time);
+    if (incrementalLayout && currentScreen != null) {
+      currentScreen.layoutLayers();
+    }
+    time = endProfiling(FrameProfiler.Section.LAYOUT, time);
     updateSoundSystem();
+    endProfiling(FrameProfiler.Section.SOUND, time);
     if (currentScreen != null) {
       if (log.isLoggable(Level.FINEST)) {
         log.finest(currentScreen.debugOutput());
@@ -398,6 +462,7 @@ public class Nifty {
    * @param clearScreen true if nifty should clean the screen and false when you've done that already.
    */
   public void render(final boolean clearScreen) {
+    long time = beginProfiling();
     renderEngine.beginFrame();
     if (clearScreen) {
       renderEngine.clear();
@@ -411,6 +476,10 @@ public class Nifty {
       renderEngine.clear();
     }
     renderEngine.endFrame();
+    endProfiling(FrameProfiler.Section.RENDER, time);
+    if (frameProfiler != null) {
+      frameProfiler.endFrame();
+    }
 
     // now that the frame is complete we can reset the render device in case of the resolution change
     if (resolutionChanged) {
@@ -419,6 +488,21 @@ public class Nifty {
     }
   }
 
+  private long beginProfiling() {
+    if (frameProfiler == null) {
+      return 0;
+    }
+    frameProfiler.beginFrame();
+    return frameProfiler.begin();
+  }
+
+  private long endProfiling(@Nonnull final FrameProfiler.Section section, final long start) {
+    if (frameProfiler == null) {
+      return 0;
+    }
+    return frameProfiler.end(section, start);
+  }
+
   private void updateSoundSystem() {
     long current = timeProvider.getMsTime();
     int delta = (int) (current - lastTime);
@@ -692,6 +776,7 @@ public class Nifty {
    * @param xmlId xml id
    */
   void prepareScreens(@Nonnull final String xmlId) {
+    cancelScreenPreload();
     renderEngine.screensClear(screens.values());
     screens.clear();
 
@@ -714,6 +799,12 @@ public class Nifty {
     log.fine("gotoScreen [" + id + "]");
     gotoScreenInProgress = true;
 
+    if (id.equals(preloadScreenId)) {
+      preloadScreenId = null;
+    } else {
+      cancelScreenPreload();
+    }
+
     if (currentScreen == null) {
       gotoScreenInternal(id);
     } else {
@@ -727,6 +818,44 @@ public class Nifty {
     }
   }
 
+  /**
+   * Prepare the screen with the given id while the current screen is still displayed. When a BatchRenderDevice is
+   * used the images of the screen are uploaded into the texture atlases on the render thread, a few of them at the
+   * beginning of each frame (see
+   * {@link de.lessvoid.nifty.render.batch.BatchRenderConfiguration#preloadUploadTimeBudget}). When
+   * {@link #gotoScreen(String)} is called for this screen afterwards the texture atlases are rebuilt from the images
+   * that have been uploaded for this screen already before the remaining images are uploaded. Calling
+   * {@link #gotoScreen(String)} with another screen id or removing the screen cancels the preloading. This has only an
+   * effect when the render engine implements {@link PreloadingNiftyRenderEngine}.
+   *
+   * @param id the id of the screen that will be shown next
+   */
+  public void preloadScreen(@Nonnull final String id) {
+    Screen screen = screens.get(id);
+    if (screen == null) {
+      log.warning("screen [" + id + "] not found");
+      return;
+    }
+    if (screen == currentScreen || !(renderEngine instanceof PreloadingNiftyRenderEngine)) {
+      return;
+    }
+    if (!id.equals(preloadScreenId)) {
+      cancelScreenPreload();
+    }
+    preloadScreenId = id;
+    ((PreloadingNiftyRenderEngine) renderEngine).screenPreload(screen);
+  }
+
+  private void cancelScreenPreload() {
+    if (preloadScreenId == null) {
+      return;
+    }
+    preloadScreenId = null;
+    if (renderEngine instanceof PreloadingNiftyRenderEngine) {
+      ((PreloadingNiftyRenderEngine) renderEngine).screenPreloadCanceled();
+    }
+  }
+
   /**
    * goto new screen.
    *
@@ -815,11 +944,17 @@ public class Nifty {
   }
 
   private void removeScreenInternal(@Nonnull final String id) {
+    if (id.equals(preloadScreenId)) {
+      cancelScreenPreload();
+    }
     Screen screen = screens.remove(id);
     if (screen == null) {
       log.log(Level.SEVERE, "Internal delete of screen \"" + id + "\" failed: Screen instance not found.");
     } else {
       renderEngine.screenRemoved(screen);
+      elementTypeTemplates.clear(screen);
+      elementRecyclingPool.clear(screen);
+      textLayoutCache.clear();
       if (screen.getLayerElements().size() == 0) {
         return;
       }
@@ -852,6 +987,7 @@ public class Nifty {
           public final void perform() {
             exit = true;
             currentScreen = null;
+            textLayoutCache.clear();
           }
         });
   }
@@ -872,12 +1008,14 @@ public class Nifty {
       updateLayoutPart(screen.getRootElement().getLayoutPart(), newWidth, newHeight);
       for (Element e : screen.getLayerElements()) {
         updateLayoutPart(e.getLayoutPart(), newWidth, newHeight);
+        e.markLayoutDirty();
       }
       screen.resetLayout();
     }
 
     for (Element e : popups.values()) {
       updateLayoutPart(e.getLayoutPart(), newWidth, newHeight);
+      e.markLayoutDirty();
     }
 
     if (currentScreen != null) {
@@ -1374,6 +1512,7 @@ public class Nifty {
   public void registerStyle(@Nonnull final StyleType style) {
     final String styleId = style.getStyleId();
     log.fine("registerStyle " + styleId);
+    clearElementTypeCaches();
 
     // Handle the simple, normal case.
     // This is a new style, register it and return early.
@@ -1408,6 +1547,7 @@ public class Nifty {
 
   public void registerControlDefintion(@Nonnull final ControlDefinitionType controlDefinition) {
     controlDefinitions.put(controlDefinition.getName(), controlDefinition);
+    clearElementTypeCaches();
     // TODO: add the same behaviour of register style and try to updating 
     // already registered control defintions.
   }
@@ -1484,6 +1624,7 @@ public class Nifty {
 
   public void setLocale(@Nonnull final Locale locale) {
     this.locale = locale;
+    clearElementTypeCaches();
     getEventService().publish(new NiftyLocaleChangedEvent(locale));
 
     if (resourceBundles.size() > 0) {
@@ -1502,9 +1643,11 @@ public class Nifty {
 
   public void addResourceBundle(@Nonnull final String id, @Nonnull final String filename) {
     resourceBundles.put(id, new BundleInfoBasename(filename));
+    clearElementTypeCaches();
   }
 
   public void addResourceBundle(@Nonnull final String id, @Nonnull final ResourceBundle resourceBundle) {
+    clearElementTypeCaches();
     BundleInfo bundleInfo = resourceBundles.get(id);
     if (bundleInfo != null && bundleInfo instanceof BundleInfoResourceBundle) {
       ((BundleInfoResourceBundle) bundleInfo).add(resourceBundle);
@@ -1520,6 +1663,7 @@ public class Nifty {
 
   public void setGlobalProperties(@Nullable final Properties globalProperties) {
     this.globalProperties = globalProperties;
+    clearElementTypeCaches();
   }
 
   @Nonnull
@@ -1831,9 +1975,34 @@ public class Nifty {
     //attached to the ElementType and would not be copied
     ElementType elementType = type.isPrepared() ? type.copy() : type;
 
-    elementType.prepare(this, screen, screen.getRootElement().getElementType());
+    String recyclingDescription = null;
+    if (elementRecyclingEnabled && !(elementType instanceof LayerType)) {
+      recyclingDescription = ElementTypeTemplates.describe(elementType);
+      if (recyclingDescription != null) {
+        Element element = elementRecyclingPool.obtain(
+            screen, parent, recyclingDescription, elementType.getAttributes().get("id"), index);
+        if (element != null) {
+          startCreatedElement(screen, element);
+          return element;
+        }
+      }
+    }
+
+    if (elementTypeTemplatesEnabled) {
+      elementType = elementTypeTemplates.prepare(elementType, this, screen, screen.getRootElement().getElementType());
+    } else {
+      elementType.prepare(this, screen, screen.getRootElement().getElementType());
+    }
     elementType.connectParentControls(parent);
     Element element = elementType.create(parent, this, screen, layoutPart, index);
+    if (recyclingDescription != null) {
+      elementRecyclingPool.markRecyclable(element, recyclingDescription);
+    }
+    startCreatedElement(screen, element);
+    return element;
+  }
+
+  private void startCreatedElement(@Nonnull final Screen screen, @Nonnull final Element element) {
     if (screen.isBound()) {
       //screen.layoutLayers();
       element.bindControls(screen);
@@ -1842,7 +2011,6 @@ public class Nifty {
       element.startEffect(EffectEventId.onActive);
       element.onStartScreen();
     }
-    return element;
   }
 
   /**
@@ -1883,6 +2051,7 @@ public class Nifty {
    */
   public void setDebugOptionPanelColors(final boolean option) {
     this.debugOptionPanelColors = option;
+    invalidateRenderCommandCaches();
   }
 
   /**
@@ -2121,6 +2290,170 @@ public class Nifty {
     return niftyMethodInvokerDebugEnabled;
   }
 
+  /**
+   * Enable or disable the incremental layout. When this is enabled changes to the constraints, padding, margin and
+   * text of elements as well as adding and removing elements only mark the affected elements as dirty. The dirty
+   * parts of the current screen are then layouted once during {@link #update()} (or when
+   * {@link Screen#layoutLayers()} is called) instead of layouting the whole layer each time something changes.
+   * <p/>
+   * Please note that in this mode changing the text of an element will not update the size of the element right
+   * away. The new size is only available after the next update. The default value is false.
+   *
+   * @param incrementalLayout true to enable the incremental layout and false to disable it
+   */
+  public void setIncrementalLayout(final boolean incrementalLayout) {
+    this.incrementalLayout = incrementalLayout;
+  }
+
+  public boolean isIncrementalLayout() {
+    return incrementalLayout;
+  }
+
+  /**
+   * Enable or disable the mouse over index. When this is enabled the elements of the current screen that are visible
+   * to mouse events are kept in a spatial grid. Each mouse event will then only process the elements below the mouse
+   * cursor and the elements that still need to see the mouse (pressed mouse buttons, active hover effects) instead of
+   * all elements of the screen. This can speed up the mouse handling of screens with a lot of elements a lot. The
+   * default value is false.
+   *
+   * @param mouseOverIndexEnabled true to enable the mouse over index and false to disable it
+   */
+  public void setMouseOverIndexEnabled(final boolean mouseOverIndexEnabled) {
+    this.mouseOverIndexEnabled = mouseOverIndexEnabled;
+  }
+
+  public boolean isMouseOverIndexEnabled() {
+    return mouseOverIndexEnabled;
+  }
+
+  /**
+   * Enable or disable the element id index. When this is enabled {@link Screen#findElementById(String)},
+   * {@link Element#findElementById(String)} and all the methods using them (like findNiftyControl()) look up the
+   * element in a hash index of the screen instead of searching the element tree. This includes the "#id" form used
+   * in control definitions. The default value is false.
+   *
+   * @param elementIdIndexEnabled true to enable the element id index and false to disable it
+   */
+  public void setElementIdIndexEnabled(final boolean elementIdIndexEnabled) {
+    this.elementIdIndexEnabled = elementIdIndexEnabled;
+  }
+
+  public boolean isElementIdIndexEnabled() {
+    return elementIdIndexEnabled;
+  }
+
+  /**
+   * Enable or disable retained rendering. When this is enabled the render calls of each element are recorded the first
+   * time the element is rendered. As long as nothing changes (layout, visibility, renderer properties, active effects)
+   * the recorded calls are replayed instead of walking the element tree again. When an element changes only its own
+   * calls are recorded again, the parent elements keep replaying the recordings of their other children. Elements
+   * with active effects are always rendered the regular way. When you modify a NiftyImage that is used by an
+   * element directly (for instance with setImageMode()) call {@link Element#invalidateRenderCache()} afterwards. This
+   * requires a render engine that implements {@link RecordingNiftyRenderEngine}, like the default one. The default
+   * value is false.
+   *
+   * @param retainedRenderingEnabled true to enable retained rendering and false to disable it
+   */
+  public void setRetainedRenderingEnabled(final boolean retainedRenderingEnabled) {
+    this.retainedRenderingEnabled = retainedRenderingEnabled;
+    invalidateRenderCommandCaches();
+  }
+
+  private void invalidateRenderCommandCaches() {
+    if (renderEngine instanceof RecordingNiftyRenderEngine) {
+      ((RecordingNiftyRenderEngine) renderEngine).invalidateRenderCommandCaches();
+    }
+  }
+
+  public boolean isRetainedRenderingEnabled() {
+    return retainedRenderingEnabled;
+  }
+
+  /**
+   * Set the FrameProfiler that should record the timings and counters of each frame. Profiling adds a small overhead
+   * to the rendering of each element and should only be enabled when the results are actually used. The default
+   * value is null which disables profiling.
+   *
+   * @param frameProfiler the FrameProfiler to use or null to disable profiling
+   */
+  public void setFrameProfiler(@Nullable final FrameProfiler frameProfiler) {
+    this.frameProfiler = frameProfiler;
+  }
+
+  @Nullable
+  public FrameProfiler getFrameProfiler() {
+    return frameProfiler;
+  }
+
+  /**
+   * Enable or disable element type templates. When this is enabled the ElementTypes of dynamically created elements
+   * (builders and {@link #createElementFromType(Screen, Element, ElementType)}) are prepared from a cached template
+   * when an ElementType with the same description (control name, style, parameters and other attributes, child
+   * elements) has already been prepared for the same screen. Only the id, the parameters and the controllers are then
+   * resolved for each new element. This speeds up creating many elements of the same kind a lot. The templates are
+   * dropped when styles, control definitions, resource bundles or the locale change. The default value is false.
+   *
+   * @param elementTypeTemplatesEnabled true to enable element type templates and false to disable them
+   */
+  public void setElementTypeTemplatesEnabled(final boolean elementTypeTemplatesEnabled) {
+    this.elementTypeTemplatesEnabled = elementTypeTemplatesEnabled;
+    elementTypeTemplates.clear();
+  }
+
+  public boolean isElementTypeTemplatesEnabled() {
+    return elementTypeTemplatesEnabled;
+  }
+
+  @Nonnull
+  public ElementTypeTemplates getElementTypeTemplates() {
+    return elementTypeTemplates;
+  }
+
+  /**
+   * Enable or disable element recycling. When this is enabled elements that have been created dynamically (builders
+   * and {@link #createElementFromType(Screen, Element, ElementType)}) are not torn down when they are removed. They are
+   * kept in a pool instead and reused when an element with an equivalent ElementType is created for the same parent
+   * element later. A reused element gets the new id, is reset to the state of its ElementType and is started again
+   * like a new element. This avoids a lot of garbage when the same kind of elements is added and removed all the time.
+   * The pool is dropped when styles, control definitions, resource bundles or the locale change. The default value is
+   * false.
+   * <p/>
+   * Only enable this when your controllers can handle being started again after
+   * {@link de.lessvoid.nifty.controls.Controller#onEndScreen()} has been called.
+   *
+   * @param elementRecyclingEnabled true to enable element recycling and false to disable it
+   */
+  public void setElementRecyclingEnabled(final boolean elementRecyclingEnabled) {
+    this.elementRecyclingEnabled = elementRecyclingEnabled;
+    elementRecyclingPool.clear();
+  }
+
+  public boolean isElementRecyclingEnabled() {
+    return elementRecyclingEnabled;
+  }
+
+  @Nonnull
+  public ElementRecyclingPool getElementRecyclingPool() {
+    return elementRecyclingPool;
+  }
+
+  /**
+   * Get the cache of text layouts used by the {@link de.lessvoid.nifty.elements.render.TextRenderer}s of this Nifty
+   * instance. The cache is cleared when a screen is removed and when Nifty exits.
+   *
+   * @return the text layout cache
+   */
+  @Nonnull
+  public TextLayoutCache getTextLayoutCache() {
+    return textLayoutCache;
+  }
+
+  // prepared ElementTypes and recycled elements depend on styles, control definitions and so on
+  private void clearElementTypeCaches() {
+    elementTypeTemplates.clear();
+    elementRecyclingPool.clear();
+  }
+
   /**
    * Sets the static default NiftyInputMapping used by all input event handlers.
    * <b>Important note: this change will persist to all Nifty instances.</b>
@@ -0,0 +1,201 @@
+package de.lessvoid.nifty;
+
+import org.bushe.swing.event.ProxySubscriber;
+import org.bushe.swing.event.ThreadSafeEventService;
+import org.bushe.swing.event.annotation.ReferenceStrength;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The EventService Nifty uses for the "NiftyEventBus". Nifty publishes an event on a topic for pretty much every mouse,
+ * focus and control event. The ThreadSafeEventService creates a new list of subscribers for every single publish, takes
+ * its listener lock and matches the topic against every subscribed topic pattern. This implementation keeps the
+ * resolved subscribers (including the pattern matches) and veto listeners of a topic until the subscriptions change,
+ * so publishing to a topic doesn't allocate anything and only matches the patterns once per topic.
+ * <p/>
+ * The resolved lists are strong references to the subscribers. As soon as anything subscribes weakly to a topic or a
+ * topic pattern the cache is disabled for good to keep the weak reference semantics. Nifty itself only uses strong
+ * topic subscriptions.
+ */
+// the ThreadSafeEventService implements getCachedEvents() and getLastEvent() of the EventService with raw types
+@SuppressWarnings("unchecked")
+public class NiftyEventService extends ThreadSafeEventService {
+  /**
+   * Topics that have been resolved but never get subscribers, like the ids of elements that are created dynamically,
+   * shouldn't let the cache grow forever. The cache is cleared when it has reached this size.
+   */
+  private static final int MAX_CACHED_TOPICS = 1024;
+
+  @Nonnull
+  private final Map<String, List<?>> subscribersByTopicCache = new ConcurrentHashMap<String, List<?>>();
+  @Nonnull
+  private final Map<String, List<?>> vetoListenersByTopicCache = new ConcurrentHashMap<String, List<?>>();
+  @Nonnull
+  private final Object topicCacheLock = new Object();
+  private volatile int subscriptionVersion;
+  private volatile boolean topicCacheDisabled;
+  private volatile boolean eventCacheUsed;
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> List<T> getSubscribers(final String topic) {
+    if (topic == null || topicCacheDisabled) {
+      return super.getSubscribers(topic);
+    }
+    List<?> result = subscribersByTopicCache.get(topic);
+    if (result == null) {
+      int version = subscriptionVersion;
+      result = Collections.unmodifiableList(super.<Object>getSubscribers(topic));
+      putIntoTopicCache(subscribersByTopicCache, topic, result, version);
+    }
+    return (List<T>) result;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> List<T> getVetoEventListeners(final String topicOrPattern) {
+    if (topicOrPattern == null || topicCacheDisabled) {
+      return super.getVetoEventListeners(topicOrPattern);
+    }
+    List<?> result = vetoListenersByTopicCache.get(topicOrPattern);
+    if (result == null) {
+      int version = subscriptionVersion;
+      result = Collections.unmodifiableList(super.<Object>getVetoEventListeners(topicOrPattern));
+      putIntoTopicCache(vetoListenersByTopicCache, topicOrPattern, result, version);
+    }
+    return (List<T>) result;
+  }
+
+  @Override
+  protected boolean subscribe(
+      final Object classTopicOrPatternWrapper,
+      final Map<Object, Object> subscriberMap,
+      final Object subscriber) {
+    if (isTopicSubscription(classTopicOrPatternWrapper) && isWeakSubscriber(subscriber)) {
+      topicCacheDisabled = true;
+    }
+    try {
+      return super.subscribe(classTopicOrPatternWrapper, subscriberMap, subscriber);
+    } finally {
+      invalidateTopicCache();
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  protected boolean unsubscribe(final Object o, final Map subscriberMap, final Object subscriber) {
+    try {
+      return super.unsubscribe(o, subscriberMap, subscriber);
+    } finally {
+      invalidateTopicCache();
+    }
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  protected boolean unsubscribeVetoListener(final Object o, final Map vetoListenerMap, final Object vl) {
+    try {
+      return super.unsubscribeVetoListener(o, vetoListenerMap, vl);
+    } finally {
+      invalidateTopicCache();
+    }
+  }
+
+  @Override
+  public void clearAllSubscribers() {
+    try {
+      super.clearAllSubscribers();
+    } finally {
+      invalidateTopicCache();
+    }
+  }
+
+  /**
+   * The ThreadSafeEventService takes its listener lock for every publish to add the event to the event cache, even
+   * when no event is ever cached (which is the default). This skips that until an event cache size has been set.
+   */
+  @Override
+  protected void addEventToCache(final Object event, final String topic, final Object eventObj) {
+    if (eventCacheUsed) {
+      super.addEventToCache(event, topic, eventObj);
+    }
+  }
+
+  @Override
+  public void setDefaultCacheSizePerClassOrTopic(final int defaultCacheSizePerClassOrTopic) {
+    eventCacheUsed = true;
+    super.setDefaultCacheSizePerClassOrTopic(defaultCacheSizePerClassOrTopic);
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  public void setCacheSizeForEventClass(final Class eventClass, final int cacheSize) {
+    eventCacheUsed = true;
+    super.setCacheSizeForEventClass(eventClass, cacheSize);
+  }
+
+  @Override
+  public void setCacheSizeForTopic(final String topicName, final int cacheSize) {
+    eventCacheUsed = true;
+    super.setCacheSizeForTopic(topicName, cacheSize);
+  }
+
+  @Override
+  public void setCacheSizeForTopic(final Pattern pattern, final int cacheSize) {
+    eventCacheUsed = true;
+    super.setCacheSizeForTopic(pattern, cacheSize);
+  }
+
+  /**
+   * @return the number of topics with resolved subscribers that are currently cached (for testing)
+   */
+  int getCachedTopicCount() {
+    return subscribersByTopicCache.size();
+  }
+
+  // A result computed while the subscriptions changed is not stored because it might already be outdated.
+  private void putIntoTopicCache(
+      @Nonnull final Map<String, List<?>> cache,
+      @Nonnull final String topic,
+      @Nonnull final List<?> subscribers,
+      final int version) {
+    synchronized (topicCacheLock) {
+      if (version != subscriptionVersion) {
+        return;
+      }
+      if (cache.size() >= MAX_CACHED_TOPICS) {
+        cache.clear();
+      }
+      cache.put(topic, subscribers);
+    }
+  }
+
+  private void invalidateTopicCache() {
+    synchronized (topicCacheLock) {
+      subscriptionVersion++;
+      subscribersByTopicCache.clear();
+      vetoListenersByTopicCache.clear();
+    }
+  }
+
+  private static boolean isTopicSubscription(@Nullable final Object classTopicOrPatternWrapper) {
+    // event classes and generic types are subscribed with their Type, topics with their String or a PatternWrapper
+    return !(classTopicOrPatternWrapper instanceof Type);
+  }
+
+  private static boolean isWeakSubscriber(@Nullable final Object subscriber) {
+    if (subscriber instanceof WeakReference) {
+      return true;
+    }
+    return subscriber instanceof ProxySubscriber &&
+        ((ProxySubscriber) subscriber).getReferenceStrength() == ReferenceStrength.WEAK;
+  }
+}
@@ -16,11 +16,16 @@ import java.util.logging.Logger;
  */
 public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
   private static final Logger log = Logger.getLogger(NiftyMethodInvoker.class.getName());
+  private static final String[] NO_PARAMETERS = new String[0];
 
   @Nullable
   private final Object[] target;
   @Nullable
   private final String methodWithName;
+  @Nullable
+  private final String methodName;
+  @Nonnull
+  private final String[] encodedParameters;
   private final Nifty nifty;
 
   /**
@@ -29,6 +34,8 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
   public NiftyMethodInvoker(final Nifty nifty) {
     this.nifty = nifty;
     this.methodWithName = null;
+    this.methodName = null;
+    this.encodedParameters = NO_PARAMETERS;
     this.target = null;
   }
 
@@ -40,6 +47,13 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
   public NiftyMethodInvoker(final Nifty nifty, @Nullable final String methodParam, @Nonnull final Object ... targetParam) {
     this.nifty = nifty;
     this.methodWithName = methodParam;
+    if (methodParam == null) {
+      this.methodName = null;
+      this.encodedParameters = NO_PARAMETERS;
+    } else {
+      this.methodName = MethodResolver.extractMethodName(methodParam);
+      this.encodedParameters = MethodResolver.extractParameters(methodParam);
+    }
     if (targetParam.length == 0) {
       this.target = null;
     } else {
@@ -80,8 +94,9 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
     // process all methods (first one wins)
     for (Object object : target) {
       if (object != null) {
-        Method method = MethodResolver.findMethod(object.getClass(), methodWithName);
-        if (method != null) {
+        MethodResolver.ResolvedMethod resolved = resolveMethod(object.getClass(), invokeParametersParam.length);
+        if (resolved != null) {
+          Method method = resolved.getMethod();
           // we've found a method with the given name. now we need to match the parameters.
           //
           // 1) if the method we want to call (the string from the xml that is!) has parameters
@@ -93,11 +108,11 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
           //        if this is not possible we fall back to 2b)
           //    2b) just call the method without any parameters
           Object methodResult;
-          Object[] invokeParameters = MethodResolver.extractParameters(methodWithName);
+          Object[] invokeParameters = encodedParameters;
           if (invokeParameters.length > 0) {
             // does the method supports the parameters?
             // TODO: not only check for the count but check the type too
-            if (getMethodParameterCount(method) == invokeParameters.length) {
+            if (resolved.getMethodParameterCount() == invokeParameters.length) {
               log.fine("invoking method '" + methodWithName + "' with (" + debugParaString(invokeParameters) + ")");
               methodResult = callMethod(object, method, invokeParameters);
             } else {
@@ -107,7 +122,7 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
           } else {
             // no invokeParameters encoded. this means we can call the method as is or with the invokeParametersParam
             if (invokeParametersParam.length > 0) {
-              if (getMethodParameterCount(method) == invokeParametersParam.length) {
+              if (resolved.getMethodParameterCount() == invokeParametersParam.length) {
                 log.fine("invoking method '" + methodWithName + "' with the actual parameters (" + debugParaString(invokeParametersParam) + ")");
                 methodResult = callMethod(object, method, invokeParametersParam);
               } else {
@@ -135,6 +150,23 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
     }
   }
 
+  /**
+   * Resolve the method for the given class. Encoded parameters replace the parameters the method is invoked with, so
+   * the method is looked up for the number of encoded parameters when there are any.
+   * @param c the class of the target object
+   * @param invokeParameterCount the number of parameters the method is invoked with
+   * @return the resolved method or null if the class has no method with that name
+   */
+  @Nullable
+  private MethodResolver.ResolvedMethod resolveMethod(@Nonnull final Class<?> c, final int invokeParameterCount) {
+    if (methodName == null) {
+      log.warning("Could not extract method from [" + methodWithName + "]");
+      return null;
+    }
+    int parameterCount = encodedParameters.length > 0 ? encodedParameters.length : invokeParameterCount;
+    return MethodResolver.resolveMethod(c, methodName, parameterCount);
+  }
+
   /**
    * Invoke the given method on the given object.
    * @param targetObject target object to invoke method on
@@ -170,16 +202,6 @@ public class NiftyMethodInvoker implements NiftyDelayedMethodInvoke {
     }
   }
 
-  /**
-   * return count of actual method parameters.
-   * @param method method
-   * @return count of parameters the method needs
-   */
-  private int getMethodParameterCount(@Nonnull final Method method) {
-    Class < ? > [] parameterTypes = method.getParameterTypes();
-    return parameterTypes.length;
-  }
-
   /**
    * helper method to convert the given parameter object array into a string for debugging.
    * @param invokeParameters parameter array
@@ -225,13 +225,21 @@ public class Effect {
   }
 
   public boolean isInsideFalloff(final int x, final int y) {
-    if (falloff != null && falloff.getFalloffConstraint() != HoverFalloffConstraint.none) {
+    if (falloff != null && hasHoverFalloffConstraint()) {
       return falloff.isInside(element, x, y);
     } else {
       return element.isMouseInsideElement(x, y);
     }
   }
 
+  /**
+   * Check if this is a hover effect that uses a falloff constraint. The area the hover effect reacts to is not the
+   * area of the element in this case.
+   */
+  public boolean hasHoverFalloffConstraint() {
+    return falloff != null && falloff.getFalloffConstraint() != HoverFalloffConstraint.none;
+  }
+
   public boolean isOverlay() {
     return overlay;
   }
@@ -11,6 +11,7 @@ import javax.annotation.Nullable;
 
 import de.lessvoid.nifty.EndNotify;
 import de.lessvoid.nifty.elements.Element;
+import de.lessvoid.nifty.profiler.FrameProfiler;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
 import de.lessvoid.nifty.spi.time.TimeProvider;
 
@@ -61,6 +62,13 @@ public class EffectManager {
       EffectEventId.onClick
   };
 
+  // the effects that are processed when the mouse moves over the element
+  private static final EffectEventId[] hoverEffectIds = new EffectEventId[] {
+      EffectEventId.onHover,
+      EffectEventId.onStartHover,
+      EffectEventId.onEndHover
+  };
+
   @Nonnull
   private final Map<EffectEventId, EffectProcessor> effectProcessor = new EnumMap<EffectEventId,
       EffectProcessor>(EffectEventId.class);
@@ -144,26 +152,32 @@ public class EffectManager {
   }
 
   public void renderPre(@Nonnull final NiftyRenderEngine renderEngine, final Element element) {
-    renderInternal(renderEngine, renderPhasePre);
+    renderInternal(renderEngine, renderPhasePre, element);
   }
 
   public void renderPost(@Nonnull final NiftyRenderEngine renderEngine, final Element element) {
-    renderInternal(renderEngine, renderPhasePost);
+    renderInternal(renderEngine, renderPhasePost, element);
   }
 
   public void renderOverlay(@Nonnull final NiftyRenderEngine renderEngine, final Element element) {
-    renderInternal(renderEngine, renderPhaseOverlay);
+    renderInternal(renderEngine, renderPhaseOverlay, element);
   }
 
   private void renderInternal(
       @Nonnull final NiftyRenderEngine renderEngine,
-      @Nonnull final RenderPhase phase) {
+      @Nonnull final RenderPhase phase,
+      @Nullable final Element element) {
+    FrameProfiler profiler = element != null ? element.getNifty().getFrameProfiler() : null;
+    long start = profiler != null ? profiler.begin() : 0;
     for (int i = 0; i < effectsRenderOrder.length; i++) {
       EffectProcessor processor = getEffectProcessor(effectsRenderOrder[i]);
       if (processor != null) {
         phase.render(processor, renderEngine);
       }
     }
+    if (profiler != null) {
+      profiler.end(FrameProfiler.Section.EFFECTS, start);
+    }
   }
 
   /**
@@ -199,6 +213,36 @@ public class EffectManager {
     }
   }
 
+  /**
+   * Checks if any of the hover effects uses a falloff constraint. These hover effects can react to the mouse even
+   * when the mouse is outside of the element.
+   *
+   * @return true if a hover effect with a falloff constraint is registered
+   */
+  public boolean hasHoverFalloffConstraint() {
+    for (int i = 0; i < hoverEffectIds.length; i++) {
+      EffectProcessor processor = getEffectProcessor(hoverEffectIds[i]);
+      if (processor != null && processor.hasHoverFalloffConstraint()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if any of the hover effects is currently active.
+   *
+   * @return true if a hover effect is active
+   */
+  public boolean isHoverEffectActive() {
+    for (int i = 0; i < hoverEffectIds.length; i++) {
+      if (isActive(hoverEffectIds[i])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * checks if a certain effect is active.
    *
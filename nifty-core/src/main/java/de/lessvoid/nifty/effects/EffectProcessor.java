@@ -41,6 +41,8 @@ public interface EffectProcessor {
 
   void processHoverDeactivate(int x, int y);
 
+  boolean hasHoverFalloffConstraint();
+
   void removeAllEffects();
 
   @Nonnull
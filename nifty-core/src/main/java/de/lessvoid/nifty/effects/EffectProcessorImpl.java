@@ -264,6 +264,17 @@ public class EffectProcessorImpl implements EffectProcessor {
     }
   }
 
+  @Override
+  public boolean hasHoverFalloffConstraint() {
+    for (int i = 0; i < allEffects.size(); i++) {
+      Effect e = allEffects.get(i);
+      if (e.isHoverEffect() && e.hasHoverFalloffConstraint()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void removeAllEffects() {
     allEffects.clear();
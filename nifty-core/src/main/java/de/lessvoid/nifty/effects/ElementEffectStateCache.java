@@ -8,6 +8,7 @@ import java.util.Map;
 public class ElementEffectStateCache {
   @Nonnull
   private final Map<EffectEventId, Boolean> states;
+  private int activeCount;
 
   public ElementEffectStateCache() {
     states = new EnumMap<EffectEventId, Boolean>(EffectEventId.class);
@@ -22,6 +23,19 @@ public class ElementEffectStateCache {
   }
 
   public void set(@Nonnull final EffectEventId eventId, final boolean effectActive) {
-    states.put(eventId, effectActive);
+    @Nullable Boolean oldValue = states.put(eventId, effectActive);
+    boolean oldActive = oldValue != null && oldValue;
+    if (oldActive != effectActive) {
+      activeCount += effectActive ? 1 : -1;
+    }
+  }
+
+  /**
+   * Check if any of the effects is active.
+   *
+   * @return true if there is at least one active effect
+   */
+  public boolean hasActiveEffects() {
+    return activeCount > 0;
   }
 }
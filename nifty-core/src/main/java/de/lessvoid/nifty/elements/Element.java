@@ -1,11 +1,13 @@
 package de.lessvoid.nifty.elements;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -40,11 +42,14 @@ import de.lessvoid.nifty.elements.render.TextRenderer;
 import de.lessvoid.nifty.elements.tools.ElementTreeTraverser;
 import de.lessvoid.nifty.input.NiftyMouseInputEvent;
 import de.lessvoid.nifty.input.keyboard.KeyboardInputEvent;
+import de.lessvoid.nifty.layout.Box;
 import de.lessvoid.nifty.layout.BoxConstraints;
 import de.lessvoid.nifty.layout.LayoutPart;
 import de.lessvoid.nifty.layout.align.HorizontalAlign;
 import de.lessvoid.nifty.layout.align.VerticalAlign;
+import de.lessvoid.nifty.layout.manager.AbsolutePositionLayout;
 import de.lessvoid.nifty.layout.manager.LayoutManager;
+import de.lessvoid.nifty.loaderv2.types.ControlType;
 import de.lessvoid.nifty.loaderv2.types.ElementType;
 import de.lessvoid.nifty.loaderv2.types.PopupType;
 import de.lessvoid.nifty.loaderv2.types.apply.ApplyRenderText;
@@ -53,7 +58,11 @@ import de.lessvoid.nifty.loaderv2.types.apply.ApplyRendererImage;
 import de.lessvoid.nifty.loaderv2.types.apply.ApplyRendererPanel;
 import de.lessvoid.nifty.loaderv2.types.apply.Convert;
 import de.lessvoid.nifty.loaderv2.types.helper.PaddingAttributeParser;
+import de.lessvoid.nifty.profiler.FrameProfiler;
+import de.lessvoid.nifty.render.CullingNiftyRenderEngine;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
+import de.lessvoid.nifty.render.RecordingNiftyRenderEngine;
+import de.lessvoid.nifty.render.RenderCommandCache;
 import de.lessvoid.nifty.screen.KeyInputHandler;
 import de.lessvoid.nifty.screen.MouseOverHandler;
 import de.lessvoid.nifty.screen.Screen;
@@ -128,6 +137,14 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   @Nonnull
   private final ElementEffectStateCache effectStateCache = new ElementEffectStateCache();
 
+  /**
+   * The recorded render calls of this element. The render calls of the child elements are referenced from their own
+   * caches. This is only used when retained rendering is enabled and it's created the first time the element is
+   * rendered in this mode.
+   */
+  @Nullable
+  private RenderCommandCache renderCommandCache;
+
   /**
    * Nifty instance this element is attached to.
    */
@@ -216,10 +233,70 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   private int parentClipWidth;
   private int parentClipHeight;
 
+  // the area covered by this element and all of its child elements (limited to this element when it clips its
+  // children). this is used to skip whole subtrees that are completely outside of the current clipping area or the
+  // display.
+  private int renderBoundsX0;
+  private int renderBoundsY0;
+  private int renderBoundsX1;
+  private int renderBoundsY1;
+  // true when the area can't be calculated, for instance for text that is rendered with a font that is inherited
+  // from the render state. such elements are never skipped.
+  private boolean renderBoundsUnknown;
+  private boolean renderBoundsDirty = true;
+
+  // the labels used for profiling, resolved on first use (see resolveProfilerLabels())
+  @Nullable
+  private String profilerElementType;
+  @Nullable
+  private String profilerControlName;
+
+  // the description of the ElementType this element has been created from when it can be recycled (see
+  // ElementRecyclingPool)
+  @Nullable
+  private String recyclingDescription;
+
   // this will be set to true when constraints, padding, margin and so on have been changed and this change should
   // publish an event on the event bus later
   private boolean constraintsChanged;
 
+  /**
+   * This is true when the box of this element needs to be calculated again by the parent of this element. New
+   * elements start dirty. Changes to the constraints, padding, margin or to the text of the element will set it.
+   */
+  private boolean layoutDirty = true;
+
+  /**
+   * This is true when the children of this element need to be layouted again even when none of the children is dirty
+   * itself (this happens for instance when a child element has been removed).
+   */
+  private boolean layoutChildrenDirty;
+
+  /**
+   * This is true when this element or any of its child elements (recursively) is dirty. This is used to find the
+   * dirty parts of the element tree without visiting all the elements.
+   */
+  private boolean layoutDirtyBelow = true;
+
+  /**
+   * Temporary flag used while resolving the dirty elements in {@link #layoutDirtyElements()}. It's set to true for
+   * all elements that need to layout their children again.
+   */
+  private boolean layoutRequired;
+
+  /**
+   * We keep the LayoutPart list of all child elements so that we don't need to create a new list each time we layout
+   * the child elements. This is reset when the child elements change.
+   */
+  @Nullable
+  private List<LayoutPart> layoutPartChildren;
+
+  /**
+   * A list we reuse when we need a temporary list of LayoutParts of some of the child elements while layouting.
+   */
+  @Nullable
+  private List<LayoutPart> layoutPartChildrenTemp;
+
   /*
    * Whether or not this element should ignore all mouse events.
    */
@@ -377,10 +454,12 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     }
     //Subscribe for a style refresh
     nifty.getEventService().subscribeStrongly("style-refresh:" + getStyle(), styleListener);
+    invalidateRenderCache();
   }
 
   public void initializeFromPostAttributes(@Nonnull final Attributes attributes) {
     visible = attributes.getAsBoolean("visible", Convert.DEFAULT_VISIBLE);
+    invalidateRenderCache();
   }
 
   @Nullable
@@ -566,10 +645,42 @@ public class Element implements NiftyEvent, EffectManager.Notify {
 
   public void setHeight(int height) {
     layoutPart.getBox().setHeight(height);
+    invalidateMouseOverIndex();
+    invalidateRenderCache();
   }
 
   public void setWidth(int width) {
     layoutPart.getBox().setWidth(width);
+    invalidateMouseOverIndex();
+    invalidateRenderCache();
+  }
+
+  /**
+   * Mark the recorded render calls of this element as outdated. In case this element doesn't have recorded render
+   * calls of its own the recording of the next parent element that has some is marked instead. The recordings of the
+   * other parent elements reference that recording and notice the change on their own. This is only required when
+   * retained rendering is enabled (see {@link Nifty#setRetainedRenderingEnabled(boolean)}). Nifty calls this on its
+   * own for all changes it knows about. You only need to call this when you change something the element can't
+   * detect, like modifying a NiftyImage that is used by this element.
+   */
+  public void invalidateRenderCache() {
+    boolean cacheInvalidated = false;
+    Element current = this;
+    while (current != null) {
+      current.renderBoundsDirty = true;
+      if (!cacheInvalidated && current.renderCommandCache != null) {
+        current.renderCommandCache.invalidate();
+        cacheInvalidated = true;
+      }
+      current = current.parent;
+    }
+  }
+
+  // the position, size or the mouse handling of this or any child element has changed
+  private void invalidateMouseOverIndex() {
+    if (screen != null) {
+      screen.invalidateMouseOverIndex();
+    }
   }
 
   @Nonnull
@@ -658,6 +769,19 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     } else {
       elementsRenderOrder = elementsRenderOrderSet.toArray(new Element[elementsRenderOrderSet.size()]);
     }
+    layoutPartChildren = null;
+    invalidateMouseOverIndex();
+    invalidateRenderCache();
+
+    Screen indexScreen = findIndexScreen();
+    if (indexScreen != null) {
+      child.registerElementIds(indexScreen);
+    }
+
+    // the parent of the child might not have been set yet so we can't use child.markLayoutDirty() here
+    child.layoutDirty = true;
+    child.layoutDirtyBelow = true;
+    markLayoutDirtyBelow();
   }
 
   /**
@@ -676,6 +800,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
         Element shouldBeThis = parentChildren.remove(curInd);
         if (shouldBeThis.equals(this)) {
           parentChildren.add(index, this);
+          parent.layoutPartChildren = null;
+          parent.markLayoutChildrenDirty();
+          parent.invalidateRenderCache();
         } else {
           log.severe("Setting index failed, detected index did not return correct element. Undoing operation");
           parentChildren.add(curInd, shouldBeThis);
@@ -685,35 +812,127 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   public void render(@Nonnull final NiftyRenderEngine r) {
-    if (visible) {
-      if (effectManager.isEmpty()) {
-        r.saveStates();
-        renderElement(r);
-        renderChildren(r);
-        r.restoreStates();
-      } else {
-        r.saveStates();
-        effectManager.renderPre(r, this);
-        renderElement(r);
-        effectManager.renderPost(r, this);
-        renderChildren(r);
-        r.restoreStates();
-        r.saveStates();
-        effectManager.renderOverlay(r, this);
-        r.restoreStates();
+    if (!visible) {
+      recordSkipped(r);
+      return;
+    }
+    FrameProfiler profiler = nifty.getFrameProfiler();
+    if (profiler != null) {
+      renderProfiled(r, profiler);
+    } else if (!renderRetained(r)) {
+      renderInternal(r);
+    }
+  }
+
+  private void renderProfiled(@Nonnull final NiftyRenderEngine r, @Nonnull final FrameProfiler profiler) {
+    resolveProfilerLabels();
+    profiler.count(FrameProfiler.Counter.ELEMENTS_RENDERED, 1);
+    if (profilerControlName == null) {
+      if (!renderRetained(r)) {
+        renderInternal(r);
       }
+      return;
+    }
+    profiler.beginControl();
+    if (!renderRetained(r)) {
+      renderInternal(r);
+    }
+    profiler.endControl(profilerControlName);
+  }
+
+  /**
+   * Render this element using the recorded render calls when retained rendering is enabled.
+   *
+   * @return true when the element has been rendered and false if it needs to be rendered the regular way
+   */
+  private boolean renderRetained(@Nonnull final NiftyRenderEngine r) {
+    if (!nifty.isRetainedRenderingEnabled() || !(r instanceof RecordingNiftyRenderEngine) ||
+        effectStateCache.hasActiveEffects()) {
+      return false;
+    }
+    RecordingNiftyRenderEngine recordingEngine = (RecordingNiftyRenderEngine) r;
+    if (renderCommandCache == null) {
+      renderCommandCache = new RenderCommandCache();
+    } else if (recordingEngine.replay(renderCommandCache)) {
+      return true;
+    }
+    recordingEngine.beginRecording(renderCommandCache);
+    renderInternal(r);
+    recordingEngine.endRecording();
+    return true;
+  }
+
+  // the recording of the parent element needs to notice when this element changes although it didn't render anything
+  private void recordSkipped(@Nonnull final NiftyRenderEngine r) {
+    if (!(r instanceof RecordingNiftyRenderEngine) || !((RecordingNiftyRenderEngine) r).isRecording()) {
+      return;
+    }
+    if (renderCommandCache == null) {
+      renderCommandCache = new RenderCommandCache();
+    }
+    ((RecordingNiftyRenderEngine) r).recordSkipped(renderCommandCache);
+  }
+
+  private void renderInternal(@Nonnull final NiftyRenderEngine r) {
+    if (effectManager.isEmpty()) {
+      r.saveStates();
+      renderElement(r);
+      renderChildren(r);
+      r.restoreStates();
+    } else {
+      r.saveStates();
+      effectManager.renderPre(r, this);
+      renderElement(r);
+      effectManager.renderPost(r, this);
+      renderChildren(r);
+      r.restoreStates();
+      r.saveStates();
+      effectManager.renderOverlay(r, this);
+      r.restoreStates();
     }
   }
 
   private void renderElement(@Nonnull final NiftyRenderEngine r) {
+    FrameProfiler profiler = nifty.getFrameProfiler();
+    long start = profiler != null ? profiler.begin() : 0;
     for (int i = 0; i < elementRenderer.length; i++) {
       ElementRenderer renderer = elementRenderer[i];
       renderer.render(this, r);
     }
+    if (profiler != null && elementRenderer.length > 0) {
+      resolveProfilerLabels();
+      assert profilerElementType != null;
+      profiler.endElementType(profilerElementType, start);
+    }
+  }
+
+  // resolves the name of the element type ("panel", "text", "image", "layer" and so on) and, for controls, the name
+  // of the control only once instead of for every frame
+  private void resolveProfilerLabels() {
+    if (profilerElementType != null) {
+      return;
+    }
+    if (elementType instanceof ControlType) {
+      profilerControlName = elementType.getAttributes().get("name");
+    }
+    String name = elementType.getClass().getSimpleName();
+    if (name.endsWith("Type") && name.length() > "Type".length()) {
+      name = name.substring(0, name.length() - "Type".length());
+    }
+    profilerElementType = name.toLowerCase(Locale.ENGLISH);
   }
 
   private void renderChildren(@Nonnull final NiftyRenderEngine r) {
     if (clipChildren) {
+      if (r instanceof CullingNiftyRenderEngine &&
+          ((CullingNiftyRenderEngine) r).isOutsideClip(getX(), getY(), getX() + getWidth(), getY() + getHeight())) {
+        // nothing of our children would be visible
+        FrameProfiler profiler = nifty.getFrameProfiler();
+        if (profiler != null && elementsRenderOrder != null) {
+          profiler.count(FrameProfiler.Counter.ELEMENTS_CULLED, elementsRenderOrder.length);
+        }
+        return;
+      }
       r.enableClip(getX(), getY(), getX() + getWidth(), getY() + getHeight());
       renderInternalChildElements(r);
       r.disableClip();
@@ -726,11 +945,69 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     if (elementsRenderOrder != null) {
       for (int i = 0; i < elementsRenderOrder.length; i++) {
         Element p = elementsRenderOrder[i];
-        p.render(r);
+        if (!p.isOutsideClip(r)) {
+          p.render(r);
+        } else {
+          p.recordSkipped(r);
+          FrameProfiler profiler = nifty.getFrameProfiler();
+          if (profiler != null) {
+            profiler.count(FrameProfiler.Counter.ELEMENTS_CULLED, 1);
+          }
+        }
       }
     }
   }
 
+  // Checks if this element and all of its children are completely outside of the current clipping area or, when
+  // clipping is disabled, the display. A skipped element doesn't render anything, including its effects and text.
+  // Elements with active effects (of their own or of any child element, see effectStateChanged()) are never skipped
+  // because effects like move are allowed to render outside of the element.
+  private boolean isOutsideClip(@Nonnull final NiftyRenderEngine r) {
+    if (!(r instanceof CullingNiftyRenderEngine) || !visible || effectStateCache.hasActiveEffects()) {
+      return false;
+    }
+    updateRenderBounds();
+    return !renderBoundsUnknown &&
+        ((CullingNiftyRenderEngine) r).isOutsideClip(renderBoundsX0, renderBoundsY0, renderBoundsX1, renderBoundsY1);
+  }
+
+  private void updateRenderBounds() {
+    if (!renderBoundsDirty) {
+      return;
+    }
+    renderBoundsX0 = getX();
+    renderBoundsY0 = getY();
+    renderBoundsX1 = getX() + getWidth();
+    renderBoundsY1 = getY() + getHeight();
+    renderBoundsUnknown = false;
+    // text that doesn't fit is rendered outside of the element
+    TextRenderer textRenderer = getRenderer(TextRenderer.class);
+    if (textRenderer != null) {
+      Box textBounds = textRenderer.getTextBounds(this);
+      if (textBounds == null) {
+        renderBoundsUnknown = true;
+      } else {
+        renderBoundsX0 = Math.min(renderBoundsX0, textBounds.getX());
+        renderBoundsY0 = Math.min(renderBoundsY0, textBounds.getY());
+        renderBoundsX1 = Math.max(renderBoundsX1, textBounds.getX() + textBounds.getWidth());
+        renderBoundsY1 = Math.max(renderBoundsY1, textBounds.getY() + textBounds.getHeight());
+      }
+    }
+    if (!clipChildren && children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        Element w = children.get(i);
+        w.updateRenderBounds();
+        renderBoundsUnknown |= w.renderBoundsUnknown;
+        renderBoundsX0 = Math.min(renderBoundsX0, w.renderBoundsX0);
+        renderBoundsY0 = Math.min(renderBoundsY0, w.renderBoundsY0);
+        renderBoundsX1 = Math.max(renderBoundsX1, w.renderBoundsX1);
+        renderBoundsY1 = Math.max(renderBoundsY1, w.renderBoundsY1);
+      }
+    }
+    renderBoundsDirty = false;
+  }
+
   public void setLayoutManager(@Nullable final LayoutManager newLayout) {
     this.layoutManager = newLayout;
   }
@@ -790,10 +1067,10 @@ public class Element implements NiftyEvent, EffectManager.Notify {
                 (newWidthPx));
             newWidthPx += this.layoutPart.getBoxConstraints().getPaddingRight().getValueAsInt(newWidth.getValueAsInt
                 (newWidthPx));
-            setConstraintWidth(SizeValue.def(newWidthPx));
+            updateConstraintWidth(SizeValue.def(newWidthPx));
           }
         } else {
-          setConstraintWidth(SizeValue.def());
+          updateConstraintWidth(SizeValue.def());
         }
 
       } else if (myWidth.hasSum()) {
@@ -805,9 +1082,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
               (newWidthPx));
           newWidthPx += this.layoutPart.getBoxConstraints().getPaddingRight().getValueAsInt(newWidth.getValueAsInt
               (newWidthPx));
-          setConstraintWidth(SizeValue.sum(newWidthPx));
+          updateConstraintWidth(SizeValue.sum(newWidthPx));
         } else {
-          setConstraintWidth(SizeValue.sum(0));
+          updateConstraintWidth(SizeValue.sum(0));
         }
 
       } else if (myWidth.hasMax()) {
@@ -819,9 +1096,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
               (newWidthPx));
           newWidthPx += this.layoutPart.getBoxConstraints().getPaddingRight().getValueAsInt(newWidth.getValueAsInt
               (newWidthPx));
-          setConstraintWidth(SizeValue.max(newWidthPx));
+          updateConstraintWidth(SizeValue.max(newWidthPx));
         } else {
-          setConstraintWidth(SizeValue.max(0));
+          updateConstraintWidth(SizeValue.max(0));
         }
 
       }
@@ -834,7 +1111,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
       return Collections.emptyList();
     }
     final int childrenCount = children.size();
-    List<LayoutPart> layoutPartChild = new ArrayList<LayoutPart>(childrenCount);
+    List<LayoutPart> layoutPartChild = getLayoutPartChildrenTemp(childrenCount);
     for (int i = 0; i < childrenCount; i++) {
       Element e = children.get(i);
       SizeValue childWidth = e.getConstraintWidth();
@@ -845,6 +1122,29 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     return layoutPartChild;
   }
 
+  @Nonnull
+  private List<LayoutPart> getLayoutPartChildrenTemp(final int childrenCount) {
+    if (layoutPartChildrenTemp == null) {
+      layoutPartChildrenTemp = new ArrayList<LayoutPart>(childrenCount);
+    } else {
+      layoutPartChildrenTemp.clear();
+    }
+    return layoutPartChildrenTemp;
+  }
+
+  // we need a list of LayoutPart and not of Element, so we'll build one here and keep it until the children change
+  @Nonnull
+  private List<LayoutPart> getLayoutPartChildren(@Nonnull final List<Element> children) {
+    if (layoutPartChildren == null) {
+      final int childrenCount = children.size();
+      layoutPartChildren = new ArrayList<LayoutPart>(childrenCount);
+      for (int i = 0; i < childrenCount; i++) {
+        layoutPartChildren.add(children.get(i).layoutPart);
+      }
+    }
+    return layoutPartChildren;
+  }
+
   private void preProcessConstraintHeight() {
     if (children != null) {
       final int childrenCount = children.size();
@@ -885,10 +1185,10 @@ public class Element implements NiftyEvent, EffectManager.Notify {
                 (newHeightPx));
             newHeightPx += this.layoutPart.getBoxConstraints().getPaddingBottom().getValueAsInt(newHeight
                 .getValueAsInt(newHeightPx));
-            setConstraintHeight(SizeValue.def(newHeightPx));
+            updateConstraintHeight(SizeValue.def(newHeightPx));
           }
         } else {
-          setConstraintHeight(SizeValue.def());
+          updateConstraintHeight(SizeValue.def());
         }
 
       } else if (myHeight.hasSum()) {
@@ -900,9 +1200,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
               (newHeightPx));
           newHeightPx += this.layoutPart.getBoxConstraints().getPaddingBottom().getValueAsInt(newHeight.getValueAsInt
               (newHeightPx));
-          setConstraintHeight(SizeValue.sum(newHeightPx));
+          updateConstraintHeight(SizeValue.sum(newHeightPx));
         } else {
-          setConstraintHeight(SizeValue.sum(0));
+          updateConstraintHeight(SizeValue.sum(0));
         }
 
       } else if (myHeight.hasMax()) {
@@ -914,9 +1214,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
               (newHeightPx));
           newHeightPx += this.layoutPart.getBoxConstraints().getPaddingBottom().getValueAsInt(newHeight.getValueAsInt
               (newHeightPx));
-          setConstraintHeight(SizeValue.max(newHeightPx));
+          updateConstraintHeight(SizeValue.max(newHeightPx));
         } else {
-          setConstraintHeight(SizeValue.max(0));
+          updateConstraintHeight(SizeValue.max(0));
         }
 
       }
@@ -929,7 +1229,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
       return Collections.emptyList();
     }
     final int childrenCount = children.size();
-    List<LayoutPart> layoutPartChild = new ArrayList<LayoutPart>(childrenCount);
+    List<LayoutPart> layoutPartChild = getLayoutPartChildrenTemp(childrenCount);
     for (int i = 0; i < childrenCount; i++) {
       Element e = children.get(i);
       SizeValue childHeight = e.getConstraintHeight();
@@ -955,29 +1255,18 @@ public class Element implements NiftyEvent, EffectManager.Notify {
 
   private void processLayout() {
     processLayoutInternal();
+    renderBoundsDirty = true;
+    if (renderCommandCache != null) {
+      renderCommandCache.invalidate();
+    }
 
     if (layoutManager != null) {
       if (children != null) {
-        final int childrenCount = children.size();
-        // we need a list of LayoutPart and not of Element, so we'll build one on the fly here
-        List<LayoutPart> layoutPartChild = new ArrayList<LayoutPart>(childrenCount);
-        for (int i = 0; i < childrenCount; i++) {
-          Element w = children.get(i);
-          layoutPartChild.add(w.layoutPart);
-        }
-
         // use out layoutManager to layout our children
-        layoutManager.layoutElements(layoutPart, layoutPartChild);
+        layoutManager.layoutElements(layoutPart, getLayoutPartChildren(children));
       }
 
-      if (attachedInputControl != null) {
-        NiftyControl niftyControl = attachedInputControl.getNiftyControl(NiftyControl.class);
-        if (niftyControl != null) {
-          if (niftyControl.isBound()) {
-            niftyControl.layoutCallback();
-          }
-        }
-      }
+      notifyLayoutCallback();
 
       if (children != null) {
         // repeat this step for all child elements
@@ -998,6 +1287,17 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     }
   }
 
+  private void notifyLayoutCallback() {
+    if (attachedInputControl != null) {
+      NiftyControl niftyControl = attachedInputControl.getNiftyControl(NiftyControl.class);
+      if (niftyControl != null) {
+        if (niftyControl.isBound()) {
+          niftyControl.layoutCallback();
+        }
+      }
+    }
+  }
+
   public void layoutElements() {
     prepareLayout();
     processLayout();
@@ -1009,6 +1309,119 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     processLayout();
 
     publishConstraintsChangedEvent();
+    clearLayoutDirty();
+    invalidateMouseOverIndex();
+    invalidateRenderCache();
+  }
+
+  /**
+   * This is the incremental version of {@link #layoutElements()}. Instead of layouting all elements below this
+   * element only the parts of the element tree that have been marked dirty (see {@link #markLayoutDirty()}) are
+   * layouted again. For each dirty element the parent element is layouted. In case the size of the parent depends on
+   * the size of its children (width or height unset, "sum" or "max") the next parent is used and so on.
+   *
+   * @return {@code true} in case any element has been layouted and {@code false} if nothing was dirty
+   */
+  public boolean layoutDirtyElements() {
+    if (!layoutDirtyBelow) {
+      return false;
+    }
+    resolveLayoutRequired();
+    if (layoutDirty || layoutRequired) {
+      layoutElements();
+      return true;
+    }
+    return layoutRequiredElements();
+  }
+
+  /**
+   * Mark this element dirty. The next call to {@link #layoutDirtyElements()} of any element above this element will
+   * layout this element again.
+   */
+  public void markLayoutDirty() {
+    layoutDirty = true;
+    markLayoutDirtyBelow();
+  }
+
+  /**
+   * Check if this element or any of the elements below need to be layouted again.
+   *
+   * @return {@code true} in case this element or any child element is dirty
+   */
+  public boolean isLayoutDirty() {
+    return layoutDirtyBelow;
+  }
+
+  private void markLayoutChildrenDirty() {
+    layoutChildrenDirty = true;
+    markLayoutDirtyBelow();
+  }
+
+  private void markLayoutDirtyBelow() {
+    Element current = this;
+    while (current != null && !current.layoutDirtyBelow) {
+      current.layoutDirtyBelow = true;
+      current = current.parent;
+    }
+  }
+
+  // walks down the dirty parts of the tree and marks all elements that need to layout their children with the
+  // layoutRequired flag. returns true when the parent of this element needs to layout its children again.
+  private boolean resolveLayoutRequired() {
+    boolean layoutChildren = layoutChildrenDirty;
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        Element w = children.get(i);
+        if (w.layoutDirtyBelow && w.resolveLayoutRequired()) {
+          layoutChildren = true;
+        }
+      }
+    }
+    layoutRequired = layoutChildren;
+    return layoutDirty || (layoutChildren && isSizeDependingOnChildren());
+  }
+
+  private boolean layoutRequiredElements() {
+    if (layoutRequired) {
+      layoutElements();
+      return true;
+    }
+    boolean layouted = false;
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        Element w = children.get(i);
+        if (w.layoutDirtyBelow && w.layoutRequiredElements()) {
+          layouted = true;
+        }
+      }
+    }
+    layoutDirtyBelow = layoutDirty;
+    return layouted;
+  }
+
+  private boolean isSizeDependingOnChildren() {
+    if (layoutManager == null) {
+      return false;
+    }
+    SizeValue width = getConstraintWidth();
+    SizeValue height = getConstraintHeight();
+    return width.hasDefault() || width.hasSum() || width.hasMax() ||
+        height.hasDefault() || height.hasSum() || height.hasMax();
+  }
+
+  private void clearLayoutDirty() {
+    if (layoutDirtyBelow && children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).clearLayoutDirty();
+      }
+    }
+    layoutDirty = false;
+    layoutChildrenDirty = false;
+    layoutDirtyBelow = false;
+    layoutRequired = false;
   }
 
   private void publishConstraintsChangedEvent() {
@@ -1122,25 +1535,126 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   public void setConstraintX(@Nonnull final SizeValue newX) {
+    markLayoutDirty(getConstraintX(), newX);
     layoutPart.getBoxConstraints().setX(newX);
     notifyListeners();
   }
 
   public void setConstraintY(@Nonnull final SizeValue newY) {
+    markLayoutDirty(getConstraintY(), newY);
+    layoutPart.getBoxConstraints().setY(newY);
+    notifyListeners();
+  }
+
+  /**
+   * Changes the x and y constraints of this element without layouting it again. Only the new position of this element
+   * is calculated and the boxes of this element and of all of its children that have already been layouted are
+   * translated to this position. This is a lot cheaper than a layout and gives the same result but it's only possible
+   * when the parent element uses the absolute layout (without keeping the elements inside).
+   * <p/>
+   * Like a layout the move calls the layoutCallback() of the bound controls of this element and its children and
+   * publishes the constraints changed event of this element. Unlike a layout the parent element and its other
+   * children are not touched at all, so their controls aren't notified.
+   *
+   * @param newX the new x constraint
+   * @param newY the new y constraint
+   * @return true if the element has been moved and false if this is not possible. Nothing has been changed in that
+   * case and the constraints need to be set the regular way.
+   */
+  public boolean moveWithoutLayout(@Nonnull final SizeValue newX, @Nonnull final SizeValue newY) {
+    if (parent == null || !(parent.layoutManager instanceof AbsolutePositionLayout)) {
+      return false;
+    }
+    AbsolutePositionLayout parentLayout = (AbsolutePositionLayout) parent.layoutManager;
+    if (!parentLayout.isPositionOnlyDependingOnConstraints()) {
+      return false;
+    }
+
+    int offsetX = parentLayout.calculateX(parent.layoutPart, newX) - getX();
+    int offsetY = parentLayout.calculateY(parent.layoutPart, newY) - getY();
+    layoutPart.getBoxConstraints().setX(newX);
     layoutPart.getBoxConstraints().setY(newY);
     notifyListeners();
+    if (offsetX != 0 || offsetY != 0) {
+      translateBoxes(offsetX, offsetY, false, parent.clipChildren);
+      notifyMovedLayoutCallbacks();
+      invalidateRenderCache();
+      invalidateMouseOverIndex();
+    }
+    publishConstraintsChangedEvent();
+    return true;
+  }
+
+  // the same layoutCallback() calls processLayout() does for the moved elements, after all boxes have been moved
+  private void notifyMovedLayoutCallbacks() {
+    if (layoutManager == null) {
+      return;
+    }
+    notifyLayoutCallback();
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).notifyMovedLayoutCallbacks();
+      }
+    }
+  }
+
+  // moves the box of this element and all children. the layout of the parent sets the clip area of all elements to the
+  // box of the outermost clipping element. so the clip areas are only moved as well when that element is one of the
+  // moved elements and not the parent itself.
+  private void translateBoxes(
+      final int offsetX,
+      final int offsetY,
+      final boolean translateClipArea,
+      final boolean clipAreaFixed) {
+    Box box = layoutPart.getBox();
+    box.setX(box.getX() + offsetX);
+    box.setY(box.getY() + offsetY);
+    if (translateClipArea && parentClipArea) {
+      parentClipX += offsetX;
+      parentClipY += offsetY;
+    }
+    renderBoundsDirty = true;
+    if (renderCommandCache != null) {
+      renderCommandCache.invalidate();
+    }
+
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).translateBoxes(offsetX, offsetY, !clipAreaFixed && (translateClipArea || clipChildren),
+            clipAreaFixed);
+      }
+    }
   }
 
   public void setConstraintWidth(@Nonnull final SizeValue newWidth) {
+    markLayoutDirty(getConstraintWidth(), newWidth);
+    updateConstraintWidth(newWidth);
+  }
+
+  public void setConstraintHeight(@Nonnull final SizeValue newHeight) {
+    markLayoutDirty(getConstraintHeight(), newHeight);
+    updateConstraintHeight(newHeight);
+  }
+
+  // used by the layout itself to change the constraints without marking the element dirty
+  private void updateConstraintWidth(@Nonnull final SizeValue newWidth) {
     layoutPart.getBoxConstraints().setWidth(newWidth);
     notifyListeners();
   }
 
-  public void setConstraintHeight(@Nonnull final SizeValue newHeight) {
+  private void updateConstraintHeight(@Nonnull final SizeValue newHeight) {
     layoutPart.getBoxConstraints().setHeight(newHeight);
     notifyListeners();
   }
 
+  private void markLayoutDirty(@Nonnull final SizeValue oldValue, @Nonnull final SizeValue newValue) {
+    if (!layoutDirty && !newValue.equals(oldValue)) {
+      markLayoutDirty();
+    }
+  }
+
   @Nonnull
   public SizeValue getConstraintX() {
     return layoutPart.getBoxConstraints().getX();
@@ -1162,10 +1676,16 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   public void setConstraintHorizontalAlign(@Nonnull final HorizontalAlign newHorizontalAlign) {
+    if (newHorizontalAlign != getConstraintHorizontalAlign()) {
+      markLayoutDirty();
+    }
     layoutPart.getBoxConstraints().setHorizontalAlign(newHorizontalAlign);
   }
 
   public void setConstraintVerticalAlign(@Nonnull final VerticalAlign newVerticalAlign) {
+    if (newVerticalAlign != getConstraintVerticalAlign()) {
+      markLayoutDirty();
+    }
     layoutPart.getBoxConstraints().setVerticalAlign(newVerticalAlign);
   }
 
@@ -1184,6 +1704,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
       @Nonnull final Effect e) {
     log.fine("[" + id + "] register: " + theId.toString() + "(" + e.getStateString() + ")");
     effectManager.registerEffect(theId, e);
+    invalidateMouseOverIndex();
   }
 
   public void startEffect(@Nonnull final EffectEventId effectEventId) {
@@ -1516,6 +2037,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   private void internalShow() {
     visible = true;
     restoreForShow();
+    invalidateRenderCache();
 
     if (id != null) {
       nifty.publishEvent(id, new ElementShowEvent(this));
@@ -1580,6 +2102,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   private void internalHide() {
     visible = false;
     disableFocus();
+    invalidateRenderCache();
 
     if (id != null) {
       nifty.publishEvent(id, new ElementHideEvent(this));
@@ -1686,6 +2209,26 @@ public class Element implements NiftyEvent, EffectManager.Notify {
       @Nonnull final NiftyMouseInputEvent mouseEvent,
       final long eventTime,
       @Nonnull final MouseOverHandler mouseOverHandler) {
+    addToMouseOverHandler(mouseEvent, mouseOverHandler);
+    if (visible) {
+      if (children != null) {
+        final int childrenCount = children.size();
+        for (int i = 0; i < childrenCount; i++) {
+          Element w = children.get(i);
+          w.buildMouseOverElements(mouseEvent, eventTime, mouseOverHandler);
+        }
+      }
+    }
+  }
+
+  /**
+   * Add only this element (and none of the child elements) to the MouseOverHandler.
+   *
+   * @return true if the mouse is inside of this element
+   */
+  public boolean addToMouseOverHandler(
+      @Nonnull final NiftyMouseInputEvent mouseEvent,
+      @Nonnull final MouseOverHandler mouseOverHandler) {
     boolean isInside = isInside(mouseEvent);
     if (canHandleMouseEvents()) {
       if (isInside) {
@@ -1698,15 +2241,26 @@ public class Element implements NiftyEvent, EffectManager.Notify {
         mouseOverHandler.canTheoreticallyHandleMouse(this);
       }
     }
-    if (visible) {
-      if (children != null) {
-        final int childrenCount = children.size();
-        for (int i = 0; i < childrenCount; i++) {
-          Element w = children.get(i);
-          w.buildMouseOverElements(mouseEvent, eventTime, mouseOverHandler);
-        }
-      }
-    }
+    return isInside;
+  }
+
+  /**
+   * Check if this element still needs to process mouse events when the mouse is not inside of the element. This is
+   * the case while a mouse button that has been pressed on the element is still down and while hover effects are
+   * active.
+   *
+   * @return true if the element needs mouse events even when the mouse is outside
+   */
+  public boolean isMouseInteractionActive() {
+    return interaction.isMouseDown() || effectManager.isHoverEffectActive();
+  }
+
+  /**
+   * Check if any hover effect of this element uses a falloff constraint and so might react to the mouse even when
+   * the mouse is outside of this element.
+   */
+  public boolean hasHoverFalloffConstraint() {
+    return effectManager.hasHoverFalloffConstraint();
   }
 
   public void mouseEventHoverPreprocess(@Nonnull final NiftyMouseInputEvent mouseEvent, final long eventTime) {
@@ -1917,6 +2471,10 @@ public class Element implements NiftyEvent, EffectManager.Notify {
       return null;
     }
 
+    if (screen != null && screen.isElementIdIndexActive()) {
+      return screen.findIndexedElementById(findId, this);
+    }
+
     if (id != null && id.equals(findId)) {
       return this;
     }
@@ -1977,6 +2535,47 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     screen = newScreen;
     if (id != null) {
       screen.registerElementId(id);
+      screen.registerElementId(id, this);
+    }
+  }
+
+  /**
+   * The screen whose id index contains this element. This is the screen of this element or of the closest ancestor
+   * that is already bound to a screen.
+   */
+  @Nullable
+  private Screen findIndexScreen() {
+    Element current = this;
+    while (current != null) {
+      if (current.screen != null) {
+        return current.screen;
+      }
+      current = current.parent;
+    }
+    return null;
+  }
+
+  private void registerElementIds(@Nonnull final Screen indexScreen) {
+    if (id != null) {
+      indexScreen.registerElementId(id, this);
+    }
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).registerElementIds(indexScreen);
+      }
+    }
+  }
+
+  private void unregisterElementIds(@Nonnull final Screen indexScreen) {
+    if (id != null) {
+      indexScreen.unregisterElementId(id, this);
+    }
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).unregisterElementIds(indexScreen);
+      }
     }
   }
 
@@ -2070,6 +2669,9 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   public void setVisibleToMouseEvents(final boolean newVisibleToMouseEvents) {
+    if (visibleToMouseEvents != newVisibleToMouseEvents) {
+      invalidateMouseOverIndex();
+    }
     this.visibleToMouseEvents = newVisibleToMouseEvents;
   }
 
@@ -2082,6 +2684,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
 
   public void setClipChildren(final boolean clipChildrenParam) {
     this.clipChildren = clipChildrenParam;
+    invalidateRenderCache();
   }
 
   public boolean isClipChildren() {
@@ -2096,6 +2699,7 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   private void renderOrderChanged(@Nonnull final Element element) {
+    invalidateRenderCache();
     if (elementsRenderOrderSet == null) {
       log.warning("Can't report a changed order, parent doesn't seem to have children?! O.o");
       return;
@@ -2217,6 +2821,16 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     @Nullable String oldId = this.id;
     this.id = id;
 
+    Screen indexScreen = findIndexScreen();
+    if (indexScreen != null) {
+      if (oldId != null) {
+        indexScreen.unregisterElementId(oldId, this);
+      }
+      if (id != null) {
+        indexScreen.registerElementId(id, this);
+      }
+    }
+
     if (parent == null) {
       return;
     }
@@ -2518,41 +3132,49 @@ public class Element implements NiftyEvent, EffectManager.Notify {
   }
 
   public void setPaddingLeft(@Nonnull final SizeValue paddingValue) {
+    markLayoutDirty(getPaddingLeft(), paddingValue);
     layoutPart.getBoxConstraints().setPaddingLeft(paddingValue);
     notifyListeners();
   }
 
   public void setPaddingRight(@Nonnull final SizeValue paddingValue) {
+    markLayoutDirty(getPaddingRight(), paddingValue);
     layoutPart.getBoxConstraints().setPaddingRight(paddingValue);
     notifyListeners();
   }
 
   public void setPaddingTop(@Nonnull final SizeValue paddingValue) {
+    markLayoutDirty(getPaddingTop(), paddingValue);
     layoutPart.getBoxConstraints().setPaddingTop(paddingValue);
     notifyListeners();
   }
 
   public void setPaddingBottom(@Nonnull final SizeValue paddingValue) {
+    markLayoutDirty(getPaddingBottom(), paddingValue);
     layoutPart.getBoxConstraints().setPaddingBottom(paddingValue);
     notifyListeners();
   }
 
   public void setMarginLeft(@Nonnull final SizeValue value) {
+    markLayoutDirty(getMarginLeft(), value);
     layoutPart.getBoxConstraints().setMarginLeft(value);
     notifyListeners();
   }
 
   public void setMarginRight(@Nonnull final SizeValue value) {
+    markLayoutDirty(getMarginRight(), value);
     layoutPart.getBoxConstraints().setMarginRight(value);
     notifyListeners();
   }
 
   public void setMarginTop(@Nonnull final SizeValue value) {
+    markLayoutDirty(getMarginTop(), value);
     layoutPart.getBoxConstraints().setMarginTop(value);
     notifyListeners();
   }
 
   public void setMarginBottom(@Nonnull final SizeValue value) {
+    markLayoutDirty(getMarginBottom(), value);
     layoutPart.getBoxConstraints().setMarginBottom(value);
     notifyListeners();
   }
@@ -2676,6 +3298,8 @@ public class Element implements NiftyEvent, EffectManager.Notify {
 
   @Override
   public void effectStateChanged(@Nonnull final EffectEventId eventId, final boolean active) {
+    invalidateRenderCache();
+
     // Get the oldState first.
     boolean oldState = effectStateCache.get(eventId);
 
@@ -2710,6 +3334,12 @@ public class Element implements NiftyEvent, EffectManager.Notify {
 
   // package private to prevent public access
   void internalRemoveElement(@Nonnull final Element element) {
+    Screen indexScreen = findIndexScreen();
+    if (indexScreen != null) {
+      element.unregisterElementIds(indexScreen);
+    }
+    invalidateRenderCache();
+
     if (elementsRenderOrderSet != null && children != null) {
       // so now that's odd: we need to remove the element first from the
       // elementsRenderOrder and THEN from the elements list. this is because
@@ -2740,10 +3370,18 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     } else {
       elementsRenderOrder = null;
     }
+    layoutPartChildren = null;
+    markLayoutChildrenDirty();
+    invalidateMouseOverIndex();
   }
 
   // package private to prevent public access
   void internalRemoveElementWithChildren() {
+    Screen indexScreen = findIndexScreen();
+    if (indexScreen != null && id != null) {
+      indexScreen.unregisterElementId(id, this);
+    }
+
     if (children != null) {
       final int childrenCount = children.size();
       for (int i = 0; i < childrenCount; i++) {
@@ -2754,6 +3392,84 @@ public class Element implements NiftyEvent, EffectManager.Notify {
     elementsRenderOrderSet = null;
     children = null;
     elementsRenderOrder = null;
+    layoutPartChildren = null;
+  }
+
+  // package private to prevent public access
+  @Nullable
+  String getRecyclingDescription() {
+    return recyclingDescription;
+  }
+
+  // package private to prevent public access
+  void setRecyclingDescription(@Nullable final String recyclingDescription) {
+    this.recyclingDescription = recyclingDescription;
+  }
+
+  /**
+   * An element can only be recycled when its children are still the ones created from its ElementType. Elements with a
+   * controller are never recycled because the controller keeps its state from the last time it has been bound.
+   */
+  boolean isRecyclable() {
+    if (attachedInputControl != null) {
+      return false;
+    }
+    Collection<ElementType> childTypes = elementType.getElements();
+    if (childTypes.size() != getChildrenCount()) {
+      return false;
+    }
+    int i = 0;
+    for (ElementType childType : childTypes) {
+      Element child = children.get(i++);
+      if (child.elementType != childType || !child.isRecyclable()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces the id of a recycled element. Child elements with ids that have been derived from the old id get the new
+   * id as prefix.
+   */
+  void changeRecycledId(@Nullable final String oldId, @Nullable final String newId) {
+    if (id != null && oldId != null && newId != null && id.startsWith(oldId)) {
+      id = newId + id.substring(oldId.length());
+      elementType.getAttributes().set("id", id);
+    }
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).changeRecycledId(oldId, newId);
+      }
+
+      // the render order depends on the ids as well
+      elementsRenderOrderSet = new TreeSet<Element>(RENDER_ORDER_COMPARATOR);
+      elementsRenderOrderSet.addAll(children);
+      elementsRenderOrder = elementsRenderOrderSet.toArray(new Element[elementsRenderOrderSet.size()]);
+    }
+  }
+
+  /**
+   * Resets a recycled element to the state it had right after it has been created from its ElementType. The element is
+   * no longer bound to a screen afterwards so that {@link #bindControls(Screen)} binds it to the new screen just like
+   * a new element.
+   */
+  void resetForRecycling(@Nonnull final Screen targetScreen) {
+    screen = null;
+    enabled = true;
+    enabledCount = 0;
+    done = false;
+    interactionBlocked = false;
+    userData = null;
+    elementType.applyAttributes(targetScreen, this, elementType.getAttributes(), nifty.getRenderEngine());
+    elementType.applyPostAttributes(this, elementType.getAttributes(), nifty.getRenderEngine());
+    if (children != null) {
+      final int childrenCount = children.size();
+      for (int i = 0; i < childrenCount; i++) {
+        children.get(i).resetForRecycling(targetScreen);
+      }
+    }
   }
 
   /**
@@ -40,6 +40,13 @@ public class ElementInteraction {
     tertiary.resetMouseDown();
   }
 
+  /**
+   * Check if any mouse button has been pressed on the element and has not been released yet.
+   */
+  public boolean isMouseDown() {
+    return primary.isMouseDown() || secondary.isMouseDown() || tertiary.isMouseDown();
+  }
+
   @Nonnull
   public ElementInteractionClickHandler getPrimary() {
     return primary;
@@ -0,0 +1,209 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.screen.Screen;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Keeps removed elements that have been created dynamically so that the next equivalent element doesn't need to be
+ * created from scratch.
+ * <p/>
+ * When an element that has been marked as recyclable is removed it's not torn down but kept here together with its
+ * children, renderers and effects. Creating a new element with the same description (see
+ * {@link de.lessvoid.nifty.loaderv2.types.ElementTypeTemplates#describe(de.lessvoid.nifty.loaderv2.types.ElementType)})
+ * for the same parent element then takes the element from this pool, changes the ids and resets it to the state of its
+ * ElementType again. Elements kept for a parent element are dropped when that parent element is removed. The parent
+ * element is part of the key because the interactions of an element are connected to the controllers of its parent
+ * elements.
+ * <p/>
+ * Elements whose children have been changed after they have been created and elements that contain a controller are
+ * never recycled. A controller keeps its state between two bind() calls so it can't be reused safely.
+ */
+public class ElementRecyclingPool {
+  @Nonnull
+  private static final Logger log = Logger.getLogger(ElementRecyclingPool.class.getName());
+  private static final int MAX_KEYS = 64;
+  private static final int MAX_ELEMENTS_PER_KEY = 32;
+
+  @Nonnull
+  private final Map<PoolKey, List<Element>> pool = new LinkedHashMap<PoolKey, List<Element>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<PoolKey, List<Element>> eldest) {
+      return size() > MAX_KEYS;
+    }
+  };
+  private int recycled;
+  private int reused;
+
+  /**
+   * Mark the element as recyclable. The element will be kept in this pool when it is removed later.
+   *
+   * @param element the element that has just been created
+   * @param description the description of the ElementType the element has been created from
+   */
+  public void markRecyclable(@Nonnull final Element element, @Nonnull final String description) {
+    element.setRecyclingDescription(description);
+  }
+
+  /**
+   * Keep the given element that is about to be removed from its parent. This needs to be called while the element is
+   * still connected to its parent.
+   *
+   * @param screen the screen the element is removed from
+   * @param element the element that is removed
+   * @return true if the element is now part of the pool and must not be torn down and false if it can't be recycled
+   */
+  public boolean recycle(@Nonnull final Screen screen, @Nonnull final Element element) {
+    String description = element.getRecyclingDescription();
+    if (description == null || !element.hasParent() || !element.isRecyclable()) {
+      return false;
+    }
+
+    PoolKey key = new PoolKey(screen, element.getParent(), description);
+    List<Element> elements = pool.get(key);
+    if (elements == null) {
+      elements = new ArrayList<Element>();
+      pool.put(key, elements);
+    }
+    if (elements.size() >= MAX_ELEMENTS_PER_KEY) {
+      return false;
+    }
+    elements.add(element);
+    recycled++;
+    return true;
+  }
+
+  /**
+   * Take an element with the given description from the pool and add it to the parent element again.
+   *
+   * @param screen the screen the element is created for
+   * @param parent the parent element the element will be added to
+   * @param description the description of the ElementType of the new element
+   * @param id the id the new element should use
+   * @param index the index the element is added at in the children of the parent element
+   * @return the recycled element or null if there is no element with this description in the pool
+   */
+  @Nullable
+  public Element obtain(
+      @Nonnull final Screen screen,
+      @Nonnull final Element parent,
+      @Nonnull final String description,
+      @Nullable final String id,
+      final int index) {
+    List<Element> elements = pool.get(new PoolKey(screen, parent, description));
+    if (elements == null || elements.isEmpty()) {
+      return null;
+    }
+
+    Element element = elements.remove(elements.size() - 1);
+    element.changeRecycledId(element.getId(), id);
+    element.resetForRecycling(screen);
+    element.setParent(parent);
+    parent.insertChild(element, index);
+    reused++;
+    log.fine("reused element [" + id + "]");
+    return element;
+  }
+
+  /**
+   * Remove all elements from the pool.
+   */
+  public void clear() {
+    pool.clear();
+  }
+
+  /**
+   * Remove all elements of the given screen from the pool.
+   */
+  public void clear(@Nonnull final Screen screen) {
+    Iterator<PoolKey> keys = pool.keySet().iterator();
+    while (keys.hasNext()) {
+      if (keys.next().screen == screen) {
+        keys.remove();
+      }
+    }
+  }
+
+  /**
+   * Remove all elements from the pool that would be added to the given element or to one of its children. This needs
+   * to be called while the element is still connected to its parent.
+   *
+   * @param element the element that is removed
+   */
+  public void clear(@Nonnull final Element element) {
+    Iterator<PoolKey> keys = pool.keySet().iterator();
+    while (keys.hasNext()) {
+      if (isPartOf(keys.next().parent, element)) {
+        keys.remove();
+      }
+    }
+  }
+
+  public int getElementCount() {
+    int count = 0;
+    for (List<Element> elements : pool.values()) {
+      count += elements.size();
+    }
+    return count;
+  }
+
+  public int getRecycledCount() {
+    return recycled;
+  }
+
+  public int getReusedCount() {
+    return reused;
+  }
+
+  private static boolean isPartOf(@Nonnull final Element element, @Nonnull final Element ancestor) {
+    Element current = element;
+    while (current != ancestor) {
+      if (!current.hasParent()) {
+        return false;
+      }
+      current = current.getParent();
+    }
+    return true;
+  }
+
+  private static class PoolKey {
+    @Nonnull
+    private final Screen screen;
+    @Nonnull
+    private final Element parent;
+    @Nonnull
+    private final String description;
+
+    private PoolKey(@Nonnull final Screen screen, @Nonnull final Element parent, @Nonnull final String description) {
+      this.screen = screen;
+      this.parent = parent;
+      this.description = description;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof PoolKey)) {
+        return false;
+      }
+      PoolKey other = (PoolKey) o;
+      return screen == other.screen && parent == other.parent && description.equals(other.description);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(screen);
+      result = 31 * result + System.identityHashCode(parent);
+      return 31 * result + description.hashCode();
+    }
+  }
+}
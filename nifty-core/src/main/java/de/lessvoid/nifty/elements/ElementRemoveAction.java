@@ -1,5 +1,6 @@
 package de.lessvoid.nifty.elements;
 
+import de.lessvoid.nifty.Nifty;
 import de.lessvoid.nifty.screen.Screen;
 
 import javax.annotation.Nonnull;
@@ -32,7 +33,11 @@ public class ElementRemoveAction implements Action {
     removedElement.resetAllEffects();
     removedElement.onEndScreen(screen);
 
-    removeSingleElement(removedElement);
+    // elements that are kept for recycling stay intact
+    Nifty nifty = removedElement.getNifty();
+    if (!nifty.isElementRecyclingEnabled() || !nifty.getElementRecyclingPool().recycle(screen, removedElement)) {
+      removeSingleElement(removedElement);
+    }
     if (removedElement.hasParent()) {
       removedElement.getParent().internalRemoveElement(removedElement);
       removedElement.getParent().layoutElements();
@@ -42,6 +47,8 @@ public class ElementRemoveAction implements Action {
   }
 
   private void removeSingleElement(@Nonnull final Element element) {
+    // the elements kept for this element and its children can't be used anymore
+    element.getNifty().getElementRecyclingPool().clear(element);
     element.internalRemoveElementWithChildren();
   }
 }
\ No newline at end of file
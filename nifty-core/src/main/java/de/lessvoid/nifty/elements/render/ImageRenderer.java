@@ -17,11 +17,19 @@ public class ImageRenderer implements ElementRenderer {
   private NiftyImage image;
   private int inset = 0;
 
+  /*
+   * The element this renderer has been rendered for the last time. When a property of this renderer changes the
+   * recorded render calls of this element are not valid anymore (see Element.invalidateRenderCache()).
+   */
+  @Nullable
+  private Element renderedElement;
+
   /**
    * Set Insert.
    */
   public void setInset(final int insetParam) {
     inset = insetParam;
+    invalidateRenderCache();
   }
 
   /**
@@ -32,6 +40,7 @@ public class ImageRenderer implements ElementRenderer {
    */
   @Override
   public final void render(@Nonnull final Element element, @Nonnull final NiftyRenderEngine r) {
+    renderedElement = element;
     if (image != null) {
       r.renderImage(
           image,
@@ -59,5 +68,12 @@ public class ImageRenderer implements ElementRenderer {
    */
   public void setImage(@Nullable final NiftyImage newImage) {
     image = newImage;
+    invalidateRenderCache();
+  }
+
+  private void invalidateRenderCache() {
+    if (renderedElement != null) {
+      renderedElement.invalidateRenderCache();
+    }
   }
 }
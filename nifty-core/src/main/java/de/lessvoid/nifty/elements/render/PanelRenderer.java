@@ -23,6 +23,13 @@ public class PanelRenderer implements ElementRenderer {
   @Nullable
   private Color debugColor;
 
+  /*
+   * The element this renderer has been rendered for the last time. When a property of this renderer changes the
+   * recorded render calls of this element are not valid anymore (see Element.invalidateRenderCache()).
+   */
+  @Nullable
+  private Element renderedElement;
+
   /**
    * Default constructor.
    */
@@ -37,6 +44,7 @@ public class PanelRenderer implements ElementRenderer {
    */
   @Override
   public void render(@Nonnull final Element element, @Nonnull final NiftyRenderEngine r) {
+    renderedElement = element;
     if (element.getNifty().isDebugOptionPanelColors()) {
       r.saveStates();
       r.setColor(getDebugColor());
@@ -71,10 +79,17 @@ public class PanelRenderer implements ElementRenderer {
 
   public void setBackgroundColor(@Nullable final Color backgroundColor) {
     this.backgroundColor = backgroundColor;
+    invalidateRenderCache();
   }
 
   @Nullable
   public Color getBackgroundColor() {
     return backgroundColor;
   }
+
+  private void invalidateRenderCache() {
+    if (renderedElement != null) {
+      renderedElement.invalidateRenderCache();
+    }
+  }
 }
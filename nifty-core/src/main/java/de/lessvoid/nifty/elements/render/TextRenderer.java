@@ -1,8 +1,5 @@
 package de.lessvoid.nifty.elements.render;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -12,7 +9,8 @@ import de.lessvoid.nifty.Nifty;
 import de.lessvoid.nifty.NiftyLocaleChangedEvent;
 import de.lessvoid.nifty.elements.Element;
 import de.lessvoid.nifty.elements.tools.FontHelper;
-import de.lessvoid.nifty.elements.tools.TextBreak;
+import de.lessvoid.nifty.elements.tools.TextLayoutCache.TextLayout;
+import de.lessvoid.nifty.layout.Box;
 import de.lessvoid.nifty.layout.align.HorizontalAlign;
 import de.lessvoid.nifty.layout.align.VerticalAlign;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
@@ -50,6 +48,14 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
   @Nullable
   private String[] textLines;
 
+  /**
+   * the width of each of the textLines measured with textLineWidthsFont.
+   */
+  @Nullable
+  private int[] textLineWidths;
+  @Nullable
+  private RenderFont textLineWidthsFont;
+
   /**
    * max width of all text strings.
    */
@@ -134,6 +140,13 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
 
   private String originalTextBeforeSpecialValues;
 
+  /*
+   * The element this renderer has been rendered for the last time. When a property of this renderer changes the
+   * recorded render calls of this element are not valid anymore (see Element.invalidateRenderCache()).
+   */
+  @Nullable
+  private Element renderedElement;
+
   /**
    * default constructor.
    */
@@ -187,23 +200,64 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
     }
 
     this.originalText = newText;
-    this.textLines = newText.split("\n", -1);
+    if (font != null) {
+      setTextLayout(nifty.getTextLayoutCache().getLayout(font, newText, 0), font);
+    } else {
+      setTextLines(newText.split("\n", -1));
+    }
+    invalidateRenderCache();
     if (changeExistingText && hasBeenLayoutedElement != null) {
-      hasBeenLayoutedElement.getParent().layoutElements();
+      if (nifty.isIncrementalLayout()) {
+        hasBeenLayoutedElement.markLayoutDirty();
+      } else {
+        hasBeenLayoutedElement.getParent().layoutElements();
+      }
     }
 
     maxWidth = 0;
     if (font != null) {
-      for (int i = 0; i < textLines.length; i++) {
-        String line = textLines[i];
-        int lineWidth = font.getWidth(line);
-        if (lineWidth > maxWidth) {
-          maxWidth = lineWidth;
+      int[] lineWidths = getTextLineWidths(font);
+      for (int i = 0; i < lineWidths.length; i++) {
+        if (lineWidths[i] > maxWidth) {
+          maxWidth = lineWidths[i];
         }
       }
     }
   }
 
+  private void setTextLines(@Nonnull final String[] lines) {
+    textLines = lines;
+    textLineWidths = null;
+    textLineWidthsFont = null;
+  }
+
+  private void setTextLayout(@Nonnull final TextLayout layout, @Nonnull final RenderFont layoutFont) {
+    textLines = layout.getLines();
+    textLineWidths = layout.getLineWidths();
+    textLineWidthsFont = layoutFont;
+  }
+
+  /**
+   * Get the width of each of the text lines measured with the given font. The widths are only measured again when
+   * the lines or the font have changed.
+   */
+  @Nonnull
+  private int[] getTextLineWidths(@Nonnull final RenderFont lineFont) {
+    String[] lines = textLines;
+    if (lines == null) {
+      return new int[0];
+    }
+    if (textLineWidths == null || textLineWidthsFont != lineFont) {
+      int[] lineWidths = new int[lines.length];
+      for (int i = 0; i < lines.length; i++) {
+        lineWidths[i] = lineFont.getWidth(lines[i]);
+      }
+      textLineWidths = lineWidths;
+      textLineWidthsFont = lineFont;
+    }
+    return textLineWidths;
+  }
+
   /**
    * render the stuff.
    *
@@ -212,6 +266,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   @Override
   public void render(@Nonnull final Element w, @Nonnull final NiftyRenderEngine r) {
+    renderedElement = w;
     if (textLines == null) {
       return;
     }
@@ -227,8 +282,10 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
 
     boolean stateSaved = prepareRenderEngine(r, font);
 
+    int[] lineWidths = getTextLineWidths(font);
     int y = getStartYWithVerticalAlign(lines.length * font.getHeight(), w.getHeight(), textVAlign);
-    for (String line : lines) {
+    for (int i = 0; i < lines.length; i++) {
+      String line = lines[i];
       int yy = w.getY() + y;
       if (Math.abs(xOffsetHack) > 0) {
         int fittingOffset = FontHelper.getVisibleCharactersFromStart(font, line, Math.abs(xOffsetHack), 1.0f);
@@ -237,7 +294,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
         int xx = w.getX() + xOffsetHack + font.getWidth(cut);
         renderLine(xx, yy, substring, r, selectionStart - fittingOffset, selectionEnd - fittingOffset);
       } else {
-        int xx = w.getX() + getStartXWithHorizontalAlign(font.getWidth(line), w.getWidth(), textHAlign);
+        int xx = w.getX() + getStartXWithHorizontalAlign(lineWidths[i], w.getWidth(), textHAlign);
         renderLine(xx, yy, line, r, selectionStart, selectionEnd);
       }
       y += font.getHeight();
@@ -345,6 +402,43 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
     r.renderText(line, xx, yy, selStart, selEnd, textSelectionColor);
   }
 
+  /**
+   * Get the area the text is rendered to, in the same coordinates as the box of the element. Text that doesn't fit
+   * into the element, for instance because line wrapping is disabled, is rendered outside of the element.
+   *
+   * @param w the element this renderer belongs to
+   * @return the area of the text or {@code null} if it is unknown because no font has been set and the font of the
+   *         render state is used
+   */
+  @Nullable
+  public Box getTextBounds(@Nonnull final Element w) {
+    // changes of the text have to reach the element even if it hasn't been rendered yet
+    renderedElement = w;
+    String[] lines = textLines;
+    if (lines == null) {
+      return new Box(w.getX(), w.getY(), 0, 0);
+    }
+    if (font == null) {
+      return null;
+    }
+    int[] lineWidths = getTextLineWidths(font);
+    int x0 = w.getX();
+    int x1 = w.getX();
+    for (int i = 0; i < lineWidths.length; i++) {
+      int xx;
+      if (Math.abs(xOffsetHack) > 0) {
+        xx = w.getX() + xOffsetHack;
+      } else {
+        xx = w.getX() + getStartXWithHorizontalAlign(lineWidths[i], w.getWidth(), textHAlign);
+      }
+      x0 = Math.min(x0, xx);
+      x1 = Math.max(x1, xx + lineWidths[i]);
+    }
+    int textHeight = lines.length * font.getHeight();
+    int y0 = w.getY() + getStartYWithVerticalAlign(textHeight, w.getHeight(), textVAlign);
+    return new Box(x0, y0, x1 - x0, textHeight);
+  }
+
   /**
    * Helper method to get width of text.
    *
@@ -385,6 +479,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setxOffsetHack(final int newXoffsetHack) {
     this.xOffsetHack = newXoffsetHack;
+    invalidateRenderCache();
   }
 
   /**
@@ -406,6 +501,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
   public void setSelection(final int selectionStartParam, final int selectionEndParam) {
     this.selectionStart = selectionStartParam;
     this.selectionEnd = selectionEndParam;
+    invalidateRenderCache();
   }
 
   /**
@@ -415,6 +511,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setFont(@Nullable final RenderFont fontParam) {
     this.font = fontParam;
+    invalidateRenderCache();
   }
 
   /**
@@ -424,6 +521,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setTextSelectionColor(@Nonnull final Color textSelectionColorParam) {
     this.textSelectionColor = textSelectionColorParam;
+    invalidateRenderCache();
   }
 
   /**
@@ -433,6 +531,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setTextVAlign(@Nonnull final VerticalAlign newTextVAlign) {
     this.textVAlign = newTextVAlign;
+    invalidateRenderCache();
   }
 
   /**
@@ -442,6 +541,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setTextHAlign(@Nonnull final HorizontalAlign newTextHAlign) {
     this.textHAlign = newTextHAlign;
+    invalidateRenderCache();
   }
 
   /**
@@ -451,6 +551,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
    */
   public void setColor(@Nonnull final Color newColor) {
     this.color = newColor;
+    invalidateRenderCache();
   }
 
   /**
@@ -477,28 +578,12 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
 
   public void setTextLineHeight(@Nonnull final SizeValue textLineHeight) {
     this.textLineHeight = textLineHeight;
+    invalidateRenderCache();
   }
 
   public void setTextMinHeight(@Nonnull final SizeValue textMinHeight) {
     this.textMinHeight = textMinHeight;
-  }
-
-  @Nonnull
-  private String[] wrapText(final int width, @Nonnull final NiftyRenderEngine r, @Nonnull final String... textLines) {
-    RenderFont font = ensureFont(r);
-    if (font == null) {
-      return textLines;
-    }
-    List<String> lines = new ArrayList<String>();
-    for (String line : textLines) {
-      int lineLengthInPixel = font.getWidth(line);
-      if (lineLengthInPixel > width) {
-        lines.addAll(new TextBreak(line, width, font).split());
-      } else {
-        lines.add(line);
-      }
-    }
-    return lines.toArray(new String[lines.size()]);
+    invalidateRenderCache();
   }
 
   public void setWidthConstraint(
@@ -522,7 +607,13 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
     // remember some values so that we can correctly do auto word wrapping when someone changes the text
     this.hasBeenLayoutedElement = element;
 
-    this.textLines = wrapText(valueAsInt, renderEngine, originalText.split("\n", -1));
+    RenderFont wrapFont = ensureFont(renderEngine);
+    if (wrapFont != null) {
+      setTextLayout(nifty.getTextLayoutCache().getLayout(wrapFont, originalText, valueAsInt), wrapFont);
+    } else {
+      setTextLines(originalText.split("\n", -1));
+    }
+    invalidateRenderCache();
 
     maxWidth = valueAsInt;
 
@@ -541,6 +632,7 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
 
   public void setLineWrapping(final boolean lineWrapping) {
     this.lineWrapping = lineWrapping;
+    invalidateRenderCache();
   }
 
   public boolean isLineWrapping() {
@@ -580,4 +672,10 @@ public class TextRenderer implements ElementRenderer, EventSubscriber<NiftyLocal
   public void onEvent(final NiftyLocaleChangedEvent event) {
     setText(originalTextBeforeSpecialValues);
   }
+
+  private void invalidateRenderCache() {
+    if (renderedElement != null) {
+      renderedElement.invalidateRenderCache();
+    }
+  }
 }
@@ -0,0 +1,169 @@
+package de.lessvoid.nifty.elements.tools;
+
+import de.lessvoid.nifty.spi.render.RenderFont;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the line breaks and line widths of texts. A layout is identified by the font, the text and the width the
+ * text has been wrapped to. This way the text of a TextRenderer needs to be split and measured only once even when
+ * the element is layouted over and over again or when several elements share the same text. The least recently used
+ * layouts are removed when the cache is full.
+ */
+public class TextLayoutCache {
+  @Nonnull
+  private final Map<Key, TextLayout> layouts;
+
+  /**
+   * Create a new cache.
+   *
+   * @param maxEntries the maximum number of layouts kept in the cache
+   */
+  public TextLayoutCache(final int maxEntries) {
+    layouts = new LinkedHashMap<Key, TextLayout>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Key, TextLayout> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Get the layout of a text. The text is split at "\n" and when a width is given every line that is wider than the
+   * width is wrapped using {@link TextBreak}.
+   *
+   * @param font  the font used to measure the text
+   * @param text  the text
+   * @param width the width to wrap the lines to or 0 if the lines should not be wrapped
+   * @return the layout of the text
+   */
+  @Nonnull
+  public synchronized TextLayout getLayout(@Nonnull final RenderFont font, @Nonnull final String text, final int width) {
+    Key key = new Key(font, text, width);
+    TextLayout layout = layouts.get(key);
+    if (layout == null) {
+      layout = createLayout(font, text, width);
+      layouts.put(key, layout);
+    }
+    return layout;
+  }
+
+  /**
+   * Remove all layouts from the cache.
+   */
+  public synchronized void clear() {
+    layouts.clear();
+  }
+
+  /**
+   * @return the number of layouts currently in the cache
+   */
+  public synchronized int size() {
+    return layouts.size();
+  }
+
+  @Nonnull
+  private static TextLayout createLayout(@Nonnull final RenderFont font, @Nonnull final String text, final int width) {
+    String[] lines = text.split("\n", -1);
+    if (width > 0) {
+      lines = wrapLines(font, lines, width);
+    }
+    int[] lineWidths = new int[lines.length];
+    for (int i = 0; i < lines.length; i++) {
+      lineWidths[i] = font.getWidth(lines[i]);
+    }
+    return new TextLayout(lines, lineWidths);
+  }
+
+  @Nonnull
+  private static String[] wrapLines(@Nonnull final RenderFont font, @Nonnull final String[] lines, final int width) {
+    List<String> result = new ArrayList<String>();
+    for (int i = 0; i < lines.length; i++) {
+      String line = lines[i];
+      if (font.getWidth(line) > width) {
+        result.addAll(new TextBreak(line, width, font).split());
+      } else {
+        result.add(line);
+      }
+    }
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * The lines of a text and the width of each line.
+   */
+  public static class TextLayout {
+    @Nonnull
+    private final String[] lines;
+    @Nonnull
+    private final int[] lineWidths;
+    private final int maxWidth;
+
+    private TextLayout(@Nonnull final String[] lines, @Nonnull final int[] lineWidths) {
+      this.lines = lines;
+      this.lineWidths = lineWidths;
+      int max = 0;
+      for (int i = 0; i < lineWidths.length; i++) {
+        max = Math.max(max, lineWidths[i]);
+      }
+      this.maxWidth = max;
+    }
+
+    /**
+     * @return the lines of the text, the returned array must not be modified
+     */
+    @Nonnull
+    public String[] getLines() {
+      return lines;
+    }
+
+    /**
+     * @return the width of each line, the returned array must not be modified
+     */
+    @Nonnull
+    public int[] getLineWidths() {
+      return lineWidths;
+    }
+
+    /**
+     * @return the width of the widest line
+     */
+    public int getMaxWidth() {
+      return maxWidth;
+    }
+  }
+
+  private static class Key {
+    @Nonnull
+    private final RenderFont font;
+    @Nonnull
+    private final String text;
+    private final int width;
+    private final int hash;
+
+    private Key(@Nonnull final RenderFont font, @Nonnull final String text, final int width) {
+      this.font = font;
+      this.text = text;
+      this.width = width;
+      this.hash = (System.identityHashCode(font) * 31 + text.hashCode()) * 31 + width;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return font == other.font && width == other.width && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
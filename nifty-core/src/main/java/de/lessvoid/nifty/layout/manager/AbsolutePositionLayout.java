@@ -97,6 +97,47 @@ public class AbsolutePositionLayout implements LayoutManager {
     }
   }
 
+  /**
+   * Check if the position of the elements only depends on the root element and their own constraints. This is not
+   * the case when a post processing step changes the position, like keeping the elements inside the root element.
+   *
+   * @return true when the position only depends on the constraints
+   */
+  public boolean isPositionOnlyDependingOnConstraints() {
+    return post instanceof DefaultPostProcess;
+  }
+
+  /**
+   * Calculate the x position of an element with the given x constraint the same way
+   * {@link #layoutElements(LayoutPart, List)} does. This allows to move a single element without a layout of all of
+   * the elements.
+   *
+   * @param rootElement the root element
+   * @param x the x constraint of the element
+   * @return the x position of the element
+   */
+  public int calculateX(@Nonnull final LayoutPart rootElement, @Nonnull final SizeValue x) {
+    if (!x.hasValue()) {
+      return 0;
+    }
+    return getRootBoxX(rootElement) + x.getValueAsInt(getRootBoxWidth(rootElement));
+  }
+
+  /**
+   * Calculate the y position of an element with the given y constraint the same way
+   * {@link #layoutElements(LayoutPart, List)} does.
+   *
+   * @param rootElement the root element
+   * @param y the y constraint of the element
+   * @return the y position of the element
+   */
+  public int calculateY(@Nonnull final LayoutPart rootElement, @Nonnull final SizeValue y) {
+    if (!y.hasValue()) {
+      return 0;
+    }
+    return getRootBoxY(rootElement) + y.getValueAsInt(getRootBoxHeight(rootElement));
+  }
+
   /**
    * @param children children elements of the root element
    * @return new calculated SizeValue
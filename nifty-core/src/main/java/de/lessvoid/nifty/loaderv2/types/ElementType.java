@@ -41,6 +41,12 @@ public class ElementType extends XmlBaseType {
 
   private boolean prepared;
 
+  // the cached result of getTemplateDescription()
+  @Nullable
+  private String templateDescription;
+  private boolean templateDescriptionWithId;
+  private boolean templateDescriptionResolved;
+
   public ElementType() {
     super();
   }
@@ -68,6 +74,7 @@ public class ElementType extends XmlBaseType {
   }
 
   void copyElements(@Nonnull final ElementType src) {
+    invalidateTemplateDescription();
     elements.clear();
     for (ElementType element : src.elements) {
       elements.add(element.copy());
@@ -84,6 +91,7 @@ public class ElementType extends XmlBaseType {
   }
 
   void setTagName(@Nullable final String tagNameParam) {
+    invalidateTemplateDescription();
     tagName = tagNameParam;
   }
 
@@ -102,34 +110,42 @@ public class ElementType extends XmlBaseType {
   }
 
   public void addElementType(@Nonnull final ElementType type) {
+    invalidateTemplateDescription();
     elements.add(type);
   }
 
   public void addPanel(@Nonnull final ElementType panel) {
+    invalidateTemplateDescription();
     elements.add(panel);
   }
 
   public void addImage(@Nonnull final ElementType image) {
+    invalidateTemplateDescription();
     elements.add(image);
   }
 
   public void addLabel(@Nonnull final ElementType label) {
+    invalidateTemplateDescription();
     elements.add(label);
   }
 
   public void addText(@Nonnull final ElementType text) {
+    invalidateTemplateDescription();
     elements.add(text);
   }
 
   public void addControl(@Nonnull final ElementType text) {
+    invalidateTemplateDescription();
     elements.add(text);
   }
 
   public void setInteract(@Nonnull final InteractType interactParam) {
+    invalidateTemplateDescription();
     interact = interactParam;
   }
 
   public void setEffect(@Nonnull final EffectsType effectsParam) {
+    invalidateTemplateDescription();
     effects = effectsParam;
   }
 
@@ -321,12 +337,33 @@ public class ElementType extends XmlBaseType {
       @Nonnull final Nifty nifty,
       @Nullable final Screen screen,
       @Nonnull final ElementType rootElementType) {
+    prepareTemplate(nifty, screen);
+    prepareInstance(nifty, screen, rootElementType);
+  }
+
+  /**
+   * The first part of {@link #prepare(Nifty, Screen, ElementType)}: applies the control definitions and the styles.
+   * The result only depends on the attributes of this tree (without the id of this element) and not on the instance
+   * that will be created from it. This allows {@link ElementTypeTemplates} to do this part only once.
+   */
+  void prepareTemplate(@Nonnull final Nifty nifty, @Nullable final Screen screen) {
     prepared = true;
 
     translateSpecialValues(nifty, screen);
     makeFlat();
     applyControls(nifty);
     applyStyles(nifty.getDefaultStyleResolver());
+  }
+
+  /**
+   * The second part of {@link #prepare(Nifty, Screen, ElementType)}: resolves the parameters, the ids and the
+   * controllers of this instance.
+   */
+  void prepareInstance(
+      @Nonnull final Nifty nifty,
+      @Nullable final Screen screen,
+      @Nonnull final ElementType rootElementType) {
+    prepared = true;
 
     // github issue #109: https://github.com/void256/nifty-gui/issues/109
     // resolveParameters() needs to be called before makeFlatControls() in case someone tries to change the id of
@@ -346,6 +383,43 @@ public class ElementType extends XmlBaseType {
     return this.prepared;
   }
 
+  /**
+   * Get the description that identifies equivalent ElementTypes for {@link ElementTypeTemplates}. It contains
+   * everything that defines the created elements except for the id of this element. The description is built only
+   * once. The methods of this class that change the tree discard it but changes to the attributes (other than the id)
+   * or to the child ElementTypes made after the first call are not noticed.
+   *
+   * @return the description or null if the tree uses special values ("${...}")
+   */
+  @Nullable
+  String getTemplateDescription() {
+    boolean withId = getAttributes().get("id") != null;
+    if (!templateDescriptionResolved || templateDescriptionWithId != withId) {
+      StringBuilder builder = new StringBuilder();
+      builder.append(withId ? "with id " : "without id ");
+      appendTemplateDescription(builder, false);
+      String description = builder.toString();
+      templateDescription = description.contains("${") ? null : description;
+      templateDescriptionWithId = withId;
+      templateDescriptionResolved = true;
+    }
+    return templateDescription;
+  }
+
+  private void appendTemplateDescription(@Nonnull final StringBuilder builder, final boolean withId) {
+    builder.append(getClass().getName()).append(' ').append(tagName).append(" (");
+    getAttributes().appendTo(builder, withId ? null : "id");
+    builder.append(")\n").append(interact.output(1)).append('\n').append(effects.output(1));
+    builder.append("\n").append(elements.size()).append(" elements\n");
+    for (int i = 0; i < elements.size(); i++) {
+      elements.get(i).appendTemplateDescription(builder, true);
+    }
+  }
+
+  private void invalidateTemplateDescription() {
+    templateDescriptionResolved = false;
+  }
+
   @Override
   public void translateSpecialValues(@Nonnull final Nifty nifty, @Nullable final Screen screen) {
     super.translateSpecialValues(nifty, screen);
@@ -413,9 +487,22 @@ public class ElementType extends XmlBaseType {
   }
 
   public void attachController(@Nullable final Controller controller) {
+    invalidateTemplateDescription();
     this.controller = controller;
   }
 
+  boolean hasAttachedController() {
+    if (controller != null) {
+      return true;
+    }
+    for (ElementType elementType : elements) {
+      if (elementType.hasAttachedController()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   void resolveControllers(@Nonnull final Nifty nifty, @Nonnull final Collection<Object> controllerParam) {
     controllers = new LinkedList<Object>(controllerParam);
     if(controller == null) {
@@ -430,6 +517,7 @@ public class ElementType extends XmlBaseType {
   }
 
   public void removeWithTag(@Nonnull final String styleId) {
+    invalidateTemplateDescription();
     getAttributes().removeWithTag(styleId);
     effects.removeWithTag(styleId);
     interact.getAttributes().removeWithTag(styleId);
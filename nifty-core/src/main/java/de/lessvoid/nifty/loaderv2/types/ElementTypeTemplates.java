@@ -0,0 +1,156 @@
+package de.lessvoid.nifty.loaderv2.types;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.screen.Screen;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Caches the prepared form of the ElementTypes used to create elements dynamically (with the builders or
+ * {@link Nifty#createElementFromType(Screen, de.lessvoid.nifty.elements.Element, ElementType)}).
+ * <p/>
+ * Preparing an ElementType applies the control definitions and the styles to the whole tree which is the expensive
+ * part. The result of that only depends on the ElementType (the control name, the style, all other attributes and
+ * child elements) and the screen but not on the id of the element. So we keep the tree at that point as a template
+ * and each further ElementType with the same description only copies the template, sets its own id and resolves the
+ * parameters, the child ids and the controllers.
+ * <p/>
+ * ElementTypes with an attached Controller instance or with special values ("${...}") are always prepared the
+ * regular way because the result would be different for each instance.
+ */
+public class ElementTypeTemplates {
+  @Nonnull
+  private static final Logger log = Logger.getLogger(ElementTypeTemplates.class.getName());
+  private static final int MAX_TEMPLATES = 64;
+
+  @Nonnull
+  private final Map<TemplateKey, ElementType> templates = new LinkedHashMap<TemplateKey, ElementType>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<TemplateKey, ElementType> eldest) {
+      return size() > MAX_TEMPLATES;
+    }
+  };
+  private int hits;
+  private int misses;
+
+  /**
+   * Prepare the given ElementType for the creation of a new element. This is the same as calling
+   * {@link ElementType#prepare(Nifty, Screen, ElementType)} but uses a template when possible.
+   *
+   * @return the prepared ElementType. This is either the given type or a new copy of the template.
+   */
+  @Nonnull
+  public ElementType prepare(
+      @Nonnull final ElementType type,
+      @Nonnull final Nifty nifty,
+      @Nonnull final Screen screen,
+      @Nonnull final ElementType rootElementType) {
+    String description = describe(type);
+    if (description == null) {
+      type.prepare(nifty, screen, rootElementType);
+      return type;
+    }
+
+    TemplateKey key = new TemplateKey(screen, description);
+    ElementType template = templates.get(key);
+    if (template == null) {
+      misses++;
+      template = type.copy();
+      template.getAttributes().remove("id");
+      template.prepareTemplate(nifty, screen);
+      templates.put(key, template);
+      log.fine("created element type template for [" + description + "]");
+    } else {
+      hits++;
+    }
+
+    ElementType instance = template.copy();
+    String id = type.getAttributes().get("id");
+    if (id != null) {
+      instance.getAttributes().set("id", id);
+    }
+    instance.prepareInstance(nifty, screen, rootElementType);
+    return instance;
+  }
+
+  /**
+   * Remove all templates. This needs to be called when anything changes that is applied while preparing, like styles
+   * or control definitions.
+   */
+  public void clear() {
+    templates.clear();
+  }
+
+  /**
+   * Remove all templates of the given screen.
+   */
+  public void clear(@Nonnull final Screen screen) {
+    Iterator<TemplateKey> keys = templates.keySet().iterator();
+    while (keys.hasNext()) {
+      if (keys.next().screen == screen) {
+        keys.remove();
+      }
+    }
+  }
+
+  public int getTemplateCount() {
+    return templates.size();
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the description that identifies equivalent ElementTypes. ElementTypes with the same description only differ in
+   * their id. The description is cached on the ElementType (see {@link ElementType#getTemplateDescription()}).
+   *
+   * @return the description or null if this ElementType can't be shared, for example because a controller instance
+   * is attached to it or because it uses special values
+   */
+  @Nullable
+  public static String describe(@Nonnull final ElementType type) {
+    if (type.isPrepared() || type.hasAttachedController()) {
+      return null;
+    }
+    return type.getTemplateDescription();
+  }
+
+  private static class TemplateKey {
+    @Nonnull
+    private final Screen screen;
+    @Nonnull
+    private final String description;
+
+    private TemplateKey(@Nonnull final Screen screen, @Nonnull final String description) {
+      this.screen = screen;
+      this.description = description;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TemplateKey)) {
+        return false;
+      }
+      TemplateKey other = (TemplateKey) o;
+      return screen == other.screen && description.equals(other.description);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(screen) + description.hashCode();
+    }
+  }
+}
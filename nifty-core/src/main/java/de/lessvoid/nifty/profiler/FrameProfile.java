@@ -0,0 +1,156 @@
+package de.lessvoid.nifty.profiler;
+
+import de.lessvoid.nifty.profiler.FrameProfiler.Counter;
+import de.lessvoid.nifty.profiler.FrameProfiler.Section;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * The timings and counters of a single frame recorded by a {@link FrameProfiler}. All times are in nanoseconds.
+ */
+public class FrameProfile {
+  private final long frameNumber;
+  private long frameTime;
+  @Nonnull
+  private final long[] sectionTimes = new long[Section.values().length];
+  @Nonnull
+  private final long[] counters = new long[Counter.values().length];
+  @Nonnull
+  private final Map<String, long[]> layerTimes = new HashMap<String, long[]>();
+  @Nonnull
+  private final Map<String, long[]> elementTypeTimes = new HashMap<String, long[]>();
+  @Nonnull
+  private final Map<String, long[]> controlTimes = new HashMap<String, long[]>();
+  @Nonnull
+  private final Map<String, long[]> customCounters = new HashMap<String, long[]>();
+
+  FrameProfile(final long frameNumber) {
+    this.frameNumber = frameNumber;
+  }
+
+  /**
+   * @return the number of this frame counted from the creation of the FrameProfiler
+   */
+  public long getFrameNumber() {
+    return frameNumber;
+  }
+
+  /**
+   * @return the time from the first update() of this frame to the end of render()
+   */
+  public long getFrameTime() {
+    return frameTime;
+  }
+
+  /**
+   * @return the time spent in the given section of this frame
+   */
+  public long getSectionTime(@Nonnull final Section section) {
+    return sectionTimes[section.ordinal()];
+  }
+
+  public long getCounter(@Nonnull final Counter counter) {
+    return counters[counter.ordinal()];
+  }
+
+  /**
+   * @return the value of a counter added with {@link FrameProfiler#count(String, long)} or 0 if it was not counted
+   */
+  public long getCounter(@Nonnull final String counter) {
+    long[] value = customCounters.get(counter);
+    return value == null ? 0 : value[0];
+  }
+
+  /**
+   * @return the render time of each layer of the screen (including all child elements) by layer id
+   */
+  @Nonnull
+  public Map<String, Long> getLayerTimes() {
+    return toMap(layerTimes);
+  }
+
+  /**
+   * @return the time the ElementRenderers of all elements of each element type (panel, text, image, ...) have needed
+   * in this frame, not including the child elements
+   */
+  @Nonnull
+  public Map<String, Long> getElementTypeTimes() {
+    return toMap(elementTypeTimes);
+  }
+
+  /**
+   * @return the render time of all controls by control name, each including the child elements of the control but
+   * not the time of controls nested into it
+   */
+  @Nonnull
+  public Map<String, Long> getControlTimes() {
+    return toMap(controlTimes);
+  }
+
+  @Nonnull
+  public Map<String, Long> getCustomCounters() {
+    return toMap(customCounters);
+  }
+
+  void setFrameTime(final long frameTime) {
+    this.frameTime = frameTime;
+  }
+
+  void addSectionTime(@Nonnull final Section section, final long time) {
+    sectionTimes[section.ordinal()] += time;
+  }
+
+  void addCounter(@Nonnull final Counter counter, final long amount) {
+    counters[counter.ordinal()] += amount;
+  }
+
+  void addCustomCounter(@Nonnull final String counter, final long amount) {
+    add(customCounters, counter, amount);
+  }
+
+  void addLayerTime(@Nonnull final String layerId, final long time) {
+    add(layerTimes, layerId, time);
+  }
+
+  void addElementTypeTime(@Nonnull final String elementType, final long time) {
+    add(elementTypeTimes, elementType, time);
+  }
+
+  void addControlTime(@Nonnull final String controlName, final long time) {
+    add(controlTimes, controlName, time);
+  }
+
+  private static void add(@Nonnull final Map<String, long[]> values, @Nonnull final String key, final long amount) {
+    long[] value = values.get(key);
+    if (value == null) {
+      value = new long[1];
+      values.put(key, value);
+    }
+    value[0] += amount;
+  }
+
+  @Nonnull
+  private static Map<String, Long> toMap(@Nonnull final Map<String, long[]> values) {
+    Map<String, Long> result = new HashMap<String, Long>(values.size() * 2);
+    for (Map.Entry<String, long[]> entry : values.entrySet()) {
+      result.put(entry.getKey(), entry.getValue()[0]);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+    result.append("frame ").append(frameNumber).append(": ").append(frameTime / 1000).append(" us");
+    for (Section section : Section.values()) {
+      result.append(", ").append(section.name()).append(": ").append(getSectionTime(section) / 1000).append(" us");
+    }
+    for (Counter counter : Counter.values()) {
+      result.append(", ").append(counter.name()).append(": ").append(getCounter(counter));
+    }
+    return result.toString();
+  }
+}
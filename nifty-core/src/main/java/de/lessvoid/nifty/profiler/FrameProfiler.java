@@ -0,0 +1,259 @@
+package de.lessvoid.nifty.profiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Records the timings and counters of each frame. Set an instance with
+ * {@link de.lessvoid.nifty.Nifty#setFrameProfiler(FrameProfiler)} to enable profiling. Nifty then measures the
+ * {@link Section}s of {@link de.lessvoid.nifty.Nifty#update()} and {@link de.lessvoid.nifty.Nifty#render(boolean)},
+ * the render time of each layer, of each element type and of each control. To get the quad and batch counters as well
+ * add the profiler to the {@link de.lessvoid.nifty.render.batch.BatchRenderDevice} too.
+ * <p/>
+ * A frame starts with the first call to update() after the last frame and ends at the end of render(). The finished
+ * frames are kept in a ring buffer (see {@link #getFrames()}) and are sent to all {@link FrameProfilerListener}s.
+ * <p/>
+ * All methods are meant to be called from the thread that updates and renders Nifty.
+ */
+public class FrameProfiler {
+  /**
+   * The parts of a frame that are measured.
+   */
+  public enum Section {
+    /**
+     * Forwarding the input events to the current screen.
+     */
+    INPUT,
+
+    /**
+     * Processing the delayed method calls, closed popups and added or removed elements.
+     */
+    DYNAMIC_ELEMENTS,
+
+    /**
+     * The incremental layout of the current screen.
+     */
+    LAYOUT,
+
+    /**
+     * Updating the SoundSystem.
+     */
+    SOUND,
+
+    /**
+     * Executing the effects of all rendered elements. This time is part of {@link #RENDER}.
+     */
+    EFFECTS,
+
+    /**
+     * Rendering the current screen, including the time the RenderDevice needs to finish the frame.
+     */
+    RENDER
+  }
+
+  /**
+   * The values counted for each frame.
+   */
+  public enum Counter {
+    /**
+     * The number of quads rendered (only counted by the BatchRenderDevice).
+     */
+    QUADS,
+
+    /**
+     * The number of quads discarded because they were outside of the clipping area (only counted by the
+     * BatchRenderDevice).
+     */
+    CLIPPED_QUADS,
+
+    /**
+     * The number of batches sent to the GPU (only counted by the BatchRenderDevice).
+     */
+    BATCHES,
+
+    /**
+     * The number of elements rendered.
+     */
+    ELEMENTS_RENDERED,
+
+    /**
+     * The number of elements (with all of their child elements) skipped because they were outside of the clipping
+     * area or the display.
+     */
+    ELEMENTS_CULLED,
+
+    /**
+     * The number of events published with {@link de.lessvoid.nifty.Nifty#publishEvent}.
+     */
+    EVENTS_PUBLISHED
+  }
+
+  @Nonnull
+  private final FrameProfile[] frames;
+  @Nonnull
+  private final List<FrameProfilerListener> listeners = new CopyOnWriteArrayList<FrameProfilerListener>();
+  private int frameCount;
+  private long nextFrameNumber;
+  @Nonnull
+  private FrameProfile current;
+  private boolean frameStarted;
+  private long frameStartTime;
+  // the start time and the time of nested controls of each control that is currently rendered
+  @Nonnull
+  private long[] controlStarts = new long[16];
+  @Nonnull
+  private long[] nestedControlTimes = new long[16];
+  private int controlDepth;
+
+  /**
+   * @param historySize the number of frames to keep
+   */
+  public FrameProfiler(final int historySize) {
+    if (historySize < 1) {
+      throw new IllegalArgumentException("historySize must be at least 1: " + historySize);
+    }
+    frames = new FrameProfile[historySize];
+    current = new FrameProfile(nextFrameNumber++);
+  }
+
+  public void addListener(@Nonnull final FrameProfilerListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(@Nonnull final FrameProfilerListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Start the frame in case it has not been started yet.
+   */
+  public void beginFrame() {
+    if (!frameStarted) {
+      frameStarted = true;
+      frameStartTime = time();
+    }
+  }
+
+  /**
+   * Finish the current frame, add it to the frame history and notify all listeners.
+   */
+  public void endFrame() {
+    beginFrame();
+    FrameProfile finished = current;
+    finished.setFrameTime(time() - frameStartTime);
+    frames[(int) (finished.getFrameNumber() % frames.length)] = finished;
+    frameCount = Math.min(frameCount + 1, frames.length);
+    current = new FrameProfile(nextFrameNumber++);
+    frameStarted = false;
+    controlDepth = 0;
+    for (FrameProfilerListener listener : listeners) {
+      listener.frameFinished(finished);
+    }
+  }
+
+  /**
+   * @return the current time to be given to one of the end methods later
+   */
+  public long begin() {
+    return time();
+  }
+
+  /**
+   * Add the time since start to the given section.
+   *
+   * @param start the value returned by {@link #begin()} (or by a previous end method)
+   * @return the current time so that the next section can be measured right away
+   */
+  public long end(@Nonnull final Section section, final long start) {
+    long now = time();
+    current.addSectionTime(section, now - start);
+    return now;
+  }
+
+  /**
+   * Add the time since start to the render time of the given layer.
+   */
+  public void endLayer(@Nonnull final String layerId, final long start) {
+    current.addLayerTime(layerId, time() - start);
+  }
+
+  /**
+   * Add the time since start to the render time of the given element type.
+   */
+  public void endElementType(@Nonnull final String elementType, final long start) {
+    current.addElementTypeTime(elementType, time() - start);
+  }
+
+  /**
+   * Start measuring the render time of a control. Controls can be nested. Each call has to be followed by a call to
+   * {@link #endControl(String)}.
+   */
+  public void beginControl() {
+    if (controlDepth == controlStarts.length) {
+      controlStarts = Arrays.copyOf(controlStarts, controlDepth * 2);
+      nestedControlTimes = Arrays.copyOf(nestedControlTimes, controlDepth * 2);
+    }
+    controlStarts[controlDepth] = time();
+    nestedControlTimes[controlDepth] = 0;
+    controlDepth++;
+  }
+
+  /**
+   * Add the time since the matching {@link #beginControl()} to the render time of the given control. The time of
+   * controls nested into it is not included, so every nanosecond is only counted once.
+   */
+  public void endControl(@Nonnull final String controlName) {
+    if (controlDepth == 0) {
+      throw new IllegalStateException("endControl() without beginControl()");
+    }
+    controlDepth--;
+    long time = time() - controlStarts[controlDepth];
+    current.addControlTime(controlName, time - nestedControlTimes[controlDepth]);
+    if (controlDepth > 0) {
+      nestedControlTimes[controlDepth - 1] += time;
+    }
+  }
+
+  public void count(@Nonnull final Counter counter, final long amount) {
+    current.addCounter(counter, amount);
+  }
+
+  /**
+   * Add to a counter of your own. This can be used to add application specific values to the frames.
+   */
+  public void count(@Nonnull final String counter, final long amount) {
+    current.addCustomCounter(counter, amount);
+  }
+
+  /**
+   * @return the finished frames that are still available, the oldest first
+   */
+  @Nonnull
+  public List<FrameProfile> getFrames() {
+    List<FrameProfile> result = new ArrayList<FrameProfile>(frameCount);
+    long first = nextFrameNumber - 1 - frameCount;
+    for (long i = first; i < first + frameCount; i++) {
+      result.add(frames[(int) (i % frames.length)]);
+    }
+    return result;
+  }
+
+  /**
+   * @return the last finished frame or null if no frame has been finished yet
+   */
+  @Nullable
+  public FrameProfile getLastFrame() {
+    if (frameCount == 0) {
+      return null;
+    }
+    return frames[(int) ((nextFrameNumber - 2) % frames.length)];
+  }
+
+  private long time() {
+    return System.nanoTime();
+  }
+}
@@ -0,0 +1,15 @@
+package de.lessvoid.nifty.profiler;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Gets notified by a {@link FrameProfiler} each time a frame has been finished.
+ */
+public interface FrameProfilerListener {
+  /**
+   * Called at the end of {@link de.lessvoid.nifty.Nifty#render(boolean)} with the timings and counters of the frame.
+   *
+   * @param frame the finished frame. The instance will not be modified anymore.
+   */
+  void frameFinished(@Nonnull FrameProfile frame);
+}
@@ -0,0 +1,17 @@
+package de.lessvoid.nifty.render;
+
+/**
+ * Optional extension of a {@link NiftyRenderEngine} that can tell if a region is completely outside of the current
+ * clipping area. Elements only skip child elements that wouldn't be visible anyway when the render engine implements
+ * this interface. With other render engines all elements are rendered.
+ */
+public interface CullingNiftyRenderEngine extends NiftyRenderEngine {
+  /**
+   * Check if the given region is completely outside of the current clipping area or, when clipping is disabled,
+   * completely outside of the display. The region is given in the same coordinates as the region of
+   * {@link #enableClip(int, int, int, int)}.
+   *
+   * @return true if anything rendered inside the region would be invisible, false otherwise
+   */
+  boolean isOutsideClip(int x0, int y0, int x1, int y1);
+}
@@ -69,6 +69,27 @@ public class NiftyImageManager {
     }
   }
 
+  /**
+   * Start to upload the images of the given screen while the current screen is still displayed. The uploads happen on
+   * the render thread at the beginning of the next frames, each frame spends at most
+   * {@link de.lessvoid.nifty.render.batch.BatchRenderConfiguration#preloadUploadTimeBudget} on them. This has only an
+   * effect when a BatchRenderDevice is used.
+   *
+   * @param screen the screen that will be started next
+   */
+  public void preloadScreenImages(@Nonnull final Screen screen) {
+    log.fine(">>> preloadScreenImages [" + screen.getScreenId() + "]");
+    if (ext instanceof PreloadingNiftyImageManagerExt) {
+      ((PreloadingNiftyImageManagerExt<ReferencedCountedImage>) ext).preloadScreenImages(screen, renderDevice);
+    }
+  }
+
+  public void cancelScreenPreload() {
+    if (ext instanceof PreloadingNiftyImageManagerExt) {
+      ((PreloadingNiftyImageManagerExt<ReferencedCountedImage>) ext).cancelScreenPreload(renderDevice);
+    }
+  }
+
   public void unloadScreenImages(@Nonnull final Screen screen) {
     log.fine(">>> unloadScreenImages [" + screen.getScreenId() + "] start");
     NiftyStopwatch.start();
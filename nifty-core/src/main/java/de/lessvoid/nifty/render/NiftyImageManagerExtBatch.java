@@ -13,7 +13,7 @@ import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class NiftyImageManagerExtBatch implements NiftyImageManagerExt<ReferencedCountedImage> {
+public class NiftyImageManagerExtBatch implements PreloadingNiftyImageManagerExt<ReferencedCountedImage> {
   @Nonnull
   private static final Logger log = Logger.getLogger(NiftyImageManagerExtBatch.class.getName());
 
@@ -22,6 +22,8 @@ public class NiftyImageManagerExtBatch implements NiftyImageManagerExt<Reference
       Set<ReferencedCountedImageBatch>>();
   @Nullable
   private Screen currentScreen;
+  @Nullable
+  private Screen preloadScreen;
 
   @Override
   public void registerImage(@Nonnull final Screen screen, @Nonnull final ReferencedCountedImage image) {
@@ -58,6 +60,7 @@ public class NiftyImageManagerExtBatch implements NiftyImageManagerExt<Reference
   @Override
   public void uploadScreenImages(@Nonnull final Screen screen) {
     currentScreen = screen;
+    preloadScreen = null;
 
     // find all ReferencedCountedImage and upload them into the texture atlas (for this screen).
     Set<ReferencedCountedImageBatch> imageList = screenRef.get(screen.getScreenId());
@@ -70,11 +73,50 @@ public class NiftyImageManagerExtBatch implements NiftyImageManagerExt<Reference
     }
   }
 
+  @Override
+  public void preloadScreenImages(@Nonnull final Screen screen, @Nonnull final RenderDevice renderDevice) {
+    if (currentScreen != null && currentScreen.getScreenId().equals(screen.getScreenId())) {
+      return;
+    }
+    preloadScreen = screen;
+
+    // the images are uploaded in addition to the images of the current screen, a few of them in each frame
+    Set<ReferencedCountedImageBatch> imageList = screenRef.get(screen.getScreenId());
+    if (imageList == null) {
+      return;
+    }
+    BatchRenderDevice batchRenderDevice = (BatchRenderDevice) renderDevice;
+    for (ReferencedCountedImageBatch image : imageList) {
+      if (!image.isUploaded()) {
+        batchRenderDevice.queueImageUpload(image.getRenderImage());
+      }
+    }
+  }
+
+  @Override
+  public void cancelScreenPreload(@Nonnull final RenderDevice renderDevice) {
+    preloadScreen = null;
+    ((BatchRenderDevice) renderDevice).clearPendingImageUploads();
+  }
+
   @Override
   public void unloadScreenImages(
       @Nonnull final Screen screen,
       @Nonnull final RenderDevice renderDevice,
       @Nonnull final Collection<ReferencedCountedImage> imageSet) {
+    // the images the preloaded screen has uploaded already are added to the fresh atlases again right away
+    List<ReferencedCountedImageBatch> keep = new ArrayList<ReferencedCountedImageBatch>();
+    if (preloadScreen != null && !preloadScreen.getScreenId().equals(screen.getScreenId())) {
+      Set<ReferencedCountedImageBatch> preloadImages = screenRef.get(preloadScreen.getScreenId());
+      if (preloadImages != null) {
+        for (ReferencedCountedImageBatch image : preloadImages) {
+          if (image.isUploaded()) {
+            keep.add(image);
+          }
+        }
+      }
+    }
+
     ((BatchRenderDevice) renderDevice).resetTextureAtlases();
 
     // we need to mark all images as unloaded
@@ -82,6 +124,10 @@ public class NiftyImageManagerExtBatch implements NiftyImageManagerExt<Reference
       cast(i).markAsUnloaded();
     }
 
+    for (ReferencedCountedImageBatch image : keep) {
+      image.upload();
+    }
+
     currentScreen = null;
   }
 
@@ -1,10 +1,11 @@
 package de.lessvoid.nifty.render;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
@@ -23,16 +24,41 @@ import de.lessvoid.nifty.tools.Color;
  * @author void
  * @author Martin Karing &lt;nitram@illarion.org&gt;
  */
-public class NiftyRenderEngineImpl implements NiftyRenderEngine {
+public class NiftyRenderEngineImpl
+    implements RecordingNiftyRenderEngine, PreloadingNiftyRenderEngine, CullingNiftyRenderEngine {
   @Nonnull
   private static final Logger log = Logger.getLogger(NiftyRenderEngineImpl.class.getName());
 
+  /**
+   * Bits of the render states that have been changed since the last call to saveStates().
+   */
+  private static final int STATE_POSITION = 1;
+  private static final int STATE_COLOR = 1 << 1;
+  private static final int STATE_ALPHA = 1 << 2;
+  private static final int STATE_TEXT_SIZE = 1 << 3;
+  private static final int STATE_IMAGE_SCALE = 1 << 4;
+  private static final int STATE_FONT = 1 << 5;
+  private static final int STATE_CLIP = 1 << 6;
+  private static final int STATE_BLEND_MODE = 1 << 7;
+
   /**
    * RenderDevice.
    */
   @Nonnull
   private final RenderDevice renderDevice;
 
+  /**
+   * The RenderDevice that records the render calls for the retained rendering mode. This is the same instance as
+   * renderDevice.
+   */
+  @Nonnull
+  private final RecordingRenderDevice recordingDevice;
+
+  /**
+   * All RenderCommandCache instances that have been recorded with a different generation are outdated.
+   */
+  private int renderCommandCacheGeneration;
+
   /**
    * Display width and height. This is always the base resolution (when scaling is enabled).
    */
@@ -111,10 +137,18 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   private final Map<String, RenderFont> fontCache = new HashMap<String, RenderFont>();
 
   /**
-   * stack to save data.
+   * stack to save data. The SavedRenderState instances are kept and reused so that saving and restoring states does
+   * not allocate any objects once the stack has grown to the maximum nesting depth of the elements.
    */
   @Nonnull
-  private final Deque<SavedRenderState> stack = new ArrayDeque<SavedRenderState>(20);
+  private final List<SavedRenderState> stack = new ArrayList<SavedRenderState>(20);
+  private int stackSize;
+
+  /**
+   * The render states that have been changed since the last call to saveStates(). Only these states need to be
+   * restored in restoreStates().
+   */
+  private int changedStates;
   @Nonnull
   private final Color whiteColor = new Color("#ffff");
 
@@ -135,7 +169,8 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
    * @param renderDeviceParam RenderDevice
    */
   public NiftyRenderEngineImpl(@Nonnull final RenderDevice renderDeviceParam) {
-    renderDevice = new ScalingRenderDevice(this, renderDeviceParam);
+    recordingDevice = new RecordingRenderDevice(new ScalingRenderDevice(this, renderDeviceParam));
+    renderDevice = recordingDevice;
     displayWidth = renderDevice.getWidth();
     displayHeight = renderDevice.getHeight();
     nativeDisplayWidth = renderDevice.getWidth();
@@ -161,6 +196,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   public void beginFrame() {
     renderDevice.beginFrame();
     colorChanged = false;
+    changedStates |= STATE_COLOR;
   }
 
   @Override
@@ -404,6 +440,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   @Override
   public void setFont(@Nullable final RenderFont newFont) {
     this.font = newFont;
+    changedStates |= STATE_FONT;
   }
 
   /**
@@ -425,6 +462,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
     color.setAlpha(colorParam.getAlpha());
     colorChanged = true;
     colorAlphaChanged = true;
+    changedStates |= STATE_COLOR | STATE_ALPHA;
   }
 
   /**
@@ -436,6 +474,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   public void setColorAlpha(final float newColorAlpha) {
     color.setAlpha(newColorAlpha);
     colorAlphaChanged = true;
+    changedStates |= STATE_ALPHA;
   }
 
   /**
@@ -449,6 +488,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
     color.setGreen(newColor.getGreen());
     color.setBlue(newColor.getBlue());
     colorChanged = true;
+    changedStates |= STATE_COLOR | STATE_ALPHA;
 
     if (colorAlphaChanged && color.getAlpha() > newColor.getAlpha()) {
       color.setAlpha(newColor.getAlpha());
@@ -475,12 +515,14 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   public void moveTo(final float xParam, final float yParam) {
     this.currentX = xParam;
     this.currentY = yParam;
+    changedStates |= STATE_POSITION;
   }
 
   @Override
   public void moveToRelative(final float xParam, final float yParam) {
     currentX = currentX + xParam;
     currentY = currentY + yParam;
+    changedStates |= STATE_POSITION;
   }
 
   @Override 
@@ -538,6 +580,14 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
     updateClip(true, x0, y0, x1, y1);
   }
 
+  @Override
+  public boolean isOutsideClip(final int x0, final int y0, final int x1, final int y1) {
+    if (clipEnabled) {
+      return isOutsideClippingRectangle(x0 + getX(), y0 + getY(), x1 + getX(), y1 + getY());
+    }
+    return isOutsideDisplay(x0 + getX(), y0 + getY(), x1 + getX(), y1 + getY());
+  }
+
   @Override
   public void disableClip() {
     updateClip(false, 0, 0, 0, 0);
@@ -546,6 +596,7 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   void updateClip(final boolean enabled, final int x0, final int y0, final int x1, final int y1) {
     clipEnabled = enabled;
     clip.init(x0, y0, x1, y1);
+    changedStates |= STATE_CLIP;
     if (!clipEnabled) {
       renderDevice.disableClip();
     } else {
@@ -556,11 +607,13 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   @Override
   public void setRenderTextSize(final float size) {
     this.textScale = size;
+    changedStates |= STATE_TEXT_SIZE;
   }
 
   @Override
   public void setImageScale(final float scale) {
     this.imageScale = scale;
+    changedStates |= STATE_IMAGE_SCALE;
   }
 
 
@@ -611,21 +664,73 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
 
   @Override
   public void saveStates() {
-    SavedRenderState savedRenderState = new SavedRenderState();
-    savedRenderState.save();
-    stack.push(savedRenderState);
+    if (stackSize == stack.size()) {
+      stack.add(new SavedRenderState());
+    }
+    SavedRenderState savedRenderState = stack.get(stackSize++);
+    savedRenderState.save(changedStates);
+    changedStates = 0;
   }
 
   @Override
   public void restoreStates() {
-    SavedRenderState restored = stack.pop();
-    restored.restore();
+    if (stackSize == 0) {
+      throw new NoSuchElementException("restoreStates() called without matching saveStates()");
+    }
+    SavedRenderState restored = stack.get(--stackSize);
+    restored.restore(changedStates);
+    changedStates = restored.getOuterChangedStates();
+  }
+
+  @Override
+  public void beginRecording(@Nonnull final RenderCommandCache cache) {
+    SavedRenderState engineState = cache.getEngineState();
+    if (engineState == null) {
+      engineState = new SavedRenderState();
+    }
+    engineState.save(0);
+    cache.begin(renderCommandCacheGeneration, engineState);
+    recordingDevice.startRecording(cache);
+  }
+
+  @Override
+  public void endRecording() {
+    recordingDevice.stopRecording();
+  }
+
+  @Override
+  public boolean isRecording() {
+    return recordingDevice.isRecording();
+  }
+
+  @Override
+  public boolean replay(@Nonnull final RenderCommandCache cache) {
+    if (!cache.isReplayable(renderCommandCacheGeneration)) {
+      return false;
+    }
+    SavedRenderState engineState = cache.getEngineState();
+    if (engineState == null || !engineState.isCurrentState()) {
+      return false;
+    }
+    recordingDevice.replay(cache);
+    return true;
+  }
+
+  @Override
+  public void recordSkipped(@Nonnull final RenderCommandCache cache) {
+    recordingDevice.recordSkipped(cache);
+  }
+
+  @Override
+  public void invalidateRenderCommandCaches() {
+    renderCommandCacheGeneration++;
   }
 
   @Override
   public void setBlendMode(@Nonnull final BlendMode blendModeParam) {
     blendMode = blendModeParam;
     renderDevice.setBlendMode(blendModeParam);
+    changedStates |= STATE_BLEND_MODE;
   }
 
   @Override
@@ -637,18 +742,23 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   @Override
   public void disposeImage(@Nonnull final RenderImage image) {
     imageManager.unregisterImage(image);
+    invalidateRenderCommandCaches();
   }
 
   @Override
   @Nonnull
   public RenderImage reload(@Nonnull final RenderImage image) {
+    invalidateRenderCommandCaches();
     return imageManager.reload(image);
   }
 
-  private class SavedRenderState {
+  class SavedRenderState {
     private float x;
     private float y;
 
+    private float globalPosX;
+    private float globalPosY;
+
     private float colorR;
     private float colorG;
     private float colorB;
@@ -670,10 +780,16 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
 
     private BlendMode blendMode;
 
+    /**
+     * The changed states of the enclosing saveStates()/restoreStates() pair.
+     */
+    private int outerChangedStates;
+
     public SavedRenderState() {
     }
 
-    public void save() {
+    public void save(final int changedStates) {
+      outerChangedStates = changedStates;
       savePosition();
       saveColor();
       saveColorAlpha();
@@ -684,15 +800,70 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
       saveBlendMode();
     }
 
-    public void restore() {
-      restorePosition();
-      restoreColor();
-      restoreAlpha();
-      restoreFont();
-      restoreTextSize();
-      restoreImageScale();
-      restoreClip();
-      restoreBlend();
+    /**
+     * Restore the saved states. Only the states that have been changed since this state has been saved are restored.
+     * This especially avoids calling the RenderDevice to restore the clipping and the blend mode when nothing has
+     * changed.
+     *
+     * @param changedStates the states that have been changed since the save
+     */
+    public void restore(final int changedStates) {
+      if ((changedStates & STATE_POSITION) != 0) {
+        restorePosition();
+      }
+      if ((changedStates & STATE_COLOR) != 0) {
+        restoreColor();
+      }
+      if ((changedStates & STATE_ALPHA) != 0) {
+        restoreAlpha();
+      }
+      if ((changedStates & STATE_FONT) != 0) {
+        restoreFont();
+      }
+      if ((changedStates & STATE_TEXT_SIZE) != 0) {
+        restoreTextSize();
+      }
+      if ((changedStates & STATE_IMAGE_SCALE) != 0) {
+        restoreImageScale();
+      }
+      if ((changedStates & STATE_CLIP) != 0) {
+        restoreClip();
+      }
+      if ((changedStates & STATE_BLEND_MODE) != 0) {
+        restoreBlend();
+      }
+    }
+
+    public int getOuterChangedStates() {
+      return outerChangedStates;
+    }
+
+    /**
+     * Check if the render engine is currently in exactly the state that has been saved.
+     *
+     * @return true if the current state is the same as the saved state
+     */
+    public boolean isCurrentState() {
+      NiftyRenderEngineImpl e = NiftyRenderEngineImpl.this;
+      return x == e.currentX &&
+          y == e.currentY &&
+          globalPosX == e.globalPosX &&
+          globalPosY == e.globalPosY &&
+          colorR == e.color.getRed() &&
+          colorG == e.color.getGreen() &&
+          colorB == e.color.getBlue() &&
+          colorChanged == e.colorChanged &&
+          colorAlpha == e.color.getAlpha() &&
+          colorAlphaChanged == e.colorAlphaChanged &&
+          font == e.font &&
+          textSize == e.textScale &&
+          imageScale == e.imageScale &&
+          clipEnabled == e.clipEnabled &&
+          clip.x0 == e.clip.x0 &&
+          clip.y0 == e.clip.y0 &&
+          clip.x1 == e.clip.x1 &&
+          clip.y1 == e.clip.y1 &&
+          blendMode == e.blendMode;
     }
 
     private void saveBlendMode() {
@@ -732,6 +903,8 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
     private void savePosition() {
       x = NiftyRenderEngineImpl.this.currentX;
       y = NiftyRenderEngineImpl.this.currentY;
+      globalPosX = NiftyRenderEngineImpl.this.globalPosX;
+      globalPosY = NiftyRenderEngineImpl.this.globalPosY;
     }
 
     private void restoreBlend() {
@@ -898,11 +1071,23 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
   @Override
   public void screenStarted(@Nonnull final Screen screen) {
     imageManager.uploadScreenImages(screen);
+    invalidateRenderCommandCaches();
   }
 
   @Override
   public void screenEnded(@Nonnull final Screen screen) {
     imageManager.unloadScreenImages(screen);
+    invalidateRenderCommandCaches();
+  }
+
+  @Override
+  public void screenPreload(@Nonnull final Screen screen) {
+    imageManager.preloadScreenImages(screen);
+  }
+
+  @Override
+  public void screenPreloadCanceled() {
+    imageManager.cancelScreenPreload();
   }
 
   @Override
@@ -939,6 +1124,24 @@ public class NiftyRenderEngineImpl implements NiftyRenderEngine {
     return false;
   }
 
+  // the display might show more than the virtual resolution when auto scaling adds borders, so we check against the
+  // native display area converted back to virtual coordinates (with one extra pixel to compensate rounding)
+  private boolean isOutsideDisplay(final int x0, final int y0, final int x1, final int y1) {
+    if (x0 > convertFromNativeX(nativeDisplayWidth) + 1) {
+      return true;
+    }
+    if (x1 < convertFromNativeX(0) - 1) {
+      return true;
+    }
+    if (y0 > convertFromNativeY(nativeDisplayHeight) + 1) {
+      return true;
+    }
+    if (y1 < convertFromNativeY(0) - 1) {
+      return true;
+    }
+    return false;
+  }
+
   private boolean isInsideClippingRectangle(final int x0, final int y0, final int x1, final int y1) {
     if (x0 >= clip.x0 &&
         x0 <= clip.x1 &&
@@ -0,0 +1,18 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.render.NiftyImageManager.ReferencedCountedImage;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Optional extension of a {@link NiftyImageManagerExt} that is able to upload the images of the next screen while the
+ * current screen is still displayed. Only the *ExtBatch implementation supports this.
+ */
+public interface PreloadingNiftyImageManagerExt<T extends ReferencedCountedImage> extends NiftyImageManagerExt<T> {
+
+  void preloadScreenImages(@Nonnull Screen screen, @Nonnull RenderDevice renderDevice);
+
+  void cancelScreenPreload(@Nonnull RenderDevice renderDevice);
+}
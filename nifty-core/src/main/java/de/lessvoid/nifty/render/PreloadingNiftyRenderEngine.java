@@ -0,0 +1,26 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.screen.Screen;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Optional extension of a {@link NiftyRenderEngine} that is able to prepare the images of a screen while another
+ * screen is still displayed. {@link de.lessvoid.nifty.Nifty#preloadScreen(String)} only has an effect when the render
+ * engine implements this interface.
+ */
+public interface PreloadingNiftyRenderEngine extends NiftyRenderEngine {
+  /**
+   * Called by Nifty when the given screen will be started next and its images should be prepared. The images are
+   * prepared on the render thread, a few of them in each of the following frames.
+   *
+   * @param screen the screen that will be started next
+   */
+  void screenPreload(@Nonnull Screen screen);
+
+  /**
+   * Called by Nifty when the preloaded screen is not going to be started anymore. This happens when another screen is
+   * started, when the preloaded screen is removed or when new XML is loaded.
+   */
+  void screenPreloadCanceled();
+}
@@ -0,0 +1,56 @@
+package de.lessvoid.nifty.render;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Optional extension of a {@link NiftyRenderEngine} that is able to record render calls into a
+ * {@link RenderCommandCache} and to replay them later. The retained rendering mode of Nifty (see
+ * {@link de.lessvoid.nifty.Nifty#setRetainedRenderingEnabled(boolean)}) only has an effect when the render engine
+ * implements this interface. Other render engines keep rendering each element the regular way.
+ */
+public interface RecordingNiftyRenderEngine extends NiftyRenderEngine {
+  /**
+   * Start recording all render calls into the given cache. The current state of the render engine is stored in the
+   * cache as well. When there already is an active recording the new recording is nested into it. The outer recording
+   * then only references the given cache.
+   *
+   * @param cache the cache to record into
+   */
+  void beginRecording(@Nonnull RenderCommandCache cache);
+
+  /**
+   * Stop the active recording. The cache the calls have been recorded into is valid afterwards and the recording it
+   * has been nested into, if any, is active again.
+   */
+  void endRecording();
+
+  /**
+   * Check if a recording is currently active.
+   *
+   * @return true if render calls are being recorded and false if not
+   */
+  boolean isRecording();
+
+  /**
+   * Render all calls recorded in the given cache again. This only happens when the cache and all caches it references
+   * are still valid and the render engine is in the same state as it was when the recording has been started. An
+   * active recording references the replayed cache.
+   *
+   * @param cache the cache to replay
+   * @return true if the recorded calls have been rendered and false if the cache can't be used
+   */
+  boolean replay(@Nonnull RenderCommandCache cache);
+
+  /**
+   * Let the active recording depend on the given cache of an element that didn't render anything, because it's hidden
+   * or outside of the clipping area. The recording can't be replayed anymore once the cache is invalidated.
+   *
+   * @param cache the cache of the element that has been skipped
+   */
+  void recordSkipped(@Nonnull RenderCommandCache cache);
+
+  /**
+   * Mark all RenderCommandCache instances recorded so far as outdated.
+   */
+  void invalidateRenderCommandCaches();
+}
@@ -0,0 +1,224 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.spi.render.MouseCursor;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.render.RenderFont;
+import de.lessvoid.nifty.spi.render.RenderImage;
+import de.lessvoid.nifty.tools.Color;
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A RenderDevice that forwards all calls to another RenderDevice and that additionally records the render calls into
+ * a RenderCommandCache while a recording is active. Recordings can be nested, the outer recording then references the
+ * cache of the inner recording.
+ */
+class RecordingRenderDevice implements RenderDevice {
+  @Nonnull
+  private final RenderDevice internal;
+  @Nullable
+  private RenderCommandCache recording;
+  @Nonnull
+  private final List<RenderCommandCache> outerRecordings = new ArrayList<RenderCommandCache>();
+
+  public RecordingRenderDevice(@Nonnull final RenderDevice internal) {
+    this.internal = internal;
+  }
+
+  public void startRecording(@Nonnull final RenderCommandCache cache) {
+    if (recording != null) {
+      recording.recordCache(cache, true);
+      outerRecordings.add(recording);
+    }
+    recording = cache;
+  }
+
+  public void stopRecording() {
+    if (recording != null) {
+      recording.end();
+      recording = outerRecordings.isEmpty() ? null : outerRecordings.remove(outerRecordings.size() - 1);
+    }
+  }
+
+  /**
+   * Render the calls of the given cache. An active recording only references the cache.
+   */
+  public void replay(@Nonnull final RenderCommandCache cache) {
+    if (recording != null) {
+      recording.recordCache(cache, true);
+    }
+    cache.replay(internal);
+  }
+
+  /**
+   * Let the active recording depend on the given cache although nothing of it has been rendered.
+   */
+  public void recordSkipped(@Nonnull final RenderCommandCache cache) {
+    if (recording != null) {
+      recording.recordCache(cache, false);
+    }
+  }
+
+  public boolean isRecording() {
+    return recording != null;
+  }
+
+  @Override
+  public void setResourceLoader(@Nonnull NiftyResourceLoader niftyResourceLoader) {
+    internal.setResourceLoader(niftyResourceLoader);
+  }
+
+  @Override
+  public RenderImage createImage(@Nonnull String filename, boolean filterLinear) {
+    return internal.createImage(filename, filterLinear);
+  }
+
+  @Override
+  public RenderFont createFont(@Nonnull String filename) {
+    return internal.createFont(filename);
+  }
+
+  @Override
+  public int getWidth() {
+    return internal.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return internal.getHeight();
+  }
+
+  @Override
+  public void beginFrame() {
+    internal.beginFrame();
+  }
+
+  @Override
+  public void endFrame() {
+    internal.endFrame();
+  }
+
+  @Override
+  public void clear() {
+    internal.clear();
+  }
+
+  @Override
+  public void setBlendMode(@Nonnull BlendMode renderMode) {
+    if (recording != null) {
+      recording.recordBlendMode(renderMode);
+    }
+    internal.setBlendMode(renderMode);
+  }
+
+  @Override
+  public void renderQuad(int x, int y, int width, int height, @Nonnull Color color) {
+    if (recording != null) {
+      recording.recordQuad(x, y, width, height, color);
+    }
+    internal.renderQuad(x, y, width, height, color);
+  }
+
+  @Override
+  public void renderQuad(
+      int x,
+      int y,
+      int width,
+      int height,
+      @Nonnull Color topLeft,
+      @Nonnull Color topRight,
+      @Nonnull Color bottomRight,
+      @Nonnull Color bottomLeft) {
+    if (recording != null) {
+      recording.recordQuad(x, y, width, height, topLeft, topRight, bottomRight, bottomLeft);
+    }
+    internal.renderQuad(x, y, width, height, topLeft, topRight, bottomRight, bottomLeft);
+  }
+
+  @Override
+  public void renderImage(
+      @Nonnull RenderImage image,
+      int x,
+      int y,
+      int width,
+      int height,
+      @Nonnull Color color,
+      float imageScale) {
+    if (recording != null) {
+      recording.recordImage(image, x, y, width, height, color, imageScale);
+    }
+    internal.renderImage(image, x, y, width, height, color, imageScale);
+  }
+
+  @Override
+  public void renderImage(
+      @Nonnull RenderImage image,
+      int x,
+      int y,
+      int w,
+      int h,
+      int srcX,
+      int srcY,
+      int srcW,
+      int srcH,
+      @Nonnull Color color,
+      float scale,
+      int centerX,
+      int centerY) {
+    if (recording != null) {
+      recording.recordImage(image, x, y, w, h, srcX, srcY, srcW, srcH, color, scale, centerX, centerY);
+    }
+    internal.renderImage(image, x, y, w, h, srcX, srcY, srcW, srcH, color, scale, centerX, centerY);
+  }
+
+  @Override
+  public void renderFont(
+      @Nonnull RenderFont font,
+      @Nonnull String text,
+      int x,
+      int y,
+      @Nonnull Color fontColor,
+      float sizeX,
+      float sizeY) {
+    if (recording != null) {
+      recording.recordFont(font, text, x, y, fontColor, sizeX, sizeY);
+    }
+    internal.renderFont(font, text, x, y, fontColor, sizeX, sizeY);
+  }
+
+  @Override
+  public void enableClip(int x0, int y0, int x1, int y1) {
+    if (recording != null) {
+      recording.recordEnableClip(x0, y0, x1, y1);
+    }
+    internal.enableClip(x0, y0, x1, y1);
+  }
+
+  @Override
+  public void disableClip() {
+    if (recording != null) {
+      recording.recordDisableClip();
+    }
+    internal.disableClip();
+  }
+
+  @Override
+  public MouseCursor createMouseCursor(@Nonnull String filename, int hotspotX, int hotspotY) throws IOException {
+    return internal.createMouseCursor(filename, hotspotX, hotspotY);
+  }
+
+  @Override
+  public void enableMouseCursor(@Nonnull MouseCursor mouseCursor) {
+    internal.enableMouseCursor(mouseCursor);
+  }
+
+  @Override
+  public void disableMouseCursor() {
+    internal.disableMouseCursor();
+  }
+}
@@ -0,0 +1,380 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.render.RenderFont;
+import de.lessvoid.nifty.spi.render.RenderImage;
+import de.lessvoid.nifty.tools.Color;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * The recorded RenderDevice calls of an element and all of its child elements. This is used by the retained
+ * rendering mode (see {@link de.lessvoid.nifty.Nifty#setRetainedRenderingEnabled(boolean)}) to render elements that
+ * did not change since the last frame without walking the element tree again.
+ * <p/>
+ * The recorded calls are only replayed when the NiftyRenderEngine is in the same state (position, color, font,
+ * clipping and so on) as it was when the calls have been recorded.
+ * <p/>
+ * Recordings are nested. The calls of a child element are not copied into the recording of its parent element, the
+ * recording of the parent only references the cache of the child. So when a child element changes only the child
+ * element is recorded again while the parent elements just record their own calls and the references to the caches
+ * of their other children again. The recording of the parent also remembers the child elements that didn't render
+ * anything (hidden or culled) so that it notices when one of them changes.
+ */
+public class RenderCommandCache {
+  private static final int OP_BLEND_MODE = 0;
+  private static final int OP_QUAD = 1;
+  private static final int OP_QUAD_GRADIENT = 2;
+  private static final int OP_IMAGE = 3;
+  private static final int OP_SUB_IMAGE = 4;
+  private static final int OP_FONT = 5;
+  private static final int OP_ENABLE_CLIP = 6;
+  private static final int OP_DISABLE_CLIP = 7;
+  private static final int OP_CACHE = 8;
+
+  private boolean valid;
+  private int generation;
+
+  /**
+   * Changes every time the cache is invalidated or recorded again. The recordings that reference this cache use it to
+   * notice changes.
+   */
+  private int version;
+  private int recordingVersion;
+
+  /**
+   * The state of the render engine when the recording has been started.
+   */
+  @Nullable
+  private NiftyRenderEngineImpl.SavedRenderState engineState;
+
+  @Nonnull
+  private int[] ops = new int[16];
+  private int opCount;
+  @Nonnull
+  private int[] ints = new int[64];
+  private int intCount;
+  @Nonnull
+  private float[] floats = new float[16];
+  private int floatCount;
+  @Nonnull
+  private Object[] objects = new Object[16];
+  private int objectCount;
+
+  // the colors are copied because the callers change them afterwards. the instances are kept to be reused by the next
+  // recording.
+  @Nonnull
+  private Color[] colors = new Color[16];
+  private int colorCount;
+
+  // the caches of the child elements this recording depends on and their version at the time of the recording
+  @Nonnull
+  private RenderCommandCache[] dependencies = new RenderCommandCache[4];
+  @Nonnull
+  private int[] dependencyVersions = new int[4];
+  @Nonnull
+  private boolean[] dependencyRendered = new boolean[4];
+  private int dependencyCount;
+
+  /**
+   * Mark the recorded calls as outdated. They will be recorded again the next time the element is rendered.
+   */
+  public void invalidate() {
+    valid = false;
+    version++;
+  }
+
+  /**
+   * Check if the recorded calls can still be used.
+   *
+   * @return true if the recorded calls are still valid and false if not
+   */
+  public boolean isValid() {
+    return valid;
+  }
+
+  void begin(final int newGeneration, @Nonnull final NiftyRenderEngineImpl.SavedRenderState newEngineState) {
+    valid = false;
+    version++;
+    recordingVersion = version;
+    generation = newGeneration;
+    engineState = newEngineState;
+    opCount = 0;
+    intCount = 0;
+    floatCount = 0;
+    Arrays.fill(objects, 0, objectCount, null);
+    objectCount = 0;
+    colorCount = 0;
+    Arrays.fill(dependencies, 0, dependencyCount, null);
+    dependencyCount = 0;
+  }
+
+  void end() {
+    // the cache might have been invalidated while it was recorded
+    valid = version == recordingVersion;
+  }
+
+  /**
+   * Check if the recorded calls and the recorded calls of all referenced caches can be replayed.
+   */
+  boolean isReplayable(final int currentGeneration) {
+    if (!valid || generation != currentGeneration) {
+      return false;
+    }
+    for (int i = 0; i < dependencyCount; i++) {
+      RenderCommandCache dependency = dependencies[i];
+      if (dependency.version != dependencyVersions[i]) {
+        return false;
+      }
+      if (dependencyRendered[i] && !dependency.isReplayable(currentGeneration)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  NiftyRenderEngineImpl.SavedRenderState getEngineState() {
+    return engineState;
+  }
+
+  /**
+   * Record a reference to the cache of a child element.
+   *
+   * @param cache the cache of the child element
+   * @param rendered true if the calls of the cache are part of this recording and false if the child element didn't
+   * render anything and only changes of it need to be noticed
+   */
+  void recordCache(@Nonnull final RenderCommandCache cache, final boolean rendered) {
+    if (rendered) {
+      addOp(OP_CACHE);
+      addObject(cache);
+    }
+    if (dependencyCount == dependencies.length) {
+      dependencies = Arrays.copyOf(dependencies, dependencyCount * 2);
+      dependencyVersions = Arrays.copyOf(dependencyVersions, dependencyCount * 2);
+      dependencyRendered = Arrays.copyOf(dependencyRendered, dependencyCount * 2);
+    }
+    dependencies[dependencyCount] = cache;
+    dependencyVersions[dependencyCount] = cache.version;
+    dependencyRendered[dependencyCount] = rendered;
+    dependencyCount++;
+  }
+
+  void recordBlendMode(@Nonnull final BlendMode blendMode) {
+    addOp(OP_BLEND_MODE);
+    addObject(blendMode);
+  }
+
+  void recordQuad(final int x, final int y, final int width, final int height, @Nonnull final Color color) {
+    addOp(OP_QUAD);
+    addInts(x, y, width, height);
+    addColor(color);
+  }
+
+  void recordQuad(
+      final int x,
+      final int y,
+      final int width,
+      final int height,
+      @Nonnull final Color topLeft,
+      @Nonnull final Color topRight,
+      @Nonnull final Color bottomRight,
+      @Nonnull final Color bottomLeft) {
+    addOp(OP_QUAD_GRADIENT);
+    addInts(x, y, width, height);
+    addColor(topLeft);
+    addColor(topRight);
+    addColor(bottomRight);
+    addColor(bottomLeft);
+  }
+
+  void recordImage(
+      @Nonnull final RenderImage image,
+      final int x,
+      final int y,
+      final int width,
+      final int height,
+      @Nonnull final Color color,
+      final float imageScale) {
+    addOp(OP_IMAGE);
+    addObject(image);
+    addInts(x, y, width, height);
+    addColor(color);
+    addFloat(imageScale);
+  }
+
+  void recordImage(
+      @Nonnull final RenderImage image,
+      final int x,
+      final int y,
+      final int w,
+      final int h,
+      final int srcX,
+      final int srcY,
+      final int srcW,
+      final int srcH,
+      @Nonnull final Color color,
+      final float scale,
+      final int centerX,
+      final int centerY) {
+    addOp(OP_SUB_IMAGE);
+    addObject(image);
+    addInts(x, y, w, h);
+    addInts(srcX, srcY, srcW, srcH);
+    addInts(centerX, centerY);
+    addColor(color);
+    addFloat(scale);
+  }
+
+  void recordFont(
+      @Nonnull final RenderFont font,
+      @Nonnull final String text,
+      final int x,
+      final int y,
+      @Nonnull final Color fontColor,
+      final float sizeX,
+      final float sizeY) {
+    addOp(OP_FONT);
+    addObject(font);
+    addObject(text);
+    addInts(x, y);
+    addColor(fontColor);
+    addFloat(sizeX);
+    addFloat(sizeY);
+  }
+
+  void recordEnableClip(final int x0, final int y0, final int x1, final int y1) {
+    addOp(OP_ENABLE_CLIP);
+    addInts(x0, y0, x1, y1);
+  }
+
+  void recordDisableClip() {
+    addOp(OP_DISABLE_CLIP);
+  }
+
+  /**
+   * Send all recorded calls to the given RenderDevice.
+   */
+  void replay(@Nonnull final RenderDevice renderDevice) {
+    int i = 0;
+    int f = 0;
+    int o = 0;
+    int c = 0;
+    for (int op = 0; op < opCount; op++) {
+      switch (ops[op]) {
+        case OP_BLEND_MODE:
+          renderDevice.setBlendMode((BlendMode) objects[o++]);
+          break;
+        case OP_QUAD:
+          renderDevice.renderQuad(ints[i], ints[i + 1], ints[i + 2], ints[i + 3], colors[c]);
+          i += 4;
+          c += 1;
+          break;
+        case OP_QUAD_GRADIENT:
+          renderDevice.renderQuad(ints[i], ints[i + 1], ints[i + 2], ints[i + 3],
+              colors[c], colors[c + 1], colors[c + 2], colors[c + 3]);
+          i += 4;
+          c += 4;
+          break;
+        case OP_IMAGE:
+          renderDevice.renderImage((RenderImage) objects[o], ints[i], ints[i + 1], ints[i + 2], ints[i + 3],
+              colors[c], floats[f]);
+          i += 4;
+          o += 1;
+          c += 1;
+          f += 1;
+          break;
+        case OP_SUB_IMAGE:
+          renderDevice.renderImage((RenderImage) objects[o], ints[i], ints[i + 1], ints[i + 2], ints[i + 3],
+              ints[i + 4], ints[i + 5], ints[i + 6], ints[i + 7], colors[c], floats[f],
+              ints[i + 8], ints[i + 9]);
+          i += 10;
+          o += 1;
+          c += 1;
+          f += 1;
+          break;
+        case OP_FONT:
+          renderDevice.renderFont((RenderFont) objects[o], (String) objects[o + 1], ints[i], ints[i + 1],
+              colors[c], floats[f], floats[f + 1]);
+          i += 2;
+          o += 2;
+          c += 1;
+          f += 2;
+          break;
+        case OP_ENABLE_CLIP:
+          renderDevice.enableClip(ints[i], ints[i + 1], ints[i + 2], ints[i + 3]);
+          i += 4;
+          break;
+        case OP_DISABLE_CLIP:
+          renderDevice.disableClip();
+          break;
+        case OP_CACHE:
+          ((RenderCommandCache) objects[o]).replay(renderDevice);
+          o += 1;
+          break;
+        default:
+          throw new IllegalStateException("Unknown render command: " + ops[op]);
+      }
+    }
+  }
+
+  private void addOp(final int op) {
+    if (opCount == ops.length) {
+      ops = Arrays.copyOf(ops, ops.length * 2);
+    }
+    ops[opCount++] = op;
+  }
+
+  private void addInts(final int a, final int b) {
+    ensureInts(2);
+    ints[intCount++] = a;
+    ints[intCount++] = b;
+  }
+
+  private void addInts(final int a, final int b, final int c, final int d) {
+    ensureInts(4);
+    ints[intCount++] = a;
+    ints[intCount++] = b;
+    ints[intCount++] = c;
+    ints[intCount++] = d;
+  }
+
+  private void ensureInts(final int count) {
+    if (intCount + count > ints.length) {
+      ints = Arrays.copyOf(ints, Math.max(ints.length * 2, intCount + count));
+    }
+  }
+
+  private void addFloat(final float value) {
+    if (floatCount == floats.length) {
+      floats = Arrays.copyOf(floats, floats.length * 2);
+    }
+    floats[floatCount++] = value;
+  }
+
+  private void addObject(@Nonnull final Object value) {
+    if (objectCount == objects.length) {
+      objects = Arrays.copyOf(objects, objects.length * 2);
+    }
+    objects[objectCount++] = value;
+  }
+
+  private void addColor(@Nonnull final Color value) {
+    if (colorCount == colors.length) {
+      colors = Arrays.copyOf(colors, colors.length * 2);
+    }
+    Color copy = colors[colorCount];
+    if (copy == null) {
+      colors[colorCount] = new Color(value);
+    } else {
+      copy.setRed(value.getRed());
+      copy.setGreen(value.getGreen());
+      copy.setBlue(value.getBlue());
+      copy.setAlpha(value.getAlpha());
+    }
+    colorCount++;
+  }
+}
@@ -14,6 +14,9 @@ public class BatchRenderConfiguration {
   public static final boolean DEFAULT_DISPOSE_IMAGES_BETWEEN_SCREENS = true;
   public static final boolean DEFAULT_USE_HIGH_QUALITY_TEXTURES = false;
   public static final boolean DEFAULT_FILL_REMOVED_IMAGES_IN_ATLAS = false;
+  public static final TextureAtlasPacker.Factory DEFAULT_ATLAS_PACKER = BinaryTreeAtlasPacker.FACTORY;
+  public static final boolean DEFAULT_DEFRAGMENT_ATLASES = false;
+  public static final int DEFAULT_PRELOAD_UPLOAD_TIME_BUDGET = 2;
 
   /**
    * The width that any and all texture atlases will be created at. The size of any given atlas is constant; that is,
@@ -78,4 +81,29 @@ public class BatchRenderConfiguration {
    * of old images visible in currently unused atlas space.
    */
   public boolean fillRemovedImagesInAtlas = DEFAULT_FILL_REMOVED_IMAGES_IN_ATLAS;
+
+  /**
+   * The packing algorithm used to place images in the texture atlases. The default {@link BinaryTreeAtlasPacker} is
+   * very fast, {@link MaxRectsAtlasPacker} packs the atlases considerably tighter and is able to reuse the space of
+   * removed images for images of a different size. This is especially useful when
+   * {@link #disposeImagesBetweenScreens} is set to {@code false} and images are loaded and removed dynamically.
+   */
+  public TextureAtlasPacker.Factory atlasPacker = DEFAULT_ATLAS_PACKER;
+
+  /**
+   * Whether or not texture atlases that had images removed should be compacted. When an image does not fit into an
+   * atlas anymore that contains holes left behind by removed images, the atlas is repacked at the beginning of one of
+   * the next frames - one atlas per frame at most, so the cost is spread over several frames. Repacking means that all
+   * images of the atlas are uploaded again, so this should be used together with {@link #atlasPacker} set to a packer
+   * that benefits from repacking, like {@link MaxRectsAtlasPacker}.
+   */
+  public boolean defragmentAtlases = DEFAULT_DEFRAGMENT_ATLASES;
+
+  /**
+   * The time in milliseconds that may be spent at the beginning of each frame to upload the images of a screen that
+   * is preloaded with {@link de.lessvoid.nifty.Nifty#preloadScreen(String)}. At least one image is uploaded per frame
+   * regardless of this value. Higher values finish the preloading in fewer frames, lower values keep the frame time of
+   * the screen that is currently displayed more stable.
+   */
+  public int preloadUploadTimeBudget = DEFAULT_PRELOAD_UPLOAD_TIME_BUDGET;
 }
@@ -1,6 +1,9 @@
 package de.lessvoid.nifty.render.batch;
 
+import de.lessvoid.nifty.profiler.FrameProfiler;
+import de.lessvoid.nifty.render.batch.core.BatchRenderBackendCoreProfileInternal;
 import de.lessvoid.nifty.render.batch.spi.BatchRenderBackend;
+import de.lessvoid.nifty.render.batch.spi.TextureArrayBatchRenderBackend;
 import de.lessvoid.nifty.render.BlendMode;
 import de.lessvoid.nifty.spi.render.MouseCursor;
 import de.lessvoid.nifty.spi.render.RenderDevice;
@@ -18,9 +21,13 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -28,6 +35,7 @@ import javax.annotation.Nullable;
 import javax.annotation.Nonnull;
 
 import org.jglfont.JGLFontFactory;
+import org.jglfont.impl.format.IntObjectMap;
 import org.jglfont.spi.JGLFontRenderer;
 import org.jglfont.spi.ResourceLoader;
 
@@ -75,10 +83,13 @@ public class BatchRenderDevice implements RenderDevice {
   private int glyphCount = 0;
   private int quadCount = 0;
   private int currentTextureId = -1;
+  private int currentBatchTextureId = -1;
   private boolean displayFPS = false;
   private boolean logFPS = false;
   private boolean shouldStartNewBatch = true;
   @Nullable
+  private FrameProfiler frameProfiler;
+  @Nullable
   private RenderFont fpsFont = null;
   @Nullable
   private BatchRenderImage thePlainImage = null;
@@ -101,8 +112,17 @@ public class BatchRenderDevice implements RenderDevice {
   private Rect clippedQuadTexture = new Rect(0, 0, 0, 0);
   @Nonnull
   private final Map<Integer, TextureAtlasGenerator> textureAtlasGenerators = new HashMap<Integer, TextureAtlasGenerator>();
+  // the images currently uploaded into each texture atlas, only tracked when atlas defragmentation is enabled
+  @Nonnull
+  private final Map<Integer, Set<BatchRenderImage>> atlasImages = new HashMap<Integer, Set<BatchRenderImage>>();
+  // the atlases that an image did not fit into anymore although images have been removed from them before
+  @Nonnull
+  private final Set<Integer> fragmentedAtlasTextureIds = new LinkedHashSet<Integer>();
   @Nonnull
   private final Map<String, BatchRenderImage> imageCache = new HashMap<String, BatchRenderImage>();
+  // images waiting to be uploaded within the preload time budget at the beginning of the next frames
+  @Nonnull
+  private final Queue<BatchRenderImage> pendingUploads = new LinkedList<BatchRenderImage>();
   @Nullable
   private BatchRenderImage.TextureSize currentTextureSize = null;
   @Nonnull
@@ -172,6 +192,16 @@ public class BatchRenderDevice implements RenderDevice {
     }
   }
 
+  /**
+   * Set a FrameProfiler that gets the number of quads, clipped quads and batches of each frame. Use the same
+   * FrameProfiler you've given to {@link de.lessvoid.nifty.Nifty#setFrameProfiler(FrameProfiler)}.
+   *
+   * @param frameProfiler the FrameProfiler or null to stop counting
+   */
+  public void setFrameProfiler(@Nullable final FrameProfiler frameProfiler) {
+    this.frameProfiler = frameProfiler;
+  }
+
   @Override
   public void setResourceLoader(@Nonnull final NiftyResourceLoader resourceLoader) {
     log.finest("setResourceLoader()");
@@ -211,6 +241,10 @@ public class BatchRenderDevice implements RenderDevice {
   public void beginFrame() {
     log.finest("beginFrame()");
     renderBackend.beginFrame();
+    if (renderConfig.defragmentAtlases) {
+      defragmentNextTextureAtlas();
+    }
+    uploadPendingImages();
     currentBlendMode = BlendMode.BLEND;
     clipping.setEnabled(false);
     clipping.setToViewport();
@@ -232,6 +266,12 @@ public class BatchRenderDevice implements RenderDevice {
     int batches = renderBackend.render();
     renderBackend.endFrame();
 
+    if (frameProfiler != null) {
+      frameProfiler.count(FrameProfiler.Counter.QUADS, quadCount);
+      frameProfiler.count(FrameProfiler.Counter.CLIPPED_QUADS, clipping.getDiscardCount());
+      frameProfiler.count(FrameProfiler.Counter.BATCHES, batches);
+    }
+
     frames++;
     long diff = timeProvider.getMsTime() - time;
     if (diff >= 1000) {
@@ -270,6 +310,23 @@ public class BatchRenderDevice implements RenderDevice {
     viewportHeight = -1;
   }
 
+  /**
+   * Get the number of quads that have been discarded in the current frame because they were completely outside of the
+   * clipping area. After endFrame() this is the number of the finished frame until the next frame begins.
+   *
+   * @return the number of quads discarded by clipping
+   */
+  public int getClippedQuadCount() {
+    return clipping.getDiscardCount();
+  }
+
+  /**
+   * @return the number of quads rendered in the current frame (or the last frame after endFrame() has been called)
+   */
+  public int getQuadCount() {
+    return quadCount;
+  }
+
   @Override
   public void clear() {
     log.finest("clear()");
@@ -499,11 +556,23 @@ public class BatchRenderDevice implements RenderDevice {
     renderBackend.disableMouseCursor();
   }
 
+  /**
+   * Release the GL resources of the render backend, if the backend supports that. Call this with the GL context
+   * current when Nifty is shut down. The device can't be used afterwards.
+   */
+  public void dispose() {
+    pendingUploads.clear();
+    if (renderBackend instanceof BatchRenderBackendCoreProfileInternal) {
+      ((BatchRenderBackendCoreProfileInternal) renderBackend).dispose();
+    }
+  }
+
   public void resetTextureAtlases() {
     if (! renderConfig.disposeImagesBetweenScreens) {
       return;
     }
     log.finest("resetTextureAtlases()");
+    pendingUploads.clear();
     if (thePlainImage != null) {
       thePlainImage.unload();
     }
@@ -512,8 +581,57 @@ public class BatchRenderDevice implements RenderDevice {
     fontRenderer.unload();
   }
 
+  /**
+   * Compact all texture atlases that have been marked as fragmented right away instead of one atlas per frame. This
+   * only has an effect when {@link BatchRenderConfiguration#defragmentAtlases} is enabled. Calling this when there is
+   * time to spare, for instance after a screen has been started, keeps the atlases compact.
+   */
+  public void defragmentTextureAtlases() {
+    while (!fragmentedAtlasTextureIds.isEmpty()) {
+      defragmentNextTextureAtlas();
+    }
+  }
+
+  /**
+   * Queue the given image to be uploaded into a texture atlas at the beginning of one of the next frames. The uploads
+   * of all queued images are spread over several frames so that each frame spends about
+   * {@link BatchRenderConfiguration#preloadUploadTimeBudget} milliseconds on it. This is used to upload the images of
+   * the next screen while the current screen is still displayed. Images that are already uploaded, or that are
+   * rendered before their turn has come, are simply skipped.
+   *
+   * @param image the image to upload
+   */
+  public void queueImageUpload(@Nonnull final RenderImage image) {
+    pendingUploads.add((BatchRenderImage) image);
+  }
+
+  /**
+   * Remove all images from the upload queue that have not been uploaded yet.
+   */
+  public void clearPendingImageUploads() {
+    pendingUploads.clear();
+  }
+
+  /**
+   * @return the number of images that are queued for upload by {@link #queueImageUpload(RenderImage)}
+   */
+  public int getPendingImageUploadCount() {
+    return pendingUploads.size();
+  }
+
   // Internal implementations
 
+  private void uploadPendingImages() {
+    if (pendingUploads.isEmpty()) {
+      return;
+    }
+    long budget = renderConfig.preloadUploadTimeBudget * 1000000L;
+    long start = System.nanoTime();
+    do {
+      uploadImageInternal(pendingUploads.remove());
+    } while (!pendingUploads.isEmpty() && System.nanoTime() - start < budget);
+  }
+
   private void createInitialTextureAtlases() {
     for (int i = 0; i < renderConfig.initialAtlasCount; ++i) {
       createTextureAtlasGenerator(createTextureAtlas());
@@ -531,7 +649,7 @@ public class BatchRenderDevice implements RenderDevice {
 
   private void createTextureAtlasGenerator(final int atlasTextureId) {
     textureAtlasGenerators.put(atlasTextureId, new TextureAtlasGenerator(renderConfig.atlasWidth,
-            renderConfig.atlasHeight, renderConfig.atlasPadding, renderConfig.atlasTolerance));
+            renderConfig.atlasHeight, renderConfig.atlasPadding, renderConfig.atlasTolerance, renderConfig.atlasPacker));
   }
 
   private void resetCurrentTextureAtlas() {
@@ -583,12 +701,17 @@ public class BatchRenderDevice implements RenderDevice {
     if (! image.isUploaded()) {
       reattemptUpload(image);
     }
+
+    if (renderConfig.defragmentAtlases && image.isInAtlas()) {
+      trackAtlasImage(image);
+    }
   }
 
   private void reattemptUpload(final BatchRenderImage image) {
     while (!image.isUploaded() && !image.uploadFailedPermanently()) {
       // We're still not uploaded, yet the upload has not failed permanently - there's hope!
       // Keep trying new texture atlases & re-attempting upload, until we either have success or permanent failure.
+      markTextureAtlasIfFragmented(getCurrentAtlasTextureId());
       nextTextureAtlas();
       image.reUpload(getCurrentAtlasTextureId(), getCurrentTextureAtlasGenerator());
     }
@@ -602,6 +725,65 @@ public class BatchRenderDevice implements RenderDevice {
     for (TextureAtlasGenerator generator : textureAtlasGenerators.values()) {
       generator.reset();
     }
+    atlasImages.clear();
+    fragmentedAtlasTextureIds.clear();
+  }
+
+  private void trackAtlasImage(@Nonnull final BatchRenderImage image) {
+    Set<BatchRenderImage> images = atlasImages.get(image.getTextureId());
+    if (images == null) {
+      images = new LinkedHashSet<BatchRenderImage>();
+      atlasImages.put(image.getTextureId(), images);
+    }
+    images.add(image);
+  }
+
+  private void markTextureAtlasIfFragmented(final int atlasTextureId) {
+    if (!renderConfig.defragmentAtlases) {
+      return;
+    }
+    TextureAtlasGenerator generator = textureAtlasGenerators.get(atlasTextureId);
+    if (generator != null && generator.isFragmented()) {
+      fragmentedAtlasTextureIds.add(atlasTextureId);
+    }
+  }
+
+  // Repacks a single fragmented texture atlas. All images that are still in the atlas are uploaded again at their new
+  // positions. Images that have been unloaded in the meantime or that moved to another atlas are not tracked anymore.
+  private void defragmentNextTextureAtlas() {
+    if (fragmentedAtlasTextureIds.isEmpty()) {
+      return;
+    }
+    Iterator<Integer> it = fragmentedAtlasTextureIds.iterator();
+    int atlasTextureId = it.next();
+    it.remove();
+
+    TextureAtlasGenerator generator = textureAtlasGenerators.get(atlasTextureId);
+    if (generator == null) {
+      return;
+    }
+    Map<String, TextureAtlasGenerator.Result> results = generator.compact();
+    if (results == null) {
+      log.info("Texture atlas (atlas texture id: " + atlasTextureId + ") could not be defragmented.");
+      return;
+    }
+
+    renderBackend.clearTextureAtlas(atlasTextureId);
+    Set<BatchRenderImage> images = atlasImages.get(atlasTextureId);
+    if (images == null) {
+      return;
+    }
+    for (Iterator<BatchRenderImage> imageIt = images.iterator(); imageIt.hasNext(); ) {
+      BatchRenderImage image = imageIt.next();
+      TextureAtlasGenerator.Result result = results.get(image.getFilename());
+      if (!image.isInAtlas() || image.getTextureId() != atlasTextureId || result == null) {
+        imageIt.remove();
+        continue;
+      }
+      image.moveInAtlas(result.getX(), result.getY());
+    }
+    log.info("Texture atlas (atlas texture id: " + atlasTextureId + ") defragmented, " + images.size() + " images " +
+        "moved.");
   }
 
   private void clearTextureAtlases() {
@@ -707,13 +889,22 @@ public class BatchRenderDevice implements RenderDevice {
   private void checkIfTextureChanged(final int textureId) {
     if (!isCurrentTexture(textureId)) {
       updateCurrentTexture(textureId);
-      shouldStartNewBatch = true;
+      if (!canShareCurrentBatch(textureId)) {
+        shouldStartNewBatch = true;
+      }
     }
   }
 
+  private boolean canShareCurrentBatch(final int textureId) {
+    return !shouldStartNewBatch &&
+        renderBackend instanceof TextureArrayBatchRenderBackend &&
+        ((TextureArrayBatchRenderBackend) renderBackend).canShareBatch(currentBatchTextureId, textureId);
+  }
+
   private void beginNewBatchIfRequired() {
     if (shouldStartNewBatch) {
       renderBackend.beginBatch(currentBlendMode, currentTextureId);
+      currentBatchTextureId = currentTextureId;
       shouldStartNewBatch = false;
     }
   }
@@ -1124,7 +1315,7 @@ public class BatchRenderDevice implements RenderDevice {
 
   private class BitmapInfo {
     private final BatchRenderImage image;
-    private final Map<Integer, CharRenderInfo> characterIndices = new HashMap<Integer, CharRenderInfo>();
+    private final IntObjectMap<CharRenderInfo> characterIndices = new IntObjectMap<CharRenderInfo>();
 
     public BitmapInfo(final BatchRenderImage image) {
       this.image = image;
@@ -1152,7 +1343,7 @@ public class BatchRenderDevice implements RenderDevice {
           image.getTextureId());
     }
 
-    public void addCharRenderInfo(final Integer c, final CharRenderInfo renderInfo) {
+    public void addCharRenderInfo(final int c, final CharRenderInfo renderInfo) {
       this.characterIndices.put(c, renderInfo);
     }
   }
@@ -117,6 +117,32 @@ public class BatchRenderImage implements RenderImage {
     return isUploaded;
   }
 
+  /**
+   * @return true if this image is currently uploaded into a texture atlas, false if it is not uploaded at all or if it
+   * is a non-atlas texture
+   */
+  public boolean isInAtlas() {
+    return isUploaded && result != null;
+  }
+
+  @Nonnull
+  public String getFilename() {
+    return filename;
+  }
+
+  // Moves this image to a new position in its texture atlas. The caller is responsible for updating the
+  // TextureAtlasGenerator accordingly (see TextureAtlasGenerator.compact()) and for clearing the old image data.
+  public void moveInAtlas(final int newX, final int newY) {
+    if (!isInAtlas()) {
+      return;
+    }
+    renderBackend.addImageToAtlas(image, newX, newY, textureId);
+    x = newX;
+    y = newY;
+    result = new Result(newX, newY, image.getWidth(), image.getHeight());
+    log.fine("Image [" + filename + "] moved in atlas (atlas texture id: " + textureId + ").");
+  }
+
   public void markAsUnloaded() {
     if (shouldUnload) {
       isUploaded = false;
@@ -0,0 +1,106 @@
+package de.lessvoid.nifty.render.batch;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The original packing algorithm of the {@link TextureAtlasGenerator}. The free space is split into a binary tree
+ * with every image added. It's very fast but removed images only leave holes for images of the same or smaller size
+ * behind.
+ * <p/>
+ * This work is based on https://github.com/lukaszpaczkowski/texture-atlas-generator by lukaszpaczkowski which is based
+ * on the popular packing algorithm http://www.blackpawn.com/texts/lightmaps/ by jimscott@blackpawn.com.
+ */
+public class BinaryTreeAtlasPacker implements TextureAtlasPacker {
+  @Nonnull
+  public static final Factory FACTORY = new Factory() {
+    @Nonnull
+    @Override
+    public TextureAtlasPacker create(final int atlasWidth, final int atlasHeight, final int atlasPadding) {
+      return new BinaryTreeAtlasPacker(atlasWidth, atlasHeight, atlasPadding);
+    }
+  };
+
+  private final int padding;
+  @Nonnull
+  private Node root;
+
+  public BinaryTreeAtlasPacker(final int width, final int height, final int padding) {
+    this.padding = padding;
+    this.root = new Node(0, 0, width, height);
+  }
+
+  @Nullable
+  @Override
+  public Area add(final int width, final int height) {
+    return root.insert(width, height, padding);
+  }
+
+  @Override
+  public void remove(@Nonnull final Area area) {
+    Node node = (Node) area;
+    node.occupied = false;
+    node.child[0] = null;
+    node.child[1] = null;
+  }
+
+  @Override
+  public void reset(final int width, final int height) {
+    root = new Node(0, 0, width, height);
+  }
+
+  private static class Node extends Area {
+    @Nonnull
+    public final Node[] child;
+    public boolean occupied;
+
+    public Node(final int x, final int y, final int width, final int height) {
+      super(x, y, width, height);
+      child = new Node[2];
+      child[0] = null;
+      child[1] = null;
+      occupied = false;
+    }
+
+    public boolean isLeaf() {
+      return child[0] == null && child[1] == null;
+    }
+
+    // Algorithm from http://www.blackpawn.com/texts/lightmaps/
+    @Nullable
+    public Node insert(final int imageWidth, final int imageHeight, final int padding) {
+      if (!isLeaf()) {
+        Node newNode = child[0].insert(imageWidth, imageHeight, padding);
+        if (newNode != null) {
+          return newNode;
+        }
+        return child[1].insert(imageWidth, imageHeight, padding);
+      }
+
+      if (occupied) {
+        return null; // occupied
+      }
+
+      if (imageWidth > getWidth() || imageHeight > getHeight()) {
+        return null; // does not fit
+      }
+
+      if (imageWidth == getWidth() && imageHeight == getHeight()) {
+        occupied = true; // perfect fit
+        return this;
+      }
+
+      int dw = getWidth() - imageWidth;
+      int dh = getHeight() - imageHeight;
+
+      if (dw > dh) {
+        child[0] = new Node(getX(), getY(), imageWidth, getHeight());
+        child[1] = new Node(padding + getX() + imageWidth, getY(), getWidth() - imageWidth - padding, getHeight());
+      } else {
+        child[0] = new Node(getX(), getY(), getWidth(), imageHeight);
+        child[1] = new Node(getX(), padding + getY() + imageHeight, getWidth(), getHeight() - imageHeight - padding);
+      }
+      return child[0].insert(imageWidth, imageHeight, padding);
+    }
+  }
+}
@@ -0,0 +1,622 @@
+package de.lessvoid.nifty.render.batch;
+
+import de.lessvoid.nifty.render.BlendMode;
+import de.lessvoid.nifty.render.batch.spi.BatchRenderBackend;
+import de.lessvoid.nifty.render.io.ImageLoader;
+import de.lessvoid.nifty.render.io.ImageLoaderFactory;
+import de.lessvoid.nifty.spi.render.MouseCursor;
+import de.lessvoid.nifty.tools.Color;
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BatchRenderBackend} that does not need any graphics API at all. It keeps the textures in memory and either
+ * only records the batches or additionally rasterizes them in software into an RGBA frame buffer. Together with
+ * {@link BatchRenderDevice} this allows running complete Nifty screens on headless machines, for instance to measure
+ * the performance of the batch rendering pipeline on a build server or to compare rendered frames in tests.
+ * <p/>
+ * The statistics of the last frame (number of quads, batches, texture switches and so on) are available with
+ * {@link #getFrameStatistics()} after {@link #endFrame()} has been called.
+ * <p/>
+ * The software rasterizer is simple: textures are sampled with nearest neighbour filtering and the vertex colors are
+ * interpolated bilinearly across the quad. It's meant for testing, not for good looking output.
+ */
+public class HeadlessBatchRenderBackend implements BatchRenderBackend {
+  @Nonnull
+  private static final Logger log = Logger.getLogger(HeadlessBatchRenderBackend.class.getName());
+  private static final int INVALID_TEXTURE_ID = -1;
+  private static final int QUAD_SIZE = 24;
+  private final int width;
+  private final int height;
+  private final boolean rasterize;
+  @Nullable
+  private final ByteBuffer frameBuffer;
+  @Nonnull
+  private final Map<Integer, Texture> textures = new HashMap<Integer, Texture>();
+  @Nonnull
+  private final Set<Integer> nonAtlasTextureIds = new HashSet<Integer>();
+  @Nonnull
+  private final List<RecordedBatch> batches = new ArrayList<RecordedBatch>();
+  @Nonnull
+  private final FrameStatistics currentFrame = new FrameStatistics();
+  @Nonnull
+  private final FrameStatistics lastFrame = new FrameStatistics();
+  @Nullable
+  private NiftyResourceLoader resourceLoader;
+  private int batchCount;
+  private int lastTextureId = INVALID_TEXTURE_ID;
+  @Nullable
+  private BlendMode lastBlendMode;
+  private int nextTextureId = 1;
+  private boolean shouldFillRemovedImagesInAtlas;
+
+  /**
+   * Create a new HeadlessBatchRenderBackend.
+   *
+   * @param width the width of the simulated display
+   * @param height the height of the simulated display
+   * @param rasterize true to rasterize all batches into the frame buffer, false to only record the batches and to
+   *                  collect the frame statistics
+   */
+  public HeadlessBatchRenderBackend(final int width, final int height, final boolean rasterize) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be greater than 0");
+    }
+    this.width = width;
+    this.height = height;
+    this.rasterize = rasterize;
+    this.frameBuffer = rasterize ? ByteBuffer.allocateDirect(width * height * 4) : null;
+  }
+
+  /**
+   * Get the frame buffer the batches are rasterized into. The frame buffer contains width * height pixels with four
+   * bytes each in RGBA order starting at the top left corner.
+   *
+   * @return the frame buffer or null when this backend doesn't rasterize
+   */
+  @Nullable
+  public ByteBuffer getFrameBuffer() {
+    return frameBuffer;
+  }
+
+  /**
+   * Get a single pixel of the frame buffer.
+   *
+   * @param x the x coordinate of the pixel
+   * @param y the y coordinate of the pixel
+   * @return the pixel as RGBA value (red in the highest byte) or 0 when this backend doesn't rasterize
+   */
+  public int getPixel(final int x, final int y) {
+    if (frameBuffer == null) {
+      return 0;
+    }
+    return frameBuffer.getInt((y * width + x) * 4);
+  }
+
+  /**
+   * @return the statistics of the last frame that has been finished with {@link #endFrame()}
+   */
+  @Nonnull
+  public FrameStatistics getFrameStatistics() {
+    return lastFrame;
+  }
+
+  @Override
+  public void setResourceLoader(@Nonnull final NiftyResourceLoader resourceLoader) {
+    this.resourceLoader = resourceLoader;
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public void beginFrame() {
+    batchCount = 0;
+    lastTextureId = INVALID_TEXTURE_ID;
+    lastBlendMode = null;
+    currentFrame.reset();
+  }
+
+  @Override
+  public void endFrame() {
+    lastFrame.set(currentFrame);
+  }
+
+  @Override
+  public void clear() {
+    if (frameBuffer == null) {
+      return;
+    }
+    for (int i = 0; i < frameBuffer.capacity(); i += 4) {
+      frameBuffer.putInt(i, 0);
+    }
+  }
+
+  @Nullable
+  @Override
+  public MouseCursor createMouseCursor(@Nonnull final String filename, final int hotspotX, final int hotspotY)
+      throws IOException {
+    return null;
+  }
+
+  @Override
+  public void enableMouseCursor(@Nonnull final MouseCursor mouseCursor) {
+  }
+
+  @Override
+  public void disableMouseCursor() {
+  }
+
+  @Override
+  public int createTextureAtlas(final int atlasWidth, final int atlasHeight) {
+    int textureId = nextTextureId++;
+    textures.put(textureId, new Texture(atlasWidth, atlasHeight));
+    return textureId;
+  }
+
+  @Override
+  public void clearTextureAtlas(final int atlasTextureId) {
+    Texture texture = textures.get(atlasTextureId);
+    if (texture != null) {
+      texture.clear(0, 0, texture.width, texture.height);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public Image loadImage(@Nonnull final String filename) {
+    ImageLoader loader = ImageLoaderFactory.createImageLoader(filename);
+    InputStream imageStream = null;
+    try {
+      imageStream = resourceLoader == null ? null : resourceLoader.getResourceAsStream(filename);
+      if (imageStream != null) {
+        ByteBuffer data = loader.loadAsByteBufferRGBA(imageStream);
+        data.rewind();
+        return new HeadlessImage(data, loader.getImageWidth(), loader.getImageHeight(), loader.getTextureWidth());
+      }
+    } catch (Exception e) {
+      log.log(Level.WARNING, "Could not load image from file: [" + filename + "]", e);
+    } finally {
+      if (imageStream != null) {
+        try {
+          imageStream.close();
+        } catch (IOException ignored) {
+        }
+      }
+    }
+    return new HeadlessImage(null, 0, 0, 0);
+  }
+
+  @Nullable
+  @Override
+  public Image loadImage(@Nonnull final ByteBuffer imageData, final int imageWidth, final int imageHeight) {
+    return new HeadlessImage(imageData, imageWidth, imageHeight, imageWidth);
+  }
+
+  @Override
+  public void addImageToAtlas(
+      @Nonnull final Image image,
+      final int atlasX,
+      final int atlasY,
+      final int atlasTextureId) {
+    Texture texture = textures.get(atlasTextureId);
+    if (texture == null) {
+      return;
+    }
+    texture.copy(image, atlasX, atlasY);
+    currentFrame.textureUploads++;
+  }
+
+  @Override
+  public int createNonAtlasTexture(@Nonnull final Image image) {
+    int textureId = nextTextureId++;
+    Texture texture = new Texture(image.getWidth(), image.getHeight());
+    texture.copy(image, 0, 0);
+    textures.put(textureId, texture);
+    nonAtlasTextureIds.add(textureId);
+    currentFrame.textureUploads++;
+    return textureId;
+  }
+
+  @Override
+  public void deleteNonAtlasTexture(final int textureId) {
+    if (nonAtlasTextureIds.remove(textureId)) {
+      textures.remove(textureId);
+    }
+  }
+
+  @Override
+  public boolean existsNonAtlasTexture(final int textureId) {
+    return nonAtlasTextureIds.contains(textureId);
+  }
+
+  @Override
+  public void addQuad(
+      final float x,
+      final float y,
+      final float width,
+      final float height,
+      @Nonnull final Color color1,
+      @Nonnull final Color color2,
+      @Nonnull final Color color3,
+      @Nonnull final Color color4,
+      final float textureX,
+      final float textureY,
+      final float textureWidth,
+      final float textureHeight,
+      final int textureId) {
+    if (batchCount == 0) {
+      beginBatch(BlendMode.BLEND, textureId);
+    }
+    currentFrame.quads++;
+    if (x >= this.width || y >= this.height || x + width <= 0 || y + height <= 0) {
+      currentFrame.quadsOutsideViewport++;
+    }
+    if (!rasterize) {
+      return;
+    }
+    RecordedBatch batch = batches.get(batchCount - 1);
+    float[] data = batch.reserveQuad();
+    int i = batch.quadCount * QUAD_SIZE;
+    data[i] = x;
+    data[i + 1] = y;
+    data[i + 2] = width;
+    data[i + 3] = height;
+    putColor(data, i + 4, color1);
+    putColor(data, i + 8, color2);
+    putColor(data, i + 12, color3);
+    putColor(data, i + 16, color4);
+    data[i + 20] = textureX;
+    data[i + 21] = textureY;
+    data[i + 22] = textureWidth;
+    data[i + 23] = textureHeight;
+    batch.quadCount++;
+  }
+
+  @Override
+  public void beginBatch(@Nonnull final BlendMode blendMode, final int textureId) {
+    if (batchCount == batches.size()) {
+      batches.add(new RecordedBatch());
+    }
+    RecordedBatch batch = batches.get(batchCount++);
+    batch.begin(blendMode, textureId);
+    currentFrame.batches++;
+    if (textureId != lastTextureId) {
+      currentFrame.textureSwitches++;
+      lastTextureId = textureId;
+    }
+    if (blendMode != lastBlendMode) {
+      currentFrame.blendModeSwitches++;
+      lastBlendMode = blendMode;
+    }
+  }
+
+  @Override
+  public int render() {
+    if (rasterize) {
+      for (int i = 0; i < batchCount; i++) {
+        rasterizeBatch(batches.get(i));
+      }
+    }
+    int rendered = batchCount;
+    batchCount = 0;
+    return rendered;
+  }
+
+  @Override
+  public void removeImageFromAtlas(
+      @Nonnull final Image image,
+      final int atlasX,
+      final int atlasY,
+      final int imageWidth,
+      final int imageHeight,
+      final int atlasTextureId) {
+    if (!shouldFillRemovedImagesInAtlas) {
+      return;
+    }
+    Texture texture = textures.get(atlasTextureId);
+    if (texture != null) {
+      texture.clear(atlasX, atlasY, imageWidth, imageHeight);
+    }
+  }
+
+  @Override
+  public void useHighQualityTextures(final boolean shouldUseHighQualityTextures) {
+  }
+
+  @Override
+  public void fillRemovedImagesInAtlas(final boolean shouldFill) {
+    shouldFillRemovedImagesInAtlas = shouldFill;
+  }
+
+  // Internal implementations
+
+  private static void putColor(@Nonnull final float[] data, final int index, @Nonnull final Color color) {
+    data[index] = color.getRed();
+    data[index + 1] = color.getGreen();
+    data[index + 2] = color.getBlue();
+    data[index + 3] = color.getAlpha();
+  }
+
+  private void rasterizeBatch(@Nonnull final RecordedBatch batch) {
+    Texture texture = textures.get(batch.textureId);
+    if (texture == null) {
+      return;
+    }
+    boolean multiply = batch.blendMode == BlendMode.MULIPLY;
+    for (int q = 0; q < batch.quadCount; q++) {
+      rasterizeQuad(batch.data, q * QUAD_SIZE, texture, multiply);
+    }
+  }
+
+  private void rasterizeQuad(
+      @Nonnull final float[] d,
+      final int i,
+      @Nonnull final Texture texture,
+      final boolean multiply) {
+    assert frameBuffer != null;
+    float qx = d[i];
+    float qy = d[i + 1];
+    float qw = d[i + 2];
+    float qh = d[i + 3];
+    if (qw <= 0 || qh <= 0) {
+      return;
+    }
+    int x0 = Math.max(0, (int) Math.ceil(qx - 0.5f));
+    int y0 = Math.max(0, (int) Math.ceil(qy - 0.5f));
+    int x1 = Math.min(width, (int) Math.ceil(qx + qw - 0.5f));
+    int y1 = Math.min(height, (int) Math.ceil(qy + qh - 0.5f));
+    for (int py = y0; py < y1; py++) {
+      float fy = (py + 0.5f - qy) / qh;
+      int ty = clamp((int) ((d[i + 21] + fy * d[i + 23]) * texture.height), texture.height);
+      for (int px = x0; px < x1; px++) {
+        float fx = (px + 0.5f - qx) / qw;
+        int tx = clamp((int) ((d[i + 20] + fx * d[i + 22]) * texture.width), texture.width);
+        int texel = texture.pixels[ty * texture.width + tx];
+        float r = interpolate(d, i + 4, fx, fy) * ((texel >>> 24) & 0xff) / 255.f;
+        float g = interpolate(d, i + 5, fx, fy) * ((texel >>> 16) & 0xff) / 255.f;
+        float b = interpolate(d, i + 6, fx, fy) * ((texel >>> 8) & 0xff) / 255.f;
+        float a = interpolate(d, i + 7, fx, fy) * (texel & 0xff) / 255.f;
+        blend(px, py, r, g, b, a, multiply);
+      }
+    }
+    currentFrame.pixelsFilled += (long) Math.max(0, x1 - x0) * Math.max(0, y1 - y0);
+  }
+
+  // bilinear interpolation of the four vertex colors: top left, top right, bottom right, bottom left
+  private static float interpolate(@Nonnull final float[] d, final int index, final float fx, final float fy) {
+    float top = d[index] + (d[index + 4] - d[index]) * fx;
+    float bottom = d[index + 12] + (d[index + 8] - d[index + 12]) * fx;
+    return top + (bottom - top) * fy;
+  }
+
+  private static int clamp(final int value, final int size) {
+    return value < 0 ? 0 : value >= size ? size - 1 : value;
+  }
+
+  private void blend(
+      final int x,
+      final int y,
+      final float r,
+      final float g,
+      final float b,
+      final float a,
+      final boolean multiply) {
+    assert frameBuffer != null;
+    int index = (y * width + x) * 4;
+    int dst = frameBuffer.getInt(index);
+    float dr = ((dst >>> 24) & 0xff) / 255.f;
+    float dg = ((dst >>> 16) & 0xff) / 255.f;
+    float db = ((dst >>> 8) & 0xff) / 255.f;
+    float da = (dst & 0xff) / 255.f;
+    if (multiply) {
+      dr *= r;
+      dg *= g;
+      db *= b;
+      da *= a;
+    } else {
+      dr = r * a + dr * (1.f - a);
+      dg = g * a + dg * (1.f - a);
+      db = b * a + db * (1.f - a);
+      da = a + da * (1.f - a);
+    }
+    frameBuffer.putInt(index, (toByte(dr) << 24) | (toByte(dg) << 16) | (toByte(db) << 8) | toByte(da));
+  }
+
+  private static int toByte(final float value) {
+    int v = (int) (value * 255.f + 0.5f);
+    return v < 0 ? 0 : v > 255 ? 255 : v;
+  }
+
+  /**
+   * The statistics of a single frame.
+   */
+  public static class FrameStatistics {
+    private int quads;
+    private int quadsOutsideViewport;
+    private int batches;
+    private int textureSwitches;
+    private int blendModeSwitches;
+    private int textureUploads;
+    private long pixelsFilled;
+
+    /**
+     * @return the number of quads added in this frame
+     */
+    public int getQuads() {
+      return quads;
+    }
+
+    /**
+     * @return the number of quads added in this frame that are completely outside of the display. These quads could
+     * have been discarded before they have been sent to the backend.
+     */
+    public int getQuadsOutsideViewport() {
+      return quadsOutsideViewport;
+    }
+
+    /**
+     * @return the number of batches in this frame
+     */
+    public int getBatches() {
+      return batches;
+    }
+
+    /**
+     * @return how often a batch used a different texture than the batch before
+     */
+    public int getTextureSwitches() {
+      return textureSwitches;
+    }
+
+    /**
+     * @return how often a batch used a different blend mode than the batch before
+     */
+    public int getBlendModeSwitches() {
+      return blendModeSwitches;
+    }
+
+    /**
+     * @return the number of images that have been uploaded into atlas or non-atlas textures in this frame
+     */
+    public int getTextureUploads() {
+      return textureUploads;
+    }
+
+    /**
+     * @return the number of pixels written by the software rasterizer in this frame (0 when not rasterizing)
+     */
+    public long getPixelsFilled() {
+      return pixelsFilled;
+    }
+
+    private void reset() {
+      quads = 0;
+      quadsOutsideViewport = 0;
+      batches = 0;
+      textureSwitches = 0;
+      blendModeSwitches = 0;
+      textureUploads = 0;
+      pixelsFilled = 0;
+    }
+
+    private void set(@Nonnull final FrameStatistics other) {
+      quads = other.quads;
+      quadsOutsideViewport = other.quadsOutsideViewport;
+      batches = other.batches;
+      textureSwitches = other.textureSwitches;
+      blendModeSwitches = other.blendModeSwitches;
+      textureUploads = other.textureUploads;
+      pixelsFilled = other.pixelsFilled;
+    }
+
+    @Override
+    public String toString() {
+      return "quads: " + quads + " (outside viewport: " + quadsOutsideViewport + "), batches: " + batches +
+          ", texture switches: " + textureSwitches + ", blend mode switches: " + blendModeSwitches +
+          ", texture uploads: " + textureUploads + ", pixels filled: " + pixelsFilled;
+    }
+  }
+
+  private static class HeadlessImage extends ByteBufferedImage {
+    private final int stride;
+
+    private HeadlessImage(@Nullable final ByteBuffer buffer, final int width, final int height, final int stride) {
+      super(buffer, width, height);
+      this.stride = stride;
+    }
+  }
+
+  private static class Texture {
+    private final int width;
+    private final int height;
+    @Nonnull
+    private final int[] pixels;
+
+    private Texture(final int width, final int height) {
+      this.width = Math.max(1, width);
+      this.height = Math.max(1, height);
+      this.pixels = new int[this.width * this.height];
+    }
+
+    private void clear(final int x, final int y, final int w, final int h) {
+      for (int ty = Math.max(0, y); ty < Math.min(height, y + h); ty++) {
+        for (int tx = Math.max(0, x); tx < Math.min(width, x + w); tx++) {
+          pixels[ty * width + tx] = 0;
+        }
+      }
+    }
+
+    // copies RGBA image data, images that don't provide a buffer are treated as plain white images
+    private void copy(@Nonnull final Image image, final int x, final int y) {
+      ByteBuffer data = null;
+      int stride = image.getWidth();
+      if (image instanceof ByteBufferedImage) {
+        data = ((ByteBufferedImage) image).getBuffer();
+      }
+      if (image instanceof HeadlessImage) {
+        stride = ((HeadlessImage) image).stride;
+      }
+      for (int iy = 0; iy < image.getHeight() && y + iy < height; iy++) {
+        for (int ix = 0; ix < image.getWidth() && x + ix < width; ix++) {
+          int source = (iy * stride + ix) * 4;
+          int pixel;
+          if (data == null) {
+            pixel = 0xffffffff;
+          } else if (source + 3 < data.limit()) {
+            pixel = ((data.get(source) & 0xff) << 24) | ((data.get(source + 1) & 0xff) << 16) |
+                ((data.get(source + 2) & 0xff) << 8) | (data.get(source + 3) & 0xff);
+          } else {
+            pixel = 0;
+          }
+          pixels[(y + iy) * width + x + ix] = pixel;
+        }
+      }
+    }
+  }
+
+  private static class RecordedBatch {
+    @Nonnull
+    private BlendMode blendMode = BlendMode.BLEND;
+    private int textureId;
+    private int quadCount;
+    @Nonnull
+    private float[] data = new float[QUAD_SIZE * 16];
+
+    private void begin(@Nonnull final BlendMode blendMode, final int textureId) {
+      this.blendMode = blendMode;
+      this.textureId = textureId;
+      quadCount = 0;
+    }
+
+    @Nonnull
+    private float[] reserveQuad() {
+      if ((quadCount + 1) * QUAD_SIZE > data.length) {
+        float[] newData = new float[data.length * 2];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        data = newData;
+      }
+      return data;
+    }
+  }
+}
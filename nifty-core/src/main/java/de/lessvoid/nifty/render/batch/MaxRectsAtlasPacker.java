@@ -0,0 +1,192 @@
+package de.lessvoid.nifty.render.batch;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A packing algorithm that keeps a list of the maximal free rectangles of the atlas (MaxRects) and places every image
+ * into the free rectangle that leaves the smallest amount of space at its shorter side (best short side fit). This
+ * packs the atlas considerably tighter than the {@link BinaryTreeAtlasPacker}. When an area is removed the free
+ * rectangles are calculated again from the remaining areas so that the space can be used by images of a different
+ * size later.
+ * <p/>
+ * The padding is kept to the right and to the bottom of every image. To allow images to touch the right and the bottom
+ * border of the atlas the free space is extended by the padding.
+ */
+public class MaxRectsAtlasPacker implements TextureAtlasPacker {
+  @Nonnull
+  public static final Factory FACTORY = new Factory() {
+    @Nonnull
+    @Override
+    public TextureAtlasPacker create(final int atlasWidth, final int atlasHeight, final int atlasPadding) {
+      return new MaxRectsAtlasPacker(atlasWidth, atlasHeight, atlasPadding);
+    }
+  };
+
+  private final int padding;
+  @Nonnull
+  private final List<Rect> freeRects = new ArrayList<Rect>();
+  @Nonnull
+  private final List<Rect> newFreeRects = new ArrayList<Rect>();
+  @Nonnull
+  private final List<Rect> usedRects = new ArrayList<Rect>();
+  private int packWidth;
+  private int packHeight;
+
+  public MaxRectsAtlasPacker(final int width, final int height, final int padding) {
+    this.padding = padding;
+    reset(width, height);
+  }
+
+  @Nullable
+  @Override
+  public Area add(final int width, final int height) {
+    int w = width + padding;
+    int h = height + padding;
+    Rect best = null;
+    int bestShortSide = Integer.MAX_VALUE;
+    int bestLongSide = Integer.MAX_VALUE;
+    for (int i = 0; i < freeRects.size(); i++) {
+      Rect free = freeRects.get(i);
+      if (free.width < w || free.height < h) {
+        continue;
+      }
+      int leftoverX = free.width - w;
+      int leftoverY = free.height - h;
+      int shortSide = Math.min(leftoverX, leftoverY);
+      int longSide = Math.max(leftoverX, leftoverY);
+      if (shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+        best = free;
+        bestShortSide = shortSide;
+        bestLongSide = longSide;
+      }
+    }
+    if (best == null) {
+      return null;
+    }
+    Rect used = new Rect(best.x, best.y, w, h);
+    usedRects.add(used);
+    splitFreeRects(used);
+    return new Area(used.x, used.y, width, height);
+  }
+
+  @Override
+  public void remove(@Nonnull final Area area) {
+    for (int i = 0; i < usedRects.size(); i++) {
+      Rect used = usedRects.get(i);
+      if (used.x == area.getX() && used.y == area.getY()) {
+        usedRects.remove(i);
+        rebuildFreeRects();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void reset(final int width, final int height) {
+    packWidth = width + padding;
+    packHeight = height + padding;
+    usedRects.clear();
+    freeRects.clear();
+    freeRects.add(new Rect(0, 0, packWidth, packHeight));
+  }
+
+  /**
+   * @return the number of free rectangles currently tracked (for testing)
+   */
+  int getFreeRectCount() {
+    return freeRects.size();
+  }
+
+  // Splits all free rectangles that intersect the used rectangle into up to four maximal rectangles. The new
+  // rectangles are parts of free rectangles that were maximal before, so only the new rectangles need to be checked
+  // for being contained in another free rectangle.
+  private void splitFreeRects(@Nonnull final Rect used) {
+    newFreeRects.clear();
+    for (int i = freeRects.size() - 1; i >= 0; i--) {
+      Rect free = freeRects.get(i);
+      if (!free.intersects(used)) {
+        continue;
+      }
+      freeRects.set(i, freeRects.get(freeRects.size() - 1));
+      freeRects.remove(freeRects.size() - 1);
+      if (used.x > free.x) {
+        newFreeRects.add(new Rect(free.x, free.y, used.x - free.x, free.height));
+      }
+      if (used.right() < free.right()) {
+        newFreeRects.add(new Rect(used.right(), free.y, free.right() - used.right(), free.height));
+      }
+      if (used.y > free.y) {
+        newFreeRects.add(new Rect(free.x, free.y, free.width, used.y - free.y));
+      }
+      if (used.bottom() < free.bottom()) {
+        newFreeRects.add(new Rect(free.x, used.bottom(), free.width, free.bottom() - used.bottom()));
+      }
+    }
+    for (int i = 0; i < newFreeRects.size(); i++) {
+      Rect candidate = newFreeRects.get(i);
+      if (!isContainedInFreeRect(candidate, i)) {
+        freeRects.add(candidate);
+      }
+    }
+  }
+
+  private boolean isContainedInFreeRect(@Nonnull final Rect candidate, final int candidateIndex) {
+    for (int i = 0; i < freeRects.size(); i++) {
+      if (freeRects.get(i).contains(candidate)) {
+        return true;
+      }
+    }
+    for (int i = 0; i < newFreeRects.size(); i++) {
+      if (i == candidateIndex) {
+        continue;
+      }
+      Rect other = newFreeRects.get(i);
+      // of two equal rectangles only the first one is kept
+      if (other.contains(candidate) && (i < candidateIndex || !candidate.contains(other))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void rebuildFreeRects() {
+    freeRects.clear();
+    freeRects.add(new Rect(0, 0, packWidth, packHeight));
+    for (int i = 0; i < usedRects.size(); i++) {
+      splitFreeRects(usedRects.get(i));
+    }
+  }
+
+  private static class Rect {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    private Rect(final int x, final int y, final int width, final int height) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    private int right() {
+      return x + width;
+    }
+
+    private int bottom() {
+      return y + height;
+    }
+
+    private boolean intersects(@Nonnull final Rect other) {
+      return x < other.right() && other.x < right() && y < other.bottom() && other.y < bottom();
+    }
+
+    private boolean contains(@Nonnull final Rect other) {
+      return other.x >= x && other.y >= y && other.right() <= right() && other.bottom() <= bottom();
+    }
+  }
+}
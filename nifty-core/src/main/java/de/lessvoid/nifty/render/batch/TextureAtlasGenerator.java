@@ -1,6 +1,8 @@
 package de.lessvoid.nifty.render.batch;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -10,8 +12,8 @@ import javax.annotation.Nullable;
 /**
  * This class tries to fit source texture data into a single destination texture.
  * <p/>
- * This work is based on https://github.com/lukaszpaczkowski/texture-atlas-generator by lukaszpaczkowski which is based
- * on the popular packing algorithm http://www.blackpawn.com/texts/lightmaps/ by jimscott@blackpawn.com.
+ * The actual packing algorithm is provided by a {@link TextureAtlasPacker}. By default the binary tree algorithm of
+ * {@link BinaryTreeAtlasPacker} is used.
  * <p/>
  * This class tries to separate the actual algorithm from the image manipulating code so that this can be used with
  * different rendering/image frameworks.
@@ -19,15 +21,37 @@ import javax.annotation.Nullable;
  * @author void
  */
 public class TextureAtlasGenerator {
+  @Nonnull
+  private static final Comparator<Map.Entry<String, TextureAtlasPacker.Area>> LARGEST_AREA_FIRST =
+      new Comparator<Map.Entry<String, TextureAtlasPacker.Area>>() {
+        @Override
+        public int compare(
+            @Nonnull final Map.Entry<String, TextureAtlasPacker.Area> o1,
+            @Nonnull final Map.Entry<String, TextureAtlasPacker.Area> o2) {
+          TextureAtlasPacker.Area a1 = o1.getValue();
+          TextureAtlasPacker.Area a2 = o2.getValue();
+          int size1 = a1.getWidth() * a1.getHeight();
+          int size2 = a2.getWidth() * a2.getHeight();
+          if (size1 != size2) {
+            return size1 > size2 ? -1 : 1;
+          }
+          return o1.getKey().compareTo(o2.getKey());
+        }
+      };
+
   private final int atlasWidth;
   private final int atlasHeight;
   private final int atlasPadding;
   private final float atlasTolerance;
   @Nonnull
-  private Node root;
-  // for easy access we keep each node in a map with the passed name as the key so we can look up a Node directly
+  private final TextureAtlasPacker.Factory packerFactory;
   @Nonnull
-  private Map<String, Node> rectangleMap;
+  private TextureAtlasPacker packer;
+  // for easy access we keep each area in a map with the passed name as the key so we can look up an Area directly
+  @Nonnull
+  private Map<String, TextureAtlasPacker.Area> rectangleMap;
+  // true when images have been removed since the last reset() or compact()
+  private boolean fragmented;
 
   /**
    * You'll get an instance of this class back when you add an image. This class will show you where you'll need to
@@ -85,6 +109,23 @@ public class TextureAtlasGenerator {
                                final int atlasHeight,
                                final int atlasPadding,
                                final float atlasTolerance) {
+    this(atlasWidth, atlasHeight, atlasPadding, atlasTolerance, BinaryTreeAtlasPacker.FACTORY);
+  }
+
+  /**
+   * Creates a new TextureAtlasGenerator that uses the given packing algorithm.
+   *
+   * @param atlasWidth the width of the atlas, see {@link #TextureAtlasGenerator(int, int, int, float)}
+   * @param atlasHeight the height of the atlas, see {@link #TextureAtlasGenerator(int, int, int, float)}
+   * @param atlasPadding the padding of the images, see {@link #TextureAtlasGenerator(int, int, int, float)}
+   * @param atlasTolerance the tolerance, see {@link #TextureAtlasGenerator(int, int, int, float)}
+   * @param packerFactory creates the {@link TextureAtlasPacker} that decides where the images are placed
+   */
+  public TextureAtlasGenerator(final int atlasWidth,
+                               final int atlasHeight,
+                               final int atlasPadding,
+                               final float atlasTolerance,
+                               @Nonnull final TextureAtlasPacker.Factory packerFactory) {
     if (atlasWidth <= 0) {
       throw new IllegalArgumentException("atlas width must be greater than 0");
     } else if (atlasHeight <= 0) {
@@ -102,7 +143,9 @@ public class TextureAtlasGenerator {
     this.atlasHeight = atlasHeight;
     this.atlasPadding = atlasPadding;
     this.atlasTolerance = atlasTolerance;
-    reset();
+    this.packerFactory = packerFactory;
+    this.packer = packerFactory.create(atlasWidth, atlasHeight, atlasPadding);
+    this.rectangleMap = new TreeMap<String, TextureAtlasPacker.Area>();
   }
 
   /**
@@ -132,13 +175,13 @@ public class TextureAtlasGenerator {
       return null;
     }
 
-    Node node = root.insert(imageWidth, imageHeight, atlasPadding);
-    if (node == null) {
+    TextureAtlasPacker.Area area = packer.add(imageWidth, imageHeight);
+    if (area == null) {
       return null;
     }
 
-    rectangleMap.put(imageName, node);
-    return new Result(node.rect.x, node.rect.y, imageWidth, imageHeight);
+    rectangleMap.put(imageName, area);
+    return new Result(area.getX(), area.getY(), imageWidth, imageHeight);
   }
 
   /**
@@ -168,15 +211,14 @@ public class TextureAtlasGenerator {
 
   @Nullable
   public Result removeImage(@Nonnull final String name) {
-    Node node = rectangleMap.remove(name);
-    if (node == null) {
+    TextureAtlasPacker.Area area = rectangleMap.remove(name);
+    if (area == null) {
       return null;
     }
 
-    node.occupied = false;
-    node.child[0] = null;
-    node.child[1] = null;
-    return new Result(node.rect.x, node.rect.y, node.rect.width, node.rect.height);
+    packer.remove(area);
+    fragmented = true;
+    return new Result(area.getX(), area.getY(), area.getWidth(), area.getHeight());
   }
 
   public int getAtlasWidth() {
@@ -187,92 +229,73 @@ public class TextureAtlasGenerator {
     return atlasHeight;
   }
 
+  /**
+   * @return true if images have been removed from the atlas since it has been reset or compacted the last time, which
+   * means that {@link #compact()} might be able to gain free space
+   */
+  public boolean isFragmented() {
+    return fragmented;
+  }
+
+  /**
+   * @return the number of images currently in the atlas
+   */
+  public int getImageCount() {
+    return rectangleMap.size();
+  }
+
   @Nonnull
   public List<Result> rebuild(
       final int width,
       final int height) {
     List<Result> results = new ArrayList<Result>();
-    root = new Node(0, 0, width, height);
-    for (Map.Entry<String, Node> entry : rectangleMap.entrySet()) {
-      Rectangle rect = entry.getValue().rect;
-      results.add(addImage(rect.width, rect.height, entry.getKey()));
+    packer.reset(width, height);
+    List<Map.Entry<String, TextureAtlasPacker.Area>> entries =
+        new ArrayList<Map.Entry<String, TextureAtlasPacker.Area>>(rectangleMap.entrySet());
+    for (int i = 0; i < entries.size(); i++) {
+      TextureAtlasPacker.Area area = entries.get(i).getValue();
+      results.add(addImage(area.getWidth(), area.getHeight(), entries.get(i).getKey()));
     }
     return results;
   }
 
-  private static class Rectangle {
-    private final int x;
-    private final int y;
-    private final int width;
-    private final int height;
-
-    public Rectangle(final int x, final int y, final int width, final int height) {
-      this.x = x;
-      this.y = y;
-      this.width = width;
-      this.height = height;
-    }
-  }
-
-  private static class Node {
-    @Nonnull
-    public final Rectangle rect;
-    @Nonnull
-    public final Node[] child;
-    public boolean occupied;
-
-    public Node(final int x, final int y, final int width, final int height) {
-      rect = new Rectangle(x, y, width, height);
-      child = new Node[2];
-      child[0] = null;
-      child[1] = null;
-      occupied = false;
-    }
-
-    public boolean isLeaf() {
-      return child[0] == null && child[1] == null;
-    }
-
-    // Algorithm from http://www.blackpawn.com/texts/lightmaps/
-    @Nullable
-    public Node insert(final int imageWidth, final int imageHeight, final int padding) {
-      if (!isLeaf()) {
-        Node newNode = child[0].insert(imageWidth, imageHeight, padding);
-        if (newNode != null) {
-          return newNode;
-        }
-        return child[1].insert(imageWidth, imageHeight, padding);
-      }
-
-      if (occupied) {
-        return null; // occupied
-      }
-
-      if (imageWidth > rect.width || imageHeight > rect.height) {
-        return null; // does not fit
-      }
-
-      if (imageWidth == rect.width && imageHeight == rect.height) {
-        occupied = true; // perfect fit
-        return this;
-      }
-
-      int dw = rect.width - imageWidth;
-      int dh = rect.height - imageHeight;
+  /**
+   * Packs all images currently in the atlas again into an empty atlas, largest images first. This removes the holes
+   * that have been left behind by removed images. The new positions are only applied when all of the images fit,
+   * otherwise the atlas is left unchanged.
+   * <p/>
+   * Please note that it is up to you to move the image data to the new positions.
+   *
+   * @return the new position of every image with the image name as the key or null if the images did not fit
+   */
+  @Nullable
+  public Map<String, Result> compact() {
+    List<Map.Entry<String, TextureAtlasPacker.Area>> entries =
+        new ArrayList<Map.Entry<String, TextureAtlasPacker.Area>>(rectangleMap.entrySet());
+    Collections.sort(entries, LARGEST_AREA_FIRST);
 
-      if (dw > dh) {
-        child[0] = new Node(rect.x, rect.y, imageWidth, rect.height);
-        child[1] = new Node(padding + rect.x + imageWidth, rect.y, rect.width - imageWidth - padding, rect.height);
-      } else {
-        child[0] = new Node(rect.x, rect.y, rect.width, imageHeight);
-        child[1] = new Node(rect.x, padding + rect.y + imageHeight, rect.width, rect.height - imageHeight - padding);
+    TextureAtlasPacker newPacker = packerFactory.create(atlasWidth, atlasHeight, atlasPadding);
+    Map<String, TextureAtlasPacker.Area> newRectangleMap = new TreeMap<String, TextureAtlasPacker.Area>();
+    Map<String, Result> results = new TreeMap<String, Result>();
+    for (int i = 0; i < entries.size(); i++) {
+      TextureAtlasPacker.Area old = entries.get(i).getValue();
+      TextureAtlasPacker.Area area = newPacker.add(old.getWidth(), old.getHeight());
+      if (area == null) {
+        return null;
       }
-      return child[0].insert(imageWidth, imageHeight, padding);
+      newRectangleMap.put(entries.get(i).getKey(), area);
+      results.put(entries.get(i).getKey(), new Result(area.getX(), area.getY(), area.getWidth(), area.getHeight()));
     }
+
+    packer = newPacker;
+    rectangleMap = newRectangleMap;
+    fragmented = false;
+    return results;
   }
 
   public void reset() {
-    root = new Node(0, 0, atlasWidth, atlasHeight);
-    rectangleMap = new TreeMap<String, Node>();
+    packer.reset(atlasWidth, atlasHeight);
+    rectangleMap = new TreeMap<String, TextureAtlasPacker.Area>();
+    fragmented = false;
   }
 }
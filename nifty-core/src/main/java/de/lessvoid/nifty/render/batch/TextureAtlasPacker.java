@@ -0,0 +1,82 @@
+package de.lessvoid.nifty.render.batch;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The packing algorithm a {@link TextureAtlasGenerator} uses to decide where images are placed in the atlas. This
+ * only deals with rectangles. Keeping track of the images and the actual image data is done somewhere else.
+ */
+public interface TextureAtlasPacker {
+  /**
+   * Find a place for a rectangle of the given size and mark it as occupied.
+   *
+   * @param width the width of the rectangle (without padding)
+   * @param height the height of the rectangle (without padding)
+   * @return the area that has been occupied or null if there is no free space left for the rectangle
+   */
+  @Nullable
+  Area add(int width, int height);
+
+  /**
+   * Free an area that has been returned by {@link #add(int, int)} before so that it can be used again.
+   *
+   * @param area the area to free
+   */
+  void remove(@Nonnull Area area);
+
+  /**
+   * Remove all rectangles and change the size of the packing area.
+   *
+   * @param width the new width
+   * @param height the new height
+   */
+  void reset(int width, int height);
+
+  /**
+   * Creates the TextureAtlasPacker instances. Every texture atlas uses its own TextureAtlasPacker.
+   */
+  interface Factory {
+    /**
+     * @param atlasWidth the width of the atlas
+     * @param atlasHeight the height of the atlas
+     * @param atlasPadding the empty space in pixels that has to be kept between the images in the atlas
+     * @return a new and empty TextureAtlasPacker
+     */
+    @Nonnull
+    TextureAtlasPacker create(int atlasWidth, int atlasHeight, int atlasPadding);
+  }
+
+  /**
+   * An occupied area of the atlas. Packers may extend this class to keep their own data with the area.
+   */
+  class Area {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    public Area(final int x, final int y, final int width, final int height) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    public int getX() {
+      return x;
+    }
+
+    public int getY() {
+      return y;
+    }
+
+    public int getWidth() {
+      return width;
+    }
+
+    public int getHeight() {
+      return height;
+    }
+  }
+}
@@ -8,9 +8,11 @@ import de.lessvoid.nifty.render.batch.spi.BatchRenderBackend;
 import de.lessvoid.nifty.render.batch.spi.BufferFactory;
 import de.lessvoid.nifty.render.batch.spi.ImageFactory;
 import de.lessvoid.nifty.render.batch.spi.MouseCursorFactory;
-import de.lessvoid.nifty.render.batch.spi.core.CoreBatch;
+import de.lessvoid.nifty.render.batch.spi.TextureArrayBatchRenderBackend;
 import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGLTextureArray;
 import de.lessvoid.nifty.render.batch.spi.core.CoreMatrixFactory;
+import de.lessvoid.nifty.render.batch.spi.core.CoreTextureArrayBatch;
 import de.lessvoid.nifty.render.BlendMode;
 import de.lessvoid.nifty.render.io.ImageLoader;
 import de.lessvoid.nifty.render.io.ImageLoaderFactory;
@@ -39,6 +41,10 @@ import javax.annotation.Nullable;
  * implementations some default functionality to avoid having to reinvent the wheel and to prevent unnecessary code
  * duplication. Suitable for desktop devices.
  *
+ * Optionally the texture atlases can be allocated as the layers of a single texture array. Quads of all atlases can
+ * then be rendered in the same batch and only a change of the BlendMode or a non-atlas texture starts a new batch.
+ * When all layers are in use additional atlases are created as regular textures.
+ *
  * Note: Requires OpenGL 3.2 or higher. Mobiles devices & OpenGL ES are not officially supported yet with this class.
  *
  * {@inheritDoc}
@@ -46,10 +52,11 @@ import javax.annotation.Nullable;
  * @author void256
  * @author Aaron Mahan &lt;aaron@forerunnergames.com&gt;
  */
-public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend {
+public class BatchRenderBackendCoreProfileInternal implements TextureArrayBatchRenderBackend {
   @Nonnull
   private static final Logger log = Logger.getLogger(BatchRenderBackendInternal.class.getName());
-  private static final int PRIMITIVE_RESTART_INDEX = 0xFFFF;
+  // All batches of a frame share one vertex stream, so indices can get bigger than 0xFFFF.
+  private static final int PRIMITIVE_RESTART_INDEX = 0xFFFFFFFF;
   private static final int INVALID_TEXTURE_ID = -1;
   @Nonnull
   private final CoreGL gl;
@@ -61,14 +68,18 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   private final MouseCursorFactory mouseCursorFactory;
   @Nonnull
   private final CoreShader shader;
+  @Nullable
+  private final CoreShader textureArrayShader;
   @Nonnull
   private final IntBuffer viewportBuffer;
   @Nonnull
-  private final ObjectPool<CoreBatch> batchPool;
+  private final CoreVertexStream vertexStream;
+  @Nonnull
+  private final ObjectPool<CoreTextureArrayBatch> batchPool;
   @Nonnull
   private final CoreProfileSaveGLState saveGLState;
   @Nonnull
-  private final List<CoreBatch> batches = new ArrayList<CoreBatch>();
+  private final List<CoreTextureArrayBatch> batches = new ArrayList<CoreTextureArrayBatch>();
   @Nonnull
   private final Map<Integer, CoreTexture2D> atlasTextures = new HashMap<Integer, CoreTexture2D>();
   @Nonnull
@@ -80,18 +91,58 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   @Nullable
   private NiftyResourceLoader resourceLoader;
   @Nullable
-  private CoreBatch currentBatch;
+  private CoreTextureArrayBatch currentBatch;
   private int viewportWidth;
   private int viewportHeight;
   private boolean shouldUseHighQualityTextures = false;
   private boolean shouldFillRemovedImagesInAtlas = false;
+  private final int textureArrayLayers;
+  @Nullable
+  private CoreTexture2DArray textureArray;
 
   public BatchRenderBackendCoreProfileInternal(
           @Nonnull final CoreGL gl,
           @Nonnull final BufferFactory bufferFactory,
           @Nonnull final ImageFactory imageFactory,
           @Nonnull final MouseCursorFactory mouseCursorFactory) {
+    this(gl, bufferFactory, imageFactory, mouseCursorFactory, false);
+  }
+
+  /**
+   * @param packedTextureCoordinates true to send texture coordinates as normalized unsigned shorts instead of floats
+   *                                 (see {@link CoreVertexStream})
+   */
+  public BatchRenderBackendCoreProfileInternal(
+          @Nonnull final CoreGL gl,
+          @Nonnull final BufferFactory bufferFactory,
+          @Nonnull final ImageFactory imageFactory,
+          @Nonnull final MouseCursorFactory mouseCursorFactory,
+          final boolean packedTextureCoordinates) {
+    this(gl, bufferFactory, imageFactory, mouseCursorFactory, packedTextureCoordinates, 0);
+  }
+
+  /**
+   * @param packedTextureCoordinates true to send texture coordinates as normalized unsigned shorts instead of floats
+   *                                 (see {@link CoreVertexStream})
+   * @param textureArrayLayers       the number of texture atlases to allocate as layers of a single texture array,
+   *                                 0 to use a separate texture for every atlas. This requires the "nifty-array.vs"
+   *                                 and "nifty-array.fs" shaders and a gl that implements {@link CoreGLTextureArray}.
+   *                                 With any other gl the value is ignored.
+   */
+  public BatchRenderBackendCoreProfileInternal(
+          @Nonnull final CoreGL gl,
+          @Nonnull final BufferFactory bufferFactory,
+          @Nonnull final ImageFactory imageFactory,
+          @Nonnull final MouseCursorFactory mouseCursorFactory,
+          final boolean packedTextureCoordinates,
+          final int textureArrayLayers) {
     this.gl = gl;
+    if (textureArrayLayers > 0 && !(gl instanceof CoreGLTextureArray)) {
+      log.warning("Texture arrays need a CoreGL that implements CoreGLTextureArray. Using regular atlas textures.");
+      this.textureArrayLayers = 0;
+    } else {
+      this.textureArrayLayers = textureArrayLayers;
+    }
     this.bufferFactory = bufferFactory;
     this.imageFactory = imageFactory;
     this.mouseCursorFactory = mouseCursorFactory;
@@ -103,11 +154,27 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
     shader.link();
     shader.activate();
     shader.setUniformi("uTex", 0);
-    batchPool = new ObjectPool<CoreBatch>(new Factory<CoreBatch>() {
+    if (this.textureArrayLayers > 0) {
+      textureArrayShader = CoreShader.createShaderWithVertexAttributes(
+              gl, bufferFactory, "aVertex", "aColor", "aTexture", "aLayer");
+      textureArrayShader.fragmentShader("nifty-array.fs");
+      textureArrayShader.vertexShader("nifty-array.vs");
+      textureArrayShader.link();
+      textureArrayShader.activate();
+      textureArrayShader.setUniformi("uTex", 0);
+      shader.activate();
+      // the attributes of both shaders are bound to the same locations so both can use the same vertex stream
+      vertexStream = new CoreVertexStream(
+              gl, textureArrayShader, bufferFactory, PRIMITIVE_RESTART_INDEX, packedTextureCoordinates, true);
+    } else {
+      textureArrayShader = null;
+      vertexStream = new CoreVertexStream(gl, shader, bufferFactory, PRIMITIVE_RESTART_INDEX, packedTextureCoordinates);
+    }
+    batchPool = new ObjectPool<CoreTextureArrayBatch>(new Factory<CoreTextureArrayBatch>() {
       @Nonnull
       @Override
-      public CoreBatch createNew() {
-        return new CoreBatchInternal(gl, shader, bufferFactory, PRIMITIVE_RESTART_INDEX);
+      public CoreTextureArrayBatch createNew() {
+        return new CoreBatchInternal(gl, vertexStream, shader, textureArrayShader);
       }
     });
   }
@@ -136,9 +203,15 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   public void beginFrame() {
     log.fine("beginFrame()");
     saveGLState.saveCore();
+    if (textureArrayShader != null) {
+      textureArrayShader.activate();
+      textureArrayShader.setUniformMatrix4f(
+              "uModelViewProjectionMatrix", CoreMatrixFactory.createOrthoMatrix(0, getWidth(), getHeight(), 0));
+    }
     shader.activate();
     shader.setUniformMatrix4f("uModelViewProjectionMatrix", CoreMatrixFactory.createOrthoMatrix(0, getWidth(), getHeight(), 0));
     deleteBatches();
+    vertexStream.clear();
   }
 
   @Override
@@ -181,6 +254,9 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   public int createTextureAtlas(final int atlasWidth, final int atlasHeight) {
     log.fine("createTextureAtlas()");
     try {
+      if (canCreateTextureArrayLayer(atlasWidth, atlasHeight)) {
+        return createTextureArrayLayer(atlasWidth, atlasHeight);
+      }
       return createAtlasTextureInternal(atlasWidth, atlasHeight);
     } catch (Exception e) {
       textureCreationFailed(atlasWidth, atlasHeight, e);
@@ -273,6 +349,7 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
           final int textureId) {
     log.fine("addQuad()");
     updateCurrentBatch(textureId);
+    int textureLayer = textureArray != null ? Math.max(textureArray.getLayer(textureId), 0) : 0;
     addQuadToCurrentBatch(
             x,
             y,
@@ -285,7 +362,8 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
             textureX,
             textureY,
             textureWidth,
-            textureHeight);
+            textureHeight,
+            textureLayer);
   }
 
   @Override
@@ -293,7 +371,17 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
     log.fine("beginBatch()");
     currentBatch = createNewBatch();
     addBatch(currentBatch);
-    currentBatch.begin(blendMode, findTexture(textureId));
+    if (isTextureArrayLayer(textureId)) {
+      assert textureArray != null;
+      currentBatch.begin(blendMode, textureArray);
+    } else {
+      currentBatch.begin(blendMode, findTexture(textureId));
+    }
+  }
+
+  @Override
+  public boolean canShareBatch(final int batchTextureId, final int textureId) {
+    return isTextureArrayLayer(batchTextureId) && isTextureArrayLayer(textureId);
   }
 
   @Override
@@ -364,15 +452,62 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   }
 
   private int getAtlasWidth(final int atlasTextureId) {
+    if (isTextureArrayLayer(atlasTextureId)) {
+      assert textureArray != null;
+      return textureArray.getWidth();
+    }
     return getAtlasTexture(atlasTextureId).getWidth();
   }
 
   private int getAtlasHeight(final int atlasTextureId) {
+    if (isTextureArrayLayer(atlasTextureId)) {
+      assert textureArray != null;
+      return textureArray.getHeight();
+    }
     return getAtlasTexture(atlasTextureId).getHeight();
   }
 
+  private boolean isTextureArrayLayer(final int textureId) {
+    return textureArray != null && textureArray.isLayer(textureId);
+  }
+
+  private boolean canCreateTextureArrayLayer(final int width, final int height) {
+    if (textureArrayLayers <= 0) {
+      return false;
+    }
+    if (textureArray == null) {
+      return true;
+    }
+    return textureArray.getWidth() == width && textureArray.getHeight() == height && textureArray.hasFreeLayer();
+  }
+
+  private int createTextureArrayLayer(final int width, final int height) {
+    if (textureArray == null) {
+      textureArray = new CoreTexture2DArray((CoreGLTextureArray) gl, bufferFactory, width, height, textureArrayLayers,
+              shouldUseHighQualityTextures);
+    }
+    int layerTextureId = textureArray.allocateLayer();
+    log.fine("createTextureArrayLayer with atlas texture id: " + layerTextureId);
+    // the initial content of a texture array layer is undefined
+    textureArray.updateLayerSection(layerTextureId, createBlankImageData(width, height), 0, 0, width, height);
+    return layerTextureId;
+  }
+
+  /**
+   * Releases the GL resources that are shared by all batches. Call this with the GL context current when the backend
+   * isn't used anymore. The backend can't be used afterwards.
+   */
+  public void dispose() {
+    deleteBatches();
+    vertexStream.delete();
+    if (textureArray != null) {
+      textureArray.dispose();
+      textureArray = null;
+    }
+  }
+
   private void deleteBatches() {
-    for (CoreBatch batch : batches) {
+    for (CoreTextureArrayBatch batch : batches) {
       batchPool.free(batch);
     }
     batches.clear();
@@ -419,6 +554,12 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   }
 
   private void updateAtlasTexture(final int atlasTextureId, @Nullable final ByteBuffer imageData) {
+    if (isTextureArrayLayer(atlasTextureId) && imageData != null) {
+      assert textureArray != null;
+      textureArray.updateLayerSection(
+              atlasTextureId, imageData, 0, 0, textureArray.getWidth(), textureArray.getHeight());
+      return;
+    }
     bindAtlasTexture(atlasTextureId);
     getAtlasTexture(atlasTextureId).updateTextureData(imageData);
   }
@@ -435,6 +576,12 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
       return;
     }
     log.fine("updateAtlasTextureSection with atlas texture id: " + atlasTextureId);
+    if (isTextureArrayLayer(atlasTextureId)) {
+      assert textureArray != null;
+      textureArray.updateLayerSection(
+              atlasTextureId, imageData, atlasSectionX, atlasSectionY, atlasSectionWidth, atlasSectionHeight);
+      return;
+    }
     bindAtlasTexture(atlasTextureId);
     // TODO Move this OpenGL call and error check to CoreTexture2D!
     gl.glTexSubImage2D(
@@ -506,7 +653,8 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
           final float textureX,
           final float textureY,
           final float textureWidth,
-          final float textureHeight) {
+          final float textureHeight,
+          final int textureLayer) {
     assert currentBatch != null;
     currentBatch.addQuad(
             x,
@@ -520,7 +668,8 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
             textureX,
             textureY,
             textureWidth,
-            textureHeight);
+            textureHeight,
+            textureLayer);
   }
 
   private void updateCurrentBatch(final int textureId) {
@@ -541,16 +690,16 @@ public class BatchRenderBackendCoreProfileInternal implements BatchRenderBackend
   }
 
   @Nonnull
-  private CoreBatch createNewBatch() {
+  private CoreTextureArrayBatch createNewBatch() {
     return batchPool.allocate();
   }
 
-  private void addBatch (@Nonnull final CoreBatch batch) {
+  private void addBatch (@Nonnull final CoreTextureArrayBatch batch) {
     batches.add(batch);
   }
 
   private void renderBatches() {
-    for (CoreBatch batch : batches) {
+    for (CoreTextureArrayBatch batch : batches) {
       batch.render();
     }
   }
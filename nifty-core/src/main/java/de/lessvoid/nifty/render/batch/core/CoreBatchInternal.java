@@ -1,18 +1,22 @@
 package de.lessvoid.nifty.render.batch.core;
 
-import de.lessvoid.nifty.render.batch.spi.BufferFactory;
-import de.lessvoid.nifty.render.batch.spi.core.CoreBatch;
 import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.render.batch.spi.core.CoreTextureArrayBatch;
 import de.lessvoid.nifty.render.BlendMode;
 import de.lessvoid.nifty.tools.Color;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Internal implementation for OpenGL Core Profile batch management that gives OpenGL-based
  * {@link de.lessvoid.nifty.render.batch.spi.BatchRenderBackend} implementations some default functionality to avoid having to
  * reinvent the wheel and to prevent unnecessary code duplication. Suitable for desktop devices.
  *
+ * A batch doesn't own any vertex data. It appends its quads to the {@link CoreVertexStream} shared by all batches of a
+ * frame and only remembers the range of the element buffer it has to draw. A batch takes at most 2047 quads, which
+ * is the number of quads that fit into the 64k vertex buffer each batch used to have on its own.
+ *
  * Note: Requires OpenGL 3.2 or higher. Mobiles devices & OpenGL ES are not officially supported yet with this class.
  *
  * {@inheritDoc}
@@ -20,71 +24,59 @@ import javax.annotation.Nonnull;
  * @author void256
  * @author Aaron Mahan &lt;aaron@forerunnergames.com&gt;
  */
-public class CoreBatchInternal implements CoreBatch {
-  // 4 vertices per quad and 8 vertex attributes per vertex:
-  // - 2 x pos
-  // - 2 x texture
-  // - 4 x color
-  private static final int PRIMITIVE_SIZE = 4 * 8;
-  private static final int SIZE = 64 * 1024; // 64k
+public class CoreBatchInternal implements CoreTextureArrayBatch {
+  static final int MAX_QUADS = 2047;
+  private static final int INDICES_PER_QUAD = 5;
   @Nonnull
   private final CoreGL gl;
   @Nonnull
-  private float[] primitiveBuffer = new float[PRIMITIVE_SIZE];
-  @Nonnull
-  private int[] elementIndexBuffer = new int[5];
+  private final CoreVertexStream vertexStream;
+  @Nullable
+  private final CoreShader shader;
+  @Nullable
+  private final CoreShader textureArrayShader;
   @Nonnull
   private BlendMode blendMode = BlendMode.BLEND;
-  @Nonnull
-  private final CoreVAO vao;
-  @Nonnull
-  private final CoreVBO vbo;
-  @Nonnull
-  private final CoreElementVBO elementVbo;
-  private final int primitiveRestartIndex;
   private CoreTexture2D texture;
-  private int primitiveCount;
+  @Nullable
+  private CoreTexture2DArray textureArray;
+  private int firstIndex;
   private int indexCount;
-  private int globalIndex;
 
+  public CoreBatchInternal(@Nonnull final CoreGL gl, @Nonnull final CoreVertexStream vertexStream) {
+    this(gl, vertexStream, null, null);
+  }
+
+  /**
+   * @param shader             the shader for batches with a single texture
+   * @param textureArrayShader the shader for batches with a texture array, or {@code null} if no texture arrays are
+   *                           used. If this is given the batch activates the shader it needs before it is rendered.
+   */
   public CoreBatchInternal(
           @Nonnull final CoreGL gl,
-          @Nonnull final CoreShader shader,
-          @Nonnull final BufferFactory bufferFactory,
-          final int primitiveRestartIndex) {
+          @Nonnull final CoreVertexStream vertexStream,
+          @Nullable final CoreShader shader,
+          @Nullable final CoreShader textureArrayShader) {
     this.gl = gl;
-    this.primitiveRestartIndex = primitiveRestartIndex;
-    vao = new CoreVAO(gl, bufferFactory);
-    vao.bind();
-
-    elementVbo = CoreElementVBO.createStreamVBO(gl, bufferFactory, new int[SIZE]);
-    elementVbo.bind();
-
-    vbo = CoreVBO.createStreamVBO(gl, bufferFactory, new float[SIZE]);
-    vbo.bind();
-
-    vao.enableVertexAttributef(shader.getAttribLocation("aVertex"), 2, 8, 0);
-    vao.enableVertexAttributef(shader.getAttribLocation("aColor"), 4, 8, 2);
-    vao.enableVertexAttributef(shader.getAttribLocation("aTexture"), 2, 8, 6);
-
-    primitiveCount = 0;
-    globalIndex = 0;
-    indexCount = 0;
-    vao.unbind();
+    this.vertexStream = vertexStream;
+    this.shader = shader;
+    this.textureArrayShader = textureArrayShader;
   }
 
   @Override
   public void begin(@Nonnull BlendMode blendMode, CoreTexture2D texture) {
     this.texture = texture;
-    vao.bind();
-    vbo.bind();
-    vbo.getBuffer().clear();
-    elementVbo.bind();
-    elementVbo.getBuffer().clear();
-    primitiveCount = 0;
-    globalIndex = 0;
+    textureArray = null;
+    firstIndex = vertexStream.getIndexCount();
+    indexCount = 0;
+  }
+
+  @Override
+  public void begin(@Nonnull BlendMode blendMode, @Nonnull CoreTexture2DArray textureArray) {
+    this.texture = null;
+    this.textureArray = textureArray;
+    firstIndex = vertexStream.getIndexCount();
     indexCount = 0;
-    vao.unbind();
   }
 
   @Nonnull
@@ -95,11 +87,22 @@ public class CoreBatchInternal implements CoreBatch {
 
   @Override
   public void render() {
-    if (primitiveCount == 0) {
+    if (indexCount == 0) {
       return; // Attempting to render with an empty vertex buffer crashes the program.
     }
 
-    texture.bind();
+    if (textureArray != null) {
+      textureArray.bind();
+    } else {
+      texture.bind();
+    }
+    if (textureArrayShader != null) {
+      if (textureArray != null) {
+        textureArrayShader.activate();
+      } else if (shader != null) {
+        shader.activate();
+      }
+    }
 
     if (blendMode.equals(BlendMode.BLEND)) {
       gl.glBlendFunc(gl.GL_SRC_ALPHA(), gl.GL_ONE_MINUS_SRC_ALPHA());
@@ -107,19 +110,14 @@ public class CoreBatchInternal implements CoreBatch {
       gl.glBlendFunc(gl.GL_DST_COLOR(), gl.GL_ZERO());
     }
 
-    vao.bind();
-    vbo.getBuffer().flip();
-    vbo.bind();
-    vbo.send();
-    elementVbo.getBuffer().flip();
-    elementVbo.bind();
-    elementVbo.send();
-    CoreRender.renderTriangleStripIndexed(gl, indexCount);
+    // the first batch rendered in a frame sends the vertices of all batches of the frame
+    vertexStream.bind();
+    CoreRender.renderTriangleStripIndexed(gl, indexCount, firstIndex);
   }
 
   @Override
   public boolean canAddQuad() {
-    return ((primitiveCount + 1) * PRIMITIVE_SIZE) < SIZE;
+    return indexCount < MAX_QUADS * INDICES_PER_QUAD;
   }
 
   @Override
@@ -136,54 +134,51 @@ public class CoreBatchInternal implements CoreBatch {
           final float textureY,
           final float textureWidth,
           final float textureHeight) {
-    int bufferIndex = 0;
-    int elementIndexBufferIndex = 0;
-
-    primitiveBuffer[bufferIndex++] = x;
-    primitiveBuffer[bufferIndex++] = y + height;
-    primitiveBuffer[bufferIndex++] = color3.getRed();
-    primitiveBuffer[bufferIndex++] = color3.getGreen();
-    primitiveBuffer[bufferIndex++] = color3.getBlue();
-    primitiveBuffer[bufferIndex++] = color3.getAlpha();
-    primitiveBuffer[bufferIndex++] = textureX;
-    primitiveBuffer[bufferIndex++] = textureY + textureHeight;
-    elementIndexBuffer[elementIndexBufferIndex++] = globalIndex++;
-
-    primitiveBuffer[bufferIndex++] = x + width;
-    primitiveBuffer[bufferIndex++] = y + height;
-    primitiveBuffer[bufferIndex++] = color4.getRed();
-    primitiveBuffer[bufferIndex++] = color4.getGreen();
-    primitiveBuffer[bufferIndex++] = color4.getBlue();
-    primitiveBuffer[bufferIndex++] = color4.getAlpha();
-    primitiveBuffer[bufferIndex++] = textureX + textureWidth;
-    primitiveBuffer[bufferIndex++] = textureY + textureHeight;
-    elementIndexBuffer[elementIndexBufferIndex++] = globalIndex++;
-
-    primitiveBuffer[bufferIndex++] = x;
-    primitiveBuffer[bufferIndex++] = y;
-    primitiveBuffer[bufferIndex++] = color1.getRed();
-    primitiveBuffer[bufferIndex++] = color1.getGreen();
-    primitiveBuffer[bufferIndex++] = color1.getBlue();
-    primitiveBuffer[bufferIndex++] = color1.getAlpha();
-    primitiveBuffer[bufferIndex++] = textureX;
-    primitiveBuffer[bufferIndex++] = textureY;
-    elementIndexBuffer[elementIndexBufferIndex++] = globalIndex++;
-
-    primitiveBuffer[bufferIndex++] = x + width;
-    primitiveBuffer[bufferIndex++] = y;
-    primitiveBuffer[bufferIndex++] = color2.getRed();
-    primitiveBuffer[bufferIndex++] = color2.getGreen();
-    primitiveBuffer[bufferIndex++] = color2.getBlue();
-    primitiveBuffer[bufferIndex++] = color2.getAlpha();
-    primitiveBuffer[bufferIndex++] = textureX + textureWidth;
-    primitiveBuffer[bufferIndex] = textureY;
-    elementIndexBuffer[elementIndexBufferIndex++] = globalIndex++;
-    elementIndexBuffer[elementIndexBufferIndex] = primitiveRestartIndex;
-
-    indexCount += 5;
+    addQuad(
+            x,
+            y,
+            width,
+            height,
+            color1,
+            color2,
+            color3,
+            color4,
+            textureX,
+            textureY,
+            textureWidth,
+            textureHeight,
+            0);
+  }
 
-    vbo.getBuffer().put(primitiveBuffer);
-    elementVbo.getBuffer().put(elementIndexBuffer);
-    primitiveCount++;
+  @Override
+  public void addQuad(
+          final float x,
+          final float y,
+          final float width,
+          final float height,
+          final @Nonnull Color color1,
+          final @Nonnull Color color2,
+          final @Nonnull Color color3,
+          final @Nonnull Color color4,
+          final float textureX,
+          final float textureY,
+          final float textureWidth,
+          final float textureHeight,
+          final int textureLayer) {
+    vertexStream.addQuad(
+            x,
+            y,
+            width,
+            height,
+            color1,
+            color2,
+            color3,
+            color4,
+            textureX,
+            textureY,
+            textureWidth,
+            textureHeight,
+            textureLayer);
+    indexCount += INDICES_PER_QUAD;
   }
 }
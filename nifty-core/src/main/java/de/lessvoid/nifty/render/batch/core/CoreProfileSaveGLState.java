@@ -7,6 +7,7 @@ import javax.annotation.Nonnull;
 import de.lessvoid.nifty.render.batch.CheckGL;
 import de.lessvoid.nifty.render.batch.spi.BufferFactory;
 import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGLTextureArray;
 
 /**
  * @author void
@@ -21,6 +22,7 @@ public class CoreProfileSaveGLState {
   private final IntBuffer params;
   private int currentProgram;
   private int textureBinding;
+  private int textureArrayBinding;
   private int activeTexture;
   private int samplerBindingTex0;
   private boolean blending;
@@ -53,6 +55,12 @@ public class CoreProfileSaveGLState {
     gl.glGetIntegerv(gl.GL_TEXTURE_BINDING_2D(), params);
     textureBinding = params.get(0);
 
+    if (gl instanceof CoreGLTextureArray) {
+      params.clear();
+      gl.glGetIntegerv(((CoreGLTextureArray) gl).GL_TEXTURE_BINDING_2D_ARRAY(), params);
+      textureArrayBinding = params.get(0);
+    }
+
     blending = gl.glIsEnabled(gl.GL_BLEND());
 
     params.clear();
@@ -77,6 +85,9 @@ public class CoreProfileSaveGLState {
     gl.glActiveTexture(activeTexture);
     gl.glBindSampler(0, samplerBindingTex0);
     gl.glBindTexture(gl.GL_TEXTURE_2D(), textureBinding);
+    if (gl instanceof CoreGLTextureArray) {
+      gl.glBindTexture(((CoreGLTextureArray) gl).GL_TEXTURE_2D_ARRAY(), textureArrayBinding);
+    }
     enable(gl.GL_BLEND(), blending);
     gl.glBlendFunc(blendingSrcFactor, blendingDstFactor);
     enable(gl.GL_PRIMITIVE_RESTART(), primitiveRestart);
@@ -57,6 +57,18 @@ public class CoreRender {
     CheckGL.checkGLError(gl, "glDrawElements(GL_TRIANGLE_STRIP)");
   }
 
+  /**
+   * Renders the currently active VAO using triangle strips, sending the specified number of indices starting at the
+   * given index of the currently bound element buffer.
+   *
+   * @param count      The number of indices to render as triangle strips.
+   * @param firstIndex The index of the first index in the element buffer to render.
+   */
+  public static void renderTriangleStripIndexed(@Nonnull final CoreGL gl, final int count, final int firstIndex) {
+    gl.glDrawElements(gl.GL_TRIANGLE_STRIP(), count, gl.GL_UNSIGNED_INT(), firstIndex * 4);
+    CheckGL.checkGLError(gl, "glDrawElements(GL_TRIANGLE_STRIP)");
+  }
+
   /**
    * Renders the currently active VAO using triangle fans, sending the specified number of indices.
    *
@@ -0,0 +1,158 @@
+package de.lessvoid.nifty.render.batch.core;
+
+import de.lessvoid.nifty.render.batch.CheckGL;
+import de.lessvoid.nifty.render.batch.spi.BufferFactory;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGLTextureArray;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * A GL_TEXTURE_2D_ARRAY with a fixed number of RGBA layers of the same size. Every layer is used as a texture atlas.
+ *
+ * The batch renderer identifies textures by their id. To give every layer an id that can't collide with the id of any
+ * other texture, a texture name is reserved with glGenTextures() for each layer that is handed out. These names never
+ * get any storage and are deleted together with the texture array.
+ *
+ * The texture is created without mipmaps because the atlas content is updated with glTexSubImage3D() all the time.
+ *
+ * Note: Requires OpenGL 3.2 or greater.
+ */
+public class CoreTexture2DArray {
+  @Nonnull
+  private final CoreGLTextureArray gl;
+  @Nonnull
+  private final IntBuffer idBuffer;
+  @Nonnull
+  private final Map<Integer, Integer> layerByTextureId = new HashMap<Integer, Integer>();
+  private final int textureId;
+  private final int width;
+  private final int height;
+  private final int layerCount;
+
+  public CoreTexture2DArray(
+          @Nonnull final CoreGLTextureArray gl,
+          @Nonnull final BufferFactory bufferFactory,
+          final int width,
+          final int height,
+          final int layerCount,
+          final boolean linearFilter) {
+    this.gl = gl;
+    this.width = width;
+    this.height = height;
+    this.layerCount = layerCount;
+    idBuffer = bufferFactory.createNativeOrderedIntBuffer(1);
+    textureId = generateTextureName();
+
+    gl.glBindTexture(gl.GL_TEXTURE_2D_ARRAY(), textureId);
+    CheckGL.checkGLError(gl, "glBindTexture(GL_TEXTURE_2D_ARRAY)");
+    int filter = linearFilter ? gl.GL_LINEAR() : gl.GL_NEAREST();
+    gl.glTexParameteri(gl.GL_TEXTURE_2D_ARRAY(), gl.GL_TEXTURE_MIN_FILTER(), filter);
+    gl.glTexParameteri(gl.GL_TEXTURE_2D_ARRAY(), gl.GL_TEXTURE_MAG_FILTER(), filter);
+    gl.glTexImage3D(
+            gl.GL_TEXTURE_2D_ARRAY(),
+            0,
+            gl.GL_RGBA(),
+            width,
+            height,
+            layerCount,
+            0,
+            gl.GL_RGBA(),
+            gl.GL_UNSIGNED_BYTE(),
+            null);
+    CheckGL.checkGLError(gl, "glTexImage3D(GL_TEXTURE_2D_ARRAY)");
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public boolean hasFreeLayer() {
+    return layerByTextureId.size() < layerCount;
+  }
+
+  /**
+   * Hands out the next free layer.
+   *
+   * @return the texture id that identifies the layer
+   */
+  public int allocateLayer() {
+    if (!hasFreeLayer()) {
+      throw new IllegalStateException("All " + layerCount + " layers of the texture array are in use.");
+    }
+    int layerTextureId = generateTextureName();
+    layerByTextureId.put(layerTextureId, layerByTextureId.size());
+    return layerTextureId;
+  }
+
+  public boolean isLayer(final int layerTextureId) {
+    return layerByTextureId.containsKey(layerTextureId);
+  }
+
+  /**
+   * @return the layer index of the layer with the given texture id or {@code -1} if it is not a layer of this array
+   */
+  public int getLayer(final int layerTextureId) {
+    Integer layer = layerByTextureId.get(layerTextureId);
+    return layer == null ? -1 : layer;
+  }
+
+  public void bind() {
+    gl.glBindTexture(gl.GL_TEXTURE_2D_ARRAY(), textureId);
+    CheckGL.checkGLError(gl, "glBindTexture(GL_TEXTURE_2D_ARRAY)");
+  }
+
+  /**
+   * Replaces a part of a layer with the given RGBA image data.
+   */
+  public void updateLayerSection(
+          final int layerTextureId,
+          @Nonnull final ByteBuffer imageData,
+          final int x,
+          final int y,
+          final int sectionWidth,
+          final int sectionHeight) {
+    bind();
+    gl.glTexSubImage3D(
+            gl.GL_TEXTURE_2D_ARRAY(),
+            0,
+            x,
+            y,
+            getLayer(layerTextureId),
+            sectionWidth,
+            sectionHeight,
+            1,
+            gl.GL_RGBA(),
+            gl.GL_UNSIGNED_BYTE(),
+            imageData);
+    CheckGL.checkGLError(gl, "glTexSubImage3D(GL_TEXTURE_2D_ARRAY)");
+  }
+
+  public void dispose() {
+    deleteTextureName(textureId);
+    for (int layerTextureId : layerByTextureId.keySet()) {
+      deleteTextureName(layerTextureId);
+    }
+    layerByTextureId.clear();
+  }
+
+  private int generateTextureName() {
+    idBuffer.clear();
+    gl.glGenTextures(1, idBuffer);
+    CheckGL.checkGLError(gl, "glGenTextures");
+    return idBuffer.get(0);
+  }
+
+  private void deleteTextureName(final int name) {
+    idBuffer.clear();
+    idBuffer.put(0, name);
+    gl.glDeleteTextures(1, idBuffer);
+  }
+}
@@ -70,6 +70,28 @@ public class CoreVAO {
     CheckGL.checkGLError(gl, "glVertexAttribPointer (" + index + ")");
   }
 
+  /**
+   * Configures the vertex attribute with the specified data of the given type.
+   *
+   * @param index       The index of the vertex attribute to modify.
+   * @param size        The number of components of this vertex attribute.
+   * @param type        The type of the components, e.g. GL_UNSIGNED_BYTE.
+   * @param normalized  Whether integer components should be normalized to [0, 1] when they are accessed.
+   * @param strideBytes The stride between the data in bytes.
+   * @param offsetBytes The offset of the data in bytes.
+   */
+  public void enableVertexAttribute(
+          final int index,
+          final int size,
+          final int type,
+          final boolean normalized,
+          final int strideBytes,
+          final int offsetBytes) {
+    gl.glVertexAttribPointer(index, size, type, normalized, strideBytes, offsetBytes);
+    gl.glEnableVertexAttribArray(index);
+    CheckGL.checkGLError(gl, "glVertexAttribPointer (" + index + ")");
+  }
+
   private void init() {
     vertexArrayBuffer.clear();
     gl.glGenVertexArrays(1, vertexArrayBuffer);
@@ -0,0 +1,308 @@
+package de.lessvoid.nifty.render.batch.core;
+
+import de.lessvoid.nifty.render.batch.CheckGL;
+import de.lessvoid.nifty.render.batch.spi.BufferFactory;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.tools.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import javax.annotation.Nonnull;
+
+/**
+ * The vertex and index data of all batches of a frame. All {@link CoreBatchInternal} instances of a frame append their
+ * quads to the same VertexStream. The whole stream is sent to the GPU once per frame with the first batch that is
+ * rendered and every batch then only draws its own range of the element buffer.
+ *
+ * The vertices use a packed format:
+ * - 2 x float position
+ * - 4 x normalized unsigned byte color
+ * - 2 x float texture coordinates or optionally 2 x normalized unsigned short texture coordinates
+ * - 1 x float texture array layer (only when the stream is created for texture arrays)
+ *
+ * This is 20 bytes (or 16 bytes with packed texture coordinates) per vertex instead of 32 bytes when every attribute
+ * is stored as a float, plus 4 bytes for the texture array layer. Packed texture coordinates have a precision of
+ * 1/65535 which is enough for textures up to 16384 pixels.
+ *
+ * The buffers are respecified with glBufferData() every frame. This orphans the storage of the last frame which might
+ * still be in use by the GPU so that we never have to wait for the GPU to finish it.
+ *
+ * The client side buffers start with room for 1024 quads and double their size whenever a frame needs more. They are
+ * never shrunk, so they keep the size of the frame with the most quads so far. Call {@link #delete()} when the stream
+ * isn't used anymore to release the GL buffers.
+ *
+ * Note: Requires OpenGL 3.2 or greater.
+ */
+public class CoreVertexStream {
+  private static final int INDICES_PER_QUAD = 5;
+  private static final int VERTICES_PER_QUAD = 4;
+  private static final int INITIAL_QUAD_CAPACITY = 1024;
+  @Nonnull
+  private final CoreGL gl;
+  @Nonnull
+  private final BufferFactory bufferFactory;
+  @Nonnull
+  private final CoreVAO vao;
+  @Nonnull
+  private final IntBuffer idBuffer;
+  private final int vertexBufferId;
+  private final int elementBufferId;
+  private final int primitiveRestartIndex;
+  private final boolean packedTextureCoordinates;
+  private final boolean textureLayers;
+  private final int vertexSize;
+  @Nonnull
+  private ByteBuffer vertexData;
+  @Nonnull
+  private FloatBuffer vertexDataAsFloats;
+  @Nonnull
+  private IntBuffer indexData;
+  private int vertexCount;
+  private int indexCount;
+  private boolean uploaded;
+
+  public CoreVertexStream(
+          @Nonnull final CoreGL gl,
+          @Nonnull final CoreShader shader,
+          @Nonnull final BufferFactory bufferFactory,
+          final int primitiveRestartIndex,
+          final boolean packedTextureCoordinates) {
+    this(gl, shader, bufferFactory, primitiveRestartIndex, packedTextureCoordinates, false);
+  }
+
+  /**
+   * @param textureLayers true to add the texture array layer to each vertex. The shader needs the "aLayer" attribute
+   *                      in this case.
+   */
+  public CoreVertexStream(
+          @Nonnull final CoreGL gl,
+          @Nonnull final CoreShader shader,
+          @Nonnull final BufferFactory bufferFactory,
+          final int primitiveRestartIndex,
+          final boolean packedTextureCoordinates,
+          final boolean textureLayers) {
+    this.gl = gl;
+    this.bufferFactory = bufferFactory;
+    this.primitiveRestartIndex = primitiveRestartIndex;
+    this.packedTextureCoordinates = packedTextureCoordinates;
+    this.textureLayers = textureLayers;
+    vertexSize = (packedTextureCoordinates ? 16 : 20) + (textureLayers ? 4 : 0);
+
+    vertexData = bufferFactory.createNativeOrderedByteBuffer(INITIAL_QUAD_CAPACITY * VERTICES_PER_QUAD * vertexSize);
+    vertexDataAsFloats = vertexData.asFloatBuffer();
+    indexData = bufferFactory.createNativeOrderedIntBuffer(INITIAL_QUAD_CAPACITY * INDICES_PER_QUAD);
+
+    idBuffer = bufferFactory.createNativeOrderedIntBuffer(2);
+    gl.glGenBuffers(2, idBuffer);
+    vertexBufferId = idBuffer.get(0);
+    elementBufferId = idBuffer.get(1);
+    CheckGL.checkGLError(gl, "glGenBuffers");
+
+    vao = new CoreVAO(gl, bufferFactory);
+    vao.bind();
+    gl.glBindBuffer(gl.GL_ELEMENT_ARRAY_BUFFER(), elementBufferId);
+    gl.glBindBuffer(gl.GL_ARRAY_BUFFER(), vertexBufferId);
+    vao.enableVertexAttribute(shader.getAttribLocation("aVertex"), 2, gl.GL_FLOAT(), false, vertexSize, 0);
+    vao.enableVertexAttribute(shader.getAttribLocation("aColor"), 4, gl.GL_UNSIGNED_BYTE(), true, vertexSize, 8);
+    if (packedTextureCoordinates) {
+      vao.enableVertexAttribute(shader.getAttribLocation("aTexture"), 2, gl.GL_UNSIGNED_SHORT(), true, vertexSize, 12);
+    } else {
+      vao.enableVertexAttribute(shader.getAttribLocation("aTexture"), 2, gl.GL_FLOAT(), false, vertexSize, 12);
+    }
+    if (textureLayers) {
+      vao.enableVertexAttribute(shader.getAttribLocation("aLayer"), 1, gl.GL_FLOAT(), false, vertexSize, vertexSize - 4);
+    }
+    vao.unbind();
+  }
+
+  /**
+   * Removes all vertices. Call this at the beginning of each frame.
+   */
+  public void clear() {
+    vertexCount = 0;
+    indexCount = 0;
+    uploaded = false;
+  }
+
+  /**
+   * @return the number of indices in this stream, which is the index of the first index of the next quad
+   */
+  public int getIndexCount() {
+    return indexCount;
+  }
+
+  public int getVertexSize() {
+    return vertexSize;
+  }
+
+  /**
+   * Appends a quad made of 4 vertices and 5 indices (a triangle strip of 4 indices followed by the primitive restart
+   * index).
+   */
+  public void addQuad(
+          final float x,
+          final float y,
+          final float width,
+          final float height,
+          @Nonnull final Color color1,
+          @Nonnull final Color color2,
+          @Nonnull final Color color3,
+          @Nonnull final Color color4,
+          final float textureX,
+          final float textureY,
+          final float textureWidth,
+          final float textureHeight) {
+    addQuad(
+            x,
+            y,
+            width,
+            height,
+            color1,
+            color2,
+            color3,
+            color4,
+            textureX,
+            textureY,
+            textureWidth,
+            textureHeight,
+            0);
+  }
+
+  /**
+   * Appends a quad that is textured with the given texture array layer. The layer is ignored when the stream has not
+   * been created for texture arrays.
+   */
+  public void addQuad(
+          final float x,
+          final float y,
+          final float width,
+          final float height,
+          @Nonnull final Color color1,
+          @Nonnull final Color color2,
+          @Nonnull final Color color3,
+          @Nonnull final Color color4,
+          final float textureX,
+          final float textureY,
+          final float textureWidth,
+          final float textureHeight,
+          final int textureLayer) {
+    ensureCapacity(vertexCount + VERTICES_PER_QUAD, indexCount + INDICES_PER_QUAD);
+
+    int firstVertex = vertexCount;
+    putVertex(x, y + height, color3, textureX, textureY + textureHeight, textureLayer);
+    putVertex(x + width, y + height, color4, textureX + textureWidth, textureY + textureHeight, textureLayer);
+    putVertex(x, y, color1, textureX, textureY, textureLayer);
+    putVertex(x + width, y, color2, textureX + textureWidth, textureY, textureLayer);
+
+    indexData.put(indexCount++, firstVertex);
+    indexData.put(indexCount++, firstVertex + 1);
+    indexData.put(indexCount++, firstVertex + 2);
+    indexData.put(indexCount++, firstVertex + 3);
+    indexData.put(indexCount++, primitiveRestartIndex);
+    uploaded = false;
+  }
+
+  /**
+   * Binds the VAO of this stream and sends the vertex and index data to the GPU if it has changed since it has been
+   * sent the last time.
+   */
+  public void bind() {
+    vao.bind();
+    if (uploaded) {
+      return;
+    }
+    vertexDataAsFloats.clear();
+    vertexDataAsFloats.limit(vertexCount * vertexSize / 4);
+    gl.glBindBuffer(gl.GL_ARRAY_BUFFER(), vertexBufferId);
+    gl.glBufferData(gl.GL_ARRAY_BUFFER(), vertexDataAsFloats, gl.GL_STREAM_DRAW());
+    CheckGL.checkGLError(gl, "glBufferData(GL_ARRAY_BUFFER)");
+
+    indexData.clear();
+    indexData.limit(indexCount);
+    gl.glBindBuffer(gl.GL_ELEMENT_ARRAY_BUFFER(), elementBufferId);
+    gl.glBufferData(gl.GL_ELEMENT_ARRAY_BUFFER(), indexData, gl.GL_STREAM_DRAW());
+    CheckGL.checkGLError(gl, "glBufferData(GL_ELEMENT_ARRAY_BUFFER)");
+    indexData.clear();
+    uploaded = true;
+  }
+
+  /**
+   * Deletes the VAO and the buffers of this stream.
+   */
+  public void delete() {
+    vao.delete();
+    idBuffer.clear();
+    idBuffer.put(0, vertexBufferId);
+    idBuffer.put(1, elementBufferId);
+    gl.glDeleteBuffers(2, idBuffer);
+  }
+
+  private void putVertex(
+          final float x,
+          final float y,
+          @Nonnull final Color color,
+          final float textureX,
+          final float textureY,
+          final int textureLayer) {
+    int offset = vertexCount * vertexSize;
+    vertexData.putFloat(offset, x);
+    vertexData.putFloat(offset + 4, y);
+    vertexData.put(offset + 8, toUnsignedByte(color.getRed()));
+    vertexData.put(offset + 9, toUnsignedByte(color.getGreen()));
+    vertexData.put(offset + 10, toUnsignedByte(color.getBlue()));
+    vertexData.put(offset + 11, toUnsignedByte(color.getAlpha()));
+    if (packedTextureCoordinates) {
+      vertexData.putShort(offset + 12, toUnsignedShort(textureX));
+      vertexData.putShort(offset + 14, toUnsignedShort(textureY));
+    } else {
+      vertexData.putFloat(offset + 12, textureX);
+      vertexData.putFloat(offset + 16, textureY);
+    }
+    if (textureLayers) {
+      vertexData.putFloat(offset + vertexSize - 4, textureLayer);
+    }
+    vertexCount++;
+  }
+
+  private void ensureCapacity(final int vertices, final int indices) {
+    if (vertices * vertexSize > vertexData.capacity()) {
+      ByteBuffer newVertexData = bufferFactory.createNativeOrderedByteBuffer(
+              Math.max(vertices * vertexSize, vertexData.capacity() * 2));
+      vertexData.clear();
+      vertexData.limit(vertexCount * vertexSize);
+      newVertexData.put(vertexData);
+      newVertexData.clear();
+      vertexData = newVertexData;
+      vertexDataAsFloats = vertexData.asFloatBuffer();
+    }
+    if (indices > indexData.capacity()) {
+      IntBuffer newIndexData = bufferFactory.createNativeOrderedIntBuffer(Math.max(indices, indexData.capacity() * 2));
+      indexData.clear();
+      indexData.limit(indexCount);
+      newIndexData.put(indexData);
+      newIndexData.clear();
+      indexData = newIndexData;
+    }
+  }
+
+  private static byte toUnsignedByte(final float value) {
+    if (value <= 0.0f) {
+      return 0;
+    }
+    if (value >= 1.0f) {
+      return (byte) 255;
+    }
+    return (byte) (int) (value * 255.0f + 0.5f);
+  }
+
+  private static short toUnsignedShort(final float value) {
+    if (value <= 0.0f) {
+      return 0;
+    }
+    if (value >= 1.0f) {
+      return (short) 65535;
+    }
+    return (short) (int) (value * 65535.0f + 0.5f);
+  }
+}
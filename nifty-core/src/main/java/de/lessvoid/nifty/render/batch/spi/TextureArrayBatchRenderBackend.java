@@ -0,0 +1,23 @@
+package de.lessvoid.nifty.render.batch.spi;
+
+/**
+ * Optional extension of a {@link BatchRenderBackend} that is able to render quads of different textures in the same
+ * batch, for instance because it stores several texture atlases as the layers of a single texture array. The
+ * BatchRenderDevice will only start a new batch for a texture change if the backend reports that the two textures
+ * can't share a batch. Changes of the BlendMode still start a new batch.
+ * <p/>
+ * Since quads of different textures end up in the same batch the textureId given to
+ * {@link BatchRenderBackend#addQuad} is not necessarily the textureId the batch was started with.
+ */
+public interface TextureArrayBatchRenderBackend extends BatchRenderBackend {
+  /**
+   * Checks whether quads textured with the texture specified by textureId can be added to a batch that has been
+   * started with the texture specified by batchTextureId.
+   *
+   * @param batchTextureId the texture id the current batch has been started with
+   * @param textureId the texture id of the next quad
+   *
+   * @return true if no new batch is required for the texture change, false otherwise
+   */
+  boolean canShareBatch(int batchTextureId, int textureId);
+}
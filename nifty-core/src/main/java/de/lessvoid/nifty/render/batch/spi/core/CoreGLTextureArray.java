@@ -0,0 +1,20 @@
+package de.lessvoid.nifty.render.batch.spi.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Optional extension of {@link CoreGL} that gives access to texture arrays. Only if the CoreGL implementation given to
+ * {@link de.lessvoid.nifty.render.batch.core.BatchRenderBackendCoreProfileInternal} implements this interface the
+ * texture atlases can be allocated as the layers of a texture array. Otherwise regular 2D textures are used.
+ *
+ * Note: Requires OpenGL 3.0 or higher.
+ */
+public interface CoreGLTextureArray extends CoreGL {
+  // OpenGL constants
+  public int GL_TEXTURE_2D_ARRAY();
+  public int GL_TEXTURE_BINDING_2D_ARRAY();
+
+  // OpenGL methods
+  public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, ByteBuffer pixels);
+  public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels);
+}
@@ -0,0 +1,45 @@
+package de.lessvoid.nifty.render.batch.spi.core;
+
+import de.lessvoid.nifty.render.batch.core.CoreTexture2DArray;
+import de.lessvoid.nifty.render.BlendMode;
+import de.lessvoid.nifty.tools.Color;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Optional extension of {@link CoreBatch} for batches whose quads are textured with the layers of a texture array.
+ * The quads of such a batch can come from different layers, so a texture change between two layers of the same
+ * array doesn't require a new batch.
+ */
+public interface CoreTextureArrayBatch extends CoreBatch {
+  /**
+   * Initializes the batch like {@link #begin(de.lessvoid.nifty.render.BlendMode, de.lessvoid.nifty.render.batch.core.CoreTexture2D)}
+   * but for quads that are textured with the layers of a texture array. Quads of such a batch are added with
+   * {@link #addQuad(float, float, float, float, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, float, float, float, float, int)}.
+   *
+   * @param blendMode The {@link de.lessvoid.nifty.render.BlendMode} to render the batch with.
+   * @param textureArray The texture array that this batch's vertex data belongs to.
+   */
+  public void begin(@Nonnull BlendMode blendMode, @Nonnull final CoreTexture2DArray textureArray);
+
+  /**
+   * Adds a quad like {@link #addQuad(float, float, float, float, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, de.lessvoid.nifty.tools.Color, float, float, float, float)}
+   * that is textured with the given layer of the texture array of this batch.
+   *
+   * @param textureLayer The layer of the texture array to map onto the quad.
+   */
+  public void addQuad(
+          final float x,
+          final float y,
+          final float width,
+          final float height,
+          @Nonnull final Color color1,
+          @Nonnull final Color color2,
+          @Nonnull final Color color3,
+          @Nonnull final Color color4,
+          final float textureX,
+          final float textureY,
+          final float textureWidth,
+          final float textureHeight,
+          final int textureLayer);
+}
@@ -0,0 +1,262 @@
+package de.lessvoid.nifty.screen;
+
+import de.lessvoid.nifty.elements.Element;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The id index of a screen. It maps the ids of all elements of a screen to the elements. Besides the complete id
+ * all the "#" suffixes of the id are indexed as well ("a#b#c" can be found with "#b#c" and "#c") so that the "#id"
+ * form used in control definitions can be resolved without walking the element tree.
+ * <p/>
+ * When more than one element matches an id the element is returned that a depth first search through the element
+ * tree (see {@link Element#findElementById(String)}) would have found first.
+ */
+class ElementIdIndex {
+  @Nonnull
+  private final Map<String, List<Element>> elementsById = new HashMap<String, List<Element>>();
+  @Nonnull
+  private final Map<String, List<Element>> elementsBySuffix = new HashMap<String, List<Element>>();
+
+  /**
+   * Add an element to the index.
+   *
+   * @param id      the id of the element
+   * @param element the element
+   */
+  public void add(@Nonnull final String id, @Nonnull final Element element) {
+    add(elementsById, id, element);
+    int index = id.indexOf('#');
+    while (index != -1) {
+      add(elementsBySuffix, id.substring(index), element);
+      index = id.indexOf('#', index + 1);
+    }
+  }
+
+  /**
+   * Remove an element from the index.
+   *
+   * @param id      the id the element has been added with
+   * @param element the element
+   */
+  public void remove(@Nonnull final String id, @Nonnull final Element element) {
+    remove(elementsById, id, element);
+    int index = id.indexOf('#');
+    while (index != -1) {
+      remove(elementsBySuffix, id.substring(index), element);
+      index = id.indexOf('#', index + 1);
+    }
+  }
+
+  /**
+   * Add an element and all of its child elements to the index.
+   *
+   * @param element the element
+   */
+  public void addAll(@Nonnull final Element element) {
+    String id = element.getId();
+    if (id != null) {
+      add(id, element);
+    }
+    List<Element> children = element.getChildren();
+    for (int i = 0; i < children.size(); i++) {
+      addAll(children.get(i));
+    }
+  }
+
+  /**
+   * Remove an element and all of its child elements from the index.
+   *
+   * @param element the element
+   */
+  public void removeAll(@Nonnull final Element element) {
+    String id = element.getId();
+    if (id != null) {
+      remove(id, element);
+    }
+    List<Element> children = element.getChildren();
+    for (int i = 0; i < children.size(); i++) {
+      removeAll(children.get(i));
+    }
+  }
+
+  /**
+   * Find the first element in the given layers that matches the id.
+   *
+   * @param findId the id to look for, either the complete id or a "#id" suffix
+   * @param layers the layers to search
+   * @return the element or {@code null} in case there is no matching element in the layers
+   */
+  @Nullable
+  public Element findInLayers(@Nonnull final String findId, @Nonnull final List<Element> layers) {
+    List<Element> candidates = getCandidates(findId);
+    if (candidates == null) {
+      return null;
+    }
+    Element result = null;
+    for (int i = 0; i < candidates.size(); i++) {
+      Element candidate = candidates.get(i);
+      if (indexOfIdentity(layers, getLayer(candidate)) == -1) {
+        continue;
+      }
+      if (result == null || isBefore(candidate, result, layers)) {
+        result = candidate;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the first element that matches the id in the given element or any of its child elements.
+   *
+   * @param findId the id to look for, either the complete id or a "#id" suffix
+   * @param root   the element to search
+   * @return the element or {@code null} in case there is no matching element below the root element
+   */
+  @Nullable
+  public Element findInElement(@Nonnull final String findId, @Nonnull final Element root) {
+    List<Element> candidates = getCandidates(findId);
+    if (candidates == null) {
+      return null;
+    }
+    Element result = null;
+    for (int i = 0; i < candidates.size(); i++) {
+      Element candidate = candidates.get(i);
+      if (!isSelfOrAncestor(root, candidate)) {
+        continue;
+      }
+      if (result == null || isBefore(candidate, result, null)) {
+        result = candidate;
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private List<Element> getCandidates(@Nonnull final String findId) {
+    if (findId.startsWith("#")) {
+      return elementsBySuffix.get(findId);
+    }
+    return elementsById.get(findId);
+  }
+
+  private static void add(
+      @Nonnull final Map<String, List<Element>> map,
+      @Nonnull final String key,
+      @Nonnull final Element element) {
+    List<Element> elements = map.get(key);
+    if (elements == null) {
+      elements = new ArrayList<Element>(1);
+      map.put(key, elements);
+    } else if (indexOfIdentity(elements, element) != -1) {
+      return;
+    }
+    elements.add(element);
+  }
+
+  private static void remove(
+      @Nonnull final Map<String, List<Element>> map,
+      @Nonnull final String key,
+      @Nonnull final Element element) {
+    List<Element> elements = map.get(key);
+    if (elements == null) {
+      return;
+    }
+    int index = indexOfIdentity(elements, element);
+    if (index != -1) {
+      elements.remove(index);
+      if (elements.isEmpty()) {
+        map.remove(key);
+      }
+    }
+  }
+
+  private static int indexOfIdentity(@Nonnull final List<Element> elements, @Nullable final Element element) {
+    for (int i = 0; i < elements.size(); i++) {
+      if (elements.get(i) == element) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The layer of an element is the ancestor right below the root element of the screen.
+   */
+  @Nullable
+  private static Element getLayer(@Nonnull final Element element) {
+    Element current = element;
+    while (current.hasParent()) {
+      if (!current.getParent().hasParent()) {
+        return current;
+      }
+      current = current.getParent();
+    }
+    return null;
+  }
+
+  private static boolean isSelfOrAncestor(@Nonnull final Element ancestor, @Nonnull final Element element) {
+    Element current = element;
+    while (current != ancestor) {
+      if (!current.hasParent()) {
+        return false;
+      }
+      current = current.getParent();
+    }
+    return true;
+  }
+
+  private static int getDepth(@Nonnull final Element element) {
+    int depth = 0;
+    Element current = element;
+    while (current.hasParent()) {
+      current = current.getParent();
+      depth++;
+    }
+    return depth;
+  }
+
+  /**
+   * Check if the element a comes before the element b in a depth first search through the element tree. When the
+   * layers are given the order of the layers is used instead of the order of the children of the root element.
+   */
+  private static boolean isBefore(
+      @Nonnull final Element a,
+      @Nonnull final Element b,
+      @Nullable final List<Element> layers) {
+    int depthA = getDepth(a);
+    int depthB = getDepth(b);
+    Element currentA = a;
+    Element currentB = b;
+    while (depthA > depthB) {
+      currentA = currentA.getParent();
+      depthA--;
+    }
+    while (depthB > depthA) {
+      currentB = currentB.getParent();
+      depthB--;
+    }
+    if (currentA == currentB) {
+      // one element is the ancestor of the other one and the ancestor is found first
+      return getDepth(a) < getDepth(b);
+    }
+    while (currentA.getParent() != currentB.getParent()) {
+      if (!currentA.hasParent()) {
+        // different element trees
+        return false;
+      }
+      currentA = currentA.getParent();
+      currentB = currentB.getParent();
+    }
+    if (layers != null && !currentA.getParent().hasParent()) {
+      return indexOfIdentity(layers, currentA) < indexOfIdentity(layers, currentB);
+    }
+    List<Element> siblings = currentA.getParent().getChildren();
+    return indexOfIdentity(siblings, currentA) < indexOfIdentity(siblings, currentB);
+  }
+}
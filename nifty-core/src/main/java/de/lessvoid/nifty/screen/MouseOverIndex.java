@@ -0,0 +1,305 @@
+package de.lessvoid.nifty.screen;
+
+import de.lessvoid.nifty.elements.Element;
+import de.lessvoid.nifty.input.NiftyMouseInputEvent;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid of all the elements of a layer list that are visible to mouse events. It is used to find the
+ * elements below the mouse cursor without walking the whole element tree for each mouse event.
+ * <p/>
+ * Besides the elements below the mouse cursor the index will still add elements that need to see the mouse event
+ * although the mouse is outside: elements the mouse has been over with the last event (so they can end their hover
+ * effects), elements that have a mouse button pressed or active hover effects and elements with hover effects that
+ * use a falloff constraint. All elements are added to the MouseOverHandler in the same order as
+ * {@link Element#buildMouseOverElements} would add them.
+ * <p/>
+ * The index is rebuilt lazily on the next mouse event after it has been invalidated.
+ */
+class MouseOverIndex {
+  private static final int CELL_SIZE = 64;
+  private static final int MAX_CELLS = 64;
+
+  /**
+   * All indexed elements in tree order together with the layer they belong to.
+   */
+  @Nonnull
+  private final List<Element> elements = new ArrayList<Element>();
+  @Nonnull
+  private final List<Element> elementLayers = new ArrayList<Element>();
+  @Nonnull
+  private final Map<Element, Integer> elementOrder = new IdentityHashMap<Element, Integer>();
+
+  /**
+   * The grid cells. Each cell stores the indices of the elements overlapping the cell.
+   */
+  @Nonnull
+  private int[][] cells = new int[0][];
+  private int originX;
+  private int originY;
+  private int cellSize = CELL_SIZE;
+  private int columns;
+  private int rows;
+
+  /**
+   * Elements that need to be checked for every mouse event no matter where the mouse is.
+   */
+  @Nonnull
+  private int[] always = new int[0];
+
+  @Nullable
+  private List<Element> indexedLayers;
+  private boolean valid;
+
+  /**
+   * Elements that need to see the next mouse event as well (mouse inside or mouse interaction still active).
+   */
+  @Nonnull
+  private List<Element> sticky = new ArrayList<Element>();
+  @Nonnull
+  private List<Element> nextSticky = new ArrayList<Element>();
+
+  @Nonnull
+  private int[] candidates = new int[32];
+  private int candidateCount;
+  @Nonnull
+  private boolean[] candidateMarks = new boolean[0];
+
+  /**
+   * Mark the index as outdated. It will be rebuilt with the next mouse event.
+   */
+  public void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Add all elements of the given layers that need to process the given mouse event to the MouseOverHandler.
+   *
+   * @param layers           the layers to process
+   * @param mouseEvent       the current mouse event
+   * @param mouseOverHandler the MouseOverHandler to add the elements to
+   */
+  public void buildMouseOverElements(
+      @Nonnull final List<Element> layers,
+      @Nonnull final NiftyMouseInputEvent mouseEvent,
+      @Nonnull final MouseOverHandler mouseOverHandler) {
+    if (!valid || indexedLayers != layers) {
+      rebuild(layers);
+    }
+
+    candidateCount = 0;
+    for (int i = 0; i < always.length; i++) {
+      addCandidate(always[i]);
+    }
+    int[] cell = findCell(mouseEvent.getMouseX(), mouseEvent.getMouseY());
+    if (cell != null) {
+      for (int i = 0; i < cell.length; i++) {
+        addCandidate(cell[i]);
+      }
+    }
+    for (int i = 0; i < sticky.size(); i++) {
+      Integer index = elementOrder.get(sticky.get(i));
+      if (index != null) {
+        addCandidate(index);
+      }
+    }
+    Arrays.sort(candidates, 0, candidateCount);
+
+    nextSticky.clear();
+    for (int i = 0; i < candidateCount; i++) {
+      int index = candidates[i];
+      candidateMarks[index] = false;
+
+      Element element = elements.get(index);
+      if (!isReachable(element, elementLayers.get(index))) {
+        continue;
+      }
+      boolean isInside = element.addToMouseOverHandler(mouseEvent, mouseOverHandler);
+      if (isInside || element.isMouseInteractionActive()) {
+        nextSticky.add(element);
+      }
+    }
+
+    List<Element> swap = sticky;
+    sticky = nextSticky;
+    nextSticky = swap;
+  }
+
+  private void addCandidate(final int index) {
+    if (candidateMarks[index]) {
+      return;
+    }
+    candidateMarks[index] = true;
+    if (candidateCount == candidates.length) {
+      candidates = Arrays.copyOf(candidates, candidates.length * 2);
+    }
+    candidates[candidateCount++] = index;
+  }
+
+  @Nullable
+  private int[] findCell(final int x, final int y) {
+    if (x < originX || y < originY) {
+      return null;
+    }
+    int column = (x - originX) / cellSize;
+    int row = (y - originY) / cellSize;
+    if (column >= columns || row >= rows) {
+      return null;
+    }
+    return cells[row * columns + column];
+  }
+
+  /**
+   * The regular tree walk does not visit the children of invisible elements. To get the same result all the parents
+   * of the element up to and including the layer need to be visible.
+   */
+  private boolean isReachable(@Nonnull final Element element, @Nonnull final Element layer) {
+    Element current = element;
+    while (current != layer) {
+      if (!current.hasParent()) {
+        return false;
+      }
+      current = current.getParent();
+      if (!current.isVisible()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rebuild(@Nonnull final List<Element> layers) {
+    elements.clear();
+    elementLayers.clear();
+    elementOrder.clear();
+    for (int i = 0; i < layers.size(); i++) {
+      Element layer = layers.get(i);
+      collect(layer, layer);
+    }
+
+    final int count = elements.size();
+    if (candidateMarks.length < count) {
+      candidateMarks = new boolean[count];
+    }
+
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    int alwaysCount = 0;
+    for (int i = 0; i < count; i++) {
+      Element element = elements.get(i);
+      if (element.hasHoverFalloffConstraint()) {
+        alwaysCount++;
+      } else if (hasArea(element)) {
+        minX = Math.min(minX, element.getX());
+        minY = Math.min(minY, element.getY());
+        maxX = Math.max(maxX, element.getX() + element.getWidth() - 1);
+        maxY = Math.max(maxY, element.getY() + element.getHeight() - 1);
+      }
+    }
+
+    always = new int[alwaysCount];
+    alwaysCount = 0;
+    for (int i = 0; i < count; i++) {
+      if (elements.get(i).hasHoverFalloffConstraint()) {
+        always[alwaysCount++] = i;
+      }
+    }
+
+    if (minX > maxX) {
+      originX = 0;
+      originY = 0;
+      columns = 0;
+      rows = 0;
+      cells = new int[0][];
+    } else {
+      originX = minX;
+      originY = minY;
+      cellSize = CELL_SIZE;
+      while ((maxX - minX) / cellSize >= MAX_CELLS || (maxY - minY) / cellSize >= MAX_CELLS) {
+        cellSize *= 2;
+      }
+      columns = (maxX - minX) / cellSize + 1;
+      rows = (maxY - minY) / cellSize + 1;
+      fillCells(count);
+    }
+
+    indexedLayers = layers;
+    valid = true;
+  }
+
+  private void fillCells(final int count) {
+    int[] cellCounts = new int[columns * rows];
+    for (int i = 0; i < count; i++) {
+      Element element = elements.get(i);
+      if (isGridElement(element)) {
+        for (int row = firstRow(element); row <= lastRow(element); row++) {
+          for (int column = firstColumn(element); column <= lastColumn(element); column++) {
+            cellCounts[row * columns + column]++;
+          }
+        }
+      }
+    }
+
+    cells = new int[columns * rows][];
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new int[cellCounts[i]];
+      cellCounts[i] = 0;
+    }
+
+    for (int i = 0; i < count; i++) {
+      Element element = elements.get(i);
+      if (isGridElement(element)) {
+        for (int row = firstRow(element); row <= lastRow(element); row++) {
+          for (int column = firstColumn(element); column <= lastColumn(element); column++) {
+            int cell = row * columns + column;
+            cells[cell][cellCounts[cell]++] = i;
+          }
+        }
+      }
+    }
+  }
+
+  private void collect(@Nonnull final Element element, @Nonnull final Element layer) {
+    if (element.isVisibleToMouseEvents()) {
+      elementOrder.put(element, elements.size());
+      elements.add(element);
+      elementLayers.add(layer);
+    }
+    List<Element> children = element.getChildren();
+    for (int i = 0; i < children.size(); i++) {
+      collect(children.get(i), layer);
+    }
+  }
+
+  private boolean isGridElement(@Nonnull final Element element) {
+    return !element.hasHoverFalloffConstraint() && hasArea(element);
+  }
+
+  private boolean hasArea(@Nonnull final Element element) {
+    return element.getWidth() > 0 && element.getHeight() > 0;
+  }
+
+  private int firstColumn(@Nonnull final Element element) {
+    return (element.getX() - originX) / cellSize;
+  }
+
+  private int lastColumn(@Nonnull final Element element) {
+    return (element.getX() + element.getWidth() - 1 - originX) / cellSize;
+  }
+
+  private int firstRow(@Nonnull final Element element) {
+    return (element.getY() - originY) / cellSize;
+  }
+
+  private int lastRow(@Nonnull final Element element) {
+    return (element.getY() + element.getHeight() - 1 - originY) / cellSize;
+  }
+}
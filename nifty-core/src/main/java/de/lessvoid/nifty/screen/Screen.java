@@ -12,6 +12,7 @@ import de.lessvoid.nifty.input.NiftyInputEvent;
 import de.lessvoid.nifty.input.NiftyInputMapping;
 import de.lessvoid.nifty.input.NiftyMouseInputEvent;
 import de.lessvoid.nifty.input.keyboard.KeyboardInputEvent;
+import de.lessvoid.nifty.profiler.FrameProfiler;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
 import de.lessvoid.nifty.spi.time.TimeProvider;
 import de.lessvoid.nifty.tools.StringHelper;
@@ -28,6 +29,7 @@ import java.util.logging.Logger;
  * @author void
  */
 public class Screen {
+  private static final int MAX_INCREMENTAL_LAYOUT_PASSES = 3;
   public int layoutLayersCallCount = 0;
   @Nonnull
   private static final Logger log = Logger.getLogger(Screen.class.getName());
@@ -63,6 +65,8 @@ public class Screen {
   @Nonnull
   private final MouseOverHandler mouseOverHandler;
   @Nonnull
+  private final MouseOverIndex mouseOverIndex;
+  @Nonnull
   private final Nifty nifty;
   @Nonnull
   private final List<InputHandlerWithMapping> postInputHandlers = new ArrayList<InputHandlerWithMapping>();
@@ -75,6 +79,12 @@ public class Screen {
   private boolean running = false;
   @Nonnull
   private final Set<String> registeredIds = new HashSet<String>();
+  @Nonnull
+  private final ElementIdIndex elementIdIndex = new ElementIdIndex();
+  // the layers are removed from the id index when the screen ends and added again when it's started
+  private boolean elementIdIndexActive = true;
+  @Nonnull
+  private final List<String> anonymousLayerLabels = new ArrayList<String>();
 
   private boolean bound;
 
@@ -89,6 +99,7 @@ public class Screen {
     timeProvider = newTimeProvider;
     focusHandler = new FocusHandler();
     mouseOverHandler = new MouseOverHandler();
+    mouseOverIndex = new MouseOverIndex();
   }
 
   public void registerElementId(@Nonnull final String id) {
@@ -104,6 +115,50 @@ public class Screen {
     registeredIds.remove(id);
   }
 
+  /**
+   * Add the element to the id index of this screen. This is called by the elements when they are added to this screen
+   * or when their id changes.
+   *
+   * @param id      the id of the element
+   * @param element the element
+   */
+  public void registerElementId(@Nonnull final String id, @Nonnull final Element element) {
+    elementIdIndex.add(id, element);
+  }
+
+  /**
+   * Remove the element from the id index of this screen. This is called by the elements when they are removed from
+   * this screen or when their id changes.
+   *
+   * @param id      the id the element has been registered with
+   * @param element the element
+   */
+  public void unregisterElementId(@Nonnull final String id, @Nonnull final Element element) {
+    elementIdIndex.remove(id, element);
+  }
+
+  /**
+   * Find an element by id in the given element or any of its child elements using the id index of this screen.
+   *
+   * @param findId  the id to find
+   * @param element the element to search
+   * @return the element or null
+   */
+  @Nullable
+  public Element findIndexedElementById(@Nonnull final String findId, @Nonnull final Element element) {
+    return elementIdIndex.findInElement(findId, element);
+  }
+
+  /**
+   * Check if elements of this screen can be found using the id index of this screen. This is the case when the index
+   * is enabled (see {@link Nifty#setElementIdIndexEnabled(boolean)}) and the screen hasn't ended.
+   *
+   * @return true if the id index should be used and false if the element tree has to be searched
+   */
+  public boolean isElementIdIndexActive() {
+    return elementIdIndexActive && nifty.isElementIdIndexEnabled();
+  }
+
   @Nonnull
   public String getScreenId() {
     return screenId;
@@ -185,6 +240,11 @@ public class Screen {
       setDefaultFocus();
     }
 
+    // a popup created for another screen is not part of the id index of this screen yet
+    if (popup.getScreen() != this) {
+      elementIdIndex.addAll(popup);
+    }
+
     // add to layers and add as popup
     addLayerElement(popup);
     addPopupElement(popup);
@@ -196,6 +256,9 @@ public class Screen {
 
   public void closePopup(@Nonnull final Element popup, final EndNotify closeNotify) {
     popup.onEndScreen(this);
+    if (popup.getScreen() != this) {
+      elementIdIndex.removeAll(popup);
+    }
     nifty.resetMouseInputEvents();
     removeLayerElement(popup);
     schedulePopupElementRemoval(new ElementWithEndNotify(popup, closeNotify));
@@ -217,7 +280,7 @@ public class Screen {
 
     focusHandler.resetFocusElements();
     resetLayers();
-    layoutLayers();
+    layoutAllLayers();
     bindControls();
 
     // bind happens right BEFORE the onStartScreen
@@ -246,7 +309,19 @@ public class Screen {
     startLayers(EffectEventId.onEndScreen, endNotify);
   }
 
+  /**
+   * Layout all layers. When incremental layout is enabled (see {@link Nifty#setIncrementalLayout(boolean)}) only the
+   * elements that have been marked dirty are layouted again.
+   */
   public void layoutLayers() {
+    if (nifty.isIncrementalLayout()) {
+      layoutDirtyLayers();
+    } else {
+      layoutAllLayers();
+    }
+  }
+
+  private void layoutAllLayers() {
     NiftyStopwatch.start();
     layoutLayersCallCount++;
 
@@ -257,6 +332,24 @@ public class Screen {
     NiftyStopwatch.stop("Screen.layoutLayers()");
   }
 
+  private void layoutDirtyLayers() {
+    // layouting elements might mark other elements dirty (controls that change elements in the layoutCallback() for
+    // instance) so we'll repeat this until nothing is dirty anymore or we've reached the maximum number of passes.
+    for (int pass = 0; pass < MAX_INCREMENTAL_LAYOUT_PASSES; pass++) {
+      boolean layouted = false;
+      for (int i = 0; i < layerElements.size(); i++) {
+        Element w = layerElements.get(i);
+        if (w.layoutDirtyElements()) {
+          layouted = true;
+        }
+      }
+      if (!layouted) {
+        return;
+      }
+      layoutLayersCallCount++;
+    }
+  }
+
   private void resetLayers() {
     nifty.resetMouseInputEvents();
 
@@ -327,10 +420,27 @@ public class Screen {
    * @param renderDevice the renderDevice to use
    */
   public final void renderLayers(@Nonnull final NiftyRenderEngine renderDevice) {
+    FrameProfiler profiler = nifty.getFrameProfiler();
     for (int i = 0; i < layerElements.size(); i++) {
       Element layer = layerElements.get(i);
-      layer.render(renderDevice);
+      if (profiler == null) {
+        layer.render(renderDevice);
+      } else {
+        long start = profiler.begin();
+        layer.render(renderDevice);
+        String layerId = layer.getId();
+        profiler.endLayer(layerId != null ? layerId : getAnonymousLayerLabel(i), start);
+      }
+    }
+  }
+
+  // the profiler label of a layer without an id. the labels are created only once for each index.
+  @Nonnull
+  private String getAnonymousLayerLabel(final int index) {
+    while (anonymousLayerLabels.size() <= index) {
+      anonymousLayerLabels.add("layer" + anonymousLayerLabels.size());
     }
+    return anonymousLayerLabels.get(index);
   }
 
   public void resetLayout() {
@@ -374,6 +484,8 @@ public class Screen {
     if (focusHandler.hasAnyElementTheMouseFocus()) {
       Element e = focusHandler.getMouseFocusElement();
       mouseOverHandler.addMouseOverElement(e);
+    } else if (nifty.isMouseOverIndexEnabled()) {
+      mouseOverIndex.buildMouseOverElements(layerList, inputEvent, mouseOverHandler);
     } else {
       for (int i = 0; i < layerList.size(); i++) {
         Element layer = layerList.get(i);
@@ -416,6 +528,9 @@ public class Screen {
     if (findId == null) {
       return null;
     }
+    if (isElementIdIndexActive()) {
+      return elementIdIndex.findInLayers(findId, layerElements);
+    }
     for (int i = 0; i < layerElements.size(); i++) {
       Element layer = layerElements.get(i);
       Element found = layer.findElementById(findId);
@@ -673,6 +788,16 @@ public class Screen {
     while (!popupElementsToRemove.isEmpty()) {
       popupElementsToRemove.pollFirst().remove();
     }
+
+    mouseOverIndex.invalidate();
+  }
+
+  /**
+   * Mark the index of the elements that are visible to mouse events as outdated. This is called by the elements of
+   * this screen when their position, size or mouse handling or the element tree changes.
+   */
+  public void invalidateMouseOverIndex() {
+    mouseOverIndex.invalidate();
   }
 
   public boolean hasDynamicElements() {
@@ -858,7 +983,9 @@ public class Screen {
 
     for (int i = 0; i < layerElements.size(); i++) {
       layerElements.get(i).onEndScreen(this);
+      elementIdIndex.removeAll(layerElements.get(i));
     }
+    elementIdIndexActive = false;
     nifty.getRenderEngine().screenEnded(this);
   }
 
@@ -944,8 +1071,11 @@ public class Screen {
 
   private void bindControls() {
     bound = true;
+    elementIdIndexActive = true;
     for (int i = 0; i < layerElements.size(); i++) {
       layerElements.get(i).bindControls(this);
+      // elements that have been bound before have been removed from the id index when the screen ended
+      elementIdIndex.addAll(layerElements.get(i));
     }
     for (int i = 0; i < layerElements.size(); i++) {
       layerElements.get(i).initControls(false);
@@ -0,0 +1,117 @@
+package de.lessvoid.nifty.sound;
+
+import de.lessvoid.nifty.spi.sound.SoundHandle;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The SoundHandle the SoundSystem hands out when lazy loading is enabled. It only loads the actual SoundHandle from
+ * the SoundDevice when it's needed and it can be unloaded again by the SoundSystem when it hasn't been used for a while.
+ * A LazySoundHandle that has been unloaded will load the sound again the next time it is played.
+ */
+class LazySoundHandle implements SoundHandle {
+  @Nonnull
+  private final SoundSystem soundSystem;
+  @Nonnull
+  private final String name;
+  @Nonnull
+  private final String filename;
+  private final boolean music;
+  @Nullable
+  private SoundHandle handle;
+  private boolean loadFailed;
+  private float volume = -1.0f;
+
+  LazySoundHandle(
+      @Nonnull final SoundSystem soundSystem,
+      @Nonnull final String name,
+      @Nonnull final String filename,
+      final boolean music) {
+    this.soundSystem = soundSystem;
+    this.name = name;
+    this.filename = filename;
+    this.music = music;
+  }
+
+  @Override
+  public void play() {
+    SoundHandle sound = soundSystem.resolveLazySound(this);
+    if (sound == null) {
+      return;
+    }
+    if (volume >= 0.0f) {
+      sound.setVolume(volume);
+    }
+    sound.play();
+  }
+
+  @Override
+  public void stop() {
+    if (handle != null) {
+      handle.stop();
+    }
+  }
+
+  @Override
+  public void setVolume(final float volume) {
+    this.volume = volume;
+    if (handle != null) {
+      handle.setVolume(volume);
+    }
+  }
+
+  @Override
+  public float getVolume() {
+    if (handle != null) {
+      return handle.getVolume();
+    }
+    return volume >= 0.0f ? volume : (music ? soundSystem.getMusicVolume() : soundSystem.getSoundVolume());
+  }
+
+  @Override
+  public boolean isPlaying() {
+    return handle != null && handle.isPlaying();
+  }
+
+  @Override
+  public void dispose() {
+    soundSystem.unloadLazySound(this);
+  }
+
+  @Nonnull
+  String getName() {
+    return name;
+  }
+
+  @Nonnull
+  String getFilename() {
+    return filename;
+  }
+
+  boolean isMusic() {
+    return music;
+  }
+
+  boolean isLoaded() {
+    return handle != null;
+  }
+
+  boolean isLoadFailed() {
+    return loadFailed;
+  }
+
+  @Nullable
+  SoundHandle getHandle() {
+    return handle;
+  }
+
+  void setHandle(@Nullable final SoundHandle handle) {
+    this.handle = handle;
+    loadFailed = handle == null;
+  }
+
+  void clearHandle() {
+    handle = null;
+  }
+}
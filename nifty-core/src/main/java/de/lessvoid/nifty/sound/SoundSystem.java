@@ -7,11 +7,21 @@ import de.lessvoid.nifty.spi.sound.SoundHandle;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.Map;
+import java.util.Queue;
 import java.util.logging.Logger;
 
 /**
  * The SoundManager loads and manages all available Sound and Music Files available to be played.
+ * <p/>
+ * By default every registered sound and music file is loaded by the SoundDevice as soon as it is registered. With
+ * {@link #setLazyLoading(boolean)} enabled files are only registered and loaded the first time they are requested.
+ * Lazily loaded sounds can optionally be loaded ahead of time, one per {@link #update(int)} call on the thread that
+ * calls it, with {@link #setPrewarmLazySounds(boolean)} and the number of sounds that are kept loaded at the same time can be limited
+ * with {@link #setMaxLoadedSounds(int)}.
  *
  * @author void
  */
@@ -24,8 +34,16 @@ public class SoundSystem {
   @Nonnull
   private final Map<String, SoundHandle> soundLookup;
 
+  @Nonnull
+  private final Queue<LazySoundHandle> prewarmQueue;
+  @Nonnull
+  private final Map<LazySoundHandle, Boolean> loadedLazySounds;
+
   private float soundVolume;
   private float musicVolume;
+  private boolean lazyLoading;
+  private boolean prewarmLazySounds;
+  private int maxLoadedSounds;
 
   /**
    * create new sound manager.
@@ -39,6 +57,54 @@ public class SoundSystem {
     musicVolume = 1.0f;
 
     soundLookup = new HashMap<String, SoundHandle>();
+    prewarmQueue = new LinkedList<LazySoundHandle>();
+    loadedLazySounds = new LinkedHashMap<LazySoundHandle, Boolean>(16, 0.75f, true);
+  }
+
+  /**
+   * Enable or disable lazy loading. This only changes how sounds and music registered after this call are loaded.
+   *
+   * @param lazyLoading true to load sound and music files when they are first requested instead of when they are
+   *                    registered
+   */
+  public void setLazyLoading(final boolean lazyLoading) {
+    this.lazyLoading = lazyLoading;
+  }
+
+  public boolean isLazyLoading() {
+    return lazyLoading;
+  }
+
+  /**
+   * When enabled lazily registered files that have not been requested yet are loaded one per {@link #update(int)}
+   * call. The files are loaded synchronously on the thread that calls {@link #update(int)}, which is the thread that
+   * calls {@link de.lessvoid.nifty.Nifty#update()}. This spreads the cost of loading them over several frames instead
+   * of adding it to the startup or to the frame they are first played in.
+   *
+   * @param prewarmLazySounds true to load one pending sound or music file per update
+   */
+  public void setPrewarmLazySounds(final boolean prewarmLazySounds) {
+    this.prewarmLazySounds = prewarmLazySounds;
+  }
+
+  public boolean isPrewarmLazySounds() {
+    return prewarmLazySounds;
+  }
+
+  /**
+   * Limit the number of lazily loaded sounds that are kept loaded at the same time. When the limit is exceeded the
+   * least recently used sound that is not playing is disposed. It will be loaded again the next time it is played.
+   * Music is streamed and is not affected by this limit.
+   *
+   * @param maxLoadedSounds the maximum number of loaded sounds or 0 for no limit
+   */
+  public void setMaxLoadedSounds(final int maxLoadedSounds) {
+    this.maxLoadedSounds = maxLoadedSounds;
+    evictLazySounds(null);
+  }
+
+  public int getMaxLoadedSounds() {
+    return maxLoadedSounds;
   }
 
   /**
@@ -51,6 +117,10 @@ public class SoundSystem {
   public boolean addSound(final String name, @Nonnull final String filename) {
     log.fine("register sound [" + name + "] for file '" + filename + "'");
 
+    if (lazyLoading) {
+      return addLazySound(name, filename, false);
+    }
+
     SoundHandle sound = soundDevice.loadSound(this, filename);
     if (sound == null) {
       return false;
@@ -70,6 +140,10 @@ public class SoundSystem {
   public boolean addMusic(final String name, @Nonnull final String filename) {
     log.fine("register music [" + name + "] for file '" + filename + "'");
 
+    if (lazyLoading) {
+      return addLazySound(name, filename, true);
+    }
+
     SoundHandle music = soundDevice.loadMusic(this, filename);
     if (music == null) {
       return false;
@@ -92,7 +166,7 @@ public class SoundSystem {
       return null;
     }
 
-    return sound;
+    return resolveOnFirstRequest(sound);
   }
 
   @Nullable
@@ -108,7 +182,7 @@ public class SoundSystem {
       return null;
     }
 
-    return sound;
+    return resolveOnFirstRequest(sound);
   }
 
   /**
@@ -149,5 +223,115 @@ public class SoundSystem {
 
   public void update(final int delta) {
     soundDevice.update(delta);
+    if (prewarmLazySounds) {
+      prewarmNextLazySound();
+    }
+  }
+
+  /**
+   * @return the number of lazily loaded sounds (not music) that are currently loaded
+   */
+  int getLoadedLazySoundCount() {
+    return loadedLazySounds.size();
+  }
+
+  @Nullable
+  SoundHandle resolveLazySound(@Nonnull final LazySoundHandle lazySound) {
+    SoundHandle handle = lazySound.getHandle();
+    if (handle != null) {
+      if (!lazySound.isMusic()) {
+        loadedLazySounds.get(lazySound);
+      }
+      return handle;
+    }
+    if (lazySound.isLoadFailed()) {
+      return null;
+    }
+
+    log.fine("loading " + (lazySound.isMusic() ? "music" : "sound") + " [" + lazySound.getName() + "] from file '" +
+        lazySound.getFilename() + "'");
+    if (lazySound.isMusic()) {
+      handle = soundDevice.loadMusic(this, lazySound.getFilename());
+    } else {
+      handle = soundDevice.loadSound(this, lazySound.getFilename());
+    }
+    lazySound.setHandle(handle);
+    if (handle == null) {
+      log.warning("loading of [" + lazySound.getName() + "] from file '" + lazySound.getFilename() + "' failed");
+      return null;
+    }
+    if (!lazySound.isMusic()) {
+      loadedLazySounds.put(lazySound, Boolean.TRUE);
+      evictLazySounds(lazySound);
+    }
+    return handle;
+  }
+
+  void unloadLazySound(@Nonnull final LazySoundHandle lazySound) {
+    SoundHandle handle = lazySound.getHandle();
+    if (handle != null) {
+      handle.dispose();
+      lazySound.clearHandle();
+    }
+    loadedLazySounds.remove(lazySound);
+  }
+
+  private boolean addLazySound(@Nonnull final String name, @Nonnull final String filename, final boolean music) {
+    LazySoundHandle lazySound = new LazySoundHandle(this, name, filename, music);
+    SoundHandle old = soundLookup.put(name, lazySound);
+    if (old instanceof LazySoundHandle) {
+      unloadLazySound((LazySoundHandle) old);
+    }
+    prewarmQueue.add(lazySound);
+    return true;
+  }
+
+  @Nullable
+  private SoundHandle resolveOnFirstRequest(@Nonnull final SoundHandle sound) {
+    if (!(sound instanceof LazySoundHandle)) {
+      return sound;
+    }
+    LazySoundHandle lazySound = (LazySoundHandle) sound;
+    if (!lazySound.isLoaded() && resolveLazySound(lazySound) == null) {
+      return null;
+    }
+    return lazySound;
+  }
+
+  private void prewarmNextLazySound() {
+    while (!prewarmQueue.isEmpty()) {
+      LazySoundHandle lazySound = prewarmQueue.peek();
+      if (lazySound.isLoaded() || lazySound.isLoadFailed() || soundLookup.get(lazySound.getName()) != lazySound) {
+        prewarmQueue.poll();
+        continue;
+      }
+      if (!lazySound.isMusic() && maxLoadedSounds > 0 && loadedLazySounds.size() >= maxLoadedSounds) {
+        // loading this one would only push out another sound that has already been loaded
+        prewarmQueue.poll();
+        continue;
+      }
+      prewarmQueue.poll();
+      resolveLazySound(lazySound);
+      return;
+    }
+  }
+
+  private void evictLazySounds(@Nullable final LazySoundHandle keep) {
+    if (maxLoadedSounds <= 0) {
+      return;
+    }
+    Iterator<LazySoundHandle> it = loadedLazySounds.keySet().iterator();
+    while (loadedLazySounds.size() > maxLoadedSounds && it.hasNext()) {
+      LazySoundHandle lazySound = it.next();
+      if (lazySound == keep || lazySound.isPlaying()) {
+        continue;
+      }
+      it.remove();
+      SoundHandle handle = lazySound.getHandle();
+      if (handle != null) {
+        handle.dispose();
+      }
+      lazySound.clearHandle();
+    }
   }
 }
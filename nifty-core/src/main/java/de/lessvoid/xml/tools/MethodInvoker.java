@@ -14,17 +14,24 @@ import java.util.logging.Logger;
  */
 public class MethodInvoker {
   private static final Logger log = Logger.getLogger(MethodInvoker.class.getName());
+  private static final String[] NO_PARAMETERS = new String[0];
 
   @Nullable
   private Object[] target;
   @Nullable
   private final String methodWithName;
+  @Nullable
+  private final String methodName;
+  @Nonnull
+  private final String[] encodedParameters;
 
   /**
    * create null MethodInvoker.
    */
   public MethodInvoker() {
     this.methodWithName = null;
+    this.methodName = null;
+    this.encodedParameters = NO_PARAMETERS;
     this.target = null;
   }
 
@@ -35,6 +42,13 @@ public class MethodInvoker {
    */
   public MethodInvoker(@Nullable final String methodParam, @Nonnull final Object ... targetParam) {
     this.methodWithName = methodParam;
+    if (methodParam == null) {
+      this.methodName = null;
+      this.encodedParameters = NO_PARAMETERS;
+    } else {
+      this.methodName = MethodResolver.extractMethodName(methodParam);
+      this.encodedParameters = MethodResolver.extractParameters(methodParam);
+    }
     if (targetParam.length == 0) {
       this.target = null;
     } else {
@@ -90,8 +104,9 @@ public class MethodInvoker {
     // process all methods (first one wins)
     for (Object object : target) {
       if (object != null) {
-        Method method = MethodResolver.findMethod(object.getClass(), methodWithName);
-        if (method != null) {
+        MethodResolver.ResolvedMethod resolved = resolveMethod(object.getClass(), invokeParametersParam.length);
+        if (resolved != null) {
+          Method method = resolved.getMethod();
           // we've found a method with the given name. now we need to match the parameters.
           //
           // 1) if the target method has parameters encoded we ignore the invokeParametersParam we've been
@@ -100,11 +115,11 @@ public class MethodInvoker {
           //    2a) invokeParametersParam are given, in this case we'll try to forward them to the method
           //        if this is not possible we fall back to 2b)
           //    2b) just call the method without any parameters
-          Object[] invokeParameters = MethodResolver.extractParameters(methodWithName);
+          Object[] invokeParameters = encodedParameters;
           if (invokeParameters.length > 0) {
             // does the method supports the parameters?
             // TODO: not only check for the count but check the type too
-            if (getMethodParameterCount(method) == invokeParameters.length) {
+            if (resolved.getMethodParameterCount() == invokeParameters.length) {
               if (log.isLoggable(Level.FINE)) {
                 log.fine("invoking method '" + methodWithName + "' with (" + debugParaString(invokeParameters) + ")");
               }
@@ -118,7 +133,7 @@ public class MethodInvoker {
           } else {
             // no invokeParameters encoded. this means we can call the method as is or with the invokeParametersParam
             if (invokeParametersParam.length > 0) {
-              if (getMethodParameterCount(method) == invokeParametersParam.length) {
+              if (resolved.getMethodParameterCount() == invokeParametersParam.length) {
                 if (log.isLoggable(Level.FINE)) {
                   log.fine("invoking method '" + methodWithName + "' with the actual parameters ("
                     + debugParaString(invokeParametersParam) + ")");
@@ -145,6 +160,23 @@ public class MethodInvoker {
     return null;
   }
 
+  /**
+   * Resolve the method for the given class. Encoded parameters replace the parameters the method is invoked with, so
+   * the method is looked up for the number of encoded parameters when there are any.
+   * @param c the class of the target object
+   * @param invokeParameterCount the number of parameters the method is invoked with
+   * @return the resolved method or null if the class has no method with that name
+   */
+  @Nullable
+  private MethodResolver.ResolvedMethod resolveMethod(@Nonnull final Class<?> c, final int invokeParameterCount) {
+    if (methodName == null) {
+      log.warning("Could not extract method from [" + methodWithName + "]");
+      return null;
+    }
+    int parameterCount = encodedParameters.length > 0 ? encodedParameters.length : invokeParameterCount;
+    return MethodResolver.resolveMethod(c, methodName, parameterCount);
+  }
+
   /**
    * Invoke the given method on the given object.
    * @param targetObject target object to invoke method on
@@ -185,16 +217,6 @@ public class MethodInvoker {
     }
   }
 
-  /**
-   * return count of actual method parameters.
-   * @param method method
-   * @return count of parameters the method needs
-   */
-  private int getMethodParameterCount(@Nonnull final Method method) {
-    Class < ? > [] parameterTypes = method.getParameterTypes();
-    return parameterTypes.length;
-  }
-
   /**
    * helper method to convert the given parameter object array into a string for debugging.
    * @param invokeParameters parameter array
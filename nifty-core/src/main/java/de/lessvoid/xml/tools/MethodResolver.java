@@ -4,6 +4,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
@@ -13,12 +15,78 @@ import java.util.logging.Logger;
 public class MethodResolver {
   private static final Logger log = Logger.getLogger(MethodResolver.class.getName());
 
+  /**
+   * The maximum number of methods kept in the cache.
+   */
+  private static final int MAX_CACHED_METHODS = 1024;
+
+  /**
+   * Marks methods that could not be resolved for a class in the cache.
+   */
+  @Nonnull
+  private static final ResolvedMethod NOT_FOUND = new ResolvedMethod(null);
+
+  /**
+   * The methods resolved so far keyed by class, method name and parameter count. The least recently used methods are
+   * removed when the cache is full, so classes that are not used anymore don't stay referenced forever.
+   */
+  @Nonnull
+  private static final Map<MethodKey, ResolvedMethod> resolvedMethods =
+      new LinkedHashMap<MethodKey, ResolvedMethod>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<MethodKey, ResolvedMethod> eldest) {
+          return size() > MAX_CACHED_METHODS;
+        }
+      };
+
   /**
    * you can't instantiate this class it's a helper class.
    */
   private MethodResolver() {
   }
 
+  /**
+   * Find a method per name in the given class. A method that expects the given number of parameters is preferred over
+   * other methods with the same name. The result is cached for the class, the name and the parameter count so that only
+   * the first call needs to search the methods of the class.
+   * @param c the class to look for
+   * @param methodName the name of the method without any parameters, e.g. "onClick"
+   * @param parameterCount the number of parameters that are going to be passed to the method
+   * @return the resolved method or null if the class has no method with that name
+   */
+  @Nullable
+  public static ResolvedMethod resolveMethod(
+      @Nullable final Class<?> c,
+      @Nonnull final String methodName,
+      final int parameterCount) {
+    if (c == null) {
+      return null;
+    }
+    MethodKey key = new MethodKey(c, methodName, parameterCount);
+    ResolvedMethod resolved;
+    synchronized (resolvedMethods) {
+      resolved = resolvedMethods.get(key);
+    }
+    if (resolved == null) {
+      Method method = searchMethod(c, methodName, parameterCount);
+      resolved = method == null ? NOT_FOUND : new ResolvedMethod(method);
+      synchronized (resolvedMethods) {
+        resolvedMethods.put(key, resolved);
+      }
+    }
+    return resolved == NOT_FOUND ? null : resolved;
+  }
+
+  /**
+   * Remove all methods resolved so far from the cache. This is only required when classes are unloaded, e.g. when
+   * the controller classes are reloaded at runtime.
+   */
+  public static void clearCache() {
+    synchronized (resolvedMethods) {
+      resolvedMethods.clear();
+    }
+  }
+
   /**
    * find a method per name in the given class.
    * @param c the class to look for
@@ -27,21 +95,39 @@ public class MethodResolver {
    */
   @Nullable
   public static Method findMethod(@Nullable final Class < ? > c, @Nonnull final String methodName) {
-    if (c == null) {
-      return null;
-    }
     String methodNameOnly = extractMethodName(methodName);
     if (methodNameOnly == null) {
       log.warning("Could not extract method from [" + methodName + "]");
       return null;
     }
+    ResolvedMethod resolved = resolveMethod(c, methodNameOnly, extractParameters(methodName).length);
+    return resolved == null ? null : resolved.getMethod();
+  }
+
+  @Nullable
+  private static Method searchMethod(
+      @Nullable final Class < ? > c,
+      @Nonnull final String methodNameOnly,
+      final int parameterCount) {
+    if (c == null) {
+      return null;
+    }
+    Method found = null;
     Method[] ms = c.getMethods();
     for (Method m : ms) {
       if (methodNameOnly.equalsIgnoreCase(m.getName())) {
-        return m;
+        if (m.getParameterTypes().length == parameterCount) {
+          return m;
+        }
+        if (found == null) {
+          found = m;
+        }
       }
     }
-    return findMethod(c.getSuperclass(), methodName);
+    if (found != null) {
+      return found;
+    }
+    return searchMethod(c.getSuperclass(), methodNameOnly, parameterCount);
   }
 
   @Nullable
@@ -99,11 +185,72 @@ public class MethodResolver {
     return methodName.substring(startIdx + 1, endIdx);
   }
 
+  /**
+   * extract the method name in front of the ().
+   * @param methodName complete methodname with argument list in ()
+   * @return the method name or null if the method string doesn't contain an argument list
+   */
   @Nullable
-  private static String extractMethodName(@Nonnull final String methodName) {
+  public static String extractMethodName(@Nonnull final String methodName) {
     if (!methodName.contains("(")) {
       return null;
     }
     return methodName.substring(0, methodName.indexOf('('));
   }
+
+  /**
+   * A method resolved from a method name together with the number of parameters it expects.
+   */
+  public static final class ResolvedMethod {
+    private final Method method;
+    private final int methodParameterCount;
+
+    private ResolvedMethod(final Method method) {
+      this.method = method;
+      this.methodParameterCount = method == null ? 0 : method.getParameterTypes().length;
+    }
+
+    /**
+     * @return the method
+     */
+    @Nonnull
+    public Method getMethod() {
+      return method;
+    }
+
+    /**
+     * @return the number of parameters the method expects
+     */
+    public int getMethodParameterCount() {
+      return methodParameterCount;
+    }
+  }
+
+  private static final class MethodKey {
+    @Nonnull
+    private final Class<?> c;
+    @Nonnull
+    private final String methodName;
+    private final int parameterCount;
+
+    private MethodKey(@Nonnull final Class<?> c, @Nonnull final String methodName, final int parameterCount) {
+      this.c = c;
+      this.methodName = methodName;
+      this.parameterCount = parameterCount;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (!(o instanceof MethodKey)) {
+        return false;
+      }
+      MethodKey other = (MethodKey) o;
+      return c == other.c && parameterCount == other.parameterCount && methodName.equals(other.methodName);
+    }
+
+    @Override
+    public int hashCode() {
+      return (c.hashCode() * 31 + methodName.hashCode()) * 31 + parameterCount;
+    }
+  }
 }
@@ -325,8 +325,22 @@ public class Attributes {
   @Nonnull
   public String toString() {
     StringBuilder result = new StringBuilder();
+    appendTo(result, null);
+    return result.toString();
+  }
+
+  /**
+   * Append the same text as {@link #toString()} to the given builder.
+   *
+   * @param result the builder to append to
+   * @param skippedKey an attribute to leave out or null to append all attributes
+   */
+  public void appendTo(@Nonnull final StringBuilder result, @Nullable final String skippedKey) {
     boolean first = true;
     for (String key : attributes.keySet()) {
+      if (key.equals(skippedKey)) {
+        continue;
+      }
       if (!first) {
         result.append(", ");
       }
@@ -340,7 +354,6 @@ public class Attributes {
         result.append(" {").append(tag).append("}");
       }
     }
-    return result.toString();
   }
 
   @Nullable
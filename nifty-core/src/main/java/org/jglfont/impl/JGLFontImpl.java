@@ -67,7 +67,7 @@ public class JGLFontImpl implements JGLFont {
 
       offset += Character.charCount(currentCodepoint);
 
-      JGLFontGlyphInfo characterInfo = fontData.getGlyphs().get(currentCodepoint);
+      JGLFontGlyphInfo characterInfo = fontData.getGlyph(currentCodepoint);
       if (characterInfo != null) {
         fontData.getRenderer().render(characterInfo.getPage(), xPos, yPos, currentCodepoint, sizeX, sizeY, r, g, b, a);
         xPos += (float) getCharacterWidth(currentCodepoint, nextCodePoint, sizeX);
@@ -83,11 +83,11 @@ public class JGLFontImpl implements JGLFont {
 
   @Override
   public int getCharacterWidth(final int currentCharacter, final int nextCharacter, final float size) {
-    JGLFontGlyphInfo currentCharacterInfo = fontData.getGlyphs().get(currentCharacter);
+    JGLFontGlyphInfo currentCharacterInfo = fontData.getGlyph(currentCharacter);
     if (currentCharacterInfo == null) {
       return 0;
     }
-    return (int) ((currentCharacterInfo.getXadvance() + getKerning(currentCharacterInfo, nextCharacter)) * size);
+    return (int) ((currentCharacterInfo.getXadvance() + currentCharacterInfo.getKerning(nextCharacter)) * size);
   }
 
   @Override
@@ -135,12 +135,4 @@ public class JGLFontImpl implements JGLFont {
     }
     return nextCodepoint;
   }
-
-  private int getKerning(final JGLFontGlyphInfo currentCharacterInfo, final int nextCharacter) {
-    Integer kern = currentCharacterInfo.getKerning().get(nextCharacter);
-    if (kern != null) {
-      return kern;
-    }
-    return 0;
-  }
 }
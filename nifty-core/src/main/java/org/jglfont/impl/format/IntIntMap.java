@@ -0,0 +1,214 @@
+package org.jglfont.impl.format;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map from int keys to int values using an open addressing hash table without boxing. The table is only allocated
+ * when the first value is added so that empty maps (most glyphs don't have any kerning) are cheap.
+ * <p/>
+ * This class is not synchronized.
+ */
+public class IntIntMap {
+  private static final int INITIAL_CAPACITY = 4;
+
+  private int[] keys;
+  private int[] values;
+  private boolean[] used;
+  private int count;
+
+  /**
+   * @param key the key
+   * @param defaultValue the value to return when there is no value for the key
+   * @return the value of the key or defaultValue if there is no value for the key
+   */
+  public int get(final int key, final int defaultValue) {
+    int i = indexOf(key);
+    return i == -1 ? defaultValue : values[i];
+  }
+
+  /**
+   * @param key the key
+   * @return true if there is a value for the key
+   */
+  public boolean containsKey(final int key) {
+    return indexOf(key) != -1;
+  }
+
+  /**
+   * @param key the key
+   * @param value the new value
+   */
+  public void put(final int key, final int value) {
+    if (used == null) {
+      keys = new int[INITIAL_CAPACITY];
+      values = new int[INITIAL_CAPACITY];
+      used = new boolean[INITIAL_CAPACITY];
+    } else if ((count + 1) * 4 > used.length * 3) {
+      resize(used.length * 2);
+    }
+    int mask = used.length - 1;
+    int i = hash(key) & mask;
+    while (used[i]) {
+      if (keys[i] == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    used[i] = true;
+    keys[i] = key;
+    values[i] = value;
+    count++;
+  }
+
+  /**
+   * @return the number of keys in this map
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * @return true if the map is empty
+   */
+  public boolean isEmpty() {
+    return count == 0;
+  }
+
+  /**
+   * Get a Map view of this map. The view is backed by this map and supports get() and put().
+   *
+   * @return the Map view
+   */
+  public Map<Integer, Integer> asMap() {
+    return new MapView();
+  }
+
+  private int indexOf(final int key) {
+    if (used == null) {
+      return -1;
+    }
+    int mask = used.length - 1;
+    for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void resize(final int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new int[capacity];
+    values = new int[capacity];
+    used = new boolean[capacity];
+    int mask = capacity - 1;
+    for (int j = 0; j < oldUsed.length; j++) {
+      if (oldUsed[j]) {
+        int i = hash(oldKeys[j]) & mask;
+        while (used[i]) {
+          i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int hash(final int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private class MapView extends AbstractMap<Integer, Integer> {
+    @Override
+    public Integer get(final Object key) {
+      if (key instanceof Integer) {
+        int i = indexOf((Integer) key);
+        if (i != -1) {
+          return values[i];
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public Integer put(final Integer key, final Integer value) {
+      Integer old = get(key);
+      IntIntMap.this.put(key, value);
+      return old;
+    }
+
+    @Override
+    public int size() {
+      return count;
+    }
+
+    @Override
+    public Set<Entry<Integer, Integer>> entrySet() {
+      return new AbstractSet<Entry<Integer, Integer>>() {
+        @Override
+        public Iterator<Entry<Integer, Integer>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return count;
+        }
+      };
+    }
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<Integer, Integer>> {
+    private int position = -1;
+
+    private EntryIterator() {
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return used != null && position < used.length;
+    }
+
+    @Override
+    public Map.Entry<Integer, Integer> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<Integer, Integer> result =
+          new AbstractMap.SimpleImmutableEntry<Integer, Integer>(keys[position], values[position]);
+      advance();
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private void advance() {
+      position++;
+      if (used == null) {
+        return;
+      }
+      while (position < used.length && !used[position]) {
+        position++;
+      }
+    }
+  }
+}
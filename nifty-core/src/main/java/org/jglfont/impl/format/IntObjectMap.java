@@ -0,0 +1,230 @@
+package org.jglfont.impl.format;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map from int keys to object values that does not box the keys. Keys from 0 to 255 (Latin-1) are stored in a
+ * flat array, all other keys are stored in an open addressing hash table. Null values are not supported.
+ * <p/>
+ * This class is not synchronized.
+ */
+public class IntObjectMap<V> {
+  private static final int DIRECT_SIZE = 256;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Object[] direct = new Object[DIRECT_SIZE];
+  private int directCount;
+
+  private int[] keys;
+  private Object[] values;
+  private int hashedCount;
+
+  /**
+   * @param key the key
+   * @return the value of the key or null if there is no value for the key
+   */
+  @SuppressWarnings("unchecked")
+  public V get(final int key) {
+    if (key >= 0 && key < DIRECT_SIZE) {
+      return (V) direct[key];
+    }
+    if (values == null) {
+      return null;
+    }
+    int mask = values.length - 1;
+    for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return (V) values[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param key the key
+   * @return true if there is a value for the key
+   */
+  public boolean containsKey(final int key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @param key the key
+   * @param value the new value (must not be null)
+   * @return the previous value of the key or null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(final int key, final V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("null values are not supported");
+    }
+    if (key >= 0 && key < DIRECT_SIZE) {
+      V old = (V) direct[key];
+      if (old == null) {
+        directCount++;
+      }
+      direct[key] = value;
+      return old;
+    }
+    if (values == null) {
+      keys = new int[INITIAL_CAPACITY];
+      values = new Object[INITIAL_CAPACITY];
+    } else if ((hashedCount + 1) * 4 > values.length * 3) {
+      resize(values.length * 2);
+    }
+    int mask = values.length - 1;
+    int i = hash(key) & mask;
+    while (values[i] != null) {
+      if (keys[i] == key) {
+        V old = (V) values[i];
+        values[i] = value;
+        return old;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    hashedCount++;
+    return null;
+  }
+
+  /**
+   * @return the number of keys in this map
+   */
+  public int size() {
+    return directCount + hashedCount;
+  }
+
+  /**
+   * @return true if the map is empty
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Get a Map view of this map. The view is backed by this map and supports get() and put().
+   *
+   * @return the Map view
+   */
+  public Map<Integer, V> asMap() {
+    return new MapView();
+  }
+
+  private void resize(final int capacity) {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[capacity];
+    values = new Object[capacity];
+    int mask = capacity - 1;
+    for (int j = 0; j < oldValues.length; j++) {
+      if (oldValues[j] != null) {
+        int i = hash(oldKeys[j]) & mask;
+        while (values[i] != null) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private static int hash(final int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private class MapView extends AbstractMap<Integer, V> {
+    @Override
+    public V get(final Object key) {
+      if (key instanceof Integer) {
+        return IntObjectMap.this.get((Integer) key);
+      }
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public V put(final Integer key, final V value) {
+      return IntObjectMap.this.put(key, value);
+    }
+
+    @Override
+    public int size() {
+      return IntObjectMap.this.size();
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+      return new AbstractSet<Entry<Integer, V>>() {
+        @Override
+        public Iterator<Entry<Integer, V>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return IntObjectMap.this.size();
+        }
+      };
+    }
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+    // positions below DIRECT_SIZE are in the direct array, all others are in the hash table
+    private int position = -1;
+
+    private EntryIterator() {
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return position < DIRECT_SIZE + (values == null ? 0 : values.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<Integer, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<Integer, V> result;
+      if (position < DIRECT_SIZE) {
+        result = new AbstractMap.SimpleImmutableEntry<Integer, V>(position, (V) direct[position]);
+      } else {
+        int i = position - DIRECT_SIZE;
+        result = new AbstractMap.SimpleImmutableEntry<Integer, V>(keys[i], (V) values[i]);
+      }
+      advance();
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private void advance() {
+      position++;
+      while (position < DIRECT_SIZE && direct[position] == null) {
+        position++;
+      }
+      if (position < DIRECT_SIZE || values == null) {
+        return;
+      }
+      while (position - DIRECT_SIZE < values.length && values[position - DIRECT_SIZE] == null) {
+        position++;
+      }
+    }
+  }
+}
@@ -3,9 +3,10 @@ package org.jglfont.impl.format;
 import org.jglfont.spi.JGLFontRenderer;
 import org.jglfont.spi.ResourceLoader;
 
+import java.util.AbstractMap;
 import java.util.Collections;
-import java.util.Hashtable;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 
@@ -53,8 +54,18 @@ public abstract class JGLAbstractFontData {
   /**
    * CharacterInfo for all characters in the font file.
    */
+  private final IntObjectMap<JGLFontGlyphInfo> glyphTable = new IntObjectMap<JGLFontGlyphInfo>();
+
+  /**
+   * Map view of the characters. Getting a character from this map preprocesses it.
+   */
   protected Map<Integer, JGLFontGlyphInfo> characters = new GlyphTable();
 
+  /**
+   * Read only Map view of the characters.
+   */
+  private final Map<Integer, JGLFontGlyphInfo> glyphs = Collections.unmodifiableMap(characters);
+
   protected JGLAbstractFontData(JGLFontRenderer renderer, ResourceLoader resourceLoader) {
     this.renderer = renderer;
     this.resourceLoader = resourceLoader;
@@ -162,19 +173,54 @@ public abstract class JGLAbstractFontData {
    * @return the characters
    */
   public Map<Integer, JGLFontGlyphInfo> getGlyphs() {
-    return Collections.unmodifiableMap(characters);
+    return glyphs;
+  }
+
+  /**
+   * @param codepoint the character to get
+   * @return the glyph of the character or null if the font doesn't contain the character
+   */
+  public JGLFontGlyphInfo getGlyph(final int codepoint) {
+    preProcessGlyph(codepoint);
+    return glyphTable.get(codepoint);
+  }
+
+  /**
+   * @param codepoint the character to check
+   * @return true if the character has been added already, the character is not preprocessed
+   */
+  protected boolean hasGlyph(final int codepoint) {
+    return glyphTable.containsKey(codepoint);
+  }
+
+  /**
+   * @param codepoint the characters to set
+   */
+  public void addGlyph(final int codepoint, final JGLFontGlyphInfo glyphInfo) {
+    addGlyph(Integer.valueOf(codepoint), glyphInfo);
   }
 
   /**
    * @param codepoint the characters to set
+   * @deprecated use and override {@link #addGlyph(int, JGLFontGlyphInfo)} instead
    */
+  @Deprecated
   public void addGlyph(final Integer codepoint, final JGLFontGlyphInfo glyphInfo) {
-    this.characters.put(codepoint, glyphInfo);
+    glyphTable.put(codepoint, glyphInfo);
   }
 
   /**
    * @param codepoint the character to preprocess before accessing
    */
+  public void preProcessGlyph(final int codepoint) {
+    preProcessGlyph(Integer.valueOf(codepoint));
+  }
+
+  /**
+   * @param codepoint the character to preprocess before accessing
+   * @deprecated override {@link #preProcessGlyph(int)} instead
+   */
+  @Deprecated
   public void preProcessGlyph(final Integer codepoint) {
 
   }
@@ -187,13 +233,33 @@ public abstract class JGLAbstractFontData {
   /**
    * Glyph table class
    */
-  private class GlyphTable extends Hashtable<Integer,JGLFontGlyphInfo> {
+  private class GlyphTable extends AbstractMap<Integer, JGLFontGlyphInfo> {
     @Override
-    public synchronized JGLFontGlyphInfo get(Object key) {
+    public JGLFontGlyphInfo get(final Object key) {
       if (key instanceof Integer) {
-        preProcessGlyph((Integer) key);
+        return getGlyph((Integer) key);
       }
-      return super.get(key);
+      return null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+      return key instanceof Integer && glyphTable.containsKey((Integer) key);
+    }
+
+    @Override
+    public JGLFontGlyphInfo put(final Integer key, final JGLFontGlyphInfo value) {
+      return glyphTable.put(key, value);
+    }
+
+    @Override
+    public int size() {
+      return glyphTable.size();
+    }
+
+    @Override
+    public Set<Entry<Integer, JGLFontGlyphInfo>> entrySet() {
+      return glyphTable.asMap().entrySet();
     }
   }
 }
@@ -154,8 +154,8 @@ public class JGLAwtFontData extends JGLAbstractFontData {
   }
 
   @Override
-  public void preProcessGlyph(Integer codepoint) {
-    if (!characters.containsKey(codepoint)) {
+  public void preProcessGlyph(final int codepoint) {
+    if (!hasGlyph(codepoint)) {
       int page = codepoint / 256;
       loadPage(page);
     }
@@ -1,6 +1,5 @@
 package org.jglfont.impl.format;
 
-import java.util.Hashtable;
 import java.util.Map;
 
 /**
@@ -56,7 +55,7 @@ public class JGLFontGlyphInfo {
   /**
    * kerning information.
    */
-  private Map<Integer, Integer> kerning = new Hashtable<Integer, Integer>();
+  private final IntIntMap kerning = new IntIntMap();
 
   /**
    * @return the id
@@ -188,12 +187,29 @@ public class JGLFontGlyphInfo {
    * @return the kerning
    */
   public Map<Integer, Integer> getKerning() {
-    return kerning;
+    return kerning.asMap();
+  }
+
+  /**
+   * @param nextCharacter the character following this character
+   * @return the kerning between this and the next character or 0 if there is none
+   */
+  public int getKerning(final int nextCharacter) {
+    return kerning.get(nextCharacter, 0);
+  }
+
+  /**
+   * @param kerning the kerning to set
+   */
+  public void addKerning(final int character, final int kerning) {
+    addKerning(Integer.valueOf(character), Integer.valueOf(kerning));
   }
 
   /**
    * @param kerning the kerning to set
+   * @deprecated use and override {@link #addKerning(int, int)} instead
    */
+  @Deprecated
   public void addKerning(final Integer character, final Integer kerning) {
     this.kerning.put(character, kerning);
   }
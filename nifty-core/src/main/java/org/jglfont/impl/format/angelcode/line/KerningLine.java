@@ -22,11 +22,11 @@ public class KerningLine implements AngelCodeLine {
     int second = line.getInt("second");
     int amount = line.getInt("amount");
 
-    JGLFontGlyphInfo info = font.getGlyphs().get(first);
+    JGLFontGlyphInfo info = font.getGlyph(first);
     if (info == null) {
       return false;
     }
-    info.getKerning().put(second, amount);
+    info.addKerning(second, amount);
     return true;
   }
 }
\ No newline at end of file
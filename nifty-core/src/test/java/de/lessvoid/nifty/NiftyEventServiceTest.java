@@ -0,0 +1,77 @@
+package de.lessvoid.nifty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.bushe.swing.event.EventTopicSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class NiftyEventServiceTest {
+  private NiftyEventService eventService;
+  private RecordingSubscriber subscriber;
+
+  @Before
+  public void before() {
+    eventService = new NiftyEventService();
+    subscriber = new RecordingSubscriber();
+  }
+
+  @Test
+  public void testResolvedSubscribersAreReused() {
+    eventService.subscribeStrongly("topic", subscriber);
+    List<Object> first = eventService.getSubscribers("topic");
+    assertEquals(1, first.size());
+    assertSame(first, eventService.getSubscribers("topic"));
+    assertEquals(1, eventService.getCachedTopicCount());
+  }
+
+  @Test
+  public void testSubscribeInvalidatesResolvedSubscribers() {
+    eventService.publish("topic", "a");
+    eventService.subscribeStrongly("topic", subscriber);
+    eventService.publish("topic", "b");
+    assertEquals("[topic:b]", subscriber.received.toString());
+  }
+
+  @Test
+  public void testUnsubscribeInvalidatesResolvedSubscribers() {
+    eventService.subscribeStrongly("topic", subscriber);
+    eventService.publish("topic", "a");
+    eventService.unsubscribe("topic", subscriber);
+    eventService.publish("topic", "b");
+    assertEquals("[topic:a]", subscriber.received.toString());
+  }
+
+  @Test
+  public void testPatternSubscribersAreResolvedPerTopic() {
+    RecordingSubscriber patternSubscriber = new RecordingSubscriber();
+    eventService.subscribeStrongly(Pattern.compile("button-.*"), patternSubscriber);
+    eventService.subscribeStrongly("button-1", subscriber);
+    eventService.publish("button-1", "a");
+    eventService.publish("label-1", "b");
+    eventService.publish("button-2", "c");
+    assertEquals("[button-1:a]", subscriber.received.toString());
+    assertEquals("[button-1:a, button-2:c]", patternSubscriber.received.toString());
+  }
+
+  @Test
+  public void testWeakTopicSubscriptionDisablesCache() {
+    eventService.subscribe("topic", subscriber);
+    eventService.getSubscribers("topic");
+    assertEquals(0, eventService.getCachedTopicCount());
+  }
+
+  private static class RecordingSubscriber implements EventTopicSubscriber<Object> {
+    private final List<String> received = new ArrayList<String>();
+
+    @Override
+    public void onEvent(final String topic, final Object data) {
+      received.add(topic + ":" + data);
+    }
+  }
+}
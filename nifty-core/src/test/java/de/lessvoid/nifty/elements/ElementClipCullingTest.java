@@ -0,0 +1,172 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.elements.render.ElementRenderer;
+import de.lessvoid.nifty.elements.render.TextRenderer;
+import de.lessvoid.nifty.elements.tools.TextLayoutCache;
+import de.lessvoid.nifty.layout.align.HorizontalAlign;
+import de.lessvoid.nifty.layout.manager.AbsolutePositionLayout;
+import de.lessvoid.nifty.layout.manager.VerticalLayout;
+import de.lessvoid.nifty.render.NiftyRenderEngine;
+import de.lessvoid.nifty.render.NiftyRenderEngineImpl;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.render.RenderFont;
+import de.lessvoid.nifty.tools.SizeValue;
+import org.bushe.swing.event.EventService;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+public class ElementClipCullingTest {
+  private Nifty niftyMock;
+  private NiftyRenderEngine renderEngine;
+  private CountingRenderer renderer;
+  private Element root;
+
+  @Before
+  public void before() {
+    niftyMock = createNiceMock(Nifty.class);
+    replay(niftyMock);
+    RenderDevice renderDeviceMock = createNiceMock(RenderDevice.class);
+    expect(renderDeviceMock.getWidth()).andStubReturn(1024);
+    expect(renderDeviceMock.getHeight()).andStubReturn(768);
+    replay(renderDeviceMock);
+    renderEngine = new NiftyRenderEngineImpl(renderDeviceMock);
+    renderer = new CountingRenderer();
+
+    root = new Element(niftyMock, null, null, null, null, false, null);
+    root.setLayoutManager(new VerticalLayout());
+    root.setConstraintWidth(SizeValue.px(100));
+    root.setConstraintHeight(SizeValue.px(100));
+    root.setWidth(100);
+    root.setHeight(100);
+    root.setClipChildren(true);
+  }
+
+  @Test
+  public void testRowsOutsideOfTheClipAreaAreSkipped() {
+    addRows(root, 50);
+    root.layoutElements();
+    root.render(renderEngine);
+    // rows 0 - 4 are inside and row 5 touches the border of the clipping area
+    assertEquals(6, renderer.count);
+  }
+
+  @Test
+  public void testRowsOutsideOfTheDisplayAreSkippedWithoutClipping() {
+    root.setClipChildren(false);
+    addRows(root, 50);
+    root.layoutElements();
+    root.render(renderEngine);
+    // rows 0 - 38 start above the bottom of the display (768 px)
+    assertEquals(39, renderer.count);
+  }
+
+  @Test
+  public void testMovedRenderPositionIsRespected() {
+    root.setClipChildren(false);
+    addRows(root, 50);
+    root.layoutElements();
+    renderEngine.moveTo(0, -400);
+    root.render(renderEngine);
+    // rows 0 - 18 are above the top of the display now and rows 19 - 49 are visible
+    assertEquals(31, renderer.count);
+  }
+
+  @Test
+  public void testChildOfAnElementOutsideOfTheClipAreaIsRendered() {
+    Element outside = new Element(niftyMock, null, null, root, null, false, null);
+    outside.setLayoutManager(new AbsolutePositionLayout());
+    outside.setConstraintHeight(SizeValue.px(20));
+    Element spacer = new Element(niftyMock, null, null, root, null, false, null);
+    spacer.setConstraintHeight(SizeValue.px(200));
+    root.addChild(spacer);
+    root.addChild(outside);
+
+    Element child = new Element(niftyMock, null, null, outside, null, false, null, renderer);
+    child.setConstraintX(SizeValue.px(0));
+    child.setConstraintY(SizeValue.px(-200));
+    child.setConstraintWidth(SizeValue.px(10));
+    child.setConstraintHeight(SizeValue.px(10));
+    outside.addChild(child);
+
+    root.layoutElements();
+    root.render(renderEngine);
+    assertEquals(1, renderer.count);
+
+    child.setConstraintY(SizeValue.px(0));
+    root.layoutElements();
+    root.render(renderEngine);
+    assertEquals(1, renderer.count);
+  }
+
+  @Test
+  public void testTextOverflowingIntoTheClipAreaIsRendered() {
+    RenderFont fontMock = createNiceMock(RenderFont.class);
+    expect(fontMock.getWidth(isA(String.class))).andStubReturn(400);
+    expect(fontMock.getHeight()).andStubReturn(20);
+    replay(fontMock);
+    addTextRow(new TextRenderer(createTextNiftyMock(), fontMock, "overflowing text"));
+
+    root.layoutElements();
+    root.render(renderEngine);
+    // the element is at x -300 to -200 but its text reaches up to x 100
+    assertEquals(1, renderer.count);
+  }
+
+  @Test
+  public void testTextWithInheritedFontIsNeverSkipped() {
+    TextRenderer textRenderer = new TextRenderer(createTextNiftyMock());
+    textRenderer.setText("text");
+    addTextRow(textRenderer);
+
+    root.layoutElements();
+    root.render(renderEngine);
+    assertEquals(1, renderer.count);
+  }
+
+  private void addTextRow(@Nonnull final TextRenderer textRenderer) {
+    textRenderer.setTextHAlign(HorizontalAlign.left);
+    root.setLayoutManager(new AbsolutePositionLayout());
+    Element text = new Element(niftyMock, null, null, root, null, false, null, renderer, textRenderer);
+    text.setConstraintX(SizeValue.px(-300));
+    text.setConstraintY(SizeValue.px(0));
+    text.setConstraintWidth(SizeValue.px(100));
+    text.setConstraintHeight(SizeValue.px(20));
+    root.addChild(text);
+  }
+
+  @Nonnull
+  private Nifty createTextNiftyMock() {
+    Nifty textNiftyMock = createNiceMock(Nifty.class);
+    expect(textNiftyMock.getEventService()).andStubReturn(createNiceMock(EventService.class));
+    expect(textNiftyMock.specialValuesReplace(isA(String.class))).andStubReturn("text");
+    expect(textNiftyMock.getTextLayoutCache()).andStubReturn(new TextLayoutCache(16));
+    replay(textNiftyMock);
+    return textNiftyMock;
+  }
+
+  private void addRows(@Nonnull final Element parent, final int count) {
+    for (int i = 0; i < count; i++) {
+      Element row = new Element(niftyMock, null, null, parent, null, false, null, renderer);
+      row.setConstraintHeight(SizeValue.px(20));
+      parent.addChild(row);
+    }
+  }
+
+  private static class CountingRenderer implements ElementRenderer {
+    private int count;
+
+    @Override
+    public void render(@Nonnull final Element w, @Nonnull final NiftyRenderEngine r) {
+      count++;
+    }
+  }
+}
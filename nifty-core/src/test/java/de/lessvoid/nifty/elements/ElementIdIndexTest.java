@@ -0,0 +1,152 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.NiftyMouse;
+import de.lessvoid.nifty.render.NiftyRenderEngine;
+import de.lessvoid.nifty.screen.EndOfScreenAction;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.screen.ScreenController;
+import de.lessvoid.nifty.spi.time.TimeProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ElementIdIndexTest {
+  private Nifty niftyMock;
+  private Screen screen;
+  private Element layer;
+  private Element panel;
+  private Element panelButton;
+  private Element other;
+  private Element otherButton;
+
+  @Before
+  public void before() {
+    NiftyRenderEngine renderEngineMock = createNiceMock(NiftyRenderEngine.class);
+    replay(renderEngineMock);
+    NiftyMouse niftyMouseMock = createNiceMock(NiftyMouse.class);
+    replay(niftyMouseMock);
+
+    niftyMock = createNiceMock(Nifty.class);
+    expect(niftyMock.isElementIdIndexEnabled()).andStubReturn(true);
+    expect(niftyMock.getRenderEngine()).andStubReturn(renderEngineMock);
+    expect(niftyMock.getNiftyMouse()).andStubReturn(niftyMouseMock);
+    replay(niftyMock);
+
+    screen = new Screen(niftyMock, "screen", createNiceMock(ScreenController.class),
+        createNiceMock(TimeProvider.class));
+    Element root = createElement("root", null);
+    screen.setRootElement(root);
+
+    layer = createElement("layer", root);
+    panel = createElement("panel", layer);
+    panelButton = createElement("panel#button", panel);
+    other = createElement("other", layer);
+    otherButton = createElement("other#button", other);
+
+    screen.addLayerElement(layer);
+    screen.processAddAndRemoveLayerElements();
+  }
+
+  @Test
+  public void testFindById() {
+    assertSame(layer, screen.findElementById("layer"));
+    assertSame(panel, screen.findElementById("panel"));
+    assertSame(otherButton, screen.findElementById("other#button"));
+    assertNull(screen.findElementById("root"));
+    assertNull(screen.findElementById("missing"));
+  }
+
+  @Test
+  public void testFindBySuffixReturnsFirstElement() {
+    assertSame(panelButton, screen.findElementById("#button"));
+    assertSame(panelButton, layer.findElementById("#button"));
+    assertSame(otherButton, other.findElementById("#button"));
+    assertNull(panelButton.findElementById("#other"));
+  }
+
+  @Test
+  public void testFindBySuffixUsesTreeOrder() {
+    panel.setIndex(1);
+    assertSame(otherButton, screen.findElementById("#button"));
+  }
+
+  @Test
+  public void testSetId() {
+    panel.setId("renamed");
+    assertNull(screen.findElementById("panel"));
+    assertSame(panel, screen.findElementById("renamed"));
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    Element added = createElement("added#button", layer);
+    assertSame(added, screen.findElementById("added#button"));
+
+    layer.internalRemoveElement(panel);
+    assertNull(screen.findElementById("panel"));
+    assertNull(screen.findElementById("panel#button"));
+    assertSame(otherButton, screen.findElementById("#button"));
+  }
+
+  @Test
+  public void testLayerNotYetAdded() {
+    Element root = screen.getRootElement();
+    Element newLayer = createElement("newLayer", root);
+    assertNull(screen.findElementById("newLayer"));
+
+    screen.addLayerElement(newLayer);
+    screen.processAddAndRemoveLayerElements();
+    assertSame(newLayer, screen.findElementById("newLayer"));
+  }
+
+  @Test
+  public void testEndedScreenIsRemovedFromIndex() {
+    layer.bindControls(screen);
+    new EndOfScreenAction(screen).perform();
+    assertFalse(screen.isElementIdIndexActive());
+
+    // the element tree is searched while the screen isn't running
+    assertSame(panel, screen.findElementById("panel"));
+    assertSame(panelButton, layer.findElementById("#button"));
+
+    screen.startScreen();
+    assertTrue(screen.isElementIdIndexActive());
+    assertSame(panel, screen.findElementById("panel"));
+    assertSame(panelButton, layer.findElementById("#button"));
+  }
+
+  @Test
+  public void testPopupOfOtherScreen() {
+    Screen otherScreen = new Screen(niftyMock, "otherScreen", createNiceMock(ScreenController.class),
+        createNiceMock(TimeProvider.class));
+    otherScreen.setRootElement(createElement("otherRoot", null));
+    Element popup = createElement("popup", otherScreen.getRootElement());
+    Element popupButton = createElement("popup#button", popup);
+    popup.bindControls(otherScreen);
+
+    screen.addPopup(popup, null);
+    screen.processAddAndRemoveLayerElements();
+    assertSame(popupButton, screen.findElementById("popup#button"));
+
+    screen.closePopup(popup, null);
+    screen.processAddAndRemoveLayerElements();
+    assertNull(screen.findElementById("popup#button"));
+    assertSame(popupButton, popup.findElementById("#button"));
+  }
+
+  private Element createElement(final String id, final Element parent) {
+    Element element = new Element(niftyMock, null, id, parent, screen.getFocusHandler(), false, null);
+    if (parent != null) {
+      parent.addChild(element);
+    }
+    return element;
+  }
+}
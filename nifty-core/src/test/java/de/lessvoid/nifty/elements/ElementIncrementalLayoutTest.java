@@ -0,0 +1,115 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.layout.manager.HorizontalLayout;
+import de.lessvoid.nifty.layout.manager.VerticalLayout;
+import de.lessvoid.nifty.tools.SizeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElementIncrementalLayoutTest {
+  private Element root;
+  private Element panel;
+  private Element a;
+  private Element b;
+  private Element other;
+
+  @Before
+  public void before() {
+    Nifty niftyMock = createNiceMock(Nifty.class);
+    replay(niftyMock);
+
+    root = new Element(niftyMock, null, null, null, null, false, null);
+    root.setLayoutManager(new VerticalLayout());
+    root.setConstraintWidth(SizeValue.px(400));
+    root.setConstraintHeight(SizeValue.px(300));
+    root.setWidth(400);
+    root.setHeight(300);
+
+    panel = new Element(niftyMock, null, null, null, null, false, null);
+    panel.setLayoutManager(new HorizontalLayout());
+    panel.setConstraintHeight(SizeValue.px(50));
+    a = new Element(niftyMock, null, null, panel, null, false, null);
+    a.setConstraintWidth(SizeValue.px(20));
+    b = new Element(niftyMock, null, null, panel, null, false, null);
+    b.setConstraintWidth(SizeValue.px(30));
+    panel.addChild(a);
+    panel.addChild(b);
+
+    other = new Element(niftyMock, null, null, root, null, false, null);
+    other.setConstraintWidth(SizeValue.px(100));
+    other.setConstraintHeight(SizeValue.px(100));
+
+    root.addChild(panel);
+    root.addChild(other);
+    panel.setParent(root);
+  }
+
+  @Test
+  public void testLayoutElementsClearsDirty() {
+    assertTrue(root.isLayoutDirty());
+    root.layoutElements();
+    assertFalse(root.isLayoutDirty());
+    assertFalse(root.layoutDirtyElements());
+  }
+
+  @Test
+  public void testSameConstraintDoesNotMarkDirty() {
+    root.layoutElements();
+    a.setConstraintWidth(SizeValue.px(20));
+    assertFalse(root.isLayoutDirty());
+  }
+
+  @Test
+  public void testChildChangeMarksPathDirty() {
+    root.layoutElements();
+    b.setConstraintWidth(SizeValue.px(60));
+    assertTrue(b.isLayoutDirty());
+    assertTrue(panel.isLayoutDirty());
+    assertTrue(root.isLayoutDirty());
+    assertFalse(other.isLayoutDirty());
+  }
+
+  @Test
+  public void testDirtyChildChangesParentSize() {
+    root.layoutElements();
+    assertEquals(50, panel.getWidth());
+
+    b.setConstraintWidth(SizeValue.px(60));
+    assertTrue(root.layoutDirtyElements());
+
+    assertEquals(80, panel.getWidth());
+    assertEquals(20, b.getX());
+    assertEquals(60, b.getWidth());
+    assertFalse(root.isLayoutDirty());
+  }
+
+  @Test
+  public void testDirtyElementIsPositioned() {
+    root.layoutElements();
+    assertEquals(50, other.getY());
+
+    panel.setConstraintHeight(SizeValue.px(70));
+    assertTrue(root.layoutDirtyElements());
+
+    assertEquals(70, panel.getHeight());
+    assertEquals(70, other.getY());
+  }
+
+  @Test
+  public void testRemovedChildRelayoutsParent() {
+    root.layoutElements();
+    assertEquals(20, b.getX());
+
+    panel.internalRemoveElement(a);
+    assertTrue(root.layoutDirtyElements());
+
+    assertEquals(0, b.getX());
+  }
+}
@@ -0,0 +1,206 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.controls.Controller;
+import de.lessvoid.nifty.controls.NiftyControl;
+import de.lessvoid.nifty.controls.NiftyInputControl;
+import de.lessvoid.nifty.input.mapping.DefaultInputMapping;
+import de.lessvoid.nifty.layout.manager.AbsolutePositionLayout;
+import de.lessvoid.nifty.layout.manager.VerticalLayout;
+import de.lessvoid.nifty.tools.SizeValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.resetToNice;
+import static org.easymock.EasyMock.same;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElementMoveWithoutLayoutTest {
+  private Nifty niftyMock;
+
+  @Before
+  public void before() {
+    niftyMock = createNiceMock(Nifty.class);
+    replay(niftyMock);
+  }
+
+  @Test
+  public void testMoveGivesSameResultAsLayout() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    Element[] layouted = createTree(new AbsolutePositionLayout());
+
+    assertTrue(moved[1].moveWithoutLayout(SizeValue.px(-15), SizeValue.px(-70)));
+    layouted[1].setConstraintX(SizeValue.px(-15));
+    layouted[1].setConstraintY(SizeValue.px(-70));
+    layouted[0].layoutElements();
+
+    for (int i = 0; i < moved.length; i++) {
+      assertEquals(layouted[i].getX(), moved[i].getX());
+      assertEquals(layouted[i].getY(), moved[i].getY());
+      assertEquals(layouted[i].getWidth(), moved[i].getWidth());
+      assertEquals(layouted[i].getHeight(), moved[i].getHeight());
+    }
+    assertEquals(SizeValue.px(-70), moved[1].getConstraintY());
+  }
+
+  @Test
+  public void testClipAreaOfParentIsKept() {
+    assertSameHitTest(true);
+  }
+
+  @Test
+  public void testMovedClipAreaOfChildren() {
+    assertSameHitTest(false);
+  }
+
+  private void assertSameHitTest(final boolean clipRoot) {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    Element[] layouted = createTree(new AbsolutePositionLayout());
+    moved[0].setClipChildren(clipRoot);
+    layouted[0].setClipChildren(clipRoot);
+    moved[0].layoutElements();
+    layouted[0].layoutElements();
+
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70));
+    layouted[1].setConstraintY(SizeValue.px(-70));
+    layouted[0].layoutElements();
+
+    for (int x = 0; x < 200; x += 5) {
+      for (int y = 0; y < 200; y += 5) {
+        for (int i = 0; i < moved.length; i++) {
+          assertEquals(layouted[i].isMouseInsideElement(x, y), moved[i].isMouseInsideElement(x, y));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMoveAfterMoveKeepsPosition() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70));
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-20));
+    int y = moved[3].getY();
+
+    moved[0].layoutElements();
+    assertEquals(y, moved[3].getY());
+  }
+
+  @Test
+  public void testMovePublishesConstraintsChangedEvent() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    resetToNice(niftyMock);
+    niftyMock.publishEvent(eq("content"), same(moved[1]));
+    replay(niftyMock);
+
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70));
+    verify(niftyMock);
+  }
+
+  @Test
+  public void testMoveCallsLayoutCallbackOfMovedControls() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    LayoutControl control = createNiceMock(LayoutControl.class);
+    expect(control.isBound()).andStubReturn(true);
+    control.layoutCallback();
+    replay(control);
+    moved[3].attachInputControl(new NiftyInputControl(control, new DefaultInputMapping()));
+
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70));
+    verify(control);
+  }
+
+  @Test
+  public void testMoveDoesNotCallLayoutCallbackOfParent() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    LayoutControl handleControl = createNiceMock(LayoutControl.class);
+    expect(handleControl.isBound()).andStubReturn(true);
+    handleControl.layoutCallback();
+    replay(handleControl);
+    moved[1].attachInputControl(new NiftyInputControl(handleControl, new DefaultInputMapping()));
+
+    // a slider or a scrollbar moves its handle from its own layoutCallback()
+    LayoutControl parentControl = createMock(LayoutControl.class);
+    expect(parentControl.isBound()).andStubReturn(true);
+    replay(parentControl);
+    moved[0].attachInputControl(new NiftyInputControl(parentControl, new DefaultInputMapping()));
+
+    moved[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70));
+    verify(handleControl, parentControl);
+  }
+
+  @Test
+  public void testNotPossibleWithOtherLayout() {
+    Element[] elements = createTree(new VerticalLayout());
+    assertFalse(elements[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70)));
+  }
+
+  @Test
+  public void testNotPossibleWithPostProcessing() {
+    Element[] elements = createTree(new AbsolutePositionLayout(new AbsolutePositionLayout.KeepInsidePostProcess()));
+    assertFalse(elements[1].moveWithoutLayout(SizeValue.px(0), SizeValue.px(-70)));
+  }
+
+  @Test
+  public void testPercentValues() {
+    Element[] moved = createTree(new AbsolutePositionLayout());
+    Element[] layouted = createTree(new AbsolutePositionLayout());
+
+    assertTrue(moved[1].moveWithoutLayout(SizeValue.percent(10), SizeValue.percent(-20)));
+    layouted[1].setConstraintX(SizeValue.percent(10));
+    layouted[1].setConstraintY(SizeValue.percent(-20));
+    layouted[0].layoutElements();
+
+    for (int i = 0; i < moved.length; i++) {
+      assertEquals(layouted[i].getX(), moved[i].getX());
+      assertEquals(layouted[i].getY(), moved[i].getY());
+    }
+  }
+
+  // root (clips) > content > [first, inner (clips) > innerChild]
+  private Element[] createTree(final de.lessvoid.nifty.layout.manager.LayoutManager rootLayout) {
+    Element root = new Element(niftyMock, null, null, null, null, false, null);
+    root.setLayoutManager(rootLayout);
+    root.setClipChildren(true);
+    root.setConstraintX(SizeValue.px(10));
+    root.setConstraintY(SizeValue.px(20));
+    root.setConstraintWidth(SizeValue.px(150));
+    root.setConstraintHeight(SizeValue.px(100));
+    root.setWidth(150);
+    root.setHeight(100);
+
+    Element content = new Element(niftyMock, null, "content", root, null, false, null);
+    content.setConstraintWidth(SizeValue.px(120));
+    content.setConstraintHeight(SizeValue.px(300));
+    root.addChild(content);
+    content.setLayoutManager(new VerticalLayout());
+    content.setConstraintX(SizeValue.px(0));
+    content.setConstraintY(SizeValue.px(0));
+    Element first = createChild(content, 120, 40);
+    Element inner = createChild(content, 80, 60);
+    inner.setClipChildren(true);
+    inner.setLayoutManager(new VerticalLayout());
+    Element innerChild = createChild(inner, 100, 100);
+
+    root.layoutElements();
+    return new Element[]{root, content, first, inner, innerChild};
+  }
+
+  private Element createChild(final Element parent, final int width, final int height) {
+    Element element = new Element(niftyMock, null, null, parent, null, false, null);
+    element.setConstraintWidth(SizeValue.px(width));
+    element.setConstraintHeight(SizeValue.px(height));
+    parent.addChild(element);
+    return element;
+  }
+
+  private interface LayoutControl extends Controller, NiftyControl {
+  }
+}
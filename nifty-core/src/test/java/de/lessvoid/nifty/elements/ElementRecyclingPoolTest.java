@@ -0,0 +1,260 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.controls.Controller;
+import de.lessvoid.nifty.controls.Parameters;
+import de.lessvoid.nifty.input.NiftyInputEvent;
+import de.lessvoid.nifty.loaderv2.types.ControlDefinitionType;
+import de.lessvoid.nifty.loaderv2.types.ControlType;
+import de.lessvoid.nifty.loaderv2.types.ElementType;
+import de.lessvoid.nifty.loaderv2.types.PanelType;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.screen.ScreenController;
+import de.lessvoid.nifty.spi.input.InputSystem;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.sound.SoundDevice;
+import de.lessvoid.nifty.spi.time.TimeProvider;
+import de.lessvoid.nifty.tools.SizeValue;
+import de.lessvoid.xml.xpp3.Attributes;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ElementRecyclingPoolTest {
+  private Nifty nifty;
+  private Screen screen;
+  private Element parent;
+
+  @Before
+  public void before() {
+    RenderDevice renderDeviceMock = createNiceMock(RenderDevice.class);
+    replay(renderDeviceMock);
+    SoundDevice soundDeviceMock = createNiceMock(SoundDevice.class);
+    replay(soundDeviceMock);
+    InputSystem inputSystemMock = createNiceMock(InputSystem.class);
+    replay(inputSystemMock);
+    TimeProvider timeProviderMock = createNiceMock(TimeProvider.class);
+    replay(timeProviderMock);
+
+    nifty = new Nifty(renderDeviceMock, soundDeviceMock, inputSystemMock, timeProviderMock);
+    nifty.setElementRecyclingEnabled(true);
+    screen = new Screen(nifty, "screen", createNiceMock(ScreenController.class), timeProviderMock);
+
+    Attributes rootAttributes = new Attributes();
+    rootAttributes.set("childLayout", "vertical");
+    Element root = new Element(nifty, new PanelType(rootAttributes), "root", null, screen.getFocusHandler(), false,
+        timeProviderMock);
+    screen.setRootElement(root);
+    parent = nifty.createElementFromType(screen, root, createPanel("parent"));
+
+    Attributes definitionAttributes = new Attributes();
+    definitionAttributes.set("name", "row");
+    ControlDefinitionType definition = new ControlDefinitionType(definitionAttributes);
+    Attributes panelAttributes = new Attributes();
+    panelAttributes.set("childLayout", "horizontal");
+    ElementType panel = new PanelType(panelAttributes);
+    panel.addElementType(createPanel("#icon"));
+    definition.addElementType(panel);
+    nifty.registerControlDefintion(definition);
+
+    Attributes controllerDefinitionAttributes = new Attributes();
+    controllerDefinitionAttributes.set("name", "counter");
+    controllerDefinitionAttributes.set("controller", CountingController.class.getName());
+    ControlDefinitionType controllerDefinition = new ControlDefinitionType(controllerDefinitionAttributes);
+    controllerDefinition.addElementType(createPanel("#label"));
+    nifty.registerControlDefintion(controllerDefinition);
+  }
+
+  @Test
+  public void testRemovedElementIsReused() {
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    remove(first);
+    assertEquals(1, nifty.getElementRecyclingPool().getElementCount());
+    assertEquals(0, parent.getChildrenCount());
+
+    Element second = nifty.createElementFromType(screen, parent, createRow("row-2", "100px"));
+    assertSame(first, second);
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+    assertEquals(1, nifty.getElementRecyclingPool().getReusedCount());
+    assertEquals("row-2", second.getId());
+    assertEquals("row-2#icon", second.getChildren().get(0).getId());
+    assertSame(second, parent.getChildren().get(0));
+    assertSame(parent, second.getParent());
+  }
+
+  @Test
+  public void testDifferentElementTypeIsNotReused() {
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    remove(first);
+
+    Element second = nifty.createElementFromType(screen, parent, createRow("row-2", "200px"));
+    assertNotSame(first, second);
+    assertEquals(1, nifty.getElementRecyclingPool().getElementCount());
+  }
+
+  @Test
+  public void testReusedElementIsReset() {
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    first.setConstraintWidth(SizeValue.px(50));
+    first.getChildren().get(0).setVisible(false);
+    first.disable();
+    remove(first);
+
+    Element second = nifty.createElementFromType(screen, parent, createRow("row-2", "100px"));
+    assertSame(first, second);
+    assertEquals(SizeValue.px(100), second.getConstraintWidth());
+    assertTrue(second.getChildren().get(0).isVisible());
+    assertTrue(second.isEnabled());
+  }
+
+  @Test
+  public void testElementWithChangedChildrenIsNotRecycled() {
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    nifty.createElementFromType(screen, first, createPanel("extra"));
+    remove(first);
+
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+    assertFalse(first.getChildren().size() > 0);
+  }
+
+  @Test
+  public void testNothingIsRecycledWhenDisabled() {
+    nifty.setElementRecyclingEnabled(false);
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    remove(first);
+
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+    assertNotSame(first, nifty.createElementFromType(screen, parent, createRow("row-2", "100px")));
+  }
+
+  @Test
+  public void testElementWithControllerIsNotRecycled() {
+    screen.startScreen();
+    Element first = nifty.createElementFromType(screen, parent, createCounter("counter-1"));
+    CountingController controller = first.getControl(CountingController.class);
+    remove(first);
+    assertEquals(1, controller.endScreenCount);
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+
+    Element second = nifty.createElementFromType(screen, parent, createCounter("counter-2"));
+    assertNotSame(first, second);
+    CountingController secondController = second.getControl(CountingController.class);
+    assertNotSame(controller, secondController);
+    assertEquals(1, secondController.bindCount);
+    assertEquals(1, controller.bindCount);
+  }
+
+  @Test
+  public void testElementContainingAControllerIsNotRecycled() {
+    Element first = nifty.createElementFromType(screen, parent, createPanel("panel-1"));
+    nifty.createElementFromType(screen, first, createCounter("counter-1"));
+    nifty.getElementRecyclingPool().markRecyclable(first, "panel");
+    remove(first);
+
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+  }
+
+  @Test
+  public void testUserDataOfReusedElementIsCleared() {
+    Element first = nifty.createElementFromType(screen, parent, createRow("row-1", "100px"));
+    first.setUserData("key", "value");
+    first.getChildren().get(0).setUserData("key", "value");
+    remove(first);
+
+    Element second = nifty.createElementFromType(screen, parent, createRow("row-2", "100px"));
+    assertSame(first, second);
+    assertNull(second.getUserData("key"));
+    assertNull(second.getChildren().get(0).getUserData("key"));
+  }
+
+  @Test
+  public void testElementsOfRemovedParentAreDropped() {
+    Element child = nifty.createElementFromType(screen, parent, createPanel("child"));
+    remove(nifty.createElementFromType(screen, parent, createRow("row-1", "100px")));
+    remove(nifty.createElementFromType(screen, child, createRow("row-2", "100px")));
+    assertEquals(2, nifty.getElementRecyclingPool().getElementCount());
+
+    remove(parent);
+    assertEquals(0, nifty.getElementRecyclingPool().getElementCount());
+  }
+
+  private void remove(final Element element) {
+    new ElementRemoveAction(screen, element).perform();
+  }
+
+  private ElementType createPanel(final String id) {
+    Attributes attributes = new Attributes();
+    attributes.set("id", id);
+    attributes.set("childLayout", "horizontal");
+    return new PanelType(attributes);
+  }
+
+  private ElementType createRow(final String id, final String width) {
+    Attributes attributes = new Attributes();
+    attributes.set("id", id);
+    attributes.set("name", "row");
+    attributes.set("width", width);
+    return new ControlType(attributes);
+  }
+
+  private ElementType createCounter(final String id) {
+    Attributes attributes = new Attributes();
+    attributes.set("id", id);
+    attributes.set("name", "counter");
+    return new ControlType(attributes);
+  }
+
+  public static class CountingController implements Controller {
+    private Element element;
+    private Parameters parameters;
+    private int bindCount;
+    private int initCount;
+    private int startScreenCount;
+    private int endScreenCount;
+
+    @Override
+    public void bind(
+        @Nonnull final Nifty nifty,
+        @Nonnull final Screen screen,
+        @Nonnull final Element element,
+        @Nonnull final Parameters parameter) {
+      this.element = element;
+      parameters = parameter;
+      bindCount++;
+    }
+
+    @Override
+    public void init(@Nonnull final Parameters parameter) {
+      initCount++;
+    }
+
+    @Override
+    public void onStartScreen() {
+      startScreenCount++;
+    }
+
+    @Override
+    public void onFocus(final boolean getFocus) {
+    }
+
+    @Override
+    public boolean inputEvent(@Nonnull final NiftyInputEvent inputEvent) {
+      return false;
+    }
+
+    @Override
+    public void onEndScreen() {
+      endScreenCount++;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.elements.render.PanelRenderer;
+import de.lessvoid.nifty.loaderv2.types.PanelType;
+import de.lessvoid.nifty.profiler.FrameProfiler;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.screen.ScreenController;
+import de.lessvoid.nifty.spi.input.InputSystem;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.sound.SoundDevice;
+import de.lessvoid.nifty.spi.time.TimeProvider;
+import de.lessvoid.nifty.tools.Color;
+import de.lessvoid.xml.xpp3.Attributes;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+public class ElementRetainedRenderingTest {
+  private Nifty nifty;
+  private FrameProfiler profiler;
+  private Element root;
+  private Element changed;
+  private Element unchanged;
+
+  @Before
+  public void before() {
+    RenderDevice renderDeviceMock = createNiceMock(RenderDevice.class);
+    expect(renderDeviceMock.getWidth()).andStubReturn(1024);
+    expect(renderDeviceMock.getHeight()).andStubReturn(768);
+    replay(renderDeviceMock);
+    SoundDevice soundDeviceMock = createNiceMock(SoundDevice.class);
+    replay(soundDeviceMock);
+    InputSystem inputSystemMock = createNiceMock(InputSystem.class);
+    replay(inputSystemMock);
+    TimeProvider timeProviderMock = createNiceMock(TimeProvider.class);
+    replay(timeProviderMock);
+
+    nifty = new Nifty(renderDeviceMock, soundDeviceMock, inputSystemMock, timeProviderMock);
+    nifty.setRetainedRenderingEnabled(true);
+    Screen screen = new Screen(nifty, "screen", createNiceMock(ScreenController.class), timeProviderMock);
+
+    Attributes rootAttributes = new Attributes();
+    rootAttributes.set("childLayout", "vertical");
+    root = new Element(nifty, new PanelType(rootAttributes), "root", null, screen.getFocusHandler(), false,
+        timeProviderMock);
+    screen.setRootElement(root);
+    changed = nifty.createElementFromType(screen, root, createPanel("changed"));
+    unchanged = nifty.createElementFromType(screen, root, createPanel("unchanged"));
+    nifty.createElementFromType(screen, unchanged, createPanel("unchanged-child"));
+    root.setWidth(200);
+    root.setHeight(200);
+    root.layoutElements();
+
+    profiler = new FrameProfiler(4);
+    nifty.setFrameProfiler(profiler);
+  }
+
+  @Test
+  public void testUnchangedFrameReplaysRecording() {
+    assertEquals(4, renderFrame());
+    assertEquals(1, renderFrame());
+  }
+
+  @Test
+  public void testChangeKeepsRecordingsOfOtherElements() {
+    renderFrame();
+    changed.getRenderer(PanelRenderer.class).setBackgroundColor(new Color("#0f0f"));
+
+    // the root element and the changed element are recorded again, the unchanged element is replayed
+    assertEquals(3, renderFrame());
+    assertEquals(1, renderFrame());
+  }
+
+  @Test
+  public void testShowHiddenElement() {
+    renderFrame();
+    unchanged.hide();
+    assertEquals(2, renderFrame());
+
+    unchanged.show();
+    assertEquals(4, renderFrame());
+    assertEquals(1, renderFrame());
+  }
+
+  private long renderFrame() {
+    root.render(nifty.getRenderEngine());
+    profiler.endFrame();
+    return profiler.getLastFrame().getCounter(FrameProfiler.Counter.ELEMENTS_RENDERED);
+  }
+
+  private PanelType createPanel(final String id) {
+    Attributes attributes = new Attributes();
+    attributes.set("id", id);
+    attributes.set("childLayout", "vertical");
+    attributes.set("height", "50px");
+    attributes.set("backgroundColor", "#f00f");
+    return new PanelType(attributes);
+  }
+}
@@ -0,0 +1,63 @@
+package de.lessvoid.nifty.elements;
+
+import de.lessvoid.xml.tools.MethodInvoker;
+import de.lessvoid.xml.tools.MethodResolver;
+import junit.framework.TestCase;
+
+public class MethodResolverCacheTest extends TestCase {
+  private String lastValue;
+
+  public void testResolveMethodIsCached() {
+    MethodResolver.ResolvedMethod first = MethodResolver.resolveMethod(MethodResolverCacheTest.class, "setValue", 1);
+    assertNotNull(first);
+    assertSame(first, MethodResolver.resolveMethod(MethodResolverCacheTest.class, "setValue", 1));
+    assertEquals("setValue", first.getMethod().getName());
+    assertEquals(1, first.getMethodParameterCount());
+  }
+
+  public void testDifferentParametersShareTheResolvedMethod() {
+    MethodInvoker a = new MethodInvoker("setValue(a)", this);
+    MethodInvoker b = new MethodInvoker("setValue(b)", this);
+    a.invoke();
+    assertEquals("a", lastValue);
+    b.invoke();
+    assertEquals("b", lastValue);
+    assertEquals(
+        MethodResolver.findMethod(MethodResolverCacheTest.class, "setValue(a)"),
+        MethodResolver.findMethod(MethodResolverCacheTest.class, "setValue(b)"));
+  }
+
+  public void testMissingMethodIsCachedAsNull() {
+    assertNull(MethodResolver.resolveMethod(MethodResolverCacheTest.class, "methodThatDoesNotExist", 0));
+    assertNull(MethodResolver.resolveMethod(MethodResolverCacheTest.class, "methodThatDoesNotExist", 0));
+    assertNull(MethodResolver.findMethod(MethodResolverCacheTest.class, "methodThatDoesNotExist()"));
+  }
+
+  public void testOverloadWithMatchingParameterCountIsPreferred() {
+    MethodResolver.ResolvedMethod none = MethodResolver.resolveMethod(MethodResolverCacheTest.class, "overloaded", 0);
+    MethodResolver.ResolvedMethod one = MethodResolver.resolveMethod(MethodResolverCacheTest.class, "overloaded", 1);
+    assertNotNull(none);
+    assertNotNull(one);
+    assertEquals(0, none.getMethodParameterCount());
+    assertEquals(1, one.getMethodParameterCount());
+  }
+
+  public void testRepeatedInvokeUsesEncodedParameters() {
+    MethodInvoker invoker = new MethodInvoker("setValue(x)", this);
+    invoker.invoke();
+    assertEquals("x", lastValue);
+    lastValue = null;
+    invoker.invoke("ignored");
+    assertEquals("x", lastValue);
+  }
+
+  public void setValue(final String value) {
+    lastValue = value;
+  }
+
+  public void overloaded() {
+  }
+
+  public void overloaded(final String value) {
+  }
+}
@@ -12,6 +12,7 @@ import org.bushe.swing.event.EventService;
 
 import de.lessvoid.nifty.Nifty;
 import de.lessvoid.nifty.NiftyLocaleChangedEvent;
+import de.lessvoid.nifty.elements.tools.TextLayoutCache;
 import de.lessvoid.nifty.layout.align.HorizontalAlign;
 import de.lessvoid.nifty.layout.align.VerticalAlign;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
@@ -38,6 +39,7 @@ public class TextRendererTest extends TestCase {
     expect(niftyMock.getRenderEngine()).andReturn(niftyRenderEngineMock);
     expect(niftyMock.specialValuesReplace("a\nc")).andReturn("a\nc");
     expect(niftyMock.getEventService()).andReturn(eventServiceMock);
+    expect(niftyMock.getTextLayoutCache()).andReturn(new TextLayoutCache(16));
     replay(niftyMock);
 
     expect(niftyRenderEngineMock.getFont()).andReturn(renderFont).anyTimes();
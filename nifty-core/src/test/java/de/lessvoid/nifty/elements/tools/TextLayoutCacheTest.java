@@ -0,0 +1,80 @@
+package de.lessvoid.nifty.elements.tools;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.lessvoid.nifty.elements.tools.TextLayoutCache.TextLayout;
+import de.lessvoid.nifty.spi.render.RenderFont;
+
+public class TextLayoutCacheTest {
+  private RenderFont renderFontMock;
+  private TextLayoutCache cache;
+
+  @Before
+  public void before() {
+    renderFontMock = createMock(RenderFont.class);
+    cache = new TextLayoutCache(2);
+  }
+
+  @After
+  public void after() {
+    verify(renderFontMock);
+  }
+
+  @Test
+  public void testLinesAreMeasuredOnce() {
+    expect(renderFontMock.getWidth("abc")).andReturn(30).once();
+    expect(renderFontMock.getWidth("de")).andReturn(20).once();
+    replay(renderFontMock);
+
+    TextLayout layout = cache.getLayout(renderFontMock, "abc\nde", 0);
+    assertArrayEquals(new String[]{"abc", "de"}, layout.getLines());
+    assertArrayEquals(new int[]{30, 20}, layout.getLineWidths());
+    assertEquals(30, layout.getMaxWidth());
+
+    assertSame(layout, cache.getLayout(renderFontMock, "abc\nde", 0));
+  }
+
+  @Test
+  public void testWrap() {
+    expect(renderFontMock.getWidth("abc def")).andReturn(190).times(2);
+    expect(renderFontMock.getWidth("abc")).andReturn(95).times(2);
+    expect(renderFontMock.getWidth(" def")).andReturn(95);
+    expect(renderFontMock.getWidth("def")).andReturn(95).times(2);
+    replay(renderFontMock);
+
+    TextLayout layout = cache.getLayout(renderFontMock, "abc def", 100);
+    assertArrayEquals(new String[]{"abc", "def"}, layout.getLines());
+    assertArrayEquals(new int[]{95, 95}, layout.getLineWidths());
+
+    assertSame(layout, cache.getLayout(renderFontMock, "abc def", 100));
+    assertArrayEquals(new String[]{"abc def"}, cache.getLayout(renderFontMock, "abc def", 0).getLines());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedLayoutIsRemoved() {
+    expect(renderFontMock.getWidth("a")).andReturn(10).times(2);
+    expect(renderFontMock.getWidth("b")).andReturn(10);
+    expect(renderFontMock.getWidth("c")).andReturn(10);
+    replay(renderFontMock);
+
+    TextLayout a = cache.getLayout(renderFontMock, "a", 0);
+    TextLayout b = cache.getLayout(renderFontMock, "b", 0);
+    assertSame(b, cache.getLayout(renderFontMock, "b", 0));
+    cache.getLayout(renderFontMock, "c", 0);
+
+    assertEquals(2, cache.size());
+    assertSame(b, cache.getLayout(renderFontMock, "b", 0));
+    assertNotSame(a, cache.getLayout(renderFontMock, "a", 0));
+  }
+}
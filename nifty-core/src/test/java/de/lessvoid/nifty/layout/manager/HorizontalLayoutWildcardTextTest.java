@@ -18,6 +18,7 @@ import de.lessvoid.nifty.Nifty;
 import de.lessvoid.nifty.NiftyLocaleChangedEvent;
 import de.lessvoid.nifty.elements.Element;
 import de.lessvoid.nifty.elements.render.TextRenderer;
+import de.lessvoid.nifty.elements.tools.TextLayoutCache;
 import de.lessvoid.nifty.loaderv2.types.apply.ApplyRenderText;
 import de.lessvoid.nifty.loaderv2.types.apply.Convert;
 import de.lessvoid.nifty.render.NiftyRenderEngine;
@@ -76,6 +77,7 @@ public class HorizontalLayoutWildcardTextTest {
     expect(niftyMock.specialValuesReplace(null)).andReturn(text).anyTimes();
     expect(niftyMock.getRenderEngine()).andReturn(renderMock).anyTimes();
     expect(niftyMock.getEventService()).andReturn(eventServiceMock).anyTimes();
+    expect(niftyMock.getTextLayoutCache()).andReturn(new TextLayoutCache(16)).anyTimes();
     replay(niftyMock);
 
     root = new Element(niftyMock, null, null, null, null, false, null);
@@ -0,0 +1,165 @@
+package de.lessvoid.nifty.loaderv2.types;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.screen.ScreenController;
+import de.lessvoid.nifty.spi.input.InputSystem;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.spi.sound.SoundDevice;
+import de.lessvoid.nifty.spi.time.TimeProvider;
+import de.lessvoid.xml.xpp3.Attributes;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ElementTypeTemplatesTest {
+  private Nifty nifty;
+  private Screen screen;
+  private ElementType rootElementType;
+  private ElementTypeTemplates templates;
+
+  @Before
+  public void before() {
+    RenderDevice renderDeviceMock = createNiceMock(RenderDevice.class);
+    replay(renderDeviceMock);
+    SoundDevice soundDeviceMock = createNiceMock(SoundDevice.class);
+    replay(soundDeviceMock);
+    InputSystem inputSystemMock = createNiceMock(InputSystem.class);
+    replay(inputSystemMock);
+    TimeProvider timeProviderMock = createNiceMock(TimeProvider.class);
+    replay(timeProviderMock);
+
+    nifty = new Nifty(renderDeviceMock, soundDeviceMock, inputSystemMock, timeProviderMock);
+    screen = new Screen(nifty, "screen", createNiceMock(ScreenController.class), timeProviderMock);
+    rootElementType = new PanelType();
+    templates = new ElementTypeTemplates();
+
+    Attributes styleAttributes = new Attributes();
+    styleAttributes.set("id", "label-style");
+    StyleType style = new StyleType(styleAttributes);
+    Attributes styled = new Attributes();
+    styled.set("width", "100px");
+    styled.set("color", "#f00f");
+    style.setAttributes(new AttributesType(styled));
+    nifty.registerStyle(style);
+
+    Attributes definitionAttributes = new Attributes();
+    definitionAttributes.set("name", "label");
+    definitionAttributes.set("style", "label-style");
+    ControlDefinitionType definition = new ControlDefinitionType(definitionAttributes);
+    Attributes textAttributes = new Attributes();
+    textAttributes.set("id", "#text");
+    textAttributes.set("text", "$text");
+    ElementType panel = new PanelType();
+    panel.elements.add(new TextType(textAttributes));
+    definition.elements.add(panel);
+    nifty.registerControlDefintion(definition);
+  }
+
+  @Test
+  public void testTemplateGivesSameResultAsPrepare() {
+    ElementType expected = createLabel("first", "hello");
+    expected.prepare(nifty, screen, rootElementType);
+
+    ElementType prepared = templates.prepare(createLabel("first", "hello"), nifty, screen, rootElementType);
+    assertSameStructure(expected, prepared);
+    assertTrue(prepared.isPrepared());
+  }
+
+  @Test
+  public void testTemplateIsReusedForDifferentIds() {
+    templates.prepare(createLabel("first", "hello"), nifty, screen, rootElementType);
+    ElementType second = templates.prepare(createLabel("second", "hello"), nifty, screen, rootElementType);
+
+    assertEquals(1, templates.getMisses());
+    assertEquals(1, templates.getHits());
+    assertEquals(1, templates.getTemplateCount());
+
+    ElementType expected = createLabel("second", "hello");
+    expected.prepare(nifty, screen, rootElementType);
+    assertSameStructure(expected, second);
+    assertEquals("second#text", second.elements.get(0).getAttributes().get("id"));
+  }
+
+  @Test
+  public void testDifferentParametersUseDifferentTemplates() {
+    templates.prepare(createLabel("first", "hello"), nifty, screen, rootElementType);
+    ElementType other = templates.prepare(createLabel("second", "world"), nifty, screen, rootElementType);
+
+    assertEquals(2, templates.getMisses());
+    assertEquals(0, templates.getHits());
+    assertEquals("world", other.elements.get(0).getAttributes().get("text"));
+  }
+
+  @Test
+  public void testSpecialValuesAreNotTemplated() {
+    ElementType type = createLabel("first", "hello");
+    type.getAttributes().set("width", "${CALL.getWidth()}");
+    assertSame(type, templates.prepare(type, nifty, screen, rootElementType));
+    assertEquals(0, templates.getTemplateCount());
+  }
+
+  @Test
+  public void testPreparedInstancesAreIndependent() {
+    ElementType first = templates.prepare(createLabel("first", "hello"), nifty, screen, rootElementType);
+    ElementType second = templates.prepare(createLabel("second", "hello"), nifty, screen, rootElementType);
+
+    assertNotSame(first.elements.get(0), second.elements.get(0));
+    assertEquals("first#text", first.elements.get(0).getAttributes().get("id"));
+  }
+
+  @Test
+  public void testDescriptionIsCachedAndIgnoresTheId() {
+    ElementType type = createLabel("first", "hello");
+    String description = ElementTypeTemplates.describe(type);
+    assertSame(description, ElementTypeTemplates.describe(type));
+    assertEquals("first", type.getAttributes().get("id"));
+
+    type.getAttributes().set("id", "second");
+    assertSame(description, ElementTypeTemplates.describe(type));
+    assertEquals(description, ElementTypeTemplates.describe(createLabel("third", "hello")));
+  }
+
+  @Test
+  public void testDescriptionChangesWithTheTree() {
+    ElementType type = createLabel("first", "hello");
+    String description = ElementTypeTemplates.describe(type);
+    type.addElementType(new PanelType());
+    assertNotEquals(description, ElementTypeTemplates.describe(type));
+  }
+
+  @Test
+  public void testClearScreen() {
+    templates.prepare(createLabel("first", "hello"), nifty, screen, rootElementType);
+    templates.clear(new Screen(nifty, "other", createNiceMock(ScreenController.class),
+        createNiceMock(TimeProvider.class)));
+    assertEquals(1, templates.getTemplateCount());
+
+    templates.clear(screen);
+    assertEquals(0, templates.getTemplateCount());
+  }
+
+  private void assertSameStructure(final ElementType expected, final ElementType actual) {
+    assertEquals(expected.getClass(), actual.getClass());
+    assertEquals(expected.getAttributes().getAttributes(), actual.getAttributes().getAttributes());
+    assertEquals(expected.elements.size(), actual.elements.size());
+    for (int i = 0; i < expected.elements.size(); i++) {
+      assertSameStructure(expected.elements.get(i), actual.elements.get(i));
+    }
+  }
+
+  private ElementType createLabel(final String id, final String text) {
+    Attributes attributes = new Attributes();
+    attributes.set("id", id);
+    attributes.set("name", "label");
+    attributes.set("text", text);
+    return new ControlType(attributes);
+  }
+}
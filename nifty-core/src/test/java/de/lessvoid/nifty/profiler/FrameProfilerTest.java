@@ -0,0 +1,155 @@
+package de.lessvoid.nifty.profiler;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.elements.Element;
+import de.lessvoid.nifty.elements.render.ElementRenderer;
+import de.lessvoid.nifty.layout.manager.VerticalLayout;
+import de.lessvoid.nifty.loaderv2.types.PanelType;
+import de.lessvoid.nifty.profiler.FrameProfiler.Counter;
+import de.lessvoid.nifty.profiler.FrameProfiler.Section;
+import de.lessvoid.nifty.render.NiftyRenderEngine;
+import de.lessvoid.nifty.render.NiftyRenderEngineImpl;
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.tools.SizeValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameProfilerTest {
+  private final FrameProfiler profiler = new FrameProfiler(3);
+
+  @Test
+  public void testRingBufferKeepsTheLastFrames() {
+    assertNull(profiler.getLastFrame());
+    for (int i = 0; i < 5; i++) {
+      profiler.count(Counter.QUADS, i);
+      profiler.endFrame();
+    }
+    List<FrameProfile> frames = profiler.getFrames();
+    assertEquals(3, frames.size());
+    assertEquals(2, frames.get(0).getFrameNumber());
+    assertEquals(2, frames.get(0).getCounter(Counter.QUADS));
+    assertEquals(4, frames.get(2).getFrameNumber());
+    assertSame(frames.get(2), profiler.getLastFrame());
+  }
+
+  @Test
+  public void testListenerGetsFinishedFrame() {
+    final List<FrameProfile> finished = new ArrayList<FrameProfile>();
+    profiler.addListener(new FrameProfilerListener() {
+      @Override
+      public void frameFinished(@Nonnull final FrameProfile frame) {
+        finished.add(frame);
+      }
+    });
+    profiler.beginFrame();
+    profiler.count("custom", 2);
+    profiler.count("custom", 3);
+    long start = profiler.begin();
+    profiler.end(Section.LAYOUT, start);
+    profiler.endLayer("layer", start);
+    profiler.endFrame();
+
+    assertEquals(1, finished.size());
+    FrameProfile frame = finished.get(0);
+    assertEquals(5, frame.getCounter("custom"));
+    assertEquals(0, frame.getCounter("unknown"));
+    assertTrue(frame.getSectionTime(Section.LAYOUT) >= 0);
+    assertTrue(frame.getLayerTimes().containsKey("layer"));
+    assertTrue(frame.getFrameTime() >= frame.getSectionTime(Section.LAYOUT));
+  }
+
+  @Test
+  public void testNestedControlsAreNotCountedTwice() throws InterruptedException {
+    long before = System.nanoTime();
+    profiler.beginControl();
+    profiler.beginControl();
+    Thread.sleep(5);
+    profiler.endControl("inner");
+    profiler.endControl("outer");
+    long total = System.nanoTime() - before;
+    profiler.endFrame();
+
+    Map<String, Long> controlTimes = profiler.getLastFrame().getControlTimes();
+    assertTrue(controlTimes.get("inner") >= 5000000);
+    assertTrue(controlTimes.get("inner") + controlTimes.get("outer") <= total);
+  }
+
+  @Test
+  public void testElementsAreProfiled() {
+    Element root = createRoot(createNiftyMock());
+    root.layoutElements();
+    root.render(createRenderEngine());
+    profiler.endFrame();
+
+    FrameProfile frame = profiler.getLastFrame();
+    assertEquals(1 + 3, frame.getCounter(Counter.ELEMENTS_RENDERED));
+    assertEquals(7, frame.getCounter(Counter.ELEMENTS_CULLED));
+    assertTrue(frame.getElementTypeTimes().containsKey("panel"));
+  }
+
+  @Test
+  public void testChildrenOfAClippingElementOutsideOfTheDisplayAreCulled() {
+    Element root = createRoot(createNiftyMock());
+    root.getLayoutPart().getBox().setX(2000);
+    root.layoutElements();
+    root.render(createRenderEngine());
+    profiler.endFrame();
+
+    FrameProfile frame = profiler.getLastFrame();
+    assertEquals(1, frame.getCounter(Counter.ELEMENTS_RENDERED));
+    assertEquals(10, frame.getCounter(Counter.ELEMENTS_CULLED));
+  }
+
+  @Nonnull
+  private Nifty createNiftyMock() {
+    Nifty niftyMock = createNiceMock(Nifty.class);
+    expect(niftyMock.getFrameProfiler()).andStubReturn(profiler);
+    replay(niftyMock);
+    return niftyMock;
+  }
+
+  @Nonnull
+  private NiftyRenderEngine createRenderEngine() {
+    RenderDevice renderDeviceMock = createNiceMock(RenderDevice.class);
+    expect(renderDeviceMock.getWidth()).andStubReturn(1024);
+    expect(renderDeviceMock.getHeight()).andStubReturn(768);
+    replay(renderDeviceMock);
+    return new NiftyRenderEngineImpl(renderDeviceMock);
+  }
+
+  // a clipping root element of 100 x 100 px with 10 rows of 50 px
+  @Nonnull
+  private Element createRoot(@Nonnull final Nifty niftyMock) {
+    Element root = new Element(niftyMock, new PanelType(), null, null, null, false, null);
+    root.setLayoutManager(new VerticalLayout());
+    root.setConstraintWidth(SizeValue.px(100));
+    root.setConstraintHeight(SizeValue.px(100));
+    root.setWidth(100);
+    root.setHeight(100);
+    root.setClipChildren(true);
+    for (int i = 0; i < 10; i++) {
+      Element row = new Element(niftyMock, new PanelType(), null, root, null, false, null, new NoopRenderer());
+      row.setConstraintHeight(SizeValue.px(50));
+      root.addChild(row);
+    }
+    return root;
+  }
+
+  private static class NoopRenderer implements ElementRenderer {
+    @Override
+    public void render(@Nonnull final Element w, @Nonnull final NiftyRenderEngine r) {
+    }
+  }
+}
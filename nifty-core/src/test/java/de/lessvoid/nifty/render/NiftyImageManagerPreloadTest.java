@@ -0,0 +1,96 @@
+package de.lessvoid.nifty.render;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.lessvoid.nifty.render.batch.BatchRenderConfiguration;
+import de.lessvoid.nifty.render.batch.BatchRenderDevice;
+import de.lessvoid.nifty.render.batch.BatchRenderImage;
+import de.lessvoid.nifty.render.batch.HeadlessBatchRenderBackend;
+import de.lessvoid.nifty.screen.Screen;
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+public class NiftyImageManagerPreloadTest {
+  private static final String IMAGE_1 = "de/lessvoid/nifty/render/batch/nifty.png";
+  private static final String IMAGE_2 = "org/jglfont/verdana-small-regular_00.png";
+  private BatchRenderDevice device;
+  private NiftyImageManager imageManager;
+  private Screen current;
+  private Screen next;
+
+  @Before
+  public void before() {
+    BatchRenderConfiguration config = new BatchRenderConfiguration();
+    config.atlasWidth = 1024;
+    config.atlasHeight = 1024;
+    config.preloadUploadTimeBudget = 10000;
+    device = new BatchRenderDevice(new HeadlessBatchRenderBackend(64, 64, false), config);
+    device.setResourceLoader(new NiftyResourceLoader());
+    imageManager = new NiftyImageManager(device);
+    current = createScreen("current");
+    next = createScreen("next");
+  }
+
+  @Test
+  public void testPreloadGotoScreenUnload() {
+    BatchRenderImage currentImage = (BatchRenderImage) imageManager.registerImage(IMAGE_1, true, current);
+    imageManager.uploadScreenImages(current);
+    int freeX = currentImage.getX();
+    int freeY = currentImage.getY();
+
+    BatchRenderImage nextImage = (BatchRenderImage) imageManager.registerImage(IMAGE_2, true, next);
+    imageManager.preloadScreenImages(next);
+    assertEquals(1, device.getPendingImageUploadCount());
+    assertFalse(nextImage.isUploaded());
+
+    device.beginFrame();
+    device.endFrame();
+    assertTrue(nextImage.isUploaded());
+    assertFalse(nextImage.getX() == freeX && nextImage.getY() == freeY);
+
+    // gotoScreen("next") ends the current screen and starts the preloaded one
+    imageManager.unloadScreenImages(current);
+    assertFalse(currentImage.isUploaded());
+    assertTrue(nextImage.isUploaded());
+    assertTrue(nextImage.isInAtlas());
+    assertEquals(freeX, nextImage.getX());
+    assertEquals(freeY, nextImage.getY());
+
+    imageManager.uploadScreenImages(next);
+    assertTrue(nextImage.isUploaded());
+    assertEquals(0, device.getPendingImageUploadCount());
+  }
+
+  @Test
+  public void testCancelScreenPreload() {
+    BatchRenderImage currentImage = (BatchRenderImage) imageManager.registerImage(IMAGE_1, true, current);
+    imageManager.uploadScreenImages(current);
+    BatchRenderImage nextImage = (BatchRenderImage) imageManager.registerImage(IMAGE_2, true, next);
+    imageManager.preloadScreenImages(next);
+
+    imageManager.cancelScreenPreload();
+    assertEquals(0, device.getPendingImageUploadCount());
+
+    device.beginFrame();
+    device.endFrame();
+    assertFalse(nextImage.isUploaded());
+
+    imageManager.unloadScreenImages(current);
+    assertFalse(currentImage.isUploaded());
+    assertFalse(nextImage.isUploaded());
+  }
+
+  private Screen createScreen(final String id) {
+    Screen screen = createNiceMock(Screen.class);
+    expect(screen.getScreenId()).andReturn(id).anyTimes();
+    replay(screen);
+    return screen;
+  }
+}
@@ -0,0 +1,78 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.easymock.EasyMock.*;
+
+public class NiftyRenderEngineSaveStatesTest {
+  private RenderDevice renderDeviceMock;
+  private NiftyRenderEngineImpl engine;
+
+  @Before
+  public void before() {
+    renderDeviceMock = createStrictMock(RenderDevice.class);
+    expect(renderDeviceMock.getWidth()).andStubReturn(1024);
+    expect(renderDeviceMock.getHeight()).andStubReturn(768);
+  }
+
+  @After
+  public void after() {
+    verify(renderDeviceMock);
+  }
+
+  @Test
+  public void testRestoreWithoutChangesDoesNotCallDevice() {
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    engine.saveStates();
+    engine.restoreStates();
+  }
+
+  @Test
+  public void testRestoreClip() {
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    engine.saveStates();
+    engine.enableClip(0, 0, 10, 10);
+    engine.restoreStates();
+  }
+
+  @Test
+  public void testNestedRestoreOnlyRestoresChangesOfTheScope() {
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.setBlendMode(BlendMode.MULIPLY);
+    renderDeviceMock.setBlendMode(BlendMode.BLEND);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    engine.saveStates();
+    engine.enableClip(0, 0, 10, 10);
+
+    engine.saveStates();
+    engine.restoreStates();
+
+    engine.saveStates();
+    engine.setBlendMode(BlendMode.MULIPLY);
+    engine.restoreStates();
+
+    engine.restoreStates();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testRestoreWithoutSave() {
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    engine.restoreStates();
+  }
+}
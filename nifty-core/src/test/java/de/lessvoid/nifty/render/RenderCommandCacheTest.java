@@ -0,0 +1,193 @@
+package de.lessvoid.nifty.render;
+
+import de.lessvoid.nifty.spi.render.RenderDevice;
+import de.lessvoid.nifty.tools.Color;
+import org.easymock.Capture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RenderCommandCacheTest {
+  private RenderDevice renderDeviceMock;
+  private NiftyRenderEngineImpl engine;
+  private RenderCommandCache cache;
+
+  @Before
+  public void before() {
+    renderDeviceMock = createStrictMock(RenderDevice.class);
+    expect(renderDeviceMock.getWidth()).andStubReturn(1024);
+    expect(renderDeviceMock.getHeight()).andStubReturn(768);
+    cache = new RenderCommandCache();
+  }
+
+  @After
+  public void after() {
+    verify(renderDeviceMock);
+  }
+
+  @Test
+  public void testReplayRecordedCalls() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    record();
+    assertTrue(cache.isValid());
+    assertTrue(engine.replay(cache));
+  }
+
+  @Test
+  public void testReplayWithChangedStateFails() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    record();
+    engine.moveTo(5, 5);
+    assertFalse(engine.replay(cache));
+  }
+
+  @Test
+  public void testReplayInvalidatedCacheFails() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    record();
+    cache.invalidate();
+    assertFalse(engine.replay(cache));
+  }
+
+  @Test
+  public void testReplayAfterInvalidateAllFails() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    record();
+    engine.invalidateRenderCommandCaches();
+    assertFalse(engine.replay(cache));
+  }
+
+  @Test
+  public void testReplayNestedRecording() {
+    renderDeviceMock.renderQuad(eq(1), eq(1), eq(1), eq(1), isA(Color.class));
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    renderDeviceMock.renderQuad(eq(1), eq(1), eq(1), eq(1), isA(Color.class));
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    RenderCommandCache outer = new RenderCommandCache();
+    engine.beginRecording(outer);
+    engine.renderQuad(1, 1, 1, 1);
+    record();
+    engine.endRecording();
+    assertTrue(engine.replay(outer));
+  }
+
+  @Test
+  public void testReplayOuterRecordingWithInvalidatedNestedCacheFails() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    RenderCommandCache outer = new RenderCommandCache();
+    engine.beginRecording(outer);
+    record();
+    engine.endRecording();
+    cache.invalidate();
+    assertTrue(outer.isValid());
+    assertFalse(engine.replay(outer));
+  }
+
+  @Test
+  public void testRecordOuterAgainReplaysNestedCache() {
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), isA(Color.class));
+    renderDeviceMock.enableClip(0, 0, 10, 10);
+    renderDeviceMock.disableClip();
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    record();
+    RenderCommandCache outer = new RenderCommandCache();
+    engine.beginRecording(outer);
+    assertTrue(engine.replay(cache));
+    engine.endRecording();
+    assertTrue(engine.replay(outer));
+  }
+
+  @Test
+  public void testReplayWithChangedSkippedCacheFails() {
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    RenderCommandCache outer = new RenderCommandCache();
+    engine.beginRecording(outer);
+    engine.recordSkipped(cache);
+    engine.endRecording();
+    assertTrue(engine.replay(outer));
+
+    cache.invalidate();
+    assertFalse(engine.replay(outer));
+  }
+
+  @Test
+  public void testReplayUsesRecordedColor() {
+    Capture<Color> recorded = new Capture<Color>();
+    Capture<Color> replayed = new Capture<Color>();
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), capture(recorded));
+    renderDeviceMock.renderQuad(eq(10), eq(20), eq(30), eq(40), capture(replayed));
+    replay(renderDeviceMock);
+
+    engine = new NiftyRenderEngineImpl(renderDeviceMock);
+    engine.beginRecording(cache);
+    engine.saveStates();
+    engine.setColor(new Color(0.5f, 0.25f, 0.75f, 1.0f));
+    engine.renderQuad(10, 20, 30, 40);
+    engine.restoreStates();
+    engine.endRecording();
+    assertTrue(engine.replay(cache));
+
+    assertEquals(0.5f, replayed.getValue().getRed(), 0.001f);
+    assertEquals(0.25f, replayed.getValue().getGreen(), 0.001f);
+    assertEquals(0.75f, replayed.getValue().getBlue(), 0.001f);
+  }
+
+  private void record() {
+    engine.beginRecording(cache);
+    engine.saveStates();
+    engine.renderQuad(10, 20, 30, 40);
+    engine.enableClip(0, 0, 10, 10);
+    engine.restoreStates();
+    engine.endRecording();
+  }
+}
@@ -0,0 +1,69 @@
+package de.lessvoid.nifty.render.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchRenderDeviceUploadQueueTest {
+  private static final String IMAGE_1 = "de/lessvoid/nifty/render/batch/nifty.png";
+  private static final String IMAGE_2 = "org/jglfont/verdana-small-regular_00.png";
+  private BatchRenderConfiguration config;
+  private BatchRenderDevice device;
+
+  @Before
+  public void setup() {
+    config = new BatchRenderConfiguration();
+    config.atlasWidth = 512;
+    config.atlasHeight = 512;
+    device = new BatchRenderDevice(new HeadlessBatchRenderBackend(64, 64, false), config);
+    device.setResourceLoader(new NiftyResourceLoader());
+  }
+
+  @Test
+  public void testQueuedImagesAreUploadedAtBeginFrame() {
+    config.preloadUploadTimeBudget = 10000;
+    BatchRenderImage image1 = (BatchRenderImage) device.createImage(IMAGE_1, true);
+    BatchRenderImage image2 = (BatchRenderImage) device.createImage(IMAGE_2, true);
+    device.queueImageUpload(image1);
+    device.queueImageUpload(image2);
+    assertFalse(image1.isUploaded());
+    assertEquals(2, device.getPendingImageUploadCount());
+
+    device.beginFrame();
+    device.endFrame();
+
+    assertTrue(image1.isUploaded());
+    assertTrue(image2.isUploaded());
+    assertEquals(0, device.getPendingImageUploadCount());
+  }
+
+  @Test
+  public void testUploadsAreSpreadOverFramesWithoutTimeBudget() {
+    config.preloadUploadTimeBudget = 0;
+    BatchRenderImage image1 = (BatchRenderImage) device.createImage(IMAGE_1, true);
+    BatchRenderImage image2 = (BatchRenderImage) device.createImage(IMAGE_2, true);
+    device.queueImageUpload(image1);
+    device.queueImageUpload(image2);
+
+    device.beginFrame();
+    device.endFrame();
+    assertTrue(image1.isUploaded());
+    assertFalse(image2.isUploaded());
+
+    device.beginFrame();
+    device.endFrame();
+    assertTrue(image2.isUploaded());
+  }
+
+  @Test
+  public void testResetTextureAtlasesClearsQueue() {
+    device.queueImageUpload(device.createImage(IMAGE_1, true));
+    device.resetTextureAtlases();
+    assertEquals(0, device.getPendingImageUploadCount());
+  }
+}
@@ -0,0 +1,96 @@
+package de.lessvoid.nifty.render.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import de.lessvoid.nifty.render.BlendMode;
+import de.lessvoid.nifty.render.batch.spi.BatchRenderBackend;
+import de.lessvoid.nifty.tools.Color;
+import de.lessvoid.nifty.tools.resourceloader.NiftyResourceLoader;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class HeadlessBatchRenderBackendTest {
+  private static final int RED = 0xff0000ff;
+  private static final int WHITE = 0xffffffff;
+
+  @Test
+  public void testRasterizeTexturedQuad() {
+    HeadlessBatchRenderBackend backend = new HeadlessBatchRenderBackend(4, 4, true);
+    int atlas = backend.createTextureAtlas(2, 2);
+    backend.addImageToAtlas(createImage(2, 2, RED), 0, 0, atlas);
+
+    backend.beginFrame();
+    backend.clear();
+    backend.beginBatch(BlendMode.BLEND, atlas);
+    backend.addQuad(1, 1, 2, 2, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f, atlas);
+    assertEquals(1, backend.render());
+    backend.endFrame();
+
+    assertEquals(0, backend.getPixel(0, 0));
+    assertEquals(RED, backend.getPixel(1, 1));
+    assertEquals(RED, backend.getPixel(2, 2));
+    assertEquals(0, backend.getPixel(3, 3));
+    assertEquals(4, backend.getFrameStatistics().getPixelsFilled());
+  }
+
+  @Test
+  public void testFrameStatistics() {
+    HeadlessBatchRenderBackend backend = new HeadlessBatchRenderBackend(100, 100, false);
+    int atlas1 = backend.createTextureAtlas(16, 16);
+    int atlas2 = backend.createTextureAtlas(16, 16);
+
+    backend.beginFrame();
+    backend.beginBatch(BlendMode.BLEND, atlas1);
+    addQuad(backend, 0, atlas1);
+    addQuad(backend, 200, atlas1);
+    backend.beginBatch(BlendMode.BLEND, atlas2);
+    addQuad(backend, 10, atlas2);
+    backend.beginBatch(BlendMode.MULIPLY, atlas2);
+    addQuad(backend, 20, atlas2);
+    backend.render();
+    backend.endFrame();
+
+    HeadlessBatchRenderBackend.FrameStatistics statistics = backend.getFrameStatistics();
+    assertEquals(4, statistics.getQuads());
+    assertEquals(1, statistics.getQuadsOutsideViewport());
+    assertEquals(3, statistics.getBatches());
+    assertEquals(2, statistics.getTextureSwitches());
+    assertEquals(2, statistics.getBlendModeSwitches());
+    assertNull(backend.getFrameBuffer());
+  }
+
+  @Test
+  public void testBatchRenderDeviceRendersIntoFrameBuffer() {
+    HeadlessBatchRenderBackend backend = new HeadlessBatchRenderBackend(32, 32, true);
+    BatchRenderDevice device = new BatchRenderDevice(backend);
+    device.setResourceLoader(new NiftyResourceLoader());
+
+    device.beginFrame();
+    device.clear();
+    device.renderQuad(4, 4, 8, 8, Color.WHITE);
+    device.renderQuad(100, 100, 8, 8, Color.WHITE);
+    device.endFrame();
+
+    assertEquals(1, backend.getFrameStatistics().getQuads());
+    assertEquals(1, backend.getFrameStatistics().getBatches());
+    assertEquals(1, device.getClippedQuadCount());
+    assertEquals(WHITE, backend.getPixel(8, 8));
+    assertEquals(0, backend.getPixel(20, 20));
+  }
+
+  private static void addQuad(final HeadlessBatchRenderBackend backend, final int x, final int textureId) {
+    backend.addQuad(x, 0, 10, 10, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f, textureId);
+  }
+
+  private static BatchRenderBackend.Image createImage(final int width, final int height, final int rgba) {
+    ByteBuffer data = ByteBuffer.allocate(width * height * 4);
+    for (int i = 0; i < width * height; i++) {
+      data.putInt(rgba);
+    }
+    data.rewind();
+    return new BatchRenderBackend.ByteBufferedImage(data, width, height);
+  }
+}
@@ -0,0 +1,149 @@
+package de.lessvoid.nifty.render.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.lessvoid.nifty.render.batch.TextureAtlasGenerator.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MaxRectsAtlasPackerTest {
+  private static final int ATLAS_WIDTH = 100;
+  private static final int ATLAS_HEIGHT = 100;
+  private static final int ATLAS_PADDING = 5;
+  private MaxRectsAtlasPacker packer;
+
+  @Before
+  public void setup() {
+    packer = new MaxRectsAtlasPacker(ATLAS_WIDTH, ATLAS_HEIGHT, ATLAS_PADDING);
+  }
+
+  @Test
+  public void testImagesDontOverlapAndKeepPadding() {
+    TextureAtlasPacker.Area a = packer.add(50, 50);
+    TextureAtlasPacker.Area b = packer.add(45, 50);
+    TextureAtlasPacker.Area c = packer.add(100, 45);
+    assertNotNull(a);
+    assertNotNull(b);
+    assertNotNull(c);
+    assertSeparated(a, b);
+    assertSeparated(a, c);
+    assertSeparated(b, c);
+    assertNull(packer.add(1, 1));
+  }
+
+  @Test
+  public void testImageMayTouchAtlasBorder() {
+    TextureAtlasPacker.Area area = packer.add(ATLAS_WIDTH, ATLAS_HEIGHT);
+    assertNotNull(area);
+    assertEquals(0, area.getX());
+    assertEquals(0, area.getY());
+  }
+
+  @Test
+  public void testRemovedSpaceCanBeUsedByDifferentSizedImage() {
+    TextureAtlasPacker.Area left = packer.add(45, 100);
+    TextureAtlasPacker.Area right = packer.add(50, 100);
+    assertNotNull(left);
+    assertNotNull(right);
+    assertNull(packer.add(20, 20));
+
+    packer.remove(left);
+    TextureAtlasPacker.Area wide = packer.add(45, 30);
+    TextureAtlasPacker.Area other = packer.add(45, 65);
+    assertNotNull(wide);
+    assertNotNull(other);
+    assertSeparated(wide, other);
+    assertSeparated(wide, right);
+    assertSeparated(other, right);
+  }
+
+  @Test
+  public void testRemovedSpaceOfNeighbouringImagesIsCombined() {
+    TextureAtlasPacker.Area top = packer.add(100, 45);
+    TextureAtlasPacker.Area left = packer.add(45, 45);
+    TextureAtlasPacker.Area right = packer.add(50, 45);
+    assertNotNull(top);
+    assertNotNull(left);
+    assertNotNull(right);
+
+    // the free space of both images only forms a rectangle of 45x100 together
+    packer.remove(top);
+    packer.remove(left);
+    TextureAtlasPacker.Area tall = packer.add(45, 100);
+    assertNotNull(tall);
+    assertSeparated(tall, right);
+  }
+
+  @Test
+  public void testRemovingAllImagesRestoresSingleFreeRect() {
+    TextureAtlasPacker.Area a = packer.add(30, 30);
+    TextureAtlasPacker.Area b = packer.add(30, 30);
+    assertNotNull(a);
+    assertNotNull(b);
+    packer.remove(a);
+    packer.remove(b);
+    assertEquals(1, packer.getFreeRectCount());
+    assertNotNull(packer.add(ATLAS_WIDTH, ATLAS_HEIGHT));
+  }
+
+  @Test
+  public void testRandomImagesNeverOverlap() {
+    Random random = new Random(42);
+    List<TextureAtlasPacker.Area> areas = new ArrayList<TextureAtlasPacker.Area>();
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 40; i++) {
+        TextureAtlasPacker.Area area = packer.add(1 + random.nextInt(20), 1 + random.nextInt(20));
+        if (area != null) {
+          assertTrue(area.getX() + area.getWidth() <= ATLAS_WIDTH);
+          assertTrue(area.getY() + area.getHeight() <= ATLAS_HEIGHT);
+          areas.add(area);
+        }
+      }
+      for (int i = areas.size() - 1; i >= 0; i -= 2) {
+        packer.remove(areas.remove(i));
+      }
+    }
+    for (int i = 0; i < areas.size(); i++) {
+      for (int j = i + 1; j < areas.size(); j++) {
+        assertSeparated(areas.get(i), areas.get(j));
+      }
+    }
+  }
+
+  @Test
+  public void testCompactFreesSpaceOfRemovedImages() {
+    TextureAtlasGenerator generator = new TextureAtlasGenerator(
+        ATLAS_WIDTH, ATLAS_HEIGHT, ATLAS_PADDING, 1.0f, BinaryTreeAtlasPacker.FACTORY);
+    assertNotNull(generator.addImage(10, 10, "small"));
+    assertNotNull(generator.addImage(40, 40, "big"));
+    assertNotNull(generator.removeImage("small"));
+    assertTrue(generator.isFragmented());
+
+    Map<String, Result> results = generator.compact();
+    assertNotNull(results);
+    assertEquals(1, results.size());
+    assertEquals(0, results.get("big").getX());
+    assertEquals(0, results.get("big").getY());
+    assertFalse(generator.isFragmented());
+    assertEquals(1, generator.getImageCount());
+  }
+
+  private static void assertSeparated(final TextureAtlasPacker.Area a, final TextureAtlasPacker.Area b) {
+    boolean separated =
+        a.getX() + a.getWidth() + ATLAS_PADDING <= b.getX() ||
+        b.getX() + b.getWidth() + ATLAS_PADDING <= a.getX() ||
+        a.getY() + a.getHeight() + ATLAS_PADDING <= b.getY() ||
+        b.getY() + b.getHeight() + ATLAS_PADDING <= a.getY();
+    assertTrue(separated);
+  }
+}
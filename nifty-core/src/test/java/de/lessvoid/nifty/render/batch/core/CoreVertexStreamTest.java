@@ -0,0 +1,194 @@
+package de.lessvoid.nifty.render.batch.core;
+
+import static org.easymock.EasyMock.anyInt;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import de.lessvoid.nifty.render.BlendMode;
+import de.lessvoid.nifty.render.batch.spi.BufferFactory;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.tools.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoreVertexStreamTest {
+  private static final int ARRAY_BUFFER = 1;
+  private static final int ELEMENT_ARRAY_BUFFER = 2;
+  private static final int RESTART = 0xFFFFFFFF;
+  private CoreGL gl;
+  private CoreShader shader;
+  private final List<FloatBuffer> vertices = new ArrayList<FloatBuffer>();
+  private final List<IntBuffer> indices = new ArrayList<IntBuffer>();
+
+  @Before
+  public void before() {
+    gl = createNiceMock(CoreGL.class);
+    expect(gl.GL_ARRAY_BUFFER()).andStubReturn(ARRAY_BUFFER);
+    expect(gl.GL_ELEMENT_ARRAY_BUFFER()).andStubReturn(ELEMENT_ARRAY_BUFFER);
+    gl.glBufferData(eq(ARRAY_BUFFER), anyObject(FloatBuffer.class), anyInt());
+    expectLastCall().andStubAnswer(new IAnswer<Object>() {
+      @Override
+      public Object answer() {
+        FloatBuffer source = (FloatBuffer) EasyMock.getCurrentArguments()[1];
+        FloatBuffer copy = FloatBuffer.allocate(source.remaining());
+        copy.put(source.duplicate()).flip();
+        vertices.add(copy);
+        return null;
+      }
+    });
+    gl.glBufferData(eq(ELEMENT_ARRAY_BUFFER), anyObject(IntBuffer.class), anyInt());
+    expectLastCall().andStubAnswer(new IAnswer<Object>() {
+      @Override
+      public Object answer() {
+        IntBuffer source = (IntBuffer) EasyMock.getCurrentArguments()[1];
+        IntBuffer copy = IntBuffer.allocate(source.remaining());
+        copy.put(source.duplicate()).flip();
+        indices.add(copy);
+        return null;
+      }
+    });
+    replay(gl);
+    shader = createNiceMock(CoreShader.class);
+    replay(shader);
+  }
+
+  @Test
+  public void testVerticesArePackedAndSentOnce() {
+    CoreVertexStream stream = new CoreVertexStream(gl, shader, new TestBufferFactory(), RESTART, false);
+    stream.addQuad(10.f, 20.f, 30.f, 40.f, Color.WHITE, Color.WHITE, new Color(1.f, 0.f, 0.5f, 0.f), Color.BLACK,
+        0.25f, 0.5f, 0.25f, 0.5f);
+    stream.bind();
+    stream.bind();
+
+    assertEquals(1, vertices.size());
+    FloatBuffer sent = vertices.get(0);
+    assertEquals(4 * 5, sent.remaining());
+    ByteBuffer bytes = asBytes(sent);
+    assertEquals(10.f, bytes.getFloat(0), 0.f);
+    assertEquals(60.f, bytes.getFloat(4), 0.f);
+    assertEquals(255, bytes.get(8) & 0xFF);
+    assertEquals(0, bytes.get(9) & 0xFF);
+    assertEquals(128, bytes.get(10) & 0xFF);
+    assertEquals(0, bytes.get(11) & 0xFF);
+    assertEquals(0.25f, bytes.getFloat(12), 0.f);
+    assertEquals(1.f, bytes.getFloat(16), 0.f);
+
+    IntBuffer sentIndices = indices.get(0);
+    assertEquals(5, sentIndices.remaining());
+    assertEquals(0, sentIndices.get(0));
+    assertEquals(3, sentIndices.get(3));
+    assertEquals(RESTART, sentIndices.get(4));
+  }
+
+  @Test
+  public void testPackedTextureCoordinates() {
+    CoreVertexStream stream = new CoreVertexStream(gl, shader, new TestBufferFactory(), RESTART, true);
+    assertEquals(16, stream.getVertexSize());
+    stream.addQuad(0.f, 0.f, 1.f, 1.f, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.5f, 1.f, 0.5f);
+    stream.bind();
+
+    ByteBuffer bytes = asBytes(vertices.get(0));
+    assertEquals(4 * 16, bytes.remaining());
+    assertEquals(0, bytes.getShort(12) & 0xFFFF);
+    assertEquals(65535, bytes.getShort(14) & 0xFFFF);
+    assertEquals(65535, bytes.getShort(16 + 12) & 0xFFFF);
+    assertEquals(32768, bytes.getShort(32 + 14) & 0xFFFF);
+  }
+
+  @Test
+  public void testStreamGrowsAndKeepsIndicesOfAllBatches() {
+    CoreVertexStream stream = new CoreVertexStream(gl, shader, new TestBufferFactory(), RESTART, false);
+    int quads = 3000;
+    for (int i = 0; i < quads; i++) {
+      stream.addQuad(i, 0.f, 1.f, 1.f, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f);
+    }
+    assertEquals(quads * 5, stream.getIndexCount());
+    stream.bind();
+
+    ByteBuffer bytes = asBytes(vertices.get(0));
+    assertEquals(quads * 4 * 20, bytes.remaining());
+    assertEquals(quads - 1, bytes.getFloat((quads - 1) * 4 * 20), 0.f);
+    IntBuffer sentIndices = indices.get(0);
+    assertEquals((quads - 1) * 4, sentIndices.get((quads - 1) * 5));
+
+    stream.clear();
+    assertEquals(0, stream.getIndexCount());
+  }
+
+  @Test
+  public void testTextureLayerIsAddedToEachVertex() {
+    CoreVertexStream stream = new CoreVertexStream(gl, shader, new TestBufferFactory(), RESTART, true, true);
+    assertEquals(20, stream.getVertexSize());
+    stream.addQuad(0.f, 0.f, 1.f, 1.f, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f, 3);
+    stream.addQuad(0.f, 0.f, 1.f, 1.f, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f);
+    stream.bind();
+
+    ByteBuffer bytes = asBytes(vertices.get(0));
+    assertEquals(2 * 4 * 20, bytes.remaining());
+    assertEquals(3.f, bytes.getFloat(16), 0.f);
+    assertEquals(3.f, bytes.getFloat(3 * 20 + 16), 0.f);
+    assertEquals(0.f, bytes.getFloat(4 * 20 + 16), 0.f);
+  }
+
+  @Test
+  public void testBatchIsLimitedToMaxQuads() {
+    CoreVertexStream stream = new CoreVertexStream(gl, shader, new TestBufferFactory(), RESTART, false);
+    CoreBatchInternal batch = new CoreBatchInternal(gl, stream);
+    batch.begin(BlendMode.BLEND, (CoreTexture2D) null);
+    int quads = 0;
+    while (batch.canAddQuad()) {
+      batch.addQuad(0.f, 0.f, 1.f, 1.f, Color.WHITE, Color.WHITE, Color.WHITE, Color.WHITE, 0.f, 0.f, 1.f, 1.f);
+      quads++;
+    }
+    assertEquals(CoreBatchInternal.MAX_QUADS, quads);
+
+    CoreBatchInternal next = new CoreBatchInternal(gl, stream);
+    next.begin(BlendMode.BLEND, (CoreTexture2D) null);
+    assertTrue(next.canAddQuad());
+    assertEquals(CoreBatchInternal.MAX_QUADS * 5, stream.getIndexCount());
+  }
+
+  @Nonnull
+  private static ByteBuffer asBytes(@Nonnull final FloatBuffer floats) {
+    ByteBuffer bytes = ByteBuffer.allocate(floats.remaining() * 4).order(ByteOrder.nativeOrder());
+    bytes.asFloatBuffer().put(floats.duplicate());
+    return bytes;
+  }
+
+  private static class TestBufferFactory implements BufferFactory {
+    @Nonnull
+    @Override
+    public ByteBuffer createNativeOrderedByteBuffer(final int numBytes) {
+      return ByteBuffer.allocateDirect(numBytes).order(ByteOrder.nativeOrder());
+    }
+
+    @Nonnull
+    @Override
+    public FloatBuffer createNativeOrderedFloatBuffer(final int numFloats) {
+      return createNativeOrderedByteBuffer(numFloats * 4).asFloatBuffer();
+    }
+
+    @Nonnull
+    @Override
+    public IntBuffer createNativeOrderedIntBuffer(final int numInts) {
+      return createNativeOrderedByteBuffer(numInts * 4).asIntBuffer();
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package de.lessvoid.nifty.screen;
+
+import de.lessvoid.nifty.Nifty;
+import de.lessvoid.nifty.controls.FocusHandler;
+import de.lessvoid.nifty.elements.Element;
+import de.lessvoid.nifty.input.NiftyMouseInputEvent;
+import de.lessvoid.nifty.layout.Box;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MouseOverIndexTest {
+  private Nifty niftyMock;
+  private FocusHandler focusHandler;
+  private List<Element> layers;
+  private Element panel;
+  private MouseOverIndex mouseOverIndex;
+  private MouseOverHandler mouseOverHandler;
+
+  @Before
+  public void before() {
+    niftyMock = createNiceMock(Nifty.class);
+    replay(niftyMock);
+    focusHandler = new FocusHandler();
+
+    Element layer = createElement("layer", null, false, 0, 0, 1000, 1000);
+    createElement("a", layer, true, 0, 0, 50, 50);
+    createElement("b", layer, true, 900, 900, 50, 50);
+    panel = createElement("panel", layer, true, 20, 20, 200, 200);
+    createElement("c", panel, true, 30, 30, 50, 50);
+
+    layers = new ArrayList<Element>();
+    layers.add(layer);
+    mouseOverIndex = new MouseOverIndex();
+    mouseOverHandler = new MouseOverHandler();
+  }
+
+  @Test
+  public void testMouseOverSameAsTreeWalk() {
+    assertSameMouseOver(10, 10);
+    assertSameMouseOver(40, 40);
+    assertSameMouseOver(920, 920);
+    assertSameMouseOver(500, 500);
+    assertSameMouseOver(-10, 2000);
+  }
+
+  @Test
+  public void testMouseOverElements() {
+    buildWithIndex(40, 40);
+    assertTrue(mouseOverHandler.hitsElement());
+    assertEquals("mouse over elements: [c][panel][a]", mouseOverPart());
+  }
+
+  @Test
+  public void testNothingBelowMouse() {
+    buildWithIndex(500, 500);
+    assertFalse(mouseOverHandler.hitsElement());
+  }
+
+  @Test
+  public void testChildrenOfHiddenElementAreSkipped() {
+    panel.setVisible(false);
+    assertSameMouseOver(40, 40);
+    assertEquals("mouse over elements: [a]", mouseOverPart());
+  }
+
+  @Test
+  public void testInvalidate() {
+    buildWithIndex(600, 600);
+    assertFalse(mouseOverHandler.hitsElement());
+
+    panel.getLayoutPart().getBox().setWidth(700);
+    panel.getLayoutPart().getBox().setHeight(700);
+    mouseOverIndex.invalidate();
+
+    assertSameMouseOver(600, 600);
+    assertEquals("mouse over elements: [panel]", mouseOverPart());
+  }
+
+  private void assertSameMouseOver(final int x, final int y) {
+    NiftyMouseInputEvent event = createEvent(x, y);
+    mouseOverHandler.reset();
+    for (int i = 0; i < layers.size(); i++) {
+      layers.get(i).buildMouseOverElements(event, 0, mouseOverHandler);
+    }
+    String expected = mouseOverPart();
+    boolean expectedHit = mouseOverHandler.hitsElement();
+
+    buildWithIndex(x, y);
+    assertEquals(expected, mouseOverPart());
+    assertEquals(expectedHit, mouseOverHandler.hitsElement());
+  }
+
+  private void buildWithIndex(final int x, final int y) {
+    mouseOverHandler.reset();
+    mouseOverIndex.buildMouseOverElements(layers, createEvent(x, y), mouseOverHandler);
+  }
+
+  private String mouseOverPart() {
+    String info = mouseOverHandler.getInfoString();
+    return info.substring(0, info.indexOf(" mouse elements:"));
+  }
+
+  private NiftyMouseInputEvent createEvent(final int x, final int y) {
+    NiftyMouseInputEvent event = new NiftyMouseInputEvent();
+    event.initialize(x, y, 0, false, false, false);
+    return event;
+  }
+
+  private Element createElement(
+      final String id,
+      final Element parent,
+      final boolean visibleToMouse,
+      final int x,
+      final int y,
+      final int width,
+      final int height) {
+    Element element = new Element(niftyMock, null, id, parent, focusHandler, visibleToMouse, null);
+    Box box = element.getLayoutPart().getBox();
+    box.setX(x);
+    box.setY(y);
+    box.setWidth(width);
+    box.setHeight(height);
+    if (parent != null) {
+      parent.addChild(element);
+    }
+    return element;
+  }
+}
@@ -110,6 +110,98 @@ public class SoundSystemTest extends TestCase {
     verifySoundLoader();
   }
 
+  public void testLazySoundIsLoadedOnFirstRequest() {
+    TestSoundHandle soundHandle = new TestSoundHandle();
+    prepareSoundLoader(soundHandle);
+
+    soundSystem.setLazyLoading(true);
+    assertTrue(soundSystem.addSound("mySound", "filename"));
+    SoundHandle sound = soundSystem.getSound("mySound");
+    assertNotNull(sound);
+    assertSame(sound, soundSystem.getSound("mySound"));
+    sound.play();
+    assertEquals(1, soundHandle.playCount);
+
+    verifySoundLoader();
+  }
+
+  public void testLazySoundLoadFailed() {
+    prepareSoundLoader(null);
+
+    soundSystem.setLazyLoading(true);
+    assertTrue(soundSystem.addSound("mySound", "filename"));
+    assertNull(soundSystem.getSound("mySound"));
+    assertNull(soundSystem.getSound("mySound"));
+
+    verifySoundLoader();
+  }
+
+  public void testLazySoundsArePrewarmedOnePerUpdate() {
+    soundLoader.update(16);
+    EasyMock.expectLastCall().times(2);
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "a")).andReturn(new TestSoundHandle());
+    EasyMock.expect(soundLoader.loadMusic(soundSystem, "b")).andReturn(new TestSoundHandle());
+    EasyMock.replay(soundLoader);
+
+    soundSystem.setLazyLoading(true);
+    soundSystem.setPrewarmLazySounds(true);
+    soundSystem.addSound("a", "a");
+    soundSystem.addMusic("b", "b");
+    soundSystem.update(16);
+    assertEquals(1, soundSystem.getLoadedLazySoundCount());
+    soundSystem.update(16);
+    assertNotNull(soundSystem.getSound("a"));
+    assertNotNull(soundSystem.getMusic("b"));
+
+    verifySoundLoader();
+  }
+
+  public void testLeastRecentlyUsedLazySoundIsUnloaded() {
+    TestSoundHandle a1 = new TestSoundHandle();
+    TestSoundHandle a2 = new TestSoundHandle();
+    TestSoundHandle b = new TestSoundHandle();
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "a")).andReturn(a1);
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "b")).andReturn(b);
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "a")).andReturn(a2);
+    EasyMock.replay(soundLoader);
+
+    soundSystem.setLazyLoading(true);
+    soundSystem.setMaxLoadedSounds(1);
+    soundSystem.addSound("a", "a");
+    soundSystem.addSound("b", "b");
+    SoundHandle soundA = soundSystem.getSound("a");
+    assertNotNull(soundA);
+    assertNotNull(soundSystem.getSound("b"));
+    assertEquals(1, a1.disposeCount);
+    assertEquals(1, soundSystem.getLoadedLazySoundCount());
+
+    soundA.play();
+    assertEquals(0, a1.playCount);
+    assertEquals(1, a2.playCount);
+    assertEquals(1, b.disposeCount);
+
+    verifySoundLoader();
+  }
+
+  public void testPlayingLazySoundIsNotUnloaded() {
+    TestSoundHandle a = new TestSoundHandle();
+    a.playing = true;
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "a")).andReturn(a);
+    EasyMock.expect(soundLoader.loadSound(soundSystem, "b")).andReturn(new TestSoundHandle());
+    EasyMock.replay(soundLoader);
+
+    soundSystem.setLazyLoading(true);
+    soundSystem.setMaxLoadedSounds(1);
+    soundSystem.addSound("a", "a");
+    soundSystem.addSound("b", "b");
+    soundSystem.getSound("a");
+    soundSystem.getSound("b");
+    assertEquals(0, a.disposeCount);
+    assertEquals(2, soundSystem.getLoadedLazySoundCount());
+
+    verifySoundLoader();
+  }
+
   private void prepareSoundLoader(SoundHandle soundHandle) {
     EasyMock.expect(soundLoader.loadSound(soundSystem, "filename")).andReturn(soundHandle);
     EasyMock.replay(soundLoader);
@@ -124,4 +216,37 @@ public class SoundSystemTest extends TestCase {
     EasyMock.verify(soundLoader);
   }
 
+  private static class TestSoundHandle implements SoundHandle {
+    private int playCount;
+    private int disposeCount;
+    private boolean playing;
+
+    @Override
+    public void play() {
+      playCount++;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void setVolume(float volume) {
+    }
+
+    @Override
+    public float getVolume() {
+      return 0.0f;
+    }
+
+    @Override
+    public boolean isPlaying() {
+      return playing;
+    }
+
+    @Override
+    public void dispose() {
+      disposeCount++;
+    }
+  }
 }
@@ -0,0 +1,128 @@
+package org.jglfont.format;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.jglfont.impl.format.IntIntMap;
+import org.junit.Test;
+
+
+public class IntIntMapTest {
+  private IntIntMap map = new IntIntMap();
+
+  @Test
+  public void testEmpty() {
+    assertTrue(map.isEmpty());
+    assertEquals(-1, map.get('A', -1));
+    assertFalse(map.containsKey(0));
+    assertTrue(map.asMap().isEmpty());
+    assertNull(map.asMap().get(0));
+    assertFalse(map.asMap().entrySet().iterator().hasNext());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testEmptyIterator() {
+    map.asMap().entrySet().iterator().next();
+  }
+
+  @Test
+  public void testPutAndGet() {
+    map.put('A', 1);
+    map.put(-5, 2);
+    map.put(Integer.MIN_VALUE, 3);
+    map.put(Integer.MAX_VALUE, 4);
+    map.put('A', 5);
+
+    assertEquals(4, map.size());
+    assertEquals(5, map.get('A', 0));
+    assertEquals(2, map.get(-5, 0));
+    assertEquals(3, map.get(Integer.MIN_VALUE, 0));
+    assertEquals(4, map.get(Integer.MAX_VALUE, 0));
+    assertEquals(0, map.get('B', 0));
+    assertTrue(map.containsKey(-5));
+    assertFalse(map.containsKey(5));
+  }
+
+  @Test
+  public void testCollidingKeys() {
+    // the table starts with 4 slots, so these keys all start probing at the same slot
+    List<Integer> keys = findKeysWithSameSlot(4, 3);
+    for (int i = 0; i < keys.size(); i++) {
+      map.put(keys.get(i), i);
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, map.get(keys.get(i), -1));
+    }
+    assertEquals(-1, map.get(findKeysWithSameSlot(4, 4).get(3), -1));
+  }
+
+  @Test
+  public void testRehash() {
+    for (int i = 0; i < 1000; i++) {
+      map.put(i * 31 - 500, i);
+      assertEquals(i + 1, map.size());
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, map.get(i * 31 - 500, -1));
+    }
+    assertEquals(-1, map.get(1000 * 31 - 500, -1));
+    assertFalse(map.containsKey(1));
+  }
+
+  @Test
+  public void testIterator() {
+    Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+    for (int i = 0; i < 20; i++) {
+      map.put(i * 1000, -i);
+      expected.put(i * 1000, -i);
+    }
+    Map<Integer, Integer> iterated = new HashMap<Integer, Integer>();
+    for (Map.Entry<Integer, Integer> entry : map.asMap().entrySet()) {
+      assertNull(iterated.put(entry.getKey(), entry.getValue()));
+    }
+    assertEquals(expected, iterated);
+    assertEquals(expected, map.asMap());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testIteratorRemove() {
+    map.put(1, 1);
+    Iterator<Map.Entry<Integer, Integer>> iterator = map.asMap().entrySet().iterator();
+    iterator.next();
+    iterator.remove();
+  }
+
+  @Test
+  public void testMapView() {
+    map.put(1, 10);
+    assertEquals(Integer.valueOf(10), map.asMap().put(1, 11));
+    assertNull(map.asMap().put(2, 20));
+    assertEquals(11, map.get(1, 0));
+    assertEquals(20, map.get(2, 0));
+    assertNull(map.asMap().get("1"));
+    assertFalse(map.asMap().containsKey(3));
+  }
+
+  // uses the same hash function as the map
+  static List<Integer> findKeysWithSameSlot(final int capacity, final int count) {
+    List<Integer> keys = new ArrayList<Integer>();
+    int slot = -1;
+    for (int key = 256; keys.size() < count; key++) {
+      int h = key * 0x9E3779B9;
+      int keySlot = (h ^ (h >>> 16)) & (capacity - 1);
+      if (slot == -1) {
+        slot = keySlot;
+      }
+      if (keySlot == slot) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,123 @@
+package org.jglfont.format;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.jglfont.impl.format.IntObjectMap;
+import org.junit.Test;
+
+
+public class IntObjectMapTest {
+  private IntObjectMap<String> map = new IntObjectMap<String>();
+
+  @Test
+  public void testEmpty() {
+    assertTrue(map.isEmpty());
+    assertNull(map.get('A'));
+    assertNull(map.get(0x4E00));
+    assertNull(map.get(-1));
+    assertTrue(map.asMap().entrySet().isEmpty());
+  }
+
+  @Test
+  public void testPutAndGet() {
+    assertNull(map.put('A', "A"));
+    assertNull(map.put(0x4E00, "cjk"));
+    assertNull(map.put(-5, "negative"));
+    assertEquals("A", map.put('A', "a"));
+
+    assertEquals(3, map.size());
+    assertEquals("a", map.get('A'));
+    assertEquals("cjk", map.get(0x4E00));
+    assertEquals("negative", map.get(-5));
+    assertTrue(map.containsKey(0x4E00));
+    assertFalse(map.containsKey(0x4E01));
+  }
+
+  @Test
+  public void testGrow() {
+    for (int i = 0; i < 2000; i++) {
+      map.put(i * 7, String.valueOf(i));
+    }
+    assertEquals(2000, map.size());
+    for (int i = 0; i < 2000; i++) {
+      assertEquals(String.valueOf(i), map.get(i * 7));
+    }
+    assertNull(map.get(2000 * 7));
+  }
+
+  @Test
+  public void testMapView() {
+    map.put('A', "A");
+    map.put(0x4E00, "cjk");
+    map.asMap().put(0x1F600, "emoji");
+
+    Map<Integer, String> expected = new HashMap<Integer, String>();
+    expected.put((int) 'A', "A");
+    expected.put(0x4E00, "cjk");
+    expected.put(0x1F600, "emoji");
+    assertEquals(expected, map.asMap());
+    assertEquals("emoji", map.asMap().get(0x1F600));
+    assertNull(map.asMap().get("A"));
+  }
+
+  @Test
+  public void testCollidingKeys() {
+    // the hash table starts with 16 slots, so these keys all start probing at the same slot
+    List<Integer> keys = IntIntMapTest.findKeysWithSameSlot(16, 6);
+    for (int i = 0; i < 5; i++) {
+      map.put(keys.get(i), String.valueOf(i));
+    }
+    for (int i = 0; i < 5; i++) {
+      assertEquals(String.valueOf(i), map.get(keys.get(i)));
+    }
+    assertNull(map.get(keys.get(5)));
+    assertFalse(map.containsKey(keys.get(5)));
+  }
+
+  @Test
+  public void testMissingKeysAfterRehash() {
+    for (int i = 0; i < 100; i++) {
+      map.put(1000 + i, String.valueOf(i));
+    }
+    assertNull(map.get(999));
+    assertNull(map.get(1100));
+    assertNull(map.get(-1000));
+    assertNull(map.get(255));
+  }
+
+  @Test
+  public void testIterator() {
+    Map<Integer, String> expected = new HashMap<Integer, String>();
+    for (int i = -20; i < 600; i += 7) {
+      map.put(i, String.valueOf(i));
+      expected.put(i, String.valueOf(i));
+    }
+    Map<Integer, String> iterated = new HashMap<Integer, String>();
+    Iterator<Map.Entry<Integer, String>> iterator = map.asMap().entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Integer, String> entry = iterator.next();
+      assertNull(iterated.put(entry.getKey(), entry.getValue()));
+    }
+    assertEquals(expected, iterated);
+    assertEquals(expected.size(), map.asMap().entrySet().size());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testIteratorEnd() {
+    map.put(300, "a");
+    Iterator<Map.Entry<Integer, String>> iterator = map.asMap().entrySet().iterator();
+    iterator.next();
+    iterator.next();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullValue() {
+    map.put('A', null);
+  }
+}
@@ -30,6 +30,15 @@ public class JGLFontGlyphInfoTest {
     assertEquals(2L, (long) charInfo.getKerning().get((int) 'A'));
   }
 
+  @Test
+  public void testKerningLookup() throws Exception {
+    charInfo.addKerning((int) 'A', 2);
+    charInfo.addKerning(0x1F600, -3);
+    assertEquals(2, charInfo.getKerning((int) 'A'));
+    assertEquals(-3, charInfo.getKerning(0x1F600));
+    assertEquals(0, charInfo.getKerning((int) 'B'));
+  }
+
   @Test
   public void testModify() throws Exception {
     charInfo.setId(12);
@@ -49,6 +49,7 @@ public class JOGLNiftyRunner implements GLEventListener {
 
   @Nullable
   private Nifty nifty;
+  private RenderDevice renderDevice;
   private Callback callback;
 
   public static void run(@Nonnull final String[] args, final Callback callback) throws Exception {
@@ -120,7 +121,6 @@ public class JOGLNiftyRunner implements GLEventListener {
 
   @Override
   public void init(GLAutoDrawable drawable) {
-    RenderDevice renderDevice;
     if (Mode.Batch.equals(mode)) {
       renderDevice = new BatchRenderDevice(JoglBatchRenderBackendFactory.create(window));
     } else if (Mode.Core.equals(mode)) {
@@ -147,6 +147,9 @@ public class JOGLNiftyRunner implements GLEventListener {
 
   @Override
   public void dispose(GLAutoDrawable drawable) {
+    if (renderDevice instanceof BatchRenderDevice) {
+      ((BatchRenderDevice) renderDevice).dispose();
+    }
     System.exit(0);
   }
 
@@ -47,6 +47,7 @@ public class NiftyExampleLoaderLWJGL {
   private static final int WIDTH = 1024;
   private static final int HEIGHT = 768;
   private static LwjglInputSystem inputSystem;
+  private static BatchRenderDevice renderDevice;
   private static Nifty nifty;
 
   public interface RenderLoopCallback {
@@ -286,8 +287,9 @@ public class NiftyExampleLoaderLWJGL {
   private static boolean initNifty (final LwjglInputSystem inputSystem) {
     try {
       log.info ("\n\nRunning in OpenGL " + (USE_CORE_PROFILE ? "Core Profile Mode (3.2+)" : "Compatibility Mode (1.2)") + ".\n\n");
+      renderDevice = new BatchRenderDevice(USE_CORE_PROFILE ? LwjglBatchRenderBackendCoreProfileFactory.create() : LwjglBatchRenderBackendFactory.create());
       nifty = new Nifty(
-              new BatchRenderDevice(USE_CORE_PROFILE ? LwjglBatchRenderBackendCoreProfileFactory.create() : LwjglBatchRenderBackendFactory.create()),
+              renderDevice,
               new OpenALSoundDevice(),
               inputSystem,
               new AccurateTimeProvider());
@@ -326,6 +328,9 @@ public class NiftyExampleLoaderLWJGL {
 
   private static void shutDown() {
     inputSystem.shutdown();
+    if (renderDevice != null) {
+      renderDevice.dispose();
+    }
     Display.destroy();
     System.exit(0);
   }
@@ -10,14 +10,14 @@ import com.jogamp.opengl.GL3;
 import com.jogamp.opengl.GL3ES3;
 import com.jogamp.opengl.GLContext;
 
-import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGLTextureArray;
 
 /**
  * Note: Requires OpenGL 3.2 or higher.
  *
  * @author Aaron Mahan &lt;aaron@forerunnergames.com&gt;
  */
-public class JoglCoreGL extends JoglGL implements CoreGL {
+public class JoglCoreGL extends JoglGL implements CoreGLTextureArray {
 
   @Override
   public int GL_ACTIVE_TEXTURE() {
@@ -159,6 +159,16 @@ public class JoglCoreGL extends JoglGL implements CoreGL {
     return GL.GL_TEXTURE0;
   }
 
+  @Override
+  public int GL_TEXTURE_2D_ARRAY() {
+    return GL3.GL_TEXTURE_2D_ARRAY;
+  }
+
+  @Override
+  public int GL_TEXTURE_BINDING_2D_ARRAY() {
+    return GL3.GL_TEXTURE_BINDING_2D_ARRAY;
+  }
+
   @Override
   public int GL_TEXTURE_CUBE_MAP_NEGATIVE_X() {
     return GL.GL_TEXTURE_CUBE_MAP_NEGATIVE_X;
@@ -401,6 +411,16 @@ public class JoglCoreGL extends JoglGL implements CoreGL {
     GLContext.getCurrentGL().getGL3().glShaderSource(shader, sources.length, sources, sourceLengths, 0);
   }
 
+  @Override
+  public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, ByteBuffer pixels) {
+    GLContext.getCurrentGL().getGL3().glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, pixels);
+  }
+
+  @Override
+  public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels) {
+    GLContext.getCurrentGL().getGL3().glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+  }
+
   @Override
   public void glUniform1(int location, FloatBuffer values) {
     GLContext.getCurrentGL().getGL3().glUniform1fv(location, values.remaining(), values);
@@ -0,0 +1,14 @@
+#version 150 core
+
+uniform sampler2DArray uTex;
+
+layout(origin_upper_left) in vec4 gl_FragCoord;
+
+in vec4 vColor;
+in vec3 vTexture;
+
+out vec4 fColor;
+
+void main() {
+  fColor = vColor * texture(uTex, vTexture);
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+#version 150 core
+
+in vec2 aVertex;
+in vec4 aColor;
+in vec2 aTexture;
+in float aLayer;
+
+out vec4 vColor;
+out vec3 vTexture;
+
+uniform mat4 uModelViewProjectionMatrix;
+
+void main() {
+  gl_Position = uModelViewProjectionMatrix * vec4(aVertex.x, aVertex.y, 0.0, 1.0);
+  vColor = aColor;
+  vTexture = vec3(aTexture, aLayer);
+}
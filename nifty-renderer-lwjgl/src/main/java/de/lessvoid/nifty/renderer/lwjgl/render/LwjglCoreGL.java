@@ -14,14 +14,14 @@ import org.lwjgl.opengl.GL31;
 import org.lwjgl.opengl.GL32;
 import org.lwjgl.opengl.GL33;
 
-import de.lessvoid.nifty.render.batch.spi.core.CoreGL;
+import de.lessvoid.nifty.render.batch.spi.core.CoreGLTextureArray;
 
 /**
  * Note: Requires OpenGL 3.2 or higher.
  *
  * @author Aaron Mahan &lt;aaron@forerunnergames.com&gt;
  */
-public class LwjglCoreGL extends LwjglGL implements CoreGL {
+public class LwjglCoreGL extends LwjglGL implements CoreGLTextureArray {
 
   @Override
   public int GL_ACTIVE_TEXTURE() {
@@ -163,6 +163,16 @@ public class LwjglCoreGL extends LwjglGL implements CoreGL {
     return GL13.GL_TEXTURE0;
   }
 
+  @Override
+  public int GL_TEXTURE_2D_ARRAY() {
+    return GL30.GL_TEXTURE_2D_ARRAY;
+  }
+
+  @Override
+  public int GL_TEXTURE_BINDING_2D_ARRAY() {
+    return GL30.GL_TEXTURE_BINDING_2D_ARRAY;
+  }
+
   @Override
   public int GL_TEXTURE_CUBE_MAP_NEGATIVE_X() {
     return GL13.GL_TEXTURE_CUBE_MAP_NEGATIVE_X;
@@ -395,6 +405,16 @@ public class LwjglCoreGL extends LwjglGL implements CoreGL {
     GL20.glShaderSource(shader, string);
   }
 
+  @Override
+  public void glTexImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format, int type, ByteBuffer pixels) {
+    GL12.glTexImage3D(target, level, internalformat, width, height, depth, border, format, type, pixels);
+  }
+
+  @Override
+  public void glTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels) {
+    GL12.glTexSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+  }
+
   @Override
   public void glUniform1(int location, FloatBuffer values) {
     GL20.glUniform1(location, values);